@@ -6,7 +6,8 @@ CREATE TABLE IF NOT EXISTS `Lid` (
   `start_lidmaatschap` DATE NOT NULL,
   `einde_lidmaatschap` DATE NULL,
   `opmerking` TEXT NULL,
-  PRIMARY KEY (`rijksregisternummer`));
+  PRIMARY KEY (`rijksregisternummer`),
+  INDEX `idx_lid_naam` (`naam` ASC, `voornaam` ASC, `rijksregisternummer` ASC));
 
 
 CREATE TABLE IF NOT EXISTS `Fiets` (
@@ -0,0 +1,149 @@
+package be.vives.ti.benchmark;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * Zet de embedded databank op waartegen de benchmarks lopen: de tabellen en
+ * testdata uit VIVESBike.sql, aangevuld met gegenereerde leden, fietsen en
+ * ritten tot de gevraagde schaal.
+ *
+ * Elke JMH-fork is een nieuwe JVM en krijgt dus een eigen in-memory databank.
+ */
+public class BenchmarkDatabase {
+
+    private static final int BATCH_GROOTTE = 1000;
+    //gegenereerde rijksregisternummers beginnen hier, ver weg van de testdata uit VIVESBike.sql
+    private static final int RIJKSNR_START = 500000000;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Maakt de tabellen aan en vult ze. Ongeveer 1 op 10 fietsen krijgt een openstaande rit,
+     * de overige ritten zijn afgesloten. 1 op 20 fietsen staat in herstel, 1 op 20 uit omloop.
+     *
+     * @param aantalLeden  aantal gegenereerde leden
+     * @param aantalFietsen aantal gegenereerde fietsen
+     * @param aantalRitten aantal gegenereerde ritten (openstaande en afgesloten samen)
+     */
+    public static void opzetten(int aantalLeden, int aantalFietsen, int aantalRitten) throws Exception {
+        System.setProperty("vivesbike.dbprofiel", "embedded");
+
+        //de eerste connectie voert VIVESBike.sql uit (initScript van het embedded profiel)
+        try (Connection conn = ConnectionManager.getConnection()) {
+            conn.setAutoCommit(false);
+            int eersteFiets = volgendId(conn, "fiets", "registratienummer");
+            voegLedenToe(conn, aantalLeden);
+            voegFietsenToe(conn, aantalFietsen);
+            voegRittenToe(conn, aantalLeden, eersteFiets, aantalFietsen, aantalRitten);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Sluit de connecties van de pool, zodat de volgende fork met een lege pool begint.
+     */
+    public static void afsluiten() {
+        ConnectionManager.sluitPool();
+    }
+
+    /**
+     * @param volgnummer volgnummer van een gegenereerd lid
+     * @return geldig rijksregisternummer (9 cijfers + controlegetal) van dat lid
+     */
+    public static String rijksregisternummer(int volgnummer) {
+        int deel1 = RIJKSNR_START + volgnummer;
+        return String.format("%09d%02d", deel1, 97 - (deel1 % 97));
+    }
+
+    private static int volgendId(Connection conn, String tabel, String kolom) throws Exception {
+        try (Statement stmt = conn.createStatement();
+             ResultSet r = stmt.executeQuery("select coalesce(max(" + kolom + "), 0) + 1 from " + tabel)) {
+            r.next();
+            return r.getInt(1);
+        }
+    }
+
+    private static void voegLedenToe(Connection conn, int aantal) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into lid(rijksregisternummer, voornaam, naam, emailadres, start_lidmaatschap, opmerking)"
+                        + " values(?,?,?,?,?,?)")) {
+            for (int i = 0; i < aantal; i++) {
+                stmt.setString(1, rijksregisternummer(i));
+                stmt.setString(2, "Voornaam" + i);
+                stmt.setString(3, "Naam" + (i % 997));
+                stmt.setString(4, "lid" + i + "@vives.be");
+                stmt.setDate(5, Date.valueOf("2020-01-01"));
+                stmt.setString(6, i % 3 == 0 ? null : "Opmerking " + i);
+                voegToeAanBatch(conn, stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void voegFietsenToe(Connection conn, int aantal) throws Exception {
+        Standplaats[] standplaatsen = Standplaats.values();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into fiets(status, standplaats, opmerkingen) values(?,?,?)")) {
+            for (int i = 0; i < aantal; i++) {
+                Status status = i % 20 == 1 ? Status.herstel : i % 20 == 2 ? Status.uit_omloop : Status.actief;
+                stmt.setString(1, status.toString());
+                stmt.setString(2, standplaatsen[i % standplaatsen.length].toString());
+                stmt.setString(3, i % 4 == 0 ? null : "Fiets " + i);
+                voegToeAanBatch(conn, stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void voegRittenToe(Connection conn, int aantalLeden, int eersteFiets, int aantalFietsen,
+                                      int aantalRitten) throws Exception {
+        //openstaande ritten: elke 10e fiets, telkens met een ander lid
+        int open = Math.min(Math.min(aantalFietsen / 10, aantalLeden / 2), aantalRitten);
+        LocalDateTime basis = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "insert into rit(starttijd, eindtijd, prijs, lid_rijksregisternummer, fiets_registratienummer)"
+                        + " values(?,?,?,?,?)")) {
+            for (int i = 0; i < aantalRitten; i++) {
+                LocalDateTime start = basis.plusMinutes(i * 7L);
+                stmt.setTimestamp(1, Timestamp.valueOf(start));
+                if (i < open) {
+                    stmt.setNull(2, Types.TIMESTAMP);
+                    stmt.setNull(3, Types.DECIMAL);
+                    stmt.setString(4, rijksregisternummer(i));
+                    stmt.setInt(5, eersteFiets + i * 10);
+                } else {
+                    stmt.setTimestamp(2, Timestamp.valueOf(start.plusHours(1 + i % 50)));
+                    stmt.setBigDecimal(3, BigDecimal.valueOf(1 + (i % 50) / 24));
+                    //afgesloten ritten enkel bij leden zonder openstaande rit
+                    stmt.setString(4, rijksregisternummer(open + i % Math.max(1, aantalLeden - open)));
+                    stmt.setInt(5, eersteFiets + i % aantalFietsen);
+                }
+                voegToeAanBatch(conn, stmt, i);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private static void voegToeAanBatch(Connection conn, PreparedStatement stmt, int i) throws Exception {
+        stmt.addBatch();
+        if ((i + 1) % BATCH_GROOTTE == 0) {
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+}
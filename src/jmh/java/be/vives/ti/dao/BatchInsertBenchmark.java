@@ -0,0 +1,98 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.databag.BatchResultaat;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt het toevoegen van veel leden en fietsen rij per rij (toevoegenLid,
+ * toevoegenFiets) met de batchvarianten (toevoegenLeden, toevoegenFietsen).
+ * Elke meting voegt aantal nieuwe rijen toe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class BatchInsertBenchmark {
+
+    @Param("100000")
+    private int aantal;
+
+    private LidDAO lidDAO;
+    private FietsDAO fietsDAO;
+
+    //volgnummer van het volgende gegenereerde lid, zodat elke meting nieuwe rijksregisternummers heeft
+    private int volgendLid;
+
+    private List<Lid> leden;
+    private List<Fiets> fietsen;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(0, 0, 0);
+        lidDAO = new LidDAO();
+        fietsDAO = new FietsDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() {
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Setup(Level.Iteration)
+    public void maakRijen() throws Exception {
+        leden = new ArrayList<>();
+        fietsen = new ArrayList<>();
+        for (int i = 0; i < aantal; i++) {
+            Lid lid = new Lid();
+            lid.setRijksregisternummer(new Rijksregisternummer(BenchmarkDatabase.rijksregisternummer(volgendLid++)));
+            lid.setVoornaam("Voornaam" + i);
+            lid.setNaam("Naam" + i);
+            lid.setEmailadres("lid" + i + "@vives.be");
+            lid.setStart_lidmaatschap(LocalDate.now());
+            leden.add(lid);
+
+            Fiets fiets = new Fiets();
+            fiets.setStatus(Status.actief);
+            fiets.setStandplaats(Standplaats.Brugge);
+            fiets.setOpmerking("Fiets " + i);
+            fietsen.add(fiets);
+        }
+    }
+
+    @Benchmark
+    public void toevoegenLidPerLid() throws Exception {
+        for (Lid lid : leden) {
+            lidDAO.toevoegenLid(lid);
+        }
+    }
+
+    @Benchmark
+    public BatchResultaat<String> toevoegenLeden() throws Exception {
+        return lidDAO.toevoegenLeden(leden);
+    }
+
+    @Benchmark
+    public void toevoegenFietsPerFiets() throws Exception {
+        for (Fiets fiets : fietsen) {
+            fietsDAO.toevoegenFiets(fiets);
+        }
+    }
+
+    @Benchmark
+    public BatchResultaat<Integer> toevoegenFietsen() throws Exception {
+        return fietsDAO.toevoegenFietsen(fietsen);
+    }
+}
@@ -0,0 +1,87 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Fiets;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet zoekAlleBeschikbareFietsen (1 query met anti-join) tegenover de vroegere
+ * werkwijze: alle actieve fietsen ophalen en per fiets de actieve rit opzoeken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FietsDAOBenchmark {
+
+    @Param("10000")
+    private int aantalFietsen;
+
+    @Param("100000")
+    private int aantalRitten;
+
+    @Param("10000")
+    private int aantalLeden;
+
+    private FietsDAO fietsDAO;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(aantalLeden, aantalFietsen, aantalRitten);
+        fietsDAO = new FietsDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() {
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Benchmark
+    public ArrayList<Fiets> zoekAlleBeschikbareFietsen() throws Exception {
+        return fietsDAO.zoekAlleBeschikbareFietsen();
+    }
+
+    @Benchmark
+    public ArrayList<Fiets> zoekAlleBeschikbareFietsenPerFiets() throws Exception {
+        ArrayList<Fiets> fietsen = new ArrayList<>();
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "select registratienummer, status, standplaats, opmerkingen"
+                             + " from fiets where status = 'actief' order by registratienummer");
+             ResultSet r = stmt.executeQuery()) {
+            while (r.next()) {
+                fietsen.add(fietsDAO.getFietsUitDatabase(r));
+            }
+        }
+
+        //vroegere werkwijze: per fiets een eigen connectie en query naar de actieve rit
+        for (Iterator<Fiets> it = fietsen.iterator(); it.hasNext(); ) {
+            if (heeftActieveRit(it.next().getRegistratienummer())) {
+                it.remove();
+            }
+        }
+        return fietsen;
+    }
+
+    private boolean heeftActieveRit(int regnr) throws Exception {
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "select id from rit where fiets_registratienummer = ?"
+                             + " and starttijd is not null and eindtijd is null")) {
+            stmt.setInt(1, regnr);
+            try (ResultSet r = stmt.executeQuery()) {
+                return r.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.databag.Lid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het ophalen van alle leden, gesorteerd op naam en voornaam.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LidDAOBenchmark {
+
+    @Param("10000")
+    private int aantalLeden;
+
+    private LidDAO lidDAO;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(aantalLeden, 0, 0);
+        lidDAO = new LidDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() {
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Benchmark
+    public ArrayList<Lid> zoekAlleLeden() throws Exception {
+        return lidDAO.zoekAlleLeden();
+    }
+}
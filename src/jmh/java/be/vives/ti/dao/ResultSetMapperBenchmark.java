@@ -0,0 +1,93 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.connect.ConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet de kost per rij van de mappers die een ResultSet omzetten in een Lid, Fiets of Rit.
+ * De resultsets worden 1 keer opgehaald en per meting opnieuw overlopen, zodat vooral
+ * de mapper zelf gemeten wordt en niet de query. De kolomposities worden, net als in de
+ * DAO's, 1 keer per overloop opgezocht. Elke resultset heeft precies AANTAL_RIJEN rijen;
+ * resultaat in nanoseconden per rij.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ResultSetMapperBenchmark {
+
+    private static final int AANTAL_RIJEN = 100000;
+
+    private LidMapper lidMapper = new LidMapper();
+    private FietsMapper fietsMapper = new FietsMapper();
+    private RitMapper ritMapper = new RitMapper();
+
+    private Connection conn;
+    private ResultSet leden;
+    private ResultSet fietsen;
+    private ResultSet ritten;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(AANTAL_RIJEN, AANTAL_RIJEN, AANTAL_RIJEN);
+        conn = ConnectionManager.getConnection();
+        leden = open("select rijksregisternummer, voornaam, naam, emailadres, start_lidmaatschap,"
+                + " einde_lidmaatschap, opmerking from lid"
+                + " order by rijksregisternummer limit " + AANTAL_RIJEN);
+        fietsen = open("select registratienummer, status, standplaats, opmerkingen from fiets"
+                + " order by registratienummer limit " + AANTAL_RIJEN);
+        ritten = open("select id, starttijd, eindtijd, prijs, lid_rijksregisternummer,"
+                + " fiets_registratienummer from rit order by id limit " + AANTAL_RIJEN);
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() throws Exception {
+        conn.close();
+        BenchmarkDatabase.afsluiten();
+    }
+
+    private ResultSet open(String sql) throws Exception {
+        PreparedStatement stmt = conn.prepareStatement(sql,
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        return stmt.executeQuery();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AANTAL_RIJEN)
+    public void mapLeden(Blackhole bh) throws Exception {
+        leden.beforeFirst();
+        int[] kolom = lidMapper.posities(leden);
+        while (leden.next()) {
+            bh.consume(lidMapper.map(leden, kolom));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AANTAL_RIJEN)
+    public void mapFietsen(Blackhole bh) throws Exception {
+        fietsen.beforeFirst();
+        int[] kolom = fietsMapper.posities(fietsen);
+        while (fietsen.next()) {
+            bh.consume(fietsMapper.map(fietsen, kolom));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AANTAL_RIJEN)
+    public void mapRitten(Blackhole bh) throws Exception {
+        ritten.beforeFirst();
+        int[] kolom = ritMapper.posities(ritten);
+        while (ritten.next()) {
+            bh.consume(ritMapper.map(ritten, kolom));
+        }
+    }
+}
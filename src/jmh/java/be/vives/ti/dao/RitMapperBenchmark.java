@@ -0,0 +1,98 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt de kost per rij van de RitMapper (kolomindexen, timestamps rechtstreeks lezen)
+ * met de vroegere mapper die per rij een DateTimeFormatter aanmaakte en de
+ * tijdstippen als string las en parste. Resultaat in nanoseconden per rij.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class RitMapperBenchmark {
+
+    private static final int AANTAL_RIJEN = 1000000;
+
+    private RitMapper ritMapper = new RitMapper();
+
+    private Connection conn;
+    private ResultSet ritten;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(1000, 1000, AANTAL_RIJEN);
+        conn = ConnectionManager.getConnection();
+        PreparedStatement stmt = conn.prepareStatement("select id, starttijd, eindtijd, prijs,"
+                        + " lid_rijksregisternummer, fiets_registratienummer from rit"
+                        + " order by id limit " + AANTAL_RIJEN,
+                ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        ritten = stmt.executeQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() throws Exception {
+        conn.close();
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AANTAL_RIJEN)
+    public void ritMapper(Blackhole bh) throws Exception {
+        ritten.beforeFirst();
+        int[] kolom = ritMapper.posities(ritten);
+        while (ritten.next()) {
+            bh.consume(ritMapper.map(ritten, kolom));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AANTAL_RIJEN)
+    public void getRitUitDatabaseMetString(Blackhole bh) throws Exception {
+        ritten.beforeFirst();
+        while (ritten.next()) {
+            bh.consume(getRitUitDatabaseMetString(ritten));
+        }
+    }
+
+    //de vroegere mapper, ter vergelijking
+    private Rit getRitUitDatabaseMetString(ResultSet r) throws Exception {
+        Rit rit = new Rit();
+
+        rit.setId(r.getInt("id"));
+
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        if (r.getString("starttijd") == null) {
+            rit.setStarttijd(null);
+        } else {
+            rit.setStarttijd(LocalDateTime.parse(r.getString("starttijd"), format));
+        }
+
+        if (r.getString("eindtijd") == null) {
+            rit.setEindtijd(null);
+        } else {
+            rit.setEindtijd(LocalDateTime.parse(r.getString("eindtijd"), format));
+        }
+
+        rit.setPrijs(r.getBigDecimal("prijs"));
+        rit.setLidRijksregisternummer(new Rijksregisternummer(r.getString("lid_rijksregisternummer")));
+        rit.setFietsRegistratienummer(r.getInt("fiets_registratienummer"));
+
+        return rit;
+    }
+}
@@ -0,0 +1,35 @@
+package be.vives.ti.dao.metriek;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet wat het meten van 1 DAO-oproep via DaoMetriek.meet kost (2 keer
+ * System.nanoTime en registreren in het histogram), met 1 thread en met 4 threads
+ * op dezelfde metriek.
+ * Resultaat in nanoseconden per oproep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DaoMetriekBenchmark {
+
+    private final DaoMetriek metriek = DaoMetrieken.voor(DaoMetriekBenchmark.class, "benchmark");
+
+    private final Integer resultaat = 42;
+
+    @Benchmark
+    public Integer meet() throws Exception {
+        return metriek.meet(() -> resultaat);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer meetGelijktijdig() throws Exception {
+        return metriek.meet(() -> resultaat);
+    }
+}
@@ -0,0 +1,63 @@
+package be.vives.ti.datatype;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet Rijksregisternummer.uitDatabank (opzoeken in de cache) met 1 thread en met
+ * 4 threads tegelijk. Met 1000 nummers zit alles in de cache; met 20000 nummers is
+ * de cache te klein en wordt er voortdurend toegevoegd en verdrongen.
+ * Resultaat in nanoseconden per oproep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class RijksregisternummerBenchmark {
+
+    @Param({"1000", "20000"})
+    private int aantalNummers;
+
+    private String[] nummers;
+
+    @Setup(Level.Trial)
+    public void opzetten() {
+        nummers = new String[aantalNummers];
+        for (int i = 0; i < aantalNummers; i++) {
+            int deel1 = 940101000 + i;
+            nummers[i] = String.format("%09d%02d", deel1, 97 - (deel1 % 97));
+        }
+    }
+
+    /**
+     * Elke thread overloopt de nummers vanaf een eigen startpunt.
+     */
+    @State(Scope.Thread)
+    public static class Positie {
+        private int volgende;
+
+        @Setup(Level.Trial)
+        public void opzetten() {
+            volgende = ThreadLocalRandom.current().nextInt(1 << 20);
+        }
+    }
+
+    private String volgend(Positie positie) {
+        return nummers[positie.volgende++ % aantalNummers];
+    }
+
+    @Benchmark
+    public Rijksregisternummer uitDatabank(Positie positie) {
+        return Rijksregisternummer.uitDatabank(volgend(positie));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Rijksregisternummer uitDatabankGelijktijdig(Positie positie) {
+        return Rijksregisternummer.uitDatabank(volgend(positie));
+    }
+}
@@ -0,0 +1,59 @@
+package be.vives.ti.service;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.datatype.Standplaats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het opzoeken van de beschikbare fietsen van 1 standplaats, met en zonder
+ * beschikbaarheidsindex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FietsServiceBenchmark {
+
+    @Param("10000")
+    private int aantalFietsen;
+
+    @Param("100000")
+    private int aantalRitten;
+
+    @Param("10000")
+    private int aantalLeden;
+
+    private FietsService metIndex;
+    private FietsService zonderIndex;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(aantalLeden, aantalFietsen, aantalRitten);
+        FietsDAO fietsDAO = new FietsDAO();
+        BeschikbaarheidsIndex index = new BeschikbaarheidsIndex();
+        index.opbouwen(fietsDAO);
+        metIndex = new FietsService(fietsDAO, index);
+        zonderIndex = new FietsService(fietsDAO);
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() {
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Benchmark
+    public List<Integer> zoekBeschikbareFietsenMetIndex() throws Exception {
+        return metIndex.zoekBeschikbareFietsen(Standplaats.Brugge);
+    }
+
+    @Benchmark
+    public List<Integer> zoekBeschikbareFietsenZonderIndex() throws Exception {
+        return zonderIndex.zoekBeschikbareFietsen(Standplaats.Brugge);
+    }
+}
@@ -0,0 +1,119 @@
+package be.vives.ti.service;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meet het starten en afsluiten van een rit via de RitService, met de echte DAO's.
+ * Elke meting gebruikt hetzelfde lid en dezelfde fiets; de rit wordt buiten de meting
+ * telkens terug afgesloten (toevoegenRit) of geopend (afsluitenRit).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RitServiceBenchmark {
+
+    @Param("10000")
+    private int aantalLeden;
+
+    @Param("10000")
+    private int aantalFietsen;
+
+    @Param("100000")
+    private int aantalRitten;
+
+    private RitDAO ritDAO;
+    private RitService ritService;
+    private Rijksregisternummer rijksregisternummer;
+    private Integer fietsRegistratienummer;
+
+    //id van de openstaande rit tussen twee metingen
+    private Integer ritId;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(aantalLeden, aantalFietsen, aantalRitten);
+        ritDAO = new RitDAO();
+        ritService = new RitService(ritDAO);
+
+        //eigen lid en fiets, zonder ritten
+        rijksregisternummer = new Rijksregisternummer(BenchmarkDatabase.rijksregisternummer(aantalLeden));
+        Lid lid = new Lid();
+        lid.setVoornaam("Bench");
+        lid.setNaam("Mark");
+        lid.setEmailadres("bench@vives.be");
+        lid.setStart_lidmaatschap(LocalDate.now());
+        lid.setRijksregisternummer(rijksregisternummer);
+        new LidDAO().toevoegenLid(lid);
+
+        Fiets fiets = new Fiets();
+        fiets.setStatus(Status.actief);
+        fiets.setStandplaats(Standplaats.Brugge);
+        fietsRegistratienummer = new FietsDAO().toevoegenFiets(fiets);
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() {
+        BenchmarkDatabase.afsluiten();
+    }
+
+    private Rit nieuweRit() {
+        Rit rit = new Rit();
+        rit.setLidRijksregisternummer(rijksregisternummer);
+        rit.setFietsRegistratienummer(fietsRegistratienummer);
+        return rit;
+    }
+
+    @State(Scope.Thread)
+    public static class OpenRit {
+
+        //opent voor elke meting van afsluitenRit een nieuwe rit
+        @Setup(Level.Invocation)
+        public void openen(RitServiceBenchmark b) throws Exception {
+            Rit rit = b.nieuweRit();
+            rit.setStarttijd(LocalDateTime.now().minusHours(1).withNano(0));
+            b.ritId = b.ritDAO.toevoegenRit(rit);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class GeenRit {
+
+        //sluit de rit die toevoegenRit gestart heeft, zodat lid en fiets terug vrij zijn
+        @TearDown(Level.Invocation)
+        public void sluiten(RitServiceBenchmark b) throws Exception {
+            Rit rit = new Rit();
+            rit.setId(b.ritId);
+            rit.setEindtijd(LocalDateTime.now());
+            rit.setPrijs(BigDecimal.ONE);
+            b.ritDAO.afsluitenActieveRit(rit);
+        }
+    }
+
+    @Benchmark
+    public void toevoegenRit(GeenRit geenRit) throws Exception {
+        ritId = ritService.toevoegenRit(nieuweRit());
+    }
+
+    @Benchmark
+    public void afsluitenRit(OpenRit openRit) throws Exception {
+        ritService.afsluitenRit(ritId);
+    }
+}
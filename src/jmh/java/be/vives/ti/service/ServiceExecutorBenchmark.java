@@ -0,0 +1,68 @@
+package be.vives.ti.service;
+
+import be.vives.ti.benchmark.BenchmarkDatabase;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergelijkt de doorvoer van de services op gewone threads en op virtuele threads:
+ * telkens zoeken veel sessies tegelijk een lid op, begrensd tot het maximum aantal
+ * connecties van de pool. Op een Java-versie zonder virtuele threads gebruikt de
+ * virtuele modus gewone threads (zie ServiceExecutor.isVirtueel()).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OperationsPerInvocation(ServiceExecutorBenchmark.SESSIES)
+public class ServiceExecutorBenchmark {
+
+    static final int SESSIES = 500;
+
+    @Param({"platform", "virtueel"})
+    private String modus;
+
+    @Param("10000")
+    private int aantalLeden;
+
+    private ServiceExecutor executor;
+    private AsyncLidService lidService;
+    private String[] rijksregisternummers;
+
+    @Setup(Level.Trial)
+    public void opzetten() throws Exception {
+        BenchmarkDatabase.opzetten(aantalLeden, 100, 0);
+        int connecties = ConnectionManager.getPoolStatistieken().getMaximum();
+        executor = "virtueel".equals(modus)
+                ? ServiceExecutor.virtueel(connecties, SESSIES)
+                : new ServiceExecutor(connecties, SESSIES);
+        //zonder cache, zodat elke oproep naar de databank gaat
+        lidService = new AsyncLidService(new LidService(new LidDAO()), executor);
+
+        rijksregisternummers = new String[SESSIES];
+        for (int i = 0; i < SESSIES; i++) {
+            rijksregisternummers[i] = BenchmarkDatabase.rijksregisternummer(i * 17 % aantalLeden);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void afsluiten() throws Exception {
+        executor.sluiten(10000);
+        BenchmarkDatabase.afsluiten();
+    }
+
+    @Benchmark
+    public Object zoekLedenGelijktijdig() {
+        CompletableFuture<?>[] oproepen = new CompletableFuture<?>[SESSIES];
+        for (int i = 0; i < SESSIES; i++) {
+            oproepen[i] = lidService.zoekLid(rijksregisternummers[i]);
+        }
+        return CompletableFuture.allOf(oproepen).join();
+    }
+}
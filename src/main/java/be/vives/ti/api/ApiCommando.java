@@ -0,0 +1,121 @@
+package be.vives.ti.api;
+
+import be.vives.ti.cache.Caches;
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.metriek.DaoMetrieken;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.AsyncFietsService;
+import be.vives.ti.service.AsyncLidService;
+import be.vives.ti.service.AsyncRitService;
+import be.vives.ti.service.BeschikbaarheidsIndex;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.ServiceExecutor;
+
+import java.io.IOException;
+
+/**
+ * Start de HTTP/JSON-API vanaf de commandolijn:
+ * <pre>
+ * ApiCommando [--poort n] [--threads n] [--modus platform|virtueel] [--wachtrij n]
+ * </pre>
+ * --threads is het aantal threads dat verzoeken ontvangt en antwoorden verstuurt;
+ * de services lopen op een ServiceExecutor die begrensd is tot het maximum aantal
+ * connecties van de pool. De server stopt bij Ctrl+C en toont dan de metingen van
+ * de DAO-methodes. TCP_NODELAY wordt aangezet, tenzij -Dsun.net.httpserver.nodelay
+ * anders opgegeven werd.
+ */
+public class ApiCommando {
+
+    private static final String GEBRUIK =
+            "Gebruik: ApiCommando [--poort n] [--threads n] [--modus platform|virtueel] [--wachtrij n]";
+
+    private static final int STANDAARD_POORT = 8080;
+    private static final int STANDAARD_THREADS = 2;
+    private static final int STANDAARD_WACHTRIJ = 1000;
+    private static final int LID_CACHE_GROOTTE = 1000;
+    private static final long LID_CACHE_TTL = 300;
+    private static final int FIETS_CACHE_GROOTTE = 10000;
+    private static final long FIETS_CACHE_TTL = 600;
+
+    public static void main(String[] args) {
+        int poort = STANDAARD_POORT;
+        int threads = STANDAARD_THREADS;
+        int wachtrij = STANDAARD_WACHTRIJ;
+        boolean virtueel = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--poort":
+                        poort = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--wachtrij":
+                        wachtrij = Integer.parseInt(args[++i]);
+                        break;
+                    case "--modus":
+                        String modus = args[++i];
+                        if (!"platform".equals(modus) && !"virtueel".equals(modus)) {
+                            throw new IllegalArgumentException(modus);
+                        }
+                        virtueel = "virtueel".equals(modus);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        //headers en body worden apart geschreven; met Nagle wacht de body op de (vertraagde)
+        //ACK van de client en kost elk verzoek op een keep-alive verbinding zo'n 40 ms extra.
+        //De JDK leest deze instelling 1 keer, bij het aanmaken van de eerste HttpServer.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        try {
+            int connecties = ConnectionManager.getPoolStatistieken().getMaximum();
+            ServiceExecutor executor = virtueel
+                    ? ServiceExecutor.virtueel(connecties, wachtrij)
+                    : new ServiceExecutor(connecties, wachtrij);
+
+            FietsDAO fietsDAO = new FietsDAO();
+            BeschikbaarheidsIndex index = new BeschikbaarheidsIndex();
+            index.opbouwen(fietsDAO);
+            ApiServer server = new ApiServer(poort, threads,
+                    new AsyncLidService(new LidService(new LidDAO(), LidService.STANDAARD_PAGINAGROOTTE,
+                            Caches.maak("lid", LID_CACHE_GROOTTE, LID_CACHE_TTL)), executor),
+                    new AsyncFietsService(new FietsService(fietsDAO, index,
+                            Caches.maak("fiets", FIETS_CACHE_GROOTTE, FIETS_CACHE_TTL)), executor),
+                    new AsyncRitService(new RitService(new RitDAO(), index), executor));
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(1);
+                try {
+                    executor.sluiten(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                ConnectionManager.sluitPool();
+                System.out.print(DaoMetrieken.dump());
+            }));
+            server.start();
+            System.out.println("API luistert op poort " + server.getPoort() + " ("
+                    + (executor.isVirtueel() ? "virtuele" : "gewone") + " threads, maximum "
+                    + executor.getMaxGelijktijdig() + " gelijktijdige oproepen)");
+        } catch (IOException | DBException ex) {
+            System.err.println("Starten van de API mislukt: " + ex.getMessage());
+            ConnectionManager.sluitPool();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package be.vives.ti.api;
+
+import be.vives.ti.dao.metriek.DaoMetrieken;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.AsyncFietsService;
+import be.vives.ti.service.AsyncLidService;
+import be.vives.ti.service.AsyncRitService;
+import be.vives.ti.service.ServiceExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON-toegang tot de uitleenfuncties, zonder JavaFX (bv. voor kiosken):
+ * <pre>
+ * GET  /leden/{rijksregisternummer}       lid opzoeken
+ * GET  /leden[?na={rijksregisternummer}]  volgende pagina leden
+ * GET  /fietsen/beschikbaar               alle beschikbare fietsen
+ * GET  /fietsen/beschikbaar?standplaats=X registratienummers van de beschikbare fietsen op X
+ * POST /ritten  {"lid": "...", "fiets": n} rit starten, geeft {"id": n}
+ * GET  /ritten/{id}                        rit opzoeken
+ * POST /ritten/{id}/afsluiten              rit afsluiten, geeft de afgesloten rit
+ * GET  /metrieken                          metingen van de DAO-methodes, als tekst
+ * </pre>
+ * De threads van de server wachten niet op de databank: een verzoek wordt
+ * doorgegeven aan de async services en het antwoord wordt verstuurd zodra de
+ * future klaar is. Het antwoord wordt op de threads van de server geschreven, niet
+ * op de worker van de ServiceExecutor, zodat een trage client geen plaats in de
+ * executor bezet houdt. Een paar threads volstaan dus voor veel gelijktijdige verzoeken.
+ * <p>
+ * Fouten komen terug als {"fout": "..."} met status 400 (ongeldig verzoek),
+ * 404 (bestaat niet), 409 (conflict, bv. fiets in gebruik), 503 (overbelast)
+ * of 500 (databank).
+ */
+public class ApiServer {
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String TEKST = "text/plain; charset=utf-8";
+    //grotere verzoeken worden geweigerd, de API verwacht enkel kleine objecten
+    private static final int MAX_VERZOEK = 64 * 1024;
+
+    //boodschap voor de client bij een databankfout of onverwachte fout
+    static final String INTERNE_FOUT = "Interne fout, probeer later opnieuw";
+
+    private static final Map<String, Integer> STATUS_PER_FOUT = new HashMap<>();
+
+    static {
+        Map<ApplicationExceptionType, Integer> status = new EnumMap<>(ApplicationExceptionType.class);
+        status.put(ApplicationExceptionType.LID_BESTAAT_NIET, 404);
+        status.put(ApplicationExceptionType.FIETS_BESTAAT_NIET, 404);
+        status.put(ApplicationExceptionType.RIT_BESTAAT_NIET, 404);
+        status.put(ApplicationExceptionType.FIETS_IN_GEBRUIK, 409);
+        status.put(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN, 409);
+        status.put(ApplicationExceptionType.RIT_AL_AFGESLOTEN, 409);
+        status.put(ApplicationExceptionType.SERVICE_OVERBELAST, 503);
+        //ApplicationException bevat enkel de boodschap
+        status.forEach((type, code) -> STATUS_PER_FOUT.put(type.getMessage(), code));
+    }
+
+    private final HttpServer server;
+    private final ExecutorService threads;
+    private final AsyncLidService lidService;
+    private final AsyncFietsService fietsService;
+    private final AsyncRitService ritService;
+
+    /**
+     * @param poort poort waarop de server luistert, 0 voor een vrije poort
+     * @param aantalThreads threads die verzoeken ontvangen en antwoorden versturen
+     */
+    public ApiServer(int poort, int aantalThreads, AsyncLidService lidService, AsyncFietsService fietsService,
+                     AsyncRitService ritService) throws IOException {
+        this.lidService = lidService;
+        this.fietsService = fietsService;
+        this.ritService = ritService;
+
+        AtomicInteger nummer = new AtomicInteger();
+        this.threads = Executors.newFixedThreadPool(aantalThreads, r -> {
+            Thread t = new Thread(r, "vivesbike-api-" + nummer.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(poort), 0);
+        server.setExecutor(threads);
+        server.createContext("/leden", exchange -> behandel(exchange, this::leden));
+        server.createContext("/fietsen", exchange -> behandel(exchange, this::fietsen));
+        server.createContext("/ritten", exchange -> behandel(exchange, this::ritten));
+        server.createContext("/metrieken", exchange -> behandel(exchange, this::metrieken));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @param wachttijdSeconden hoe lang lopende verzoeken nog afgewerkt mogen worden
+     */
+    public void stop(int wachttijdSeconden) {
+        server.stop(wachttijdSeconden);
+        threads.shutdown();
+    }
+
+    /**
+     * @return poort waarop de server luistert
+     */
+    public int getPoort() {
+        return server.getAddress().getPort();
+    }
+
+    private CompletableFuture<Antwoord> leden(Verzoek verzoek) {
+        String[] delen = verzoek.delen;
+        if (verzoek.is("GET") && delen.length == 2) {
+            return lidService.zoekLid(delen[1])
+                    .thenApply(lid -> lid == null
+                            ? Antwoord.fout(404, ApplicationExceptionType.LID_BESTAAT_NIET.getMessage())
+                            : Antwoord.ok(Json.lid(lid)));
+        }
+        if (verzoek.is("GET") && delen.length == 1) {
+            String na = verzoek.parameter("na");
+            CompletableFuture<Lid> vorige = na == null
+                    ? CompletableFuture.completedFuture(null)
+                    : lidService.zoekLid(na);
+            return vorige.thenCompose(lid -> na != null && lid == null
+                            ? ServiceExecutor.mislukt(
+                                    new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage()))
+                            : lidService.zoekLedenPagina(lid))
+                    .thenApply(pagina -> Antwoord.ok(Json.lijst(pagina, Json::lid)));
+        }
+        return null;
+    }
+
+    private CompletableFuture<Antwoord> fietsen(Verzoek verzoek) {
+        if (verzoek.is("GET") && verzoek.delen.length == 2 && "beschikbaar".equals(verzoek.delen[1])) {
+            String standplaats = verzoek.parameter("standplaats");
+            if (standplaats == null) {
+                return fietsService.zoekAlleBeschikbareFietsen()
+                        .thenApply(fietsen -> Antwoord.ok(Json.lijst(fietsen, Json::fiets)));
+            }
+            return fietsService.zoekBeschikbareFietsen(Standplaats.valueOf(standplaats))
+                    .thenApply(regnrs -> Antwoord.ok(regnrs.toString()));
+        }
+        return null;
+    }
+
+    private CompletableFuture<Antwoord> ritten(Verzoek verzoek) throws ApplicationException {
+        String[] delen = verzoek.delen;
+        if (verzoek.is("POST") && delen.length == 1) {
+            Map<String, String> waarden = Json.leesObject(verzoek.body);
+            String lid = waarden.get("lid");
+            String fiets = waarden.get("fiets");
+            if (lid == null || fiets == null) {
+                throw new IllegalArgumentException("Verwacht: {\"lid\": \"...\", \"fiets\": n}");
+            }
+            Rit rit = new Rit();
+            rit.setLidRijksregisternummer(Rijksregisternummer.valueOf(lid));
+            rit.setFietsRegistratienummer(Integer.parseInt(fiets));
+            return ritService.toevoegenRit(rit).thenApply(id -> new Antwoord(201, Json.id(id)));
+        }
+        if (verzoek.is("GET") && delen.length == 2) {
+            return zoekRit(Integer.valueOf(delen[1]));
+        }
+        if (verzoek.is("POST") && delen.length == 3 && "afsluiten".equals(delen[2])) {
+            Integer id = Integer.valueOf(delen[1]);
+            return ritService.afsluitenRit(id).thenCompose(geen -> zoekRit(id));
+        }
+        return null;
+    }
+
+    private CompletableFuture<Antwoord> metrieken(Verzoek verzoek) {
+        if (verzoek.is("GET") && verzoek.delen.length == 1) {
+            return CompletableFuture.completedFuture(new Antwoord(200, TEKST, DaoMetrieken.dump()));
+        }
+        return null;
+    }
+
+    private CompletableFuture<Antwoord> zoekRit(Integer id) {
+        return ritService.zoekRit(id)
+                .thenApply(rit -> rit == null
+                        ? Antwoord.fout(404, ApplicationExceptionType.RIT_BESTAAT_NIET.getMessage())
+                        : Antwoord.ok(Json.rit(rit)));
+    }
+
+    /**
+     * Leest het verzoek, geeft het door aan de route en verstuurt het antwoord zodra
+     * het klaar is, zonder op de databank te wachten.
+     */
+    private void behandel(HttpExchange exchange, Route route) {
+        CompletableFuture<Antwoord> antwoord;
+        try {
+            antwoord = route.behandel(new Verzoek(exchange));
+            if (antwoord == null) {
+                antwoord = CompletableFuture.completedFuture(Antwoord.fout(404, "Onbekend pad of methode."));
+            }
+        } catch (Exception ex) {
+            antwoord = ServiceExecutor.mislukt(ex);
+        }
+        antwoord.whenCompleteAsync((resultaat, fout) ->
+                verstuur(exchange, fout == null ? resultaat : Antwoord.vanFout(ServiceExecutor.oorzaak(fout))),
+                threads);
+    }
+
+    private static void verstuur(HttpExchange exchange, Antwoord antwoord) {
+        byte[] body = antwoord.body.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream uit = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().set("Content-Type", antwoord.type);
+            exchange.sendResponseHeaders(antwoord.status, body.length);
+            uit.write(body);
+        } catch (IOException ex) {
+            //de client heeft de verbinding al gesloten
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private interface Route {
+        CompletableFuture<Antwoord> behandel(Verzoek verzoek) throws Exception;
+    }
+
+    /**
+     * Methode, pad (zonder lege delen) en body van een verzoek.
+     */
+    private static final class Verzoek {
+        private final String methode;
+        private final String[] delen;
+        private final String query;
+        private final String body;
+
+        Verzoek(HttpExchange exchange) throws IOException {
+            this.methode = exchange.getRequestMethod();
+            this.delen = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+            this.query = exchange.getRequestURI().getRawQuery();
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] bytes = in.readNBytes(MAX_VERZOEK + 1);
+                if (bytes.length > MAX_VERZOEK) {
+                    throw new IllegalArgumentException("Verzoek is groter dan " + MAX_VERZOEK + " bytes.");
+                }
+                this.body = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        boolean is(String methode) {
+            return this.methode.equals(methode);
+        }
+
+        String parameter(String naam) {
+            if (query == null) {
+                return null;
+            }
+            for (String paar : query.split("&")) {
+                int is = paar.indexOf('=');
+                if (is > 0 && paar.substring(0, is).equals(naam)) {
+                    return URLDecoder.decode(paar.substring(is + 1), StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Antwoord {
+        private final int status;
+        private final String type;
+        private final String body;
+
+        Antwoord(int status, String json) {
+            this(status, JSON, json);
+        }
+
+        Antwoord(int status, String type, String body) {
+            this.status = status;
+            this.type = type;
+            this.body = body;
+        }
+
+        static Antwoord ok(String json) {
+            return new Antwoord(200, json);
+        }
+
+        static Antwoord fout(int status, String boodschap) {
+            return new Antwoord(status, Json.fout(boodschap));
+        }
+
+        static Antwoord vanFout(Throwable fout) {
+            if (fout instanceof ApplicationException) {
+                return fout(STATUS_PER_FOUT.getOrDefault(fout.getMessage(), 400), fout.getMessage());
+            }
+            if (fout instanceof IllegalArgumentException) {
+                //ongeldig getal, standplaats of JSON in het verzoek
+                return fout(400, "Ongeldig verzoek: " + fout.getMessage());
+            }
+            //de boodschap kan SQL en gegevens uit de databank bevatten, enkel op de server loggen
+            if (fout instanceof DBException) {
+                System.err.println("Databankfout bij API-verzoek: " + fout.getMessage());
+            } else {
+                System.err.println("Onverwachte fout bij API-verzoek: " + fout);
+                fout.printStackTrace();
+            }
+            return fout(500, INTERNE_FOUT);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package be.vives.ti.api;
+
+import be.vives.ti.datatype.Standplaats;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Belast een draaiende API (zie ApiCommando) met een aantal gelijktijdige sessies
+ * en toont per soort verzoek de doorvoer en de p50/p99-latentie:
+ * <pre>
+ * Belastingstest [--url http://localhost:8080] [--sessies n] [--duur s] [--opwarmen s]
+ * </pre>
+ * Elke sessie zoekt in een lus de beschikbare fietsen van een standplaats op,
+ * start een rit op een van die fietsen, sluit ze af en zoekt het lid op. Een sessie
+ * gebruikt telkens hetzelfde lid uit de eerste pagina leden; sessies zonder eigen
+ * lid zoeken enkel fietsen en leden op. Een rit die geweigerd wordt omdat een
+ * andere sessie de fiets net nam (409), telt niet als fout.
+ */
+public class Belastingstest {
+
+    private static final String GEBRUIK =
+            "Gebruik: Belastingstest [--url http://localhost:8080] [--sessies n] [--duur s] [--opwarmen s]";
+
+    private static final Pattern RIJKSREGISTERNUMMER = Pattern.compile("\"rijksregisternummer\":\"(\\d{11})\"");
+    private static final Pattern GETAL = Pattern.compile("\\d+");
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    //de HttpServer van de JDK kent geen HTTP/2; anders probeert elk verzoek een upgrade
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String url;
+    private volatile boolean meten;
+    private volatile boolean stoppen;
+
+    private Belastingstest(String url) {
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        int sessies = 32;
+        int duur = 30;
+        int opwarmen = 5;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--url":
+                        url = args[++i];
+                        break;
+                    case "--sessies":
+                        sessies = Integer.parseInt(args[++i]);
+                        break;
+                    case "--duur":
+                        duur = Integer.parseInt(args[++i]);
+                        break;
+                    case "--opwarmen":
+                        opwarmen = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (sessies < 1 || duur < 1 || opwarmen < 0) {
+                throw new IllegalArgumentException();
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        new Belastingstest(url).voerUit(sessies, duur, opwarmen);
+    }
+
+    private void voerUit(int aantalSessies, int duur, int opwarmen) throws Exception {
+        List<String> leden = new ArrayList<>();
+        Matcher m = RIJKSREGISTERNUMMER.matcher(verstuur("GET", "/leden", null).body());
+        while (m.find()) {
+            leden.add(m.group(1));
+        }
+        if (leden.isEmpty()) {
+            System.err.println("Geen leden gevonden op " + url + "/leden");
+            System.exit(1);
+        }
+        System.out.println(aantalSessies + " sessies, " + Math.min(aantalSessies, leden.size())
+                + " met een eigen lid, " + opwarmen + " s opwarmen, " + duur + " s meten");
+
+        List<Sessie> sessies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < aantalSessies; i++) {
+            Sessie sessie = new Sessie(i, leden.get(i % leden.size()), i < leden.size());
+            sessies.add(sessie);
+            Thread t = new Thread(sessie, "belasting-" + i);
+            threads.add(t);
+            t.start();
+        }
+
+        Thread.sleep(opwarmen * 1000L);
+        meten = true;
+        long start = System.nanoTime();
+        Thread.sleep(duur * 1000L);
+        meten = false;
+        double seconden = (System.nanoTime() - start) / 1e9;
+        stoppen = true;
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        //metingen van alle sessies samenvoegen, per soort verzoek
+        Map<String, Meting> totaal = new LinkedHashMap<>();
+        for (Sessie sessie : sessies) {
+            sessie.metingen.forEach((soort, meting) ->
+                    totaal.computeIfAbsent(soort, s -> new Meting()).voegToe(meting));
+        }
+        Meting alles = new Meting();
+        totaal.values().forEach(alles::voegToe);
+
+        System.out.printf("%-16s %9s %8s %8s %10s %10s %10s%n",
+                "verzoek", "aantal", "fouten", "409", "verz/s", "p50 (ms)", "p99 (ms)");
+        totaal.forEach((soort, meting) -> meting.toon(soort, seconden));
+        alles.toon("totaal", seconden);
+    }
+
+    private HttpResponse<String> verstuur(String methode, String pad, String json)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder verzoek = HttpRequest.newBuilder(URI.create(url + pad))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (json == null) {
+            verzoek.method(methode, HttpRequest.BodyPublishers.noBody());
+        } else {
+            verzoek.header("Content-Type", "application/json")
+                    .method(methode, HttpRequest.BodyPublishers.ofString(json));
+        }
+        return client.send(verzoek.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Een kiosk die in een lus fietsen zoekt en ritten start en afsluit.
+     */
+    private final class Sessie implements Runnable {
+        private final int nummer;
+        private final String lid;
+        private final boolean ritten;
+        private final Map<String, Meting> metingen = new LinkedHashMap<>();
+
+        Sessie(int nummer, String lid, boolean ritten) {
+            this.nummer = nummer;
+            this.lid = lid;
+            this.ritten = ritten;
+        }
+
+        @Override
+        public void run() {
+            Standplaats[] standplaatsen = Standplaats.values();
+            int ronde = 0;
+            while (!stoppen) {
+                ronde++;
+                Standplaats standplaats = standplaatsen[(nummer + ronde) % standplaatsen.length];
+                HttpResponse<String> fietsen = meet("beschikbaar", "GET",
+                        "/fietsen/beschikbaar?standplaats=" + standplaats, null);
+
+                if (ritten && fietsen != null && fietsen.statusCode() == 200) {
+                    List<String> regnrs = new ArrayList<>();
+                    Matcher m = GETAL.matcher(fietsen.body());
+                    while (m.find()) {
+                        regnrs.add(m.group());
+                    }
+                    if (!regnrs.isEmpty()) {
+                        //elke sessie kiest een andere fiets, zodat niet iedereen dezelfde wil
+                        String fiets = regnrs.get((nummer * 31 + ronde) % regnrs.size());
+                        HttpResponse<String> rit = meet("rit starten", "POST", "/ritten",
+                                "{\"lid\":\"" + lid + "\",\"fiets\":" + fiets + "}");
+                        Matcher id = rit == null || rit.statusCode() != 201 ? null : ID.matcher(rit.body());
+                        if (id != null && id.find()) {
+                            meet("rit afsluiten", "POST", "/ritten/" + id.group(1) + "/afsluiten", null);
+                        }
+                    }
+                }
+
+                meet("lid", "GET", "/leden/" + lid, null);
+            }
+        }
+
+        private HttpResponse<String> meet(String soort, String methode, String pad, String json) {
+            long start = System.nanoTime();
+            HttpResponse<String> antwoord = null;
+            try {
+                antwoord = verstuur(methode, pad, json);
+            } catch (IOException ex) {
+                //telt als fout
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                stoppen = true;
+            }
+            long nanos = System.nanoTime() - start;
+            if (meten) {
+                metingen.computeIfAbsent(soort, s -> new Meting())
+                        .registreer(nanos, antwoord == null ? -1 : antwoord.statusCode());
+            }
+            return antwoord;
+        }
+    }
+
+    /**
+     * Latenties en statussen van 1 soort verzoek.
+     */
+    private static final class Meting {
+        private long[] nanos = new long[1024];
+        private int aantal;
+        private int fouten;
+        private int conflicten;
+
+        void registreer(long duur, int status) {
+            if (aantal == nanos.length) {
+                nanos = Arrays.copyOf(nanos, aantal * 2);
+            }
+            nanos[aantal++] = duur;
+            if (status == 409) {
+                conflicten++;
+            } else if (status < 200 || status >= 300) {
+                fouten++;
+            }
+        }
+
+        void voegToe(Meting andere) {
+            for (int i = 0; i < andere.aantal; i++) {
+                registreer(andere.nanos[i], 200);
+            }
+            fouten += andere.fouten;
+            conflicten += andere.conflicten;
+        }
+
+        void toon(String soort, double seconden) {
+            long[] gesorteerd = Arrays.copyOf(nanos, aantal);
+            Arrays.sort(gesorteerd);
+            System.out.printf("%-16s %9d %8d %8d %10.1f %10.2f %10.2f%n", soort, aantal, fouten, conflicten,
+                    aantal / seconden, percentiel(gesorteerd, 0.50), percentiel(gesorteerd, 0.99));
+        }
+
+        private static double percentiel(long[] gesorteerd, double p) {
+            if (gesorteerd.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * gesorteerd.length) - 1;
+            return gesorteerd[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package be.vives.ti.api;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Zet de databags om naar JSON en leest de eenvoudige JSON-objecten die de API
+ * ontvangt. Er is geen JSON-bibliotheek nodig: de API stuurt enkel platte objecten
+ * en lijsten van platte objecten.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String lid(Lid lid) {
+        return new Velden()
+                .tekst("rijksregisternummer", lid.getRijksregisternummer())
+                .tekst("voornaam", lid.getVoornaam())
+                .tekst("naam", lid.getNaam())
+                .tekst("emailadres", lid.getEmailadres())
+                .waarde("start_lidmaatschap", lid.getStart_lidmaatschap())
+                .waarde("einde_lidmaatschap", lid.getEinde_lidmaatschap())
+                .tekst("opmerking", lid.getOpmerking())
+                .toString();
+    }
+
+    static String fiets(Fiets fiets) {
+        return new Velden()
+                .getal("registratienummer", fiets.getRegistratienummer())
+                .waarde("status", fiets.getStatus())
+                .waarde("standplaats", fiets.getStandplaats())
+                .tekst("opmerking", fiets.getOpmerking())
+                .toString();
+    }
+
+    static String rit(Rit rit) {
+        return new Velden()
+                .getal("id", rit.getId())
+                .waarde("starttijd", rit.getStarttijd())
+                .waarde("eindtijd", rit.getEindtijd())
+                .getal("prijs", rit.getPrijs())
+                .tekst("lid_rijksregisternummer", rit.getLidRijksregisternummer())
+                .getal("fiets_registratienummer", rit.getFietsRegistratienummer())
+                .toString();
+    }
+
+    static String id(Number id) {
+        return new Velden().getal("id", id).toString();
+    }
+
+    static String fout(String boodschap) {
+        return new Velden().tekst("fout", boodschap).toString();
+    }
+
+    static <T> String lijst(Collection<T> elementen, Function<T, String> omzetting) {
+        StringBuilder json = new StringBuilder("[");
+        for (T element : elementen) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(omzetting.apply(element));
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Leest een plat JSON-object: waarden zijn tekst, getallen, true/false of null.
+     * @param json JSON-object
+     * @return waarden per naam, als tekst; null voor een null-waarde
+     * @throws IllegalArgumentException wanneer de tekst geen plat JSON-object is
+     */
+    static Map<String, String> leesObject(String json) {
+        Lezer lezer = new Lezer(json);
+        Map<String, String> waarden = new LinkedHashMap<>();
+        lezer.verwacht('{');
+        if (!lezer.volgt('}')) {
+            do {
+                String naam = lezer.tekst();
+                lezer.verwacht(':');
+                waarden.put(naam, lezer.waarde());
+            } while (lezer.volgt(','));
+            lezer.verwacht('}');
+        }
+        lezer.einde();
+        return waarden;
+    }
+
+    private static void schrijfTekst(StringBuilder json, String tekst) {
+        json.append('"');
+        for (int i = 0; i < tekst.length(); i++) {
+            char c = tekst.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Bouwt een JSON-object op, veld per veld.
+     */
+    private static final class Velden {
+        private final StringBuilder json = new StringBuilder("{");
+
+        private Velden naam(String naam) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            schrijfTekst(json, naam);
+            json.append(':');
+            return this;
+        }
+
+        Velden tekst(String naam, String waarde) {
+            naam(naam);
+            if (waarde == null) {
+                json.append("null");
+            } else {
+                schrijfTekst(json, waarde);
+            }
+            return this;
+        }
+
+        //datums, enums: als tekst
+        Velden waarde(String naam, Object waarde) {
+            return tekst(naam, waarde == null ? null : waarde.toString());
+        }
+
+        Velden getal(String naam, Number waarde) {
+            naam(naam).json.append(waarde == null ? "null" : waarde.toString());
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return json.toString() + '}';
+        }
+    }
+
+    private static final class Lezer {
+        private final String json;
+        private int positie;
+
+        Lezer(String json) {
+            this.json = json;
+        }
+
+        private void spaties() {
+            while (positie < json.length() && Character.isWhitespace(json.charAt(positie))) {
+                positie++;
+            }
+        }
+
+        boolean volgt(char c) {
+            spaties();
+            if (positie < json.length() && json.charAt(positie) == c) {
+                positie++;
+                return true;
+            }
+            return false;
+        }
+
+        void verwacht(char c) {
+            if (!volgt(c)) {
+                throw new IllegalArgumentException("'" + c + "' verwacht op positie " + positie);
+            }
+        }
+
+        void einde() {
+            spaties();
+            if (positie != json.length()) {
+                throw new IllegalArgumentException("Onverwachte tekst op positie " + positie);
+            }
+        }
+
+        String tekst() {
+            verwacht('"');
+            StringBuilder tekst = new StringBuilder();
+            while (positie < json.length()) {
+                char c = json.charAt(positie++);
+                if (c == '"') {
+                    return tekst.toString();
+                }
+                if (c == '\\' && positie < json.length()) {
+                    char escape = json.charAt(positie++);
+                    switch (escape) {
+                        case 'n':
+                            tekst.append('\n');
+                            break;
+                        case 'r':
+                            tekst.append('\r');
+                            break;
+                        case 't':
+                            tekst.append('\t');
+                            break;
+                        case 'b':
+                            tekst.append('\b');
+                            break;
+                        case 'f':
+                            tekst.append('\f');
+                            break;
+                        case 'u':
+                            if (positie + 4 > json.length()) {
+                                throw new IllegalArgumentException("Onvolledige \\u-escape");
+                            }
+                            tekst.append((char) Integer.parseInt(json.substring(positie, positie + 4), 16));
+                            positie += 4;
+                            break;
+                        default:
+                            tekst.append(escape);
+                    }
+                } else {
+                    tekst.append(c);
+                }
+            }
+            throw new IllegalArgumentException("Tekst zonder einde");
+        }
+
+        String waarde() {
+            spaties();
+            if (positie < json.length() && json.charAt(positie) == '"') {
+                return tekst();
+            }
+            int begin = positie;
+            while (positie < json.length() && ",}".indexOf(json.charAt(positie)) < 0
+                    && !Character.isWhitespace(json.charAt(positie))) {
+                positie++;
+            }
+            String waarde = json.substring(begin, positie);
+            if (waarde.isEmpty() || waarde.startsWith("{") || waarde.startsWith("[")) {
+                throw new IllegalArgumentException("Enkel tekst, getallen, true/false of null op positie " + begin);
+            }
+            return "null".equals(waarde) ? null : waarde;
+        }
+    }
+}
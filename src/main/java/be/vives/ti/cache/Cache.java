@@ -0,0 +1,41 @@
+package be.vives.ti.cache;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+/**
+ * Read-through cache: een waarde die niet in de cache zit, wordt via de lader
+ * opgehaald en bijgehouden. Wie de onderliggende gegevens wijzigt, moet de
+ * sleutel daarna verwijderen.
+ *
+ * @param <K> type van de sleutel
+ * @param <V> type van de waarde
+ */
+public interface Cache<K, V> {
+
+    /**
+     * Geeft de waarde uit de cache, of laadt ze met de lader indien ze er niet in zit.
+     * @param sleutel sleutel van de waarde
+     * @param lader haalt de waarde op indien ze niet in de cache zit
+     * @return de waarde, null indien de lader geen waarde vond
+     * @throws ApplicationException doorgegeven van de lader
+     * @throws DBException doorgegeven van de lader
+     */
+    V zoek(K sleutel, Lader<K, V> lader) throws ApplicationException, DBException;
+
+    /**
+     * Verwijdert een sleutel, bv. nadat de waarde gewijzigd werd.
+     * Een waarde die op dat moment geladen wordt, wordt niet bijgehouden.
+     */
+    void verwijder(K sleutel);
+
+    /**
+     * Verwijdert alle sleutels.
+     */
+    void leegmaken();
+
+    /**
+     * @return hits, misses, verdrongen en verlopen waarden sinds het aanmaken van de cache
+     */
+    CacheStatistieken getStatistieken();
+}
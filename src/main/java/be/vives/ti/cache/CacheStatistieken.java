@@ -0,0 +1,81 @@
+package be.vives.ti.cache;
+
+/**
+ * Momentopname van de tellers van een cache.
+ */
+public class CacheStatistieken {
+
+    private final int grootte;
+    private final int maximumGrootte;
+    private final long hits;
+    private final long misses;
+    private final long verdrongen;
+    private final long verlopen;
+
+    public CacheStatistieken(int grootte, int maximumGrootte, long hits, long misses,
+                             long verdrongen, long verlopen) {
+        this.grootte = grootte;
+        this.maximumGrootte = maximumGrootte;
+        this.hits = hits;
+        this.misses = misses;
+        this.verdrongen = verdrongen;
+        this.verlopen = verlopen;
+    }
+
+    /**
+     * @return aantal waarden in de cache
+     */
+    public int getGrootte() {
+        return grootte;
+    }
+
+    /**
+     * @return maximum aantal waarden in de cache, 0 indien er niets bijgehouden wordt
+     */
+    public int getMaximumGrootte() {
+        return maximumGrootte;
+    }
+
+    /**
+     * @return aantal keer dat een waarde in de cache gevonden werd
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return aantal keer dat een waarde geladen moest worden
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return aantal waarden die verwijderd werden omdat de cache vol zat
+     */
+    public long getVerdrongen() {
+        return verdrongen;
+    }
+
+    /**
+     * @return aantal waarden die verwijderd werden omdat ze te oud waren
+     */
+    public long getVerlopen() {
+        return verlopen;
+    }
+
+    /**
+     * @return aandeel van de opzoekingen dat in de cache gevonden werd, tussen 0 en 1
+     */
+    public double getHitRatio() {
+        long totaal = hits + misses;
+        return totaal == 0 ? 0 : (double) hits / totaal;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistieken{grootte=" + grootte + "/" + maximumGrootte + ", hits=" + hits
+                + ", misses=" + misses + ", hitRatio=" + String.format("%.3f", getHitRatio())
+                + ", verdrongen=" + verdrongen + ", verlopen=" + verlopen + "}";
+    }
+}
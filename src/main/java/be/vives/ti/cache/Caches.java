@@ -0,0 +1,31 @@
+package be.vives.ti.cache;
+
+import java.time.Duration;
+
+/**
+ * Maakt caches aan volgens de instellingen van de installatie:
+ * <pre>
+ * -Dvivesbike.cache.&lt;naam&gt;.grootte=n   maximum aantal waarden, 0 om de cache uit te schakelen
+ * -Dvivesbike.cache.&lt;naam&gt;.ttl=s       aantal seconden dat een waarde bijgehouden wordt, 0 voor altijd
+ * </pre>
+ */
+public final class Caches {
+
+    private Caches() {
+    }
+
+    /**
+     * @param naam naam van de cache in de instellingen, bv. lid
+     * @param standaardGrootte maximum aantal waarden indien niets ingesteld is
+     * @param standaardTtl aantal seconden dat een waarde bijgehouden wordt indien niets ingesteld is
+     * @return een LruCache, of een GeenCache indien de grootte 0 is
+     */
+    public static <K, V> Cache<K, V> maak(String naam, int standaardGrootte, long standaardTtl) {
+        int grootte = Integer.getInteger("vivesbike.cache." + naam + ".grootte", standaardGrootte);
+        long ttl = Long.getLong("vivesbike.cache." + naam + ".ttl", standaardTtl);
+        if (grootte <= 0) {
+            return new GeenCache<>();
+        }
+        return new LruCache<>(grootte, ttl <= 0 ? null : Duration.ofSeconds(ttl));
+    }
+}
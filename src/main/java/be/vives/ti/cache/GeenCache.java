@@ -0,0 +1,34 @@
+package be.vives.ti.cache;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache die niets bijhoudt: elke oproep gaat naar de lader. Wordt gebruikt
+ * wanneer caching uitgeschakeld is.
+ */
+public class GeenCache<K, V> implements Cache<K, V> {
+
+    private final AtomicLong misses = new AtomicLong();
+
+    @Override
+    public V zoek(K sleutel, Lader<K, V> lader) throws ApplicationException, DBException {
+        misses.incrementAndGet();
+        return lader.laad(sleutel);
+    }
+
+    @Override
+    public void verwijder(K sleutel) {
+    }
+
+    @Override
+    public void leegmaken() {
+    }
+
+    @Override
+    public CacheStatistieken getStatistieken() {
+        return new CacheStatistieken(0, 0, 0, misses.get(), 0, 0);
+    }
+}
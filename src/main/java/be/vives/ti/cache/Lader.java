@@ -0,0 +1,18 @@
+package be.vives.ti.cache;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+/**
+ * Haalt een waarde op die niet in de cache zit, meestal uit de databank.
+ *
+ * @param <K> type van de sleutel
+ * @param <V> type van de waarde
+ */
+public interface Lader<K, V> {
+
+    /**
+     * @return de waarde, null indien er geen is (null wordt niet bijgehouden)
+     */
+    V laad(K sleutel) throws ApplicationException, DBException;
+}
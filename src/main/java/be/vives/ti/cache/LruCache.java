@@ -0,0 +1,114 @@
+package be.vives.ti.cache;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache met een maximum aantal waarden: als de cache vol zit, valt de minst recent
+ * gebruikte waarde eruit. Waarden ouder dan de ttl worden opnieuw geladen, zodat
+ * wijzigingen buiten de applicatie om ten laatste na de ttl zichtbaar worden.
+ *
+ * Het laden gebeurt buiten het slot; een waarde die geladen werd terwijl een
+ * sleutel verwijderd werd, wordt niet bijgehouden.
+ */
+public class LruCache<K, V> implements Cache<K, V> {
+
+    private final int maximumGrootte;
+    private final long ttlNanos;
+    private final LongSupplier klok;
+    private final Map<K, Item<V>> items;
+
+    //verhoogt bij elke verwijdering, om waarden te herkennen die intussen gewijzigd werden
+    private long versie;
+    private long hits;
+    private long misses;
+    private long verdrongen;
+    private long verlopen;
+
+    /**
+     * @param maximumGrootte maximum aantal waarden in de cache
+     * @param ttl hoe lang een waarde bijgehouden wordt, null om waarden niet te laten verlopen
+     */
+    public LruCache(int maximumGrootte, Duration ttl) {
+        this(maximumGrootte, ttl, System::nanoTime);
+    }
+
+    LruCache(int maximumGrootte, Duration ttl, LongSupplier klok) {
+        if (maximumGrootte < 1) {
+            throw new IllegalArgumentException("De maximumgrootte moet minstens 1 zijn: " + maximumGrootte);
+        }
+        this.maximumGrootte = maximumGrootte;
+        this.ttlNanos = ttl == null ? Long.MAX_VALUE : ttl.toNanos();
+        this.klok = klok;
+        this.items = new LinkedHashMap<K, Item<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Item<V>> eldest) {
+                if (size() > LruCache.this.maximumGrootte) {
+                    verdrongen++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public V zoek(K sleutel, Lader<K, V> lader) throws ApplicationException, DBException {
+        long startVersie;
+        synchronized (this) {
+            Item<V> item = items.get(sleutel);
+            if (item != null) {
+                if (klok.getAsLong() - item.geladen < ttlNanos) {
+                    hits++;
+                    return item.waarde;
+                }
+                items.remove(sleutel);
+                verlopen++;
+            }
+            misses++;
+            startVersie = versie;
+        }
+
+        V waarde = lader.laad(sleutel);
+        if (waarde != null) {
+            synchronized (this) {
+                if (versie == startVersie) {
+                    items.put(sleutel, new Item<>(waarde, klok.getAsLong()));
+                }
+            }
+        }
+        return waarde;
+    }
+
+    @Override
+    public synchronized void verwijder(K sleutel) {
+        items.remove(sleutel);
+        versie++;
+    }
+
+    @Override
+    public synchronized void leegmaken() {
+        items.clear();
+        versie++;
+    }
+
+    @Override
+    public synchronized CacheStatistieken getStatistieken() {
+        return new CacheStatistieken(items.size(), maximumGrootte, hits, misses, verdrongen, verlopen);
+    }
+
+    private static class Item<V> {
+        private final V waarde;
+        private final long geladen;
+
+        private Item(V waarde, long geladen) {
+            this.waarde = waarde;
+            this.geladen = geladen;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.BatchResultaat;
+import be.vives.ti.exception.DBException;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Voegt meerdere rijen toe met JDBC-batching, per blok van BLOK_GROOTTE rijen
+ * in 1 transactie. Faalt een blok, dan wordt het teruggedraaid en rij per rij
+ * opnieuw uitgevoerd, zodat enkel de foute rijen wegvallen en per rij de
+ * fout gekend is.
+ */
+class BatchInsert {
+
+    static final int BLOK_GROOTTE = 1000;
+
+    /**
+     * Vult de parameters van het insert-statement in voor 1 rij.
+     */
+    interface ParameterVuller<T> {
+        void vulIn(PreparedStatement stmt, T rij) throws SQLException;
+    }
+
+    /**
+     * Bepaalt de sleutel van een toegevoegde rij, uit de rij zelf of uit de
+     * gegenereerde sleutels (null indien er geen gegenereerd worden).
+     */
+    interface SleutelLezer<T, K> {
+        K lees(T rij, ResultSet gegenereerd) throws SQLException;
+    }
+
+    private BatchInsert() {
+    }
+
+    /**
+     * @param methode naam van de DAO-methode, voor de foutboodschap
+     * @param sql insert-statement met parameters
+     * @param rijen rijen die toegevoegd worden
+     * @param gegenereerd true indien de databank de sleutel genereert
+     * @param vuller vult de parameters in per rij
+     * @param lezer bepaalt de sleutel per toegevoegde rij
+     * @return sleutel of fout per rij, in de volgorde van rijen
+     * @throws DBException wanneer er geen connectie is of de transactie niet lukt
+     */
+    static <T, K> BatchResultaat<K> voerUit(String methode, String sql, List<T> rijen, boolean gegenereerd,
+                                            ParameterVuller<T> vuller, SleutelLezer<T, K> lezer)
+            throws DBException {
+        BatchResultaat<K> resultaat = new BatchResultaat<>(rijen.size());
+
+        //Maak connectie met db
+        try (Connection conn = ConnectionManager.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            try (PreparedStatement stmt = gegenereerd
+                    ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                    : conn.prepareStatement(sql)) {
+                conn.setAutoCommit(false);
+
+                for (int begin = 0; begin < rijen.size(); begin += BLOK_GROOTTE) {
+                    int einde = Math.min(begin + BLOK_GROOTTE, rijen.size());
+                    try {
+                        voegBlokToe(stmt, rijen, begin, einde, gegenereerd, vuller, lezer, resultaat);
+                        conn.commit();
+                    } catch (SQLException | RuntimeException ex) {
+                        //blok terugdraaien en rij per rij opnieuw proberen om de foute rijen te vinden
+                        conn.rollback();
+                        stmt.clearBatch();
+                        for (int i = begin; i < einde; i++) {
+                            voegRijToe(conn, stmt, rijen, i, gegenereerd, vuller, lezer, resultaat);
+                        }
+                    }
+                }
+            } catch (SQLException sqlEx) {
+                conn.rollback();
+                throw new DBException("SQL-exception in " + methode + " - statement" + sqlEx);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException sqlEx) {
+            throw new DBException("SQL-exception in " + methode + " - connection" + sqlEx);
+        }
+        return resultaat;
+    }
+
+    private static <T, K> void voegBlokToe(PreparedStatement stmt, List<T> rijen, int begin, int einde,
+                                           boolean gegenereerd, ParameterVuller<T> vuller,
+                                           SleutelLezer<T, K> lezer, BatchResultaat<K> resultaat)
+            throws SQLException {
+        for (int i = begin; i < einde; i++) {
+            vuller.vulIn(stmt, rijen.get(i));
+            stmt.addBatch();
+        }
+        stmt.executeBatch();
+
+        //gegenereerde sleutels komen in dezelfde volgorde als de rijen
+        try (ResultSet sleutels = gegenereerd ? stmt.getGeneratedKeys() : null) {
+            for (int i = begin; i < einde; i++) {
+                resultaat.setSleutel(i, lezer.lees(rijen.get(i), sleutels));
+            }
+        }
+    }
+
+    private static <T, K> void voegRijToe(Connection conn, PreparedStatement stmt, List<T> rijen, int i,
+                                          boolean gegenereerd, ParameterVuller<T> vuller,
+                                          SleutelLezer<T, K> lezer, BatchResultaat<K> resultaat)
+            throws SQLException {
+        T rij = rijen.get(i);
+        if (rij == null) {
+            resultaat.setFout(i, "Er werd geen rij opgegeven.");
+            return;
+        }
+        try {
+            vuller.vulIn(stmt, rij);
+            stmt.executeUpdate();
+            try (ResultSet sleutels = gegenereerd ? stmt.getGeneratedKeys() : null) {
+                resultaat.setSleutel(i, lezer.lees(rij, sleutels));
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException ex) {
+            conn.rollback();
+            resultaat.setFout(i, ex.toString());
+        }
+    }
+}
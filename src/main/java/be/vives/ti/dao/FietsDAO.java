@@ -1,20 +1,92 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.metriek.DaoMetriek;
+import be.vives.ti.dao.metriek.DaoMetrieken;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.FietsToestand;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
-import be.vives.ti.dao.RitDAO;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.DBException;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.List;
 
 public class FietsDAO {
 
-    private RitDAO ritDAO = new RitDAO();
+    private static final String INSERT_FIETS = "insert into fiets(status"
+            + " , standplaats"
+            + " , opmerkingen"
+            + " ) values(?,?,?)";
+
+    private static final String UPDATE_TOESTAND_FIETS = "update fiets "
+            + " set status = ?"
+            + " , opmerkingen = ?"
+            + " where registratienummer = ?";
+
+    private static final String UPDATE_OPMERKING_FIETS = "update fiets "
+            + " set opmerkingen = ?"
+            + " where registratienummer = ?";
+
+    private static final String SELECT_FIETS = "select registratienummer"
+            + " , status"
+            + " , standplaats"
+            + " , opmerkingen"
+            + " from fiets "
+            + " where registratienummer = ?";
+
+    private static final String SELECT_ALLE_FIETSEN = "select registratienummer"
+            + " , status"
+            + " , standplaats"
+            + " , opmerkingen"
+            + " from fiets"
+            + " order by registratienummer";
+
+    private static final String SELECT_BESCHIKBARE_FIETSEN = "select f.registratienummer"
+            + " , f.status"
+            + " , f.standplaats"
+            + " , f.opmerkingen"
+            + " from fiets f"
+            + " where f.status = ?"
+            + " and not exists (select 1"
+            + "                   from rit r"
+            + "                  where r.fiets_registratienummer = f.registratienummer"
+            + "                    and r.starttijd is not null"
+            + "                    and r.eindtijd is null)"
+            + " order by f.registratienummer";
+
+    //per fiets de laatste rit (hoogste id), zodat status en actieve rit van hetzelfde moment zijn
+    private static final String SELECT_FIETS_TOESTANDEN = "select f.registratienummer"
+            + " , f.status"
+            + " , f.standplaats"
+            + " , r.id as rit_id"
+            + " , r.eindtijd"
+            + " from fiets f"
+            + " left join rit r"
+            + "   on r.id = (select max(l.id)"
+            + "                from rit l"
+            + "               where l.fiets_registratienummer = f.registratienummer)"
+            + " order by f.registratienummer";
+
+    //oproepen, fouten en latenties per methode, zie DaoMetriek
+    private static final DaoMetriek METRIEK_TOEVOEGEN_FIETS = DaoMetrieken.voor(FietsDAO.class, "toevoegenFiets");
+    private static final DaoMetriek METRIEK_TOEVOEGEN_FIETSEN = DaoMetrieken.voor(FietsDAO.class, "toevoegenFietsen");
+    private static final DaoMetriek METRIEK_WIJZIGEN_TOESTAND_FIETS =
+            DaoMetrieken.voor(FietsDAO.class, "wijzigenToestandFiets");
+    private static final DaoMetriek METRIEK_WIJZIGEN_OPMERKING_FIETS =
+            DaoMetrieken.voor(FietsDAO.class, "wijzigenOpmerkingFiets");
+    private static final DaoMetriek METRIEK_ZOEK_FIETS = DaoMetrieken.voor(FietsDAO.class, "zoekFiets");
+    private static final DaoMetriek METRIEK_ZOEK_ALLE_FIETSEN = DaoMetrieken.voor(FietsDAO.class, "zoekAlleFietsen");
+    private static final DaoMetriek METRIEK_ZOEK_ALLE_BESCHIKBARE_FIETSEN =
+            DaoMetrieken.voor(FietsDAO.class, "zoekAlleBeschikbareFietsen");
+    private static final DaoMetriek METRIEK_ZOEK_FIETS_TOESTANDEN =
+            DaoMetrieken.voor(FietsDAO.class, "zoekFietsToestanden");
+
+    private final FietsMapper fietsMapper = new FietsMapper();
+
     /**
      * Voegt een fiets toe aan de db. Het registratienummer wordt automatisch gegenereerd door
      * de DAO.
@@ -26,43 +98,65 @@ public class FietsDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public Integer toevoegenFiets(Fiets fiets) throws DBException {
-        if (fiets != null) {
-            Integer primaryKey = null;
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "insert into fiets(status"
-                                + " , standplaats"
-                                + " , opmerkingen"
-                                + " ) values(?,?,?)",
-                        Statement.RETURN_GENERATED_KEYS)) {
-                    stmt.setString(1, Status.actief.toString());
-                    stmt.setString(2, fiets.getStandplaats().toString());
-                    stmt.setString(3, fiets.getOpmerking());
-                    stmt.execute();
+        return METRIEK_TOEVOEGEN_FIETS.meet(() -> {
+            if (fiets != null) {
+                Integer primaryKey = null;
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(INSERT_FIETS,
+                            Statement.RETURN_GENERATED_KEYS)) {
+                        stmt.setString(1, Status.actief.toString());
+                        stmt.setString(2, fiets.getStandplaats().toString());
+                        stmt.setString(3, fiets.getOpmerking());
+                        stmt.execute();
+
+                        ResultSet generatedKeys = stmt.getGeneratedKeys();
+                        if (generatedKeys.next()) {
+                            primaryKey = generatedKeys.getInt(1);
+                        }
 
-                    ResultSet generatedKeys = stmt.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        primaryKey = generatedKeys.getInt(1);
-                    }
+                        System.out.println("Nieuwe fiets toegevoegd met registratienummer: " + primaryKey);
 
-                    System.out.println("Nieuwe fiets toegevoegd met registratienummer: " + primaryKey);
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in toevoegenFiets "
+                                + "- statement" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in toevoegenFiets "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in toevoegenFiets "
-                        + "- connection" + sqlEx);
+                return primaryKey;
+            } else {
+                return null;
             }
-            return primaryKey;
-        } else {
-            return null;
-        }
-        }
+        });
+    }
+
+    /**
+     * Voegt meerdere fietsen tegelijk toe, met JDBC-batching. Een fiets zonder status
+     * krijgt, net als bij toevoegenFiets, de status actief. Fietsen die niet toegevoegd
+     * kunnen worden, worden overgeslagen; de andere fietsen worden wel toegevoegd.
+     * @param fietsen die toegevoegd worden
+     * @return per fiets het gegenereerde registratienummer, of de fout waardoor ze niet
+     * toegevoegd werd
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    public BatchResultaat<Integer> toevoegenFietsen(List<Fiets> fietsen) throws DBException {
+        return METRIEK_TOEVOEGEN_FIETSEN.meet(() -> {
+            return BatchInsert.voerUit("toevoegenFietsen",
+                    INSERT_FIETS,
+                    fietsen, true,
+                    (stmt, fiets) -> {
+                        stmt.setString(1, fiets.getStatus() == null ? Status.actief.toString() : fiets.getStatus().toString());
+                        stmt.setString(2, fiets.getStandplaats().toString());
+                        stmt.setString(3, fiets.getOpmerking());
+                    },
+                    (fiets, gegenereerd) -> gegenereerd.next() ? gegenereerd.getInt(1) : null);
+        });
+    }
 
     /**
      * Wijzigt de toestand en eventueel de opmerking van een fiets adhv het registratienummer.
@@ -73,32 +167,31 @@ public class FietsDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public void wijzigenToestandFiets(Integer regnr, Status status, String opmerking) throws DBException {
-        if (regnr != null) {
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "update fiets "
-                                + " set status = ?"
-                                + " , opmerkingen = ?"
-                                + " where registratienummer = ?")) {
+        METRIEK_WIJZIGEN_TOESTAND_FIETS.meet(() -> {
+            if (regnr != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_TOESTAND_FIETS)) {
 
-                    stmt.setString(1, status.toString());
-                    stmt.setString(2, opmerking);
-                    stmt.setString(3, regnr.toString());
+                        stmt.setString(1, status.toString());
+                        stmt.setString(2, opmerking);
+                        stmt.setString(3, regnr.toString());
 
-                    stmt.execute();
+                        stmt.execute();
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in wijzigenLid "
+                                + "- statement" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in wijzigenLid "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in wijzigenLid "
-                        + "- connection" + sqlEx);
             }
-        }
+            return null;
+        });
     }
 
     /**
@@ -109,30 +202,30 @@ public class FietsDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public void wijzigenOpmerkingFiets(Integer regnr, String opmerking) throws DBException {
-        if (regnr != null) {
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "update fiets "
-                                + " set opmerkingen = ?"
-                                + " where registratienummer = ?")) {
+        METRIEK_WIJZIGEN_OPMERKING_FIETS.meet(() -> {
+            if (regnr != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_OPMERKING_FIETS)) {
 
-                    stmt.setString(1, opmerking);
-                    stmt.setString(2, regnr.toString());
+                        stmt.setString(1, opmerking);
+                        stmt.setString(2, regnr.toString());
 
-                    stmt.execute();
+                        stmt.execute();
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in wijzigenLid "
+                                + "- statement" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in wijzigenLid "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in wijzigenLid "
-                        + "- connection" + sqlEx);
             }
-        }
+            return null;
+        });
     }
 
     /**
@@ -144,104 +237,155 @@ public class FietsDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public Fiets zoekFiets(Integer regnr) throws DBException {
-        if (regnr != null) {
-            Fiets returnFiets = null;
+        return METRIEK_ZOEK_FIETS.meet(() -> {
+            if (regnr != null) {
+                Fiets returnFiets = null;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_FIETS)) {
+
+                        //parameter invullen in query
+                        stmt.setInt(1, regnr);
+                        stmt.execute();
+
+                        try (ResultSet r = stmt.getResultSet()) {
+                            //van de fiets uit de DAO een Fiets-object maken
+                            if (r.next()) {
+                                returnFiets = getFietsUitDatabase(r);
+                            }
+                            return returnFiets;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekFiets " +
+                                    "- resultset" + sqlEx);
+                        }
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekFiets " +
+                                "- statment" + sqlEx);
+
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in zoekFiets " +
+                            "- statment" + sqlEx);
+                }
+            }
+            return null;
+        });
+    }
 
+    /**
+     * Geeft een lijst terug van alle fietsen, ongeacht hun status.
+     * @return een lijst van alle fietsen gesorteerd op registratienummer
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    public ArrayList<Fiets> zoekAlleFietsen() throws DBException {
+        return METRIEK_ZOEK_ALLE_FIETSEN.meet(() -> {
             //Maak connectie met db
             try (Connection conn = ConnectionManager.getConnection()) {
                 //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select registratienummer"
-                                + " , status"
-                                + " , standplaats"
-                                + " , opmerkingen"
-                                + " from fiets "
-                                + " where registratienummer = ?")) {
-
-                    //parameter invullen in query
-                    stmt.setInt(1, regnr);
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALLE_FIETSEN)) {
                     stmt.execute();
 
                     try (ResultSet r = stmt.getResultSet()) {
-                        //van de fiets uit de DAO een Fiets-object maken
-                        if (r.next()) {
-                            returnFiets = getFietsUitDatabase(r);
-                        }
-                        return returnFiets;
+                        return getFietsenUitDatabase(r);
                     } catch (SQLException sqlEx) {
-                        throw new DBException("SQL-exception in zoekFiets " +
-                                "- resultset" + sqlEx);
+                        throw new DBException("SQL-exception in zoekAlleFietsen - resultset" + sqlEx);
                     }
-                } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in zoekFiets " +
-                            "- statment" + sqlEx);
 
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in zoekAlleFietsen "
+                            + "- statement" + sqlEx);
                 }
 
             } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekFiets " +
-                        "- statment" + sqlEx);
+                throw new DBException("SQL-exception in zoekAlleFietsen "
+                        + "- connection" + sqlEx);
             }
-        }
-        return null;
+        });
     }
 
     /**
      * Geeft een lijst terug van alle fietsen met de status ACTIEF en die momenteel geen openstaande rit hebben.
+     * Beide voorwaarden worden in 1 query (anti-join op rit) door de database nagekeken.
      * @return een lijst van alle beschikbare fietsen gesorteerd op registratienummer
      * @throws DBException Exception die duidt op een verkeerde
      *                     installatie van de DAO of een fout in de query.
      */
     public ArrayList<Fiets> zoekAlleBeschikbareFietsen() throws DBException, ApplicationException {
-        ArrayList<Fiets> actieveFietsen;
-        ArrayList<Fiets> fietsenMetActieveRitten = new ArrayList<>();
-        //Maak connectie met db
-        try (Connection conn = ConnectionManager.getConnection()) {
-            //SQL statement opstellen
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "select registratienummer"
-                            + " , status"
-                            + " , standplaats"
-                            + " , opmerkingen"
-                            + " from fiets "
-                            + " where status = ?"
-                            + " order by registratienummer")) {
-                stmt.setString(1, Status.actief.toString());
-                stmt.execute();
-
-                try (ResultSet r = stmt.getResultSet()) {
-                    actieveFietsen = getFietsenUitDatabase(r);
-
-                    //nu zit er in actieveFietsen enkel de fietsen met status ACTIEF
-                    //hiervan nog de fietsen aftrekken die een actieve rit hebben
-
-
-                    //Iterator gebruiken want we verwijderen
-                    for (Iterator<Fiets> it = actieveFietsen.iterator(); it.hasNext();) {
-                        //zoek actieve rit van elke fiets met status ACTIEF
-                        Integer ritID = ritDAO.zoekActieveRitVanFiets(it.next().getRegistratienummer());
-                        if (ritID == null){
-                            //doe niets
-                        } else {
-                            //indien een actieve rit werd gevonden, verwijder uit de lijst
-                            it.remove();
-                        }
+        return METRIEK_ZOEK_ALLE_BESCHIKBARE_FIETSEN.meet(() -> {
+            //Maak connectie met db
+            try (Connection conn = ConnectionManager.getConnection()) {
+                //SQL statement opstellen
+                //een actieve rit is een rit met starttijd maar zonder eindtijd
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_BESCHIKBARE_FIETSEN)) {
+                    stmt.setString(1, Status.actief.toString());
+                    stmt.execute();
+
+                    try (ResultSet r = stmt.getResultSet()) {
+                        return getFietsenUitDatabase(r);
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekAlleBeschikbareFietsen - resultset" + sqlEx);
                     }
 
-                    return actieveFietsen;
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in zoekAlleLeden - resultset" + sqlEx);
+                    throw new DBException("SQL-exception in zoekAlleBeschikbareFietsen "
+                            + "- statement" + sqlEx);
                 }
 
             } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekAlleLeden "
-                        + "- statement" + sqlEx);
+                throw new DBException("SQL-exception in zoekAlleBeschikbareFietsen "
+                        + "- connection" + sqlEx);
             }
+        });
+    }
 
-        } catch (SQLException sqlEx) {
-            throw new DBException("SQL-exception in zoekAlleLeden "
-                    + "- connection" + sqlEx);
-        }
+    /**
+     * Geeft van elke fiets de status, de standplaats en de laatste rit terug, in 1 query,
+     * zodat de beschikbaarheidsindex uit 1 consistent beeld opgebouwd kan worden.
+     * @return de toestand van alle fietsen gesorteerd op registratienummer
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    public ArrayList<FietsToestand> zoekFietsToestanden() throws DBException {
+        return METRIEK_ZOEK_FIETS_TOESTANDEN.meet(() -> {
+            //Maak connectie met db
+            try (Connection conn = ConnectionManager.getConnection()) {
+                //SQL statement opstellen
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_FIETS_TOESTANDEN)) {
+                    stmt.execute();
+
+                    try (ResultSet r = stmt.getResultSet()) {
+                        ArrayList<FietsToestand> toestanden = new ArrayList<>();
+                        while (r.next()) {
+                            FietsToestand toestand = new FietsToestand();
+                            toestand.setRegistratienummer(r.getInt("registratienummer"));
+                            toestand.setStatus(Status.valueOf(r.getString("status")));
+                            toestand.setStandplaats(Standplaats.valueOf(r.getString("standplaats")));
+                            int ritId = r.getInt("rit_id");
+                            if (!r.wasNull()) {
+                                toestand.setLaatsteRitId(ritId);
+                                toestand.setLaatsteRitActief(r.getTimestamp("eindtijd") == null);
+                            }
+                            toestanden.add(toestand);
+                        }
+                        return toestanden;
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekFietsToestanden - resultset" + sqlEx);
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in zoekFietsToestanden "
+                            + "- statement" + sqlEx);
+                }
+
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekFietsToestanden "
+                        + "- connection" + sqlEx);
+            }
+        });
     }
 
 
@@ -253,21 +397,16 @@ public class FietsDAO {
      *                      installatie van de DAO of een fout in de query.
      * @throws ApplicationException
      */
-    private Fiets getFietsUitDatabase(ResultSet r) throws SQLException {
-        Fiets fiets = new Fiets();
-
-        fiets.setRegistratienummer(r.getInt("registratienummer"));
-        fiets.setStatus(Status.valueOf(r.getString("status")));
-        fiets.setStandplaats(Standplaats.valueOf(r.getString("standplaats")));
-        fiets.setOpmerking(r.getString("opmerkingen"));
-
-        return fiets;
+    Fiets getFietsUitDatabase(ResultSet r) throws SQLException {
+        return fietsMapper.map(r);
     }
 
     private ArrayList<Fiets> getFietsenUitDatabase(ResultSet r) throws SQLException {
         ArrayList<Fiets> fietsen = new ArrayList<>();
+        //kolomposities 1 keer opzoeken voor alle rijen
+        int[] kolom = fietsMapper.posities(r);
         while (r.next()) {
-            Fiets fiets = getFietsUitDatabase(r);
+            Fiets fiets = fietsMapper.map(r, kolom);
             fietsen.add(fiets);
         }
         return fietsen;
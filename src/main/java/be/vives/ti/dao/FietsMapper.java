@@ -0,0 +1,41 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Zet een rij uit de tabel fiets om in een object van type Fiets.
+ */
+class FietsMapper extends ResultSetMapper<Fiets> {
+
+    //posities in de array van kolomindexen
+    private static final int REGISTRATIENUMMER = 0;
+    private static final int STATUS = 1;
+    private static final int STANDPLAATS = 2;
+    private static final int OPMERKINGEN = 3;
+
+    FietsMapper() {
+        super("registratienummer", "status", "standplaats", "opmerkingen");
+    }
+
+    @Override
+    Fiets map(ResultSet r, int[] kolom) throws SQLException {
+        Fiets fiets = new Fiets();
+
+        fiets.setRegistratienummer(r.getInt(kolom[REGISTRATIENUMMER]));
+        fiets.setStatus(Status.valueOf(r.getString(kolom[STATUS])));
+        fiets.setStandplaats(Standplaats.valueOf(r.getString(kolom[STANDPLAATS])));
+        fiets.setOpmerking(r.getString(kolom[OPMERKINGEN]));
+
+        return fiets;
+    }
+
+    @Override
+    Fiets map(ResultSet r) throws SQLException {
+        return map(r, posities(r));
+    }
+}
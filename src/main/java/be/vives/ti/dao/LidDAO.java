@@ -1,6 +1,9 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.metriek.DaoMetriek;
+import be.vives.ti.dao.metriek.DaoMetrieken;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.ApplicationException;
@@ -9,6 +12,10 @@ import be.vives.ti.exception.DBException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Bevat alle functionaliteit op de DAO-tabel lid:
@@ -19,6 +26,90 @@ import java.util.ArrayList;
 
 public class LidDAO {
 
+    private static final String INSERT_LID = "insert into lid(rijksregisternummer"
+            + " , voornaam"
+            + " , naam"
+            + " , emailadres"
+            + " , start_lidmaatschap"
+            + " , opmerking"
+            + " ) values(?,?,?,?,?,?)";
+
+    private static final String UPDATE_LID = "update lid "
+            + " set voornaam = ?"
+            + " , naam = ?"
+            + " , emailadres = ?"
+            + " , start_lidmaatschap = ?"
+            + " , opmerking = ?"
+            + " where rijksregisternummer = ?";
+
+    private static final String UPDATE_EINDE_LIDMAATSCHAP = "update lid "
+            + " set einde_lidmaatschap = ?"
+            + " where rijksregisternummer = ?";
+
+    private static final String SELECT_LID = "select rijksregisternummer"
+            + " , voornaam"
+            + " , naam"
+            + " , emailadres"
+            + " , start_lidmaatschap"
+            + " , einde_lidmaatschap"
+            + " , opmerking "
+            + " from lid "
+            + " where rijksregisternummer = ?";
+
+    private static final String SELECT_ALLE_LEDEN = "select rijksregisternummer"
+            + " , voornaam"
+            + " , naam"
+            + " , emailadres"
+            + " , start_lidmaatschap"
+            + " , einde_lidmaatschap"
+            + " , opmerking"
+            + " from lid "
+            + " order by naam"
+            + "         , voornaam";
+
+    private static final String SELECT_EERSTE_PAGINA_LEDEN = "select rijksregisternummer"
+            + " , voornaam"
+            + " , naam"
+            + " , emailadres"
+            + " , start_lidmaatschap"
+            + " , einde_lidmaatschap"
+            + " , opmerking"
+            + " from lid "
+            + " order by naam"
+            + "         , voornaam"
+            + "         , rijksregisternummer"
+            + " limit ?";
+
+    //enkel leden die na het vorige lid komen in de sortering
+    private static final String SELECT_VOLGENDE_PAGINA_LEDEN = "select rijksregisternummer"
+            + " , voornaam"
+            + " , naam"
+            + " , emailadres"
+            + " , start_lidmaatschap"
+            + " , einde_lidmaatschap"
+            + " , opmerking"
+            + " from lid "
+            + " where naam > ?"
+            + " or (naam = ? and voornaam > ?)"
+            + " or (naam = ? and voornaam = ? and rijksregisternummer > ?)"
+            + " order by naam"
+            + "         , voornaam"
+            + "         , rijksregisternummer"
+            + " limit ?";
+
+    //oproepen, fouten en latenties per methode, zie DaoMetriek
+    private static final DaoMetriek METRIEK_TOEVOEGEN_LID = DaoMetrieken.voor(LidDAO.class, "toevoegenLid");
+    private static final DaoMetriek METRIEK_TOEVOEGEN_LEDEN = DaoMetrieken.voor(LidDAO.class, "toevoegenLeden");
+    private static final DaoMetriek METRIEK_ZOEK_BESTAANDE_RIJKSREGISTERNUMMERS =
+            DaoMetrieken.voor(LidDAO.class, "zoekBestaandeRijksregisternummers");
+    private static final DaoMetriek METRIEK_WIJZIGEN_LID = DaoMetrieken.voor(LidDAO.class, "wijzigenLid");
+    private static final DaoMetriek METRIEK_UITSCHRIJVEN_LID = DaoMetrieken.voor(LidDAO.class, "uitschrijvenLid");
+    private static final DaoMetriek METRIEK_ZOEK_LID = DaoMetrieken.voor(LidDAO.class, "zoekLid");
+    private static final DaoMetriek METRIEK_ZOEK_ALLE_LEDEN = DaoMetrieken.voor(LidDAO.class, "zoekAlleLeden");
+    private static final DaoMetriek METRIEK_ZOEK_LEDEN_PAGINA = DaoMetrieken.voor(LidDAO.class, "zoekLedenPagina");
+
+    private final LidMapper lidMapper = new LidMapper();
+
     /**
      * Voegt een lid toe.
      * @param lid dat toegevoegd wordt.
@@ -27,46 +118,120 @@ public class LidDAO {
      *                      installatie van de DAO of een fout in de query.
      */
     public String toevoegenLid(Lid lid) throws DBException {
-        if (lid != null) {
-            String toegevoegdLid;
+        return METRIEK_TOEVOEGEN_LID.meet(() -> {
+            if (lid != null) {
+                String toegevoegdLid;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(INSERT_LID)) {
+                        stmt.setString(1, lid.getRijksregisternummer());
+                        stmt.setString(2, lid.getVoornaam());
+                        stmt.setString(3, lid.getNaam());
+                        stmt.setString(4, lid.getEmailadres());
+                        stmt.setString(5, lid.getStart_lidmaatschap().toString());
+                        stmt.setString(6, lid.getOpmerking());
+                        stmt.execute();
+
+                        toegevoegdLid = lid.getRijksregisternummer();
+                        System.out.println("Nieuw lid toegevoegd met rijksnr: " + toegevoegdLid);
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in toevoegenLid "
+                                + "- statement" + sqlEx);
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in toevoegenLid "
+                            + "- connection" + sqlEx);
+                }
+                return toegevoegdLid;
+            } else {
+                return null;
+            }
+        });
+    }
+
+
+    /**
+     * Voegt meerdere leden tegelijk toe, met JDBC-batching. Leden die niet toegevoegd
+     * kunnen worden (bv. omdat het rijksregisternummer al bestaat) worden overgeslagen;
+     * de andere leden worden wel toegevoegd.
+     * @param leden die toegevoegd worden
+     * @return per lid het rijksregisternummer, of de fout waardoor het niet toegevoegd werd
+     * @throws DBException Exception die duidt op een verkeerde
+     *                      installatie van de DAO of een fout in de query.
+     */
+    public BatchResultaat<String> toevoegenLeden(List<Lid> leden) throws DBException {
+        return METRIEK_TOEVOEGEN_LEDEN.meet(() -> {
+            return BatchInsert.voerUit("toevoegenLeden",
+                    INSERT_LID,
+                    leden, false,
+                    (stmt, lid) -> {
+                        stmt.setString(1, lid.getRijksregisternummer());
+                        stmt.setString(2, lid.getVoornaam());
+                        stmt.setString(3, lid.getNaam());
+                        stmt.setString(4, lid.getEmailadres());
+                        stmt.setString(5, lid.getStart_lidmaatschap().toString());
+                        stmt.setString(6, lid.getOpmerking());
+                    },
+                    (lid, gegenereerd) -> lid.getRijksregisternummer());
+        });
+    }
+
+    /**
+     * Zoekt welke van de opgegeven rijksregisternummers al een lid hebben, in 1 query.
+     * @param rijksregisternummers rijksregisternummers die gecontroleerd worden
+     * @return de rijksregisternummers waarvoor al een lid bestaat
+     * @throws DBException Exception die duidt op een verkeerde
+     *                      installatie van de DAO of een fout in de query.
+     */
+    public Set<String> zoekBestaandeRijksregisternummers(Collection<String> rijksregisternummers)
+            throws DBException {
+        return METRIEK_ZOEK_BESTAANDE_RIJKSREGISTERNUMMERS.meet(() -> {
+            Set<String> bestaand = new HashSet<>();
+            if (rijksregisternummers.isEmpty()) {
+                return bestaand;
+            }
 
             //Maak connectie met db
             try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "insert into lid(rijksregisternummer"
-                                + " , voornaam"
-                                + " , naam"
-                                + " , emailadres"
-                                + " , start_lidmaatschap"
-                                + " , opmerking"
-                                + " ) values(?,?,?,?,?,?)")) {
-                    stmt.setString(1, lid.getRijksregisternummer());
-                    stmt.setString(2, lid.getVoornaam());
-                    stmt.setString(3, lid.getNaam());
-                    stmt.setString(4, lid.getEmailadres());
-                    stmt.setString(5, lid.getStart_lidmaatschap().toString());
-                    stmt.setString(6, lid.getOpmerking());
+                //SQL statement opstellen, 1 parameter per rijksregisternummer
+                StringBuilder sql = new StringBuilder("select rijksregisternummer from lid where rijksregisternummer in (?");
+                for (int i = 1; i < rijksregisternummers.size(); i++) {
+                    sql.append(",?");
+                }
+                sql.append(")");
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    int i = 1;
+                    for (String rr : rijksregisternummers) {
+                        stmt.setString(i++, rr);
+                    }
                     stmt.execute();
 
-                    toegevoegdLid = lid.getRijksregisternummer();
-                    System.out.println("Nieuw lid toegevoegd met rijksnr: " + toegevoegdLid);
+                    try (ResultSet r = stmt.getResultSet()) {
+                        while (r.next()) {
+                            bestaand.add(r.getString(1));
+                        }
+                        return bestaand;
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekBestaandeRijksregisternummers "
+                                + "- resultset" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in toevoegenLid "
+                    throw new DBException("SQL-exception in zoekBestaandeRijksregisternummers "
                             + "- statement" + sqlEx);
                 }
 
             } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in toevoegenLid "
+                throw new DBException("SQL-exception in zoekBestaandeRijksregisternummers "
                         + "- connection" + sqlEx);
             }
-            return toegevoegdLid;
-        } else {
-            return null;
-        }
-        }
-
+        });
+    }
 
     /**
      * Wijzigt voornaam, naam, email en opmerking van een lid
@@ -75,37 +240,33 @@ public class LidDAO {
      *                      installatie van de DAO of een fout in de query.
      */
     public void wijzigenLid(Lid lid) throws DBException {
-        if (lid != null) {
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "update lid "
-                                + " set voornaam = ?"
-                                + " , naam = ?"
-                                + " , emailadres = ?"
-                                + " , start_lidmaatschap = ?"
-                                + " , opmerking = ?"
-                                + " where rijksregisternummer = ?")) {
-
-                    stmt.setString(1, lid.getVoornaam());
-                    stmt.setString(2, lid.getNaam());
-                    stmt.setString(3, lid.getEmailadres());
-                    stmt.setString(4, lid.getStart_lidmaatschap().toString());
-                    stmt.setString(5, lid.getOpmerking());
-                    stmt.setString(6, lid.getRijksregisternummer());
-                    stmt.execute();
+        METRIEK_WIJZIGEN_LID.meet(() -> {
+            if (lid != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_LID)) {
+
+                        stmt.setString(1, lid.getVoornaam());
+                        stmt.setString(2, lid.getNaam());
+                        stmt.setString(3, lid.getEmailadres());
+                        stmt.setString(4, lid.getStart_lidmaatschap().toString());
+                        stmt.setString(5, lid.getOpmerking());
+                        stmt.setString(6, lid.getRijksregisternummer());
+                        stmt.execute();
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in wijzigenLid "
+                                + "- statement" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in wijzigenLid "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in wijzigenLid "
-                        + "- connection" + sqlEx);
             }
-        }
+            return null;
+        });
     }
 
     /**
@@ -115,30 +276,30 @@ public class LidDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public void uitschrijvenLid(Rijksregisternummer rr) throws DBException {
-        if (rr != null) {
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "update lid "
-                                + " set einde_lidmaatschap = ?"
-                                + " where rijksregisternummer = ?")) {
+        METRIEK_UITSCHRIJVEN_LID.meet(() -> {
+            if (rr != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_EINDE_LIDMAATSCHAP)) {
 
-                    stmt.setString(1, LocalDate.now().toString());
-                    stmt.setString(2, rr.getRijksregisternummer());
+                        stmt.setString(1, LocalDate.now().toString());
+                        stmt.setString(2, rr.getRijksregisternummer());
 
-                    stmt.execute();
+                        stmt.execute();
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in uitschrijvenLid "
+                                + "- statement" + sqlEx);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in uitschrijvenLid "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in uitschrijvenLid "
-                        + "- connection" + sqlEx);
             }
-        }
+            return null;
+        });
     }
 
     /**
@@ -150,47 +311,40 @@ public class LidDAO {
      * @throws ApplicationException Exception die duidt op een fout in getLidUitDatabase()
      */
     public Lid zoekLid(Rijksregisternummer rijksregisternummer) throws DBException, ApplicationException {
-        if (rijksregisternummer != null) {
-            Lid returnLid = null;
-
-            try (Connection conn = ConnectionManager.getConnection()) {
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select rijksregisternummer"
-                                + " , voornaam"
-                                + " , naam"
-                                + " , emailadres"
-                                + " , start_lidmaatschap"
-                                + " , einde_lidmaatschap"
-                                + " , opmerking "
-                                + " from lid "
-                                + " where rijksregisternummer = ?")) {
-
-                    // parameters invullen in query
-                    stmt.setString(1, rijksregisternummer.getRijksregisternummer());
-
-                    // execute voert het SQL-statement uit
-                    stmt.execute();
-                    // result opvragen (en automatisch sluiten)
-                    try (ResultSet r = stmt.getResultSet()) {
-                        // van het lid uit de DAO een Lid-object maken
-                         if (r.next()) {
-                            returnLid = getLidUitDatabase(r);
+        return METRIEK_ZOEK_LID.meet(() -> {
+            if (rijksregisternummer != null) {
+                Lid returnLid = null;
+
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_LID)) {
+
+                        // parameters invullen in query
+                        stmt.setString(1, rijksregisternummer.getRijksregisternummer());
+
+                        // execute voert het SQL-statement uit
+                        stmt.execute();
+                        // result opvragen (en automatisch sluiten)
+                        try (ResultSet r = stmt.getResultSet()) {
+                            // van het lid uit de DAO een Lid-object maken
+                             if (r.next()) {
+                                returnLid = getLidUitDatabase(r);
+                            }
+                            return returnLid;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekLid "
+                                    + "- resultset" + sqlEx);
                         }
-                        return returnLid;
                     } catch (SQLException sqlEx) {
                         throw new DBException("SQL-exception in zoekLid "
-                                + "- resultset" + sqlEx);
+                                + "- statement" + sqlEx);
                     }
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekLid "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekLid "
-                        + "- connection" + sqlEx);
             }
-        }
-        return null;
+            return null;
+        });
     }
 
     /**
@@ -201,40 +355,81 @@ public class LidDAO {
      * @throws ApplicationException
      */
     public ArrayList<Lid> zoekAlleLeden() throws DBException, ApplicationException {
-        //Maak connectie met db
-        try (Connection conn = ConnectionManager.getConnection()) {
-            //SQL statement opstellen
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "select rijksregisternummer"
-                            + " , voornaam"
-                            + " , naam"
-                            + " , emailadres"
-                            + " , start_lidmaatschap"
-                            + " , einde_lidmaatschap"
-                            + " , opmerking"
-                            + " from lid "
-                            + " order by naam"
-                            + "         , voornaam")) {
-                stmt.execute();
-
-                try (ResultSet r = stmt.getResultSet()) {
-                    return getLedenUitDatabase(r);
+        return METRIEK_ZOEK_ALLE_LEDEN.meet(() -> {
+            //Maak connectie met db
+            try (Connection conn = ConnectionManager.getConnection()) {
+                //SQL statement opstellen
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALLE_LEDEN)) {
+                    stmt.execute();
+
+                    try (ResultSet r = stmt.getResultSet()) {
+                        return getLedenUitDatabase(r);
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekAlleLeden - resultset" + sqlEx);
+                    }
+
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in zoekAlleLeden - resultset" + sqlEx);
+                    throw new DBException("SQL-exception in zoekAlleLeden "
+                            + "- statement" + sqlEx);
                 }
 
             } catch (SQLException sqlEx) {
                 throw new DBException("SQL-exception in zoekAlleLeden "
-                        + "- statement" + sqlEx);
+                        + "- connection" + sqlEx);
             }
 
-        } catch (SQLException sqlEx) {
-            throw new DBException("SQL-exception in zoekAlleLeden "
-                    + "- connection" + sqlEx);
-        }
 
+        });
+    }
 
-}
+    /**
+     * Zoekt een pagina leden, gesorteerd op naam, voornaam en rijksregisternummer.
+     * De pagina begint net na het opgegeven lid (keyset-paginering), zodat de databank
+     * de vorige pagina's niet opnieuw moet overlopen.
+     * @param vorige laatste lid van de vorige pagina, null voor de eerste pagina
+     * @param paginaGrootte maximum aantal leden op de pagina
+     * @return leden van de pagina, een lege lijst indien er geen leden meer zijn
+     * @throws DBException Exception die duidt op een verkeerde installatie van de
+     * be.vives.DAO of een fout in de query
+     * @throws ApplicationException
+     */
+    public ArrayList<Lid> zoekLedenPagina(Lid vorige, int paginaGrootte) throws DBException, ApplicationException {
+        return METRIEK_ZOEK_LEDEN_PAGINA.meet(() -> {
+            //Maak connectie met db
+            try (Connection conn = ConnectionManager.getConnection()) {
+                //SQL statement opstellen
+                //aparte query voor de eerste pagina, zodat beide als vaste tekst hergebruikt kunnen worden
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        vorige == null ? SELECT_EERSTE_PAGINA_LEDEN : SELECT_VOLGENDE_PAGINA_LEDEN)) {
+                    int i = 1;
+                    if (vorige != null) {
+                        stmt.setString(i++, vorige.getNaam());
+                        stmt.setString(i++, vorige.getNaam());
+                        stmt.setString(i++, vorige.getVoornaam());
+                        stmt.setString(i++, vorige.getNaam());
+                        stmt.setString(i++, vorige.getVoornaam());
+                        stmt.setString(i++, vorige.getRijksregisternummer());
+                    }
+                    stmt.setInt(i, paginaGrootte);
+                    stmt.execute();
+
+                    try (ResultSet r = stmt.getResultSet()) {
+                        return getLedenUitDatabase(r);
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekLedenPagina - resultset" + sqlEx);
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in zoekLedenPagina "
+                            + "- statement" + sqlEx);
+                }
+
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in zoekLedenPagina "
+                        + "- connection" + sqlEx);
+            }
+        });
+    }
 
     /**
      * zet een lid uit de database-resultset om in een object van type Lid
@@ -244,36 +439,13 @@ public class LidDAO {
      *                      installatie van de DAO of een fout in de query.
      * @throws ApplicationException
      */
-    private Lid getLidUitDatabase(ResultSet r) throws SQLException, ApplicationException {
-        Lid lid = new Lid();
-        Rijksregisternummer rijk = new Rijksregisternummer(r.getString("rijksregisternummer"));
-        LocalDate start = LocalDate.parse(r.getString("start_lidmaatschap"));
-        LocalDate einde = null;
-
-        if (r.getString("einde_lidmaatschap") == null) {
-            einde = null;
-        } else {
-            einde = LocalDate.parse(r.getString("einde_lidmaatschap"));
-        }
-
-        lid.setVoornaam(r.getString("voornaam"));
-        lid.setNaam(r.getString("naam"));
-        lid.setEmailadres(r.getString("emailadres"));
-        lid.setStart_lidmaatschap(start);
-        lid.setEinde_lidmaatschap(einde);
-        lid.setOpmerking(r.getString("opmerking"));
-        lid.setRijksregisternummer(rijk);
-
-        return lid;
+    Lid getLidUitDatabase(ResultSet r) throws SQLException, ApplicationException {
+        return lidMapper.map(r);
     }
 
     private ArrayList<Lid> getLedenUitDatabase(ResultSet r) throws SQLException, ApplicationException {
-        ArrayList<Lid> leden = new ArrayList<>();
-        while (r.next()) {
-            Lid lid = getLidUitDatabase(r);
-            leden.add(lid);
-        }
-        return leden;
+        //kolomposities 1 keer opzoeken voor alle rijen
+        return lidMapper.mapAlle(r);
     }
 
 }
@@ -0,0 +1,48 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Zet een rij uit de tabel lid om in een object van type Lid.
+ */
+class LidMapper extends ResultSetMapper<Lid> {
+
+    //posities in de array van kolomindexen
+    private static final int RIJKSREGISTERNUMMER = 0;
+    private static final int VOORNAAM = 1;
+    private static final int NAAM = 2;
+    private static final int EMAILADRES = 3;
+    private static final int START_LIDMAATSCHAP = 4;
+    private static final int EINDE_LIDMAATSCHAP = 5;
+    private static final int OPMERKING = 6;
+
+    LidMapper() {
+        super("rijksregisternummer", "voornaam", "naam", "emailadres",
+                "start_lidmaatschap", "einde_lidmaatschap", "opmerking");
+    }
+
+    @Override
+    Lid map(ResultSet r, int[] kolom) throws SQLException, ApplicationException {
+        Lid lid = new Lid();
+
+        lid.setRijksregisternummer(Rijksregisternummer.uitDatabank(r.getString(kolom[RIJKSREGISTERNUMMER])));
+        lid.setVoornaam(r.getString(kolom[VOORNAAM]));
+        lid.setNaam(r.getString(kolom[NAAM]));
+        lid.setEmailadres(r.getString(kolom[EMAILADRES]));
+        lid.setStart_lidmaatschap(r.getDate(kolom[START_LIDMAATSCHAP]).toLocalDate());
+
+        //einde_lidmaatschap is null zolang het lid niet uitgeschreven is
+        Date einde = r.getDate(kolom[EINDE_LIDMAATSCHAP]);
+        lid.setEinde_lidmaatschap(einde == null ? null : einde.toLocalDate());
+
+        lid.setOpmerking(r.getString(kolom[OPMERKING]));
+
+        return lid;
+    }
+}
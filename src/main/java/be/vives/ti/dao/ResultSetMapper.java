@@ -0,0 +1,76 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.exception.ApplicationException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * Zet rijen van een resultset om in objecten. De posities van de kolommen
+ * worden 1 keer per resultset opgezocht; daarna wordt elke rij gelezen
+ * via de kolomindex in plaats van via de kolomnaam.
+ *
+ * Een mapper houdt zelf geen toestand bij en kan gedeeld worden tussen threads.
+ *
+ * @param <T> type van de objecten die uit de resultset gehaald worden
+ */
+abstract class ResultSetMapper<T> {
+
+    private final String[] kolomnamen;
+
+    /**
+     * @param kolomnamen namen van de kolommen die de mapper leest, in de volgorde
+     *                   waarin ze in de array van posities terechtkomen
+     */
+    ResultSetMapper(String... kolomnamen) {
+        this.kolomnamen = kolomnamen;
+    }
+
+    /**
+     * Zoekt de positie van elke kolom op in de resultset.
+     * @param r de resultset van de query
+     * @return kolomindex per kolomnaam, in de volgorde van de constructor
+     * @throws SQLException wanneer een kolom niet in de resultset zit
+     */
+    int[] posities(ResultSet r) throws SQLException {
+        int[] posities = new int[kolomnamen.length];
+        for (int i = 0; i < kolomnamen.length; i++) {
+            posities[i] = r.findColumn(kolomnamen[i]);
+        }
+        return posities;
+    }
+
+    /**
+     * Zet de huidige rij van de resultset om.
+     * @param r de resultset, gepositioneerd op een rij
+     * @param kolom kolomposities zoals teruggegeven door posities()
+     * @return het object van de huidige rij
+     * @throws SQLException Exception die duidt op een verkeerde
+     *                      installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wanneer de gegevens in de rij ongeldig zijn
+     */
+    abstract T map(ResultSet r, int[] kolom) throws SQLException, ApplicationException;
+
+    /**
+     * Zet de huidige rij om, zonder vooraf opgezochte posities.
+     * Enkel bedoeld voor resultsets waaruit 1 rij gelezen wordt.
+     */
+    T map(ResultSet r) throws SQLException, ApplicationException {
+        return map(r, posities(r));
+    }
+
+    /**
+     * Zet alle (overblijvende) rijen van de resultset om.
+     * @param r de resultset van de query
+     * @return lijst met een object per rij
+     */
+    ArrayList<T> mapAlle(ResultSet r) throws SQLException, ApplicationException {
+        ArrayList<T> lijst = new ArrayList<>();
+        int[] kolom = posities(r);
+        while (r.next()) {
+            lijst.add(map(r, kolom));
+        }
+        return lijst;
+    }
+}
@@ -1,17 +1,149 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.dao.metriek.DaoMetriek;
+import be.vives.ti.dao.metriek.DaoMetrieken;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.databag.Rit;
-import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.databag.RitToelating;
+import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 
 import java.sql.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class RitDAO {
 
+    private static final String SELECT_VERGRENDEL_FIETS_EN_LID = "select f.registratienummer"
+            + " , l.rijksregisternummer"
+            + " from fiets f"
+            + " , lid l"
+            + " where f.registratienummer = ?"
+            + " and l.rijksregisternummer = ?"
+            + " for update";
+
+    private static final String SELECT_TOELATING = "select (select count(*) from lid"
+            + "          where rijksregisternummer = ?) as lid_bestaat"
+            + " , (select einde_lidmaatschap from lid"
+            + "     where rijksregisternummer = ?) as einde_lidmaatschap"
+            + " , (select count(*) from rit"
+            + "     where lid_rijksregisternummer = ?"
+            + "       and starttijd is not null"
+            + "       and eindtijd is null) as lid_actieve_ritten"
+            + " , (select status from fiets"
+            + "     where registratienummer = ?) as fiets_status"
+            + " , (select count(*) from rit"
+            + "     where fiets_registratienummer = ?"
+            + "       and starttijd is not null"
+            + "       and eindtijd is null) as fiets_actieve_ritten";
+
+    private static final String UPDATE_AFSLUITEN_RIT = "update rit "
+            + " set eindtijd = ?"
+            + " , prijs = ?"
+            + " where id = ?";
+
+    private static final String UPDATE_AFSLUITEN_ACTIEVE_RIT = "update rit "
+            + " set eindtijd = ?"
+            + " , prijs = ?"
+            + " where id = ?"
+            + " and eindtijd is null"
+            + " and prijs is null";
+
+    private static final String SELECT_AFGESLOTEN_RITTEN = "select id"
+            + " , starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " from rit "
+            + " where id > ?"
+            + " and eindtijd is not null";
+
+    private static final String SELECT_ALLE_AFGESLOTEN_RITTEN = SELECT_AFGESLOTEN_RITTEN
+            + " order by id";
+
+    //stopt voor de oudste openstaande rit, zodat die bij een volgende export niet gemist wordt
+    private static final String SELECT_RITTEN_NA_ID = SELECT_AFGESLOTEN_RITTEN
+            + " and id < coalesce((select min(o.id) from rit o where o.eindtijd is null), 2147483647)"
+            + " order by id";
+
+    private static final String SELECT_OUDSTE_OPEN_RIT = "select min(id) as id"
+            + " from rit"
+            + " where eindtijd is null";
+
+    private static final String SELECT_RIT = "select id"
+            + " , starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " from rit "
+            + " where id = ?";
+
+    private static final String SELECT_RITTEN_VAN_LID = "select id"
+            + " , starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " from rit "
+            + " where lid_rijksregisternummer = ?"
+            + " order by starttijd asc";
+
+    private static final String SELECT_ACTIEVE_RIT_VAN_LID = "select id"
+            + " , starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " from rit"
+            + " where lid_rijksregisternummer = ?"
+            //bij null moet je IS/IS NOT gebruiken ipv = of !=
+            + " and starttijd IS NOT NULL"
+            + " and eindtijd IS NULL";
+
+    private static final String SELECT_ACTIEVE_RIT_VAN_FIETS = "select id"
+            + " , starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " from rit"
+            + " where fiets_registratienummer = ?"
+            //bij null moet je IS/IS NOT gebruiken ipv = of !=
+            + " and starttijd IS NOT NULL"
+            + " and eindtijd IS NULL";
+
+    private static final String INSERT_RIT = "insert into rit(starttijd"
+            + " , eindtijd"
+            + " , prijs"
+            + " , lid_rijksregisternummer"
+            + " , fiets_registratienummer"
+            + " ) values(?,?,?,?,?)";
+
+    //oproepen, fouten en latenties per methode, zie DaoMetriek
+    private static final DaoMetriek METRIEK_TOEVOEGEN_RIT = DaoMetrieken.voor(RitDAO.class, "toevoegenRit");
+    private static final DaoMetriek METRIEK_TOEVOEGEN_RITTEN = DaoMetrieken.voor(RitDAO.class, "toevoegenRitten");
+    private static final DaoMetriek METRIEK_TOEVOEGEN_RIT_GECONTROLEERD =
+            DaoMetrieken.voor(RitDAO.class, "toevoegenRitGecontroleerd");
+    private static final DaoMetriek METRIEK_AFSLUITEN_RIT = DaoMetrieken.voor(RitDAO.class, "afsluitenRit");
+    private static final DaoMetriek METRIEK_AFSLUITEN_ACTIEVE_RIT =
+            DaoMetrieken.voor(RitDAO.class, "afsluitenActieveRit");
+    private static final DaoMetriek METRIEK_OVERLOOP_RITTEN = DaoMetrieken.voor(RitDAO.class, "overloopRitten");
+    private static final DaoMetriek METRIEK_ZOEK_RIT = DaoMetrieken.voor(RitDAO.class, "zoekRit");
+    private static final DaoMetriek METRIEK_ZOEK_OUDSTE_OPEN_RIT =
+            DaoMetrieken.voor(RitDAO.class, "zoekOudsteOpenRit");
+    private static final DaoMetriek METRIEK_ZOEK_EERSTE_RIT_VAN_LID =
+            DaoMetrieken.voor(RitDAO.class, "zoekEersteRitVanLid");
+    private static final DaoMetriek METRIEK_ZOEK_ACTIEVE_RIT_VAN_LID =
+            DaoMetrieken.voor(RitDAO.class, "zoekActieveRitVanLid");
+    private static final DaoMetriek METRIEK_ZOEK_ACTIEVE_RIT_VAN_FIETS =
+            DaoMetrieken.voor(RitDAO.class, "zoekActieveRitVanFiets");
+
+    private final RitMapper ritMapper = new RitMapper();
+
     /**
      * Voegt een rit toe aan de db. Het id wordt automatisch gegenereerd door
      * de DAO.
@@ -23,56 +155,187 @@ public class RitDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public Integer toevoegenRit(Rit rit) throws DBException {
-        if (rit != null) {
-            Integer primaryKey = null;
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "insert into rit(starttijd"
-                                + " , eindtijd"
-                                + " , prijs"
-                                + " , lid_rijksregisternummer"
-                                + " , fiets_registratienummer"
-                                + " ) values(?,?,?,?,?)",
-                        Statement.RETURN_GENERATED_KEYS)) {
-
-                    stmt.setTimestamp(1, java.sql.Timestamp.valueOf(rit.getStarttijd()));
-
-                    if (rit.getEindtijd() == null) {
-                        stmt.setNull(2, Types.DATE);
-                    } else {
-                        stmt.setTimestamp(2, java.sql.Timestamp.valueOf(rit.getEindtijd()));
-                    }
-                    if (rit.getPrijs() == null) {
-                        stmt.setNull(3, Types.DECIMAL);
-                    } else {
-                        stmt.setString(3, rit.getPrijs().toString());
+        return METRIEK_TOEVOEGEN_RIT.meet(() -> {
+            if (rit != null) {
+                Integer primaryKey;
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    try {
+                        primaryKey = voegRitToe(conn, rit);
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in toevoegenRit "
+                                + "- statement" + sqlEx);
                     }
-                    stmt.setString(4, rit.getLidRijksregisternummer());
-                    stmt.setInt(5, rit.getFietsRegistratienummer());
-                    stmt.execute();
 
-                    ResultSet generatedKeys = stmt.getGeneratedKeys();
-                    if (generatedKeys.next()) {
-                        primaryKey = generatedKeys.getInt(1);
-                    }
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in toevoegenRit "
+                            + "- connection" + sqlEx);
+                }
+                return primaryKey;
+            } else {
+                return null;
+            }
+        });
+    }
 
-                    System.out.println("Nieuwe rit toegevoegd met id: " + primaryKey);
+    /**
+     * Voegt meerdere ritten tegelijk toe, met JDBC-batching en zonder controle van lid
+     * en fiets (bv. bij het overzetten van bestaande ritten). Ritten die niet toegevoegd
+     * kunnen worden, worden overgeslagen; de andere ritten worden wel toegevoegd.
+     * @param ritten die toegevoegd worden
+     * @return per rit het gegenereerde id, of de fout waardoor ze niet toegevoegd werd
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    public BatchResultaat<Integer> toevoegenRitten(List<Rit> ritten) throws DBException {
+        return METRIEK_TOEVOEGEN_RITTEN.meet(() -> {
+            return BatchInsert.voerUit("toevoegenRitten", INSERT_RIT, ritten, true,
+                    this::vulRitIn,
+                    (rit, gegenereerd) -> gegenereerd.next() ? gegenereerd.getInt(1) : null);
+        });
+    }
+
+    /**
+     * Voegt een rit toe na controle van het lid en de fiets. De toestand van lid en fiets
+     * (bestaat, uitgeschreven, status, actieve ritten) wordt in 1 query opgehaald en aan
+     * de controle gegeven. Indien de controle geen exception gooit, wordt de rit op
+     * dezelfde connectie toegevoegd.
+     *
+     * Controle en toevoegen gebeuren in 1 transactie waarin de rij van de fiets en van
+     * het lid vergrendeld zijn. Twee gelijktijdige ritten voor dezelfde fiets (of hetzelfde
+     * lid) wachten dus op elkaar, zodat er maar 1 kan slagen. Ritten voor andere fietsen
+     * en leden worden niet opgehouden.
+     *
+     * @param rit dat toegevoegd moet worden
+     * @param controle controle die beslist of de rit mag starten
+     * @return gegeneerd id van de rit die net werd toegevoegd of null
+     * indien geen rit werd opgegeven.
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wordt gegooid door de controle wanneer de rit niet mag starten.
+     */
+    public Integer toevoegenRit(Rit rit, RitToelatingControle controle) throws DBException, ApplicationException {
+        return METRIEK_TOEVOEGEN_RIT_GECONTROLEERD.meet(() -> {
+            if (rit != null) {
+                Integer primaryKey;
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    int isolatie = conn.getTransactionIsolation();
+                    //read committed: na het wachten op de lock moet de rit van de winnaar zichtbaar zijn
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    conn.setAutoCommit(false);
+                    try {
+                        vergrendelFietsEnLid(conn, rit);
+                        controle.controleer(zoekToelating(conn, rit));
+                        primaryKey = voegRitToe(conn, rit);
+                        conn.commit();
+                    } catch (SQLException sqlEx) {
+                        conn.rollback();
+                        throw new DBException("SQL-exception in toevoegenRit "
+                                + "- statement" + sqlEx);
+                    } catch (ApplicationException | RuntimeException ex) {
+                        conn.rollback();
+                        throw ex;
+                    } finally {
+                        conn.setAutoCommit(true);
+                        conn.setTransactionIsolation(isolatie);
+                    }
 
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in toevoegenRit "
-                            + "- statement" + sqlEx);
+                            + "- connection" + sqlEx);
                 }
+                return primaryKey;
+            } else {
+                return null;
+            }
+        });
+    }
 
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in toevoegenRit "
-                        + "- connection" + sqlEx);
+    /**
+     * Vergrendelt de rij van de fiets en van het lid tot het einde van de transactie.
+     * @param conn connectie met een lopende transactie
+     * @param rit rit met het rijksregisternummer van het lid en registratienummer van de fiets
+     * @throws SQLException fout in de query
+     */
+    private void vergrendelFietsEnLid(Connection conn, Rit rit) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_VERGRENDEL_FIETS_EN_LID)) {
+            stmt.setInt(1, rit.getFietsRegistratienummer());
+            stmt.setString(2, rit.getLidRijksregisternummer());
+            stmt.executeQuery().close();
+        }
+    }
+
+    /**
+     * Haalt in 1 query op of het lid bestaat, wanneer het lidmaatschap eindigde,
+     * de status van de fiets en of lid en fiets een actieve rit hebben.
+     * @param conn connectie waarop de query uitgevoerd wordt
+     * @param rit rit met het rijksregisternummer van het lid en registratienummer van de fiets
+     * @return toestand van lid en fiets
+     * @throws SQLException fout in de query
+     */
+    private RitToelating zoekToelating(Connection conn, Rit rit) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_TOELATING)) {
+
+            stmt.setString(1, rit.getLidRijksregisternummer());
+            stmt.setString(2, rit.getLidRijksregisternummer());
+            stmt.setString(3, rit.getLidRijksregisternummer());
+            stmt.setInt(4, rit.getFietsRegistratienummer());
+            stmt.setInt(5, rit.getFietsRegistratienummer());
+
+            try (ResultSet r = stmt.executeQuery()) {
+                RitToelating toelating = new RitToelating();
+                if (r.next()) {
+                    toelating.setLidBestaat(r.getInt("lid_bestaat") > 0);
+                    Date einde = r.getDate("einde_lidmaatschap");
+                    toelating.setLidEinde_lidmaatschap(einde == null ? null : einde.toLocalDate());
+                    toelating.setLidHeeftActieveRit(r.getInt("lid_actieve_ritten") > 0);
+                    String status = r.getString("fiets_status");
+                    toelating.setFietsStatus(status == null ? null : Status.valueOf(status));
+                    toelating.setFietsHeeftActieveRit(r.getInt("fiets_actieve_ritten") > 0);
+                }
+                return toelating;
             }
-            return primaryKey;
+        }
+    }
+
+    private void vulRitIn(PreparedStatement stmt, Rit rit) throws SQLException {
+        stmt.setTimestamp(1, java.sql.Timestamp.valueOf(rit.getStarttijd()));
+
+        if (rit.getEindtijd() == null) {
+            stmt.setNull(2, Types.DATE);
         } else {
-            return null;
+            stmt.setTimestamp(2, java.sql.Timestamp.valueOf(rit.getEindtijd()));
+        }
+        if (rit.getPrijs() == null) {
+            stmt.setNull(3, Types.DECIMAL);
+        } else {
+            stmt.setString(3, rit.getPrijs().toString());
         }
+        stmt.setString(4, rit.getLidRijksregisternummer());
+        stmt.setInt(5, rit.getFietsRegistratienummer());
+    }
+
+    /**
+     * Voert de insert van een rit uit op de meegegeven connectie.
+     * @return gegenereerd id van de rit
+     */
+    private Integer voegRitToe(Connection conn, Rit rit) throws SQLException {
+        Integer primaryKey = null;
+        //SQL statement opstellen
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_RIT, Statement.RETURN_GENERATED_KEYS)) {
+            vulRitIn(stmt, rit);
+            stmt.execute();
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    primaryKey = generatedKeys.getInt(1);
+                }
+            }
+
+            System.out.println("Nieuwe rit toegevoegd met id: " + primaryKey);
+        }
+        return primaryKey;
     }
 
     /**
@@ -82,41 +345,182 @@ public class RitDAO {
      *                     installatie van de DAO of een fout in de query.
      */
     public void afsluitenRit(Rit rit) throws DBException {
-        if (rit != null) {
+        METRIEK_AFSLUITEN_RIT.meet(() -> {
+            if (rit != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_AFSLUITEN_RIT)) {
+
+                        if (rit.getEindtijd() == null) {
+                            throw new NullPointerException("Nullpointer-exception in afsluitenRit "
+                            + "- rit.getEindtijd() is null");
+                        } else {
+                            stmt.setTimestamp(1, java.sql.Timestamp.valueOf(rit.getEindtijd()));
+                        }
+                        if (rit.getPrijs() == null) {
+                            throw new NullPointerException("Nullpointer-exception in afsluitenRit "
+                                    + "- rit.getPrijs() is null");
+                        } else {
+                            stmt.setBigDecimal(2, rit.getPrijs());
+                        }
+                        stmt.setInt(3, rit.getId());
+                        stmt.execute();
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in afsluitenRit "
+                                + "- statement" + sqlEx);
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in afsluitenRit "
+                            + "- connection" + sqlEx);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Sluit een actieve rit af door de prijs en eindtijd up te daten. De update gebeurt
+     * enkel indien de rit nog geen eindtijd en prijs heeft, zodat een rit die intussen
+     * al afgesloten werd niet overschreven wordt.
+     * @param rit de rit die wordt afgesloten, met ingevulde eindtijd en prijs
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     * @throws ApplicationException wordt gegooid indien de rit niet (meer) actief is.
+     */
+    public void afsluitenActieveRit(Rit rit) throws DBException, ApplicationException {
+        METRIEK_AFSLUITEN_ACTIEVE_RIT.meet(() -> {
+            if (rit != null) {
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(UPDATE_AFSLUITEN_ACTIEVE_RIT)) {
+
+                        if (rit.getEindtijd() == null) {
+                            throw new NullPointerException("Nullpointer-exception in afsluitenActieveRit "
+                                    + "- rit.getEindtijd() is null");
+                        }
+                        if (rit.getPrijs() == null) {
+                            throw new NullPointerException("Nullpointer-exception in afsluitenActieveRit "
+                                    + "- rit.getPrijs() is null");
+                        }
+                        stmt.setTimestamp(1, java.sql.Timestamp.valueOf(rit.getEindtijd()));
+                        stmt.setBigDecimal(2, rit.getPrijs());
+                        stmt.setInt(3, rit.getId());
+
+                        if (stmt.executeUpdate() == 0) {
+                            throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
+                        }
+
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in afsluitenActieveRit "
+                                + "- statement" + sqlEx);
+                    }
+
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in afsluitenActieveRit "
+                            + "- connection" + sqlEx);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Overloopt alle afgesloten ritten met een id groter dan naId, gesorteerd op id,
+     * zonder ze allemaal in het geheugen te laden. Bij een incrementele export (naId
+     * ingevuld) wordt gestopt voor de oudste rit die nog niet afgesloten is, zodat het
+     * laatste id als startpunt voor een volgende export kan dienen zonder dat die rit
+     * later gemist wordt. Zonder naId worden alle afgesloten ritten overlopen.
+     * De ritten worden per fetchSize rijen uit de databank gehaald (server-side
+     * cursor) en een voor een aan de verwerker gegeven. De connectie blijft open
+     * zolang de verwerker bezig is.
+     * @param naId enkel ritten met een groter id, null voor alle ritten
+     * @param fetchSize aantal rijen dat per keer uit de databank gehaald wordt
+     * @param verwerker krijgt elke rit; een exception van de verwerker stopt het overlopen
+     * @return aantal verwerkte ritten
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     * @throws ApplicationException
+     */
+    public long overloopRitten(Integer naId, int fetchSize, RitVerwerker verwerker)
+            throws DBException, ApplicationException {
+        return METRIEK_OVERLOOP_RITTEN.meet(() -> {
+            long aantal = 0;
+
             //Maak connectie met db
             try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
+                //SQL statement opstellen, enkel vooruit lezen zodat de driver niet alles buffert
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "update rit "
-                                + " set eindtijd = ?"
-                                + " , prijs = ?"
-                                + " where id = ?")) {
-
-                    if (rit.getEindtijd() == null) {
-                        throw new NullPointerException("Nullpointer-exception in afsluitenRit "
-                        + "- rit.getEindtijd() is null");
-                    } else {
-                        stmt.setTimestamp(1, java.sql.Timestamp.valueOf(rit.getEindtijd()));
-                    }
-                    if (rit.getPrijs() == null) {
-                        throw new NullPointerException("Nullpointer-exception in afsluitenRit "
-                                + "- rit.getPrijs() is null");
-                    } else {
-                        stmt.setBigDecimal(2, rit.getPrijs());
+                        naId == null ? SELECT_ALLE_AFGESLOTEN_RITTEN : SELECT_RITTEN_NA_ID,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                    stmt.setFetchSize(fetchSize);
+                    stmt.setInt(1, naId == null ? 0 : naId);
+                    stmt.execute();
+
+                    try (ResultSet r = stmt.getResultSet()) {
+                        //kolomposities 1 keer opzoeken voor alle rijen
+                        int[] kolom = ritMapper.posities(r);
+                        while (r.next()) {
+                            verwerker.verwerk(ritMapper.map(r, kolom));
+                            aantal++;
+                        }
+                        return aantal;
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in overloopRitten " +
+                                "- resultset" + sqlEx);
                     }
-                    stmt.setInt(3, rit.getId());
+                } catch (SQLException sqlEx) {
+                    throw new DBException("SQL-exception in overloopRitten " +
+                            "- statement" + sqlEx);
+                }
+
+            } catch (SQLException sqlEx) {
+                throw new DBException("SQL-exception in overloopRitten " +
+                        "- connection" + sqlEx);
+            }
+        });
+    }
+
+    /**
+     * Zoekt de oudste rit die nog niet afgesloten is. Een incrementele export
+     * (overloopRitten met naId) komt niet voorbij deze rit tot ze afgesloten is.
+     * @return het ID van de oudste openstaande rit, null indien alle ritten afgesloten zijn
+     * @throws DBException Exception die duidt op een verkeerde
+     *                     installatie van de DAO of een fout in de query.
+     */
+    public Integer zoekOudsteOpenRit() throws DBException {
+        return METRIEK_ZOEK_OUDSTE_OPEN_RIT.meet(() -> {
+            //Maak connectie met db
+            try (Connection conn = ConnectionManager.getConnection()) {
+                //SQL statement opstellen
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_OUDSTE_OPEN_RIT)) {
                     stmt.execute();
 
+                    try (ResultSet r = stmt.getResultSet()) {
+                        //min geeft altijd 1 rij, met null als er geen openstaande rit is
+                        if (r.next()) {
+                            int id = r.getInt("id");
+                            return r.wasNull() ? null : id;
+                        }
+                        return null;
+                    } catch (SQLException sqlEx) {
+                        throw new DBException("SQL-exception in zoekOudsteOpenRit "
+                                + "- resultset" + sqlEx);
+                    }
                 } catch (SQLException sqlEx) {
-                    throw new DBException("SQL-exception in afsluitenRit "
+                    throw new DBException("SQL-exception in zoekOudsteOpenRit "
                             + "- statement" + sqlEx);
                 }
 
             } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in afsluitenRit "
+                throw new DBException("SQL-exception in zoekOudsteOpenRit "
                         + "- connection" + sqlEx);
             }
-        }
+        });
     }
 
     /**
@@ -128,48 +532,42 @@ public class RitDAO {
      * @throws ApplicationException
      */
     public Rit zoekRit(Integer ritID) throws DBException, ApplicationException {
-        if (ritID != null) {
-            Rit returnRit = null;
-
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select id"
-                                + " , starttijd"
-                                + " , eindtijd"
-                                + " , prijs"
-                                + " , lid_rijksregisternummer"
-                                + " , fiets_registratienummer"
-                                + " from rit "
-                                + " where id = ?")) {
-
-                    //parameter invullen in query
-                    stmt.setInt(1, ritID);
-                    stmt.execute();
-
-                    try (ResultSet r = stmt.getResultSet()) {
-                        //van de rit uit de DAO een Rit-object maken
-                        if (r.next()) {
-                            returnRit = getRitUitDatabase(r);
+        return METRIEK_ZOEK_RIT.meet(() -> {
+            if (ritID != null) {
+                Rit returnRit = null;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_RIT)) {
+
+                        //parameter invullen in query
+                        stmt.setInt(1, ritID);
+                        stmt.execute();
+
+                        try (ResultSet r = stmt.getResultSet()) {
+                            //van de rit uit de DAO een Rit-object maken
+                            if (r.next()) {
+                                returnRit = getRitUitDatabase(r);
+                            }
+                            return returnRit;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekRit " +
+                                    "- resultset" + sqlEx);
                         }
-                        return returnRit;
                     } catch (SQLException sqlEx) {
                         throw new DBException("SQL-exception in zoekRit " +
-                                "- resultset" + sqlEx);
+                                "- statment" + sqlEx);
+
                     }
+
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekRit " +
                             "- statment" + sqlEx);
-
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekRit " +
-                        "- statment" + sqlEx);
             }
-        }
-        return null;
+            return null;
+        });
     }
 
     /**
@@ -182,48 +580,41 @@ public class RitDAO {
      * @throws ApplicationException
      */
     public Integer zoekEersteRitVanLid(String rr) throws DBException, ApplicationException {
-        if (rr != null) {
-            Integer returnRitID = null;
-
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select id"
-                                + " , starttijd"
-                                + " , eindtijd"
-                                + " , prijs"
-                                + " , lid_rijksregisternummer"
-                                + " , fiets_registratienummer"
-                                + " from rit "
-                                + " where lid_rijksregisternummer = ?"
-                + " order by starttijd asc")) {
-
-                    //parameter invullen in query
-                    stmt.setString(1, rr);
-                    stmt.execute();
-
-                    try (ResultSet r = stmt.getResultSet()) {
-                        //van de rit uit de DAO de ID van de rit ophalen
-                        if (r.next()) {
-                            returnRitID = getRitUitDatabase(r).getId();
+        return METRIEK_ZOEK_EERSTE_RIT_VAN_LID.meet(() -> {
+            if (rr != null) {
+                Integer returnRitID = null;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_RITTEN_VAN_LID)) {
+
+                        //parameter invullen in query
+                        stmt.setString(1, rr);
+                        stmt.execute();
+
+                        try (ResultSet r = stmt.getResultSet()) {
+                            //van de rit uit de DAO de ID van de rit ophalen
+                            if (r.next()) {
+                                returnRitID = getRitUitDatabase(r).getId();
+                            }
+                            return returnRitID;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekEersteRitVanLid " +
+                                    "- resultset" + sqlEx);
                         }
-                        return returnRitID;
                     } catch (SQLException sqlEx) {
                         throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                                "- resultset" + sqlEx);
+                                "- statment" + sqlEx);
                     }
+
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekEersteRitVanLid " +
                             "- statment" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                        "- statment" + sqlEx);
             }
-        }
-        return null;
+            return null;
+        });
     }
 
     /**
@@ -237,56 +628,45 @@ public class RitDAO {
      * @throws ApplicationException
      */
     public Integer zoekActieveRitVanLid(String rr) throws DBException, ApplicationException {
-        if (rr != null) {
-            Integer returnRitID = null;
-
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select id"
-                                + " , starttijd"
-                                + " , eindtijd"
-                                + " , prijs"
-                                + " , lid_rijksregisternummer"
-                                + " , fiets_registratienummer"
-                                + " from rit"
-                                + " where lid_rijksregisternummer = ?"
-                                //bij null moet je IS/IS NOT gebruiken ipv = of !=
-                                + " and starttijd IS NOT ?"
-                                + " and eindtijd IS ?")) {
-
-                    //parameter invullen in query
-                    //rit moet gestart zijn (starttijd is niet null)
-                    //rit mag nog niet geëindigd zijn (eindtijd is null)
-                    //= actieve rit
-                    stmt.setString(1, rr);
-                    stmt.setNull(2, Types.DATE);
-                    stmt.setNull(3, Types.DATE);
-                    stmt.execute();
-
-                    try (ResultSet r = stmt.getResultSet()) {
-                        //van de rit uit de DAO de ID van de rit ophalen
-                        if (r.next()) {
-                            returnRitID = getRitUitDatabase(r).getId();
+        return METRIEK_ZOEK_ACTIEVE_RIT_VAN_LID.meet(() -> {
+            if (rr != null) {
+                Integer returnRitID = null;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIEVE_RIT_VAN_LID)) {
+
+                        //parameter invullen in query
+                        //rit moet gestart zijn (starttijd is niet null)
+                        //rit mag nog niet geëindigd zijn (eindtijd is null)
+                        //= actieve rit
+                        stmt.setString(1, rr);
+                        stmt.execute();
+
+                        try (ResultSet r = stmt.getResultSet()) {
+                            //van de rit uit de DAO de ID van de rit ophalen
+                            if (r.next()) {
+                                returnRitID = getRitUitDatabase(r).getId();
+                            }
+                            return returnRitID;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekEersteRitVanLid " +
+                                    "- resultset" + sqlEx);
                         }
-                        return returnRitID;
                     } catch (SQLException sqlEx) {
                         throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                                "- resultset" + sqlEx);
+                                "- statment" + sqlEx);
                     }
+
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekEersteRitVanLid " +
                             "- statment" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                        "- statment" + sqlEx);
             }
-        }
-        return null;
+            return null;
 
+        });
     }
 
     /**
@@ -300,52 +680,41 @@ public class RitDAO {
      * @throws ApplicationException
      */
     public Integer zoekActieveRitVanFiets(int regnr) throws DBException, ApplicationException {
-           Integer returnRitID = null;
-
-            //Maak connectie met db
-            try (Connection conn = ConnectionManager.getConnection()) {
-                //SQL statement opstellen
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "select id"
-                                + " , starttijd"
-                                + " , eindtijd"
-                                + " , prijs"
-                                + " , lid_rijksregisternummer"
-                                + " , fiets_registratienummer"
-                                + " from rit"
-                                + " where fiets_registratienummer = ?"
-                                //bij null moet je IS/IS NOT gebruiken ipv = of !=
-                                + " and starttijd IS NOT ?"
-                                + " and eindtijd IS ?")) {
-
-                    //parameter invullen in query
-                    //rit moet gestart zijn (starttijd is niet null)
-                    //rit mag nog niet geëindigd zijn (eindtijd is null)
-                    //= actieve rit
-                    stmt.setInt(1, regnr);
-                    stmt.setNull(2, Types.DATE);
-                    stmt.setNull(3, Types.DATE);
-                    stmt.execute();
-
-                    try (ResultSet r = stmt.getResultSet()) {
-                        //van de rit uit de DAO de ID van de rit ophalen
-                        if (r.next()) {
-                            returnRitID = getRitUitDatabase(r).getId();
+        return METRIEK_ZOEK_ACTIEVE_RIT_VAN_FIETS.meet(() -> {
+               Integer returnRitID = null;
+
+                //Maak connectie met db
+                try (Connection conn = ConnectionManager.getConnection()) {
+                    //SQL statement opstellen
+                    try (PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIEVE_RIT_VAN_FIETS)) {
+
+                        //parameter invullen in query
+                        //rit moet gestart zijn (starttijd is niet null)
+                        //rit mag nog niet geëindigd zijn (eindtijd is null)
+                        //= actieve rit
+                        stmt.setInt(1, regnr);
+                        stmt.execute();
+
+                        try (ResultSet r = stmt.getResultSet()) {
+                            //van de rit uit de DAO de ID van de rit ophalen
+                            if (r.next()) {
+                                returnRitID = getRitUitDatabase(r).getId();
+                            }
+                            return returnRitID;
+                        } catch (SQLException sqlEx) {
+                            throw new DBException("SQL-exception in zoekEersteRitVanLid " +
+                                    "- resultset" + sqlEx);
                         }
-                        return returnRitID;
                     } catch (SQLException sqlEx) {
                         throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                                "- resultset" + sqlEx);
+                                "- statment" + sqlEx);
                     }
+
                 } catch (SQLException sqlEx) {
                     throw new DBException("SQL-exception in zoekEersteRitVanLid " +
                             "- statment" + sqlEx);
                 }
-
-            } catch (SQLException sqlEx) {
-                throw new DBException("SQL-exception in zoekEersteRitVanLid " +
-                        "- statment" + sqlEx);
-            }
+        });
     }
 
     /**
@@ -357,35 +726,7 @@ public class RitDAO {
      * @throws ApplicationException
      */
     public Rit getRitUitDatabase(ResultSet r) throws SQLException, ApplicationException {
-        Rit rit = new Rit();
-
-        rit.setId(r.getInt("id"));
-
-        //date time formatter is nodig om string om te zetten naar LocalDateTime
-        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        if (r.getString("starttijd") == null) {
-            rit.setStarttijd(null);
-        } else {
-            LocalDateTime starttijdFormatted = LocalDateTime.parse(r.getString("starttijd"), format);
-            rit.setStarttijd(starttijdFormatted);
-        }
-
-        if (r.getString("eindtijd") == null) {
-            rit.setEindtijd(null);
-        } else {
-            LocalDateTime eindtijdFormatted = LocalDateTime.parse(r.getString("eindtijd"), format);
-            rit.setEindtijd(eindtijdFormatted);
-        }
-
-        rit.setPrijs(r.getBigDecimal("prijs"));
-
-        //rijksregisternummer-string uit db omzetten naar een rijksregisternr-object
-        Rijksregisternummer rijks = new Rijksregisternummer(r.getString("lid_rijksregisternummer"));
-        rit.setLidRijksregisternummer(rijks);
-
-        rit.setFietsRegistratienummer(r.getInt("fiets_registratienummer"));
-
-        return rit;
+        return ritMapper.map(r);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Zet een rij uit de tabel rit om in een object van type Rit.
+ */
+class RitMapper extends ResultSetMapper<Rit> {
+
+    //posities in de array van kolomindexen
+    private static final int ID = 0;
+    private static final int STARTTIJD = 1;
+    private static final int EINDTIJD = 2;
+    private static final int PRIJS = 3;
+    private static final int LID_RIJKSREGISTERNUMMER = 4;
+    private static final int FIETS_REGISTRATIENUMMER = 5;
+
+    RitMapper() {
+        super("id", "starttijd", "eindtijd", "prijs",
+                "lid_rijksregisternummer", "fiets_registratienummer");
+    }
+
+    @Override
+    Rit map(ResultSet r, int[] kolom) throws SQLException, ApplicationException {
+        Rit rit = new Rit();
+
+        rit.setId(r.getInt(kolom[ID]));
+
+        //tijdstippen rechtstreeks als timestamp lezen, zonder omweg via een string
+        rit.setStarttijd(naarLocalDateTime(r.getTimestamp(kolom[STARTTIJD])));
+        rit.setEindtijd(naarLocalDateTime(r.getTimestamp(kolom[EINDTIJD])));
+
+        rit.setPrijs(r.getBigDecimal(kolom[PRIJS]));
+
+        //rijksregisternummer-string uit db omzetten naar een rijksregisternr-object
+        rit.setLidRijksregisternummer(Rijksregisternummer.uitDatabank(r.getString(kolom[LID_RIJKSREGISTERNUMMER])));
+
+        rit.setFietsRegistratienummer(r.getInt(kolom[FIETS_REGISTRATIENUMMER]));
+
+        return rit;
+    }
+
+    private LocalDateTime naarLocalDateTime(Timestamp tijdstip) {
+        return tijdstip == null ? null : tijdstip.toLocalDateTime();
+    }
+}
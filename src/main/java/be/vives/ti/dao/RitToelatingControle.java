@@ -0,0 +1,14 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.databag.RitToelating;
+import be.vives.ti.exception.ApplicationException;
+
+/**
+ * Controle die RitDAO uitvoert tussen het ophalen van de toelating en het
+ * toevoegen van een rit. Door een ApplicationException te gooien wordt de
+ * rit niet toegevoegd.
+ */
+public interface RitToelatingControle {
+
+    void controleer(RitToelating toelating) throws ApplicationException;
+}
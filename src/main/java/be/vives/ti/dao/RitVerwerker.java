@@ -0,0 +1,14 @@
+package be.vives.ti.dao;
+
+import be.vives.ti.databag.Rit;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+/**
+ * Verwerkt de ritten die RitDAO.overloopRitten een voor een uit de databank
+ * leest. Door een exception te gooien stopt het overlopen.
+ */
+public interface RitVerwerker {
+
+    void verwerk(Rit rit) throws ApplicationException, DBException;
+}
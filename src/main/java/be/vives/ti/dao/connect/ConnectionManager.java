@@ -3,25 +3,68 @@ package be.vives.ti.dao.connect;
 import be.vives.ti.exception.DBException;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class ConnectionManager {
 
+	private static volatile ConnectionPool pool;
+
 	/**
 	 * Levert een connectie naar de be.vives.DAO. Leest hiervoor uit het bestand
-	 * DB.properties
+	 * DB.properties. De connectie komt uit een pool; close() geeft ze terug
+	 * aan de pool.
 	 *
 	 * @return connectie-object naar de be.vives.DAO
 	 * @throws DBException wanneer de be.vives.DAO niet toegankelijk is
 	 */
 	public static Connection getConnection() throws DBException {
+		return getPool().getConnection();
+	}
+
+	/**
+	 * @return actieve, idle en wachtende connecties en de tijd om een connectie op te halen
+	 * @throws DBException wanneer de pool niet aangemaakt kan worden
+	 */
+	public static PoolStatistieken getPoolStatistieken() throws DBException {
+		return getPool().getStatistieken();
+	}
+
+	/**
+	 * Sluit alle connecties van de pool. Een volgende oproep van
+	 * getConnection() maakt een nieuwe pool aan.
+	 */
+	public static synchronized void sluitPool() {
+		if (pool != null) {
+			pool.sluiten();
+			pool = null;
+		}
+	}
 
-		try {
-			Class.forName(DBProp.getDriver());
-			return DriverManager.getConnection(DBProp.getDbUrl(), DBProp.getProp());
-		} catch (ClassNotFoundException | SQLException ex) {
-			throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+	private static ConnectionPool getPool() throws DBException {
+		ConnectionPool p = pool;
+		if (p == null) {
+			synchronized (ConnectionManager.class) {
+				if (pool == null) {
+					try {
+						Class.forName(DBProp.getDriver());
+					} catch (ClassNotFoundException ex) {
+						throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+					}
+					ConnectionPool nieuw = new ConnectionPool(DBProp.getDbUrl(), DBProp.getProp(), DBProp.getPoolProp());
+					if (DBProp.getInitScript() != null) {
+						//bv. embedded databank: tabellen en testdata aanmaken indien ze nog leeg is
+						try (Connection conn = nieuw.getConnection()) {
+							DBScript.voerUitIndienLeeg(conn, DBProp.getInitScript());
+						} catch (SQLException | DBException ex) {
+							nieuw.sluiten();
+							throw new DBException("Initialisatie van de be.vives.DAO mislukt: " + ex);
+						}
+					}
+					pool = nieuw;
+				}
+				p = pool;
+			}
 		}
+		return p;
 	}
 }
@@ -0,0 +1,827 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+import be.vives.ti.jfr.ConnectieOphalenEvent;
+import be.vives.ti.jfr.StatementEvent;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Begrensde pool van databaseconnecties. Een connectie die via
+ * getConnection() wordt opgehaald, gaat bij close() terug naar de pool in
+ * plaats van fysiek afgesloten te worden.
+ *
+ * Er zijn nooit meer dan maxSize fysieke connecties open. Connecties die
+ * langer dan idleTimeout ongebruikt blijven, worden opgeruimd (zolang er
+ * minSize overblijven). Connecties ouder dan maxLifetime worden vervangen.
+ *
+ * Elke fysieke connectie houdt tot statementCacheSize prepared statements bij.
+ * Een prepared statement wordt bij close() niet gesloten maar bewaard, zodat een
+ * volgende prepareStatement met dezelfde SQL op die connectie het opnieuw gebruikt
+ * zonder de SQL opnieuw te laten parsen. Bij een volle cache wordt het minst
+ * recent gebruikte statement gesloten.
+ *
+ * Met slowQueryThreshold (in ms) worden statements die minstens zo lang duren,
+ * met hun SQL, parameters, aantal rijen en de tijd om de connectie op te halen,
+ * naar een trage-querylog geschreven (zie TrageQueryLog). Tijdens een Java Flight
+ * Recorder-opname geeft de pool elk ophalen van een connectie en elke uitvoering
+ * van een statement door als event (zie be.vives.ti.jfr). Zonder log en zonder
+ * opname wordt er niets extra gemeten.
+ */
+public class ConnectionPool {
+
+	//een connectie die korter dan deze tijd geleden nog gebruikt werd, wordt niet opnieuw gevalideerd
+	private static final long VALIDATIE_NA_MS = 500;
+	private static final int VALIDATIE_TIMEOUT_SEC = 5;
+	private static final long WACHT_INTERVAL_MS = 50;
+
+	private final String dbUrl;
+	private final Properties prop;
+	private final int minSize;
+	private final int maxSize;
+	private final long idleTimeoutMs;
+	private final long maxLifetimeMs;
+	private final long acquireTimeoutMs;
+	private final String validationQuery;
+	private final int statementCacheSize;
+	//null indien trage queries niet gelogd worden
+	private final TrageQueryLog trageQueries;
+
+	//LIFO: recent gebruikte connecties vooraan, lang ongebruikte schuiven naar achter
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final AtomicInteger totaal = new AtomicInteger();
+	private final AtomicInteger actief = new AtomicInteger();
+	private final AtomicInteger wachtend = new AtomicInteger();
+	private final AtomicLong aantalAcquires = new AtomicLong();
+	private final AtomicLong totaleAcquireNanos = new AtomicLong();
+	private final AtomicLong maxAcquireNanos = new AtomicLong();
+	private final AtomicLong statementHits = new AtomicLong();
+	private final AtomicLong statementMisses = new AtomicLong();
+
+	private final ScheduledExecutorService onderhoud;
+	private volatile boolean gesloten;
+
+	/**
+	 * Maakt een pool aan adhv de instellingen uit DB.properties.
+	 * @param dbUrl url van de databank
+	 * @param prop eigenschappen die aan de driver doorgegeven worden (user, password, ...)
+	 * @param poolProp instellingen van de pool (minSize, maxSize, idleTimeout,
+	 *                 maxLifetime, acquireTimeout, validationQuery, statementCacheSize,
+	 *                 slowQueryThreshold, slowQueryLog, slowQueryMaxSize, slowQueryFiles, slowQueryBuffer)
+	 * @throws DBException wanneer een instelling ongeldig is of het trage-querylog niet geopend kan worden
+	 */
+	public ConnectionPool(String dbUrl, Properties prop, Properties poolProp) throws DBException {
+		this.dbUrl = dbUrl;
+		this.prop = prop;
+		this.minSize = leesInt(poolProp, "minSize", 2);
+		this.maxSize = leesInt(poolProp, "maxSize", 10);
+		this.idleTimeoutMs = leesLong(poolProp, "idleTimeout", 600000);
+		this.maxLifetimeMs = leesLong(poolProp, "maxLifetime", 1800000);
+		this.acquireTimeoutMs = leesLong(poolProp, "acquireTimeout", 30000);
+		String query = poolProp.getProperty("validationQuery");
+		this.validationQuery = (query == null || query.trim().isEmpty()) ? null : query.trim();
+		this.statementCacheSize = leesInt(poolProp, "statementCacheSize", 50);
+
+		if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+			throw new DBException("Ongeldige pool-instellingen: minSize=" + minSize + ", maxSize=" + maxSize);
+		}
+		if (statementCacheSize < 0) {
+			throw new DBException("Ongeldige pool-instellingen: statementCacheSize=" + statementCacheSize);
+		}
+		this.trageQueries = maakTrageQueryLog(poolProp);
+
+		//onderhoud van de pool (opruimen en aanvullen) gebeurt op een achtergrondthread
+		onderhoud = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "vivesbike-pool-onderhoud");
+			t.setDaemon(true);
+			return t;
+		});
+		long interval = Math.max(1000, Math.min(idleTimeoutMs, maxLifetimeMs) / 2);
+		onderhoud.scheduleWithFixedDelay(this::onderhoud, 0, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Haalt een connectie uit de pool. Indien er geen vrije connectie is en het
+	 * maximum bereikt is, wordt gewacht tot er een vrijkomt (maximaal acquireTimeout).
+	 * @return connectie; close() geeft ze terug aan de pool
+	 * @throws DBException wanneer er binnen de time-out geen connectie beschikbaar is
+	 * of de databank niet bereikbaar is
+	 */
+	public Connection getConnection() throws DBException {
+		if (gesloten) {
+			throw new DBException("De connection pool is gesloten.");
+		}
+		ConnectieOphalenEvent event = new ConnectieOphalenEvent();
+		event.begin();
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+		boolean nieuw = false;
+
+		try {
+			while (true) {
+				PooledConnection pc = idle.pollFirst();
+				if (pc == null) {
+					if (reserveer()) {
+						try {
+							pc = maakConnectie();
+							nieuw = true;
+						} catch (DBException ex) {
+							totaal.decrementAndGet();
+							throw ex;
+						}
+					} else {
+						pc = wacht(deadline);
+						if (pc == null) {
+							continue;
+						}
+					}
+				} else if (!isBruikbaar(pc)) {
+					sluitFysiek(pc);
+					continue;
+				}
+
+				actief.incrementAndGet();
+				long acquireNanos = System.nanoTime() - start;
+				registreerAcquire(acquireNanos);
+				return pc.leen(acquireNanos);
+			}
+		} catch (DBException ex) {
+			event.setFout(ex.getMessage());
+			throw ex;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				event.setActief(actief.get());
+				event.setIdle(idle.size());
+				event.setWachtend(wachtend.get());
+				event.setMaximum(maxSize);
+				event.setNieuw(nieuw);
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * @return momentopname van de toestand van de pool
+	 */
+	public PoolStatistieken getStatistieken() {
+		long aantal = aantalAcquires.get();
+		return new PoolStatistieken(actief.get(), idle.size(), wachtend.get(), totaal.get(), maxSize,
+				aantal, aantal == 0 ? 0 : totaleAcquireNanos.get() / aantal, maxAcquireNanos.get(),
+				statementHits.get(), statementMisses.get());
+	}
+
+	/**
+	 * @return het trage-querylog, null indien slowQueryThreshold niet ingesteld is
+	 */
+	public TrageQueryLog getTrageQueryLog() {
+		return trageQueries;
+	}
+
+	/**
+	 * Sluit alle vrije connecties en stopt het onderhoud. Uitgeleende connecties
+	 * worden fysiek gesloten zodra ze teruggegeven worden.
+	 */
+	public void sluiten() {
+		gesloten = true;
+		onderhoud.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			sluitFysiek(pc);
+		}
+		if (trageQueries != null) {
+			trageQueries.sluiten();
+		}
+	}
+
+	//wacht op een connectie die teruggegeven wordt, of tot er weer plaats is om er een te maken
+	private PooledConnection wacht(long deadline) throws DBException {
+		long resterend = deadline - System.nanoTime();
+		if (resterend <= 0) {
+			throw new DBException("Geen connectie beschikbaar binnen " + acquireTimeoutMs
+					+ " ms (actief: " + actief.get() + ", maximum: " + maxSize + ")");
+		}
+		wachtend.incrementAndGet();
+		try {
+			//in kleine stappen wachten zodat een vrijgekomen plaats (gesloten connectie) opgemerkt wordt
+			PooledConnection pc = idle.pollFirst(
+					Math.min(resterend, TimeUnit.MILLISECONDS.toNanos(WACHT_INTERVAL_MS)), TimeUnit.NANOSECONDS);
+			if (pc != null && !isBruikbaar(pc)) {
+				sluitFysiek(pc);
+				return null;
+			}
+			return pc;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new DBException("Onderbroken tijdens het wachten op een connectie.");
+		} finally {
+			wachtend.decrementAndGet();
+		}
+	}
+
+	//reserveert plaats voor een nieuwe fysieke connectie indien het maximum nog niet bereikt is
+	private boolean reserveer() {
+		int huidig;
+		do {
+			huidig = totaal.get();
+			if (huidig >= maxSize) {
+				return false;
+			}
+		} while (!totaal.compareAndSet(huidig, huidig + 1));
+		return true;
+	}
+
+	private PooledConnection maakConnectie() throws DBException {
+		try {
+			return new PooledConnection(DriverManager.getConnection(dbUrl, prop));
+		} catch (SQLException ex) {
+			throw new DBException("Connectie met de be.vives.DAO mislukt: " + ex);
+		}
+	}
+
+	private boolean isVerlopen(PooledConnection pc, long nu) {
+		return maxLifetimeMs > 0 && nu - pc.aangemaakt > maxLifetimeMs;
+	}
+
+	private boolean isBruikbaar(PooledConnection pc) {
+		long nu = System.currentTimeMillis();
+		if (isVerlopen(pc, nu)) {
+			return false;
+		}
+		if (nu - pc.laatstGebruikt < VALIDATIE_NA_MS) {
+			return true;
+		}
+		try {
+			if (validationQuery == null) {
+				return pc.fysiek.isValid(VALIDATIE_TIMEOUT_SEC);
+			}
+			try (Statement stmt = pc.fysiek.createStatement()) {
+				stmt.setQueryTimeout(VALIDATIE_TIMEOUT_SEC);
+				stmt.execute(validationQuery);
+			}
+			return true;
+		} catch (SQLException ex) {
+			return false;
+		}
+	}
+
+	//wordt opgeroepen wanneer een uitgeleende connectie gesloten wordt
+	private void terugGeven(PooledConnection pc) {
+		actief.decrementAndGet();
+		pc.laatstGebruikt = System.currentTimeMillis();
+		if (gesloten || isVerlopen(pc, pc.laatstGebruikt) || !herstel(pc)) {
+			sluitFysiek(pc);
+		} else {
+			idle.offerFirst(pc);
+		}
+	}
+
+	//zet de connectie terug in haar standaardtoestand voor de volgende gebruiker
+	private boolean herstel(PooledConnection pc) {
+		try {
+			if (pc.fysiek.isClosed()) {
+				return false;
+			}
+			if (!pc.fysiek.getAutoCommit()) {
+				pc.fysiek.rollback();
+				pc.fysiek.setAutoCommit(true);
+			}
+			if (pc.fysiek.isReadOnly()) {
+				pc.fysiek.setReadOnly(false);
+			}
+			pc.fysiek.clearWarnings();
+			return true;
+		} catch (SQLException ex) {
+			return false;
+		}
+	}
+
+	private void sluitFysiek(PooledConnection pc) {
+		totaal.decrementAndGet();
+		try {
+			pc.fysiek.close();
+		} catch (SQLException ex) {
+			//connectie was al onbruikbaar, niets meer aan te doen
+		}
+	}
+
+	//ruimt lang ongebruikte en verlopen connecties op en vult de pool aan tot minSize
+	private void onderhoud() {
+		long nu = System.currentTimeMillis();
+		List<PooledConnection> overlopen = new ArrayList<>(idle);
+		//achteraan staan de connecties die het langst ongebruikt zijn
+		for (int i = overlopen.size() - 1; i >= 0; i--) {
+			PooledConnection pc = overlopen.get(i);
+			boolean teLangIdle = idleTimeoutMs > 0 && nu - pc.laatstGebruikt > idleTimeoutMs
+					&& totaal.get() > minSize;
+			if ((teLangIdle || isVerlopen(pc, nu)) && idle.remove(pc)) {
+				sluitFysiek(pc);
+			}
+		}
+
+		while (!gesloten && totaal.get() < minSize && reserveer()) {
+			try {
+				idle.offerLast(maakConnectie());
+			} catch (DBException ex) {
+				//databank (nog) niet bereikbaar, volgende ronde opnieuw proberen
+				totaal.decrementAndGet();
+				break;
+			}
+		}
+	}
+
+	private void registreerAcquire(long nanos) {
+		aantalAcquires.incrementAndGet();
+		totaleAcquireNanos.addAndGet(nanos);
+		long max;
+		do {
+			max = maxAcquireNanos.get();
+		} while (nanos > max && !maxAcquireNanos.compareAndSet(max, nanos));
+	}
+
+	private static TrageQueryLog maakTrageQueryLog(Properties poolProp) throws DBException {
+		long drempel = leesLong(poolProp, "slowQueryThreshold", -1);
+		if (drempel < 0) {
+			return null;
+		}
+		String bestand = poolProp.getProperty("slowQueryLog", "trage-queries.log").trim();
+		long maxGrootte = leesLong(poolProp, "slowQueryMaxSize", 10 * 1024 * 1024);
+		int aantalBestanden = leesInt(poolProp, "slowQueryFiles", 5);
+		int capaciteit = leesInt(poolProp, "slowQueryBuffer", 4096);
+		if (maxGrootte < 1 || aantalBestanden < 0 || capaciteit < 1) {
+			throw new DBException("Ongeldige pool-instellingen: slowQueryMaxSize=" + maxGrootte
+					+ ", slowQueryFiles=" + aantalBestanden + ", slowQueryBuffer=" + capaciteit);
+		}
+		try {
+			return new TrageQueryLog(drempel, Paths.get(bestand), maxGrootte, aantalBestanden, capaciteit);
+		} catch (IOException | InvalidPathException ex) {
+			throw new DBException("Trage-querylog " + bestand + " kan niet geopend worden: " + ex);
+		}
+	}
+
+	private static int leesInt(Properties p, String sleutel, int standaard) throws DBException {
+		return (int) leesLong(p, sleutel, standaard);
+	}
+
+	private static long leesLong(Properties p, String sleutel, long standaard) throws DBException {
+		String waarde = p.getProperty(sleutel);
+		if (waarde == null || waarde.trim().isEmpty()) {
+			return standaard;
+		}
+		try {
+			return Long.parseLong(waarde.trim());
+		} catch (NumberFormatException ex) {
+			throw new DBException("Ongeldige waarde voor pool." + sleutel + " in DB.properties: " + waarde);
+		}
+	}
+
+	//enkel prepareStatement(sql), (sql, autoGeneratedKeys) en (sql, type, concurrency [, holdability])
+	//hebben argumenten die als sleutel van de statementcache kunnen dienen
+	private static boolean isCachebaar(Object[] args) {
+		for (Object arg : args) {
+			if (!(arg instanceof String) && !(arg instanceof Integer)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fysieke connectie met de tijdstippen die de pool nodig heeft en haar
+	 * vrije prepared statements.
+	 */
+	private class PooledConnection {
+		private final Connection fysiek;
+		private final long aangemaakt;
+		private volatile long laatstGebruikt;
+
+		//sleutel: de argumenten van prepareStatement; minst recent gebruikt vooraan
+		private final Map<List<Object>, PreparedStatement> statements =
+				new LinkedHashMap<List<Object>, PreparedStatement>(16, 0.75f, true) {
+					@Override
+					protected boolean removeEldestEntry(Map.Entry<List<Object>, PreparedStatement> eldest) {
+						if (size() > statementCacheSize) {
+							sluitStil(eldest.getValue());
+							return true;
+						}
+						return false;
+					}
+				};
+
+		private PooledConnection(Connection fysiek) {
+			this.fysiek = fysiek;
+			this.aangemaakt = System.currentTimeMillis();
+			this.laatstGebruikt = aangemaakt;
+		}
+
+		/**
+		 * Geeft een proxy terug die close() omzet in teruggeven aan de pool.
+		 * Elke uitlening krijgt een eigen proxy zodat een tweede close() of
+		 * gebruik na close() de volgende gebruiker niet stoort.
+		 * @param acquireNanos tijd die nodig was om de connectie op te halen, voor het trage-querylog
+		 */
+		private Connection leen(long acquireNanos) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[]{Connection.class}, new InvocationHandler() {
+						private boolean teruggegeven;
+
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							switch (method.getName()) {
+								case "close":
+									if (!teruggegeven) {
+										teruggegeven = true;
+										terugGeven(PooledConnection.this);
+									}
+									return null;
+								case "isClosed":
+									return teruggegeven || fysiek.isClosed();
+								case "equals":
+									return proxy == args[0];
+								case "hashCode":
+									return System.identityHashCode(proxy);
+								case "toString":
+									return "PooledConnection[" + fysiek + "]";
+								case "prepareStatement":
+									if (!teruggegeven && statementCacheSize > 0 && isCachebaar(args)) {
+										return leenStatement((Connection) proxy, method, args, acquireNanos);
+									}
+									if (!teruggegeven && (trageQueries != null || StatementEvent.isActief())) {
+										return volgStatement((Connection) proxy, method, args, acquireNanos);
+									}
+									//geen break: zonder cache gewoon doorgeven
+								default:
+									if (teruggegeven) {
+										throw new SQLException("Connectie is al teruggegeven aan de pool.");
+									}
+									try {
+										return method.invoke(fysiek, args);
+									} catch (InvocationTargetException ex) {
+										throw ex.getCause();
+									}
+							}
+						}
+					});
+		}
+
+		/**
+		 * Geeft een vrij prepared statement met dezelfde argumenten terug, of maakt een nieuw.
+		 * Het statement is uitgeleend tot close(), zodat 2 gelijke statements die tegelijk
+		 * open zijn elk een eigen statement krijgen.
+		 */
+		private PreparedStatement leenStatement(Connection verbinding, Method method, Object[] args,
+												long acquireNanos) throws Throwable {
+			List<Object> sleutel = Arrays.asList(args);
+			PreparedStatement stmt;
+			synchronized (statements) {
+				stmt = statements.remove(sleutel);
+			}
+			if (stmt != null && !stmt.isClosed()) {
+				statementHits.incrementAndGet();
+			} else {
+				statementMisses.incrementAndGet();
+				try {
+					stmt = (PreparedStatement) method.invoke(fysiek, args);
+				} catch (InvocationTargetException ex) {
+					throw ex.getCause();
+				}
+			}
+			return new GeleendStatement(this, verbinding, stmt, sleutel, trageQueries, (String) args[0], acquireNanos)
+					.proxy();
+		}
+
+		/**
+		 * Maakt een prepared statement dat niet in de cache komt, maar wel gemeten
+		 * wordt voor het trage-querylog.
+		 */
+		private PreparedStatement volgStatement(Connection verbinding, Method method, Object[] args,
+												long acquireNanos) throws Throwable {
+			PreparedStatement stmt;
+			try {
+				stmt = (PreparedStatement) method.invoke(fysiek, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+			return new GeleendStatement(this, verbinding, stmt, null, trageQueries, (String) args[0], acquireNanos)
+					.proxy();
+		}
+
+		//zet een gesloten statement terug in de cache, of sluit het indien dat niet kan
+		private void terugStatement(PreparedStatement stmt, List<Object> sleutel) {
+			try {
+				stmt.clearParameters();
+				stmt.clearBatch();
+				stmt.clearWarnings();
+				synchronized (statements) {
+					if (!gesloten && !statements.containsKey(sleutel) && !fysiek.isClosed()) {
+						statements.put(sleutel, stmt);
+						return;
+					}
+				}
+			} catch (SQLException ex) {
+				//statement is niet meer bruikbaar
+			}
+			sluitStil(stmt);
+		}
+	}
+
+	private static void sluitStil(Statement stmt) {
+		try {
+			stmt.close();
+		} catch (SQLException ex) {
+			//statement was al onbruikbaar, niets meer aan te doen
+		}
+	}
+
+	/**
+	 * Een uitgeleend prepared statement: close() geeft het terug aan de cache van
+	 * de connectie. Instellingen die de gebruiker wijzigt (fetch size, max rows,
+	 * query time-out) worden daarbij teruggezet. Een statement zonder sleutel komt
+	 * niet uit de cache en wordt bij close() gewoon gesloten.
+	 *
+	 * Is er een trage-querylog of een JFR-opname van StatementEvent, dan wordt elke
+	 * uitvoering gemeten: van execute tot de volgende execute of close(), samen met
+	 * de parameters en het aantal gelezen of gewijzigde rijen.
+	 */
+	private static class GeleendStatement implements InvocationHandler {
+		private final PooledConnection pc;
+		private final Connection verbinding;
+		private final PreparedStatement stmt;
+		private final List<Object> sleutel;
+		private boolean teruggegeven;
+		private Integer fetchSize;
+		private Integer maxRows;
+		private Integer queryTimeout;
+		//na een batch geeft H2 bij volgende inserts nog de sleutels van de batch terug
+		private boolean batch;
+
+		//enkel gebruikt met een trage-querylog of JFR-opname
+		private final TrageQueryLog trageQueries;
+		private final String sql;
+		private final long acquireNanos;
+		private Object[] parameters = new Object[0];
+		private int batchGrootte;
+		private Uitvoering uitvoering;
+
+		private GeleendStatement(PooledConnection pc, Connection verbinding, PreparedStatement stmt,
+								 List<Object> sleutel, TrageQueryLog trageQueries, String sql, long acquireNanos) {
+			this.pc = pc;
+			this.verbinding = verbinding;
+			this.stmt = stmt;
+			this.sleutel = sleutel;
+			this.trageQueries = trageQueries;
+			this.sql = sql;
+			this.acquireNanos = acquireNanos;
+		}
+
+		private PreparedStatement proxy() {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[]{PreparedStatement.class}, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					if (!teruggegeven) {
+						teruggegeven = true;
+						afronden();
+						if (batch || sleutel == null) {
+							sluitStil(stmt);
+						} else {
+							herstel();
+							pc.terugStatement(stmt, sleutel);
+						}
+					}
+					return null;
+				case "isClosed":
+					return teruggegeven || stmt.isClosed();
+				case "getConnection":
+					return verbinding;
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				case "toString":
+					return "GeleendStatement[" + stmt + "]";
+				case "setFetchSize":
+					if (fetchSize == null) {
+						fetchSize = stmt.getFetchSize();
+					}
+					break;
+				case "setMaxRows":
+					if (maxRows == null) {
+						maxRows = stmt.getMaxRows();
+					}
+					break;
+				case "setQueryTimeout":
+					if (queryTimeout == null) {
+						queryTimeout = stmt.getQueryTimeout();
+					}
+					break;
+				case "addBatch":
+					batch = true;
+					batchGrootte++;
+					break;
+				default:
+					break;
+			}
+			if (teruggegeven) {
+				throw new SQLException("Statement is al gesloten.");
+			}
+			if (trageQueries != null || StatementEvent.isActief()) {
+				return meet((PreparedStatement) proxy, method, args);
+			}
+			try {
+				return method.invoke(stmt, args);
+			} catch (InvocationTargetException ex) {
+				throw ex.getCause();
+			}
+		}
+
+		/**
+		 * Voert de methode uit en houdt bij wat het trage-querylog nodig heeft.
+		 */
+		private Object meet(PreparedStatement proxy, Method method, Object[] args) throws Throwable {
+			String naam = method.getName();
+			boolean uitvoeren = naam.startsWith("execute");
+			if (uitvoeren) {
+				afronden();
+				uitvoering = new Uitvoering(Arrays.copyOf(parameters, parameters.length), batchGrootte);
+			}
+			long start = System.nanoTime();
+			Object resultaat;
+			try {
+				resultaat = method.invoke(stmt, args);
+			} catch (InvocationTargetException ex) {
+				if (uitvoeren) {
+					uitvoering.mislukt = true;
+				}
+				throw ex.getCause();
+			} finally {
+				if (uitvoeren) {
+					uitvoering.uitvoerNanos = System.nanoTime() - start;
+				}
+			}
+
+			if (naam.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+				bewaarParameter((Integer) args[0], "setNull".equals(naam) ? null : args[1]);
+			} else if ("clearParameters".equals(naam)) {
+				parameters = new Object[0];
+			} else if ("executeBatch".equals(naam) || "clearBatch".equals(naam)) {
+				batchGrootte = 0;
+			}
+
+			if (uitvoering != null) {
+				//de sleutels van getGeneratedKeys tellen niet mee als rijen
+				if (resultaat instanceof ResultSet && ("executeQuery".equals(naam) || "getResultSet".equals(naam))) {
+					return uitvoering.tel((ResultSet) resultaat, proxy);
+				}
+				if (uitvoeren) {
+					uitvoering.rijen = rijen(resultaat);
+				}
+			}
+			return resultaat;
+		}
+
+		private void bewaarParameter(int index, Object waarde) {
+			if (index > parameters.length) {
+				parameters = Arrays.copyOf(parameters, index);
+			}
+			parameters[index - 1] = waarde;
+		}
+
+		private long rijen(Object resultaat) throws SQLException {
+			if (resultaat instanceof Integer || resultaat instanceof Long) {
+				return ((Number) resultaat).longValue();
+			}
+			if (resultaat instanceof int[]) {
+				//executeBatch; SUCCESS_NO_INFO (-2) telt niet mee
+				long som = 0;
+				for (int aantal : (int[]) resultaat) {
+					som += Math.max(0, aantal);
+				}
+				return som;
+			}
+			if (Boolean.FALSE.equals(resultaat)) {
+				//execute() zonder resultset: het aantal gewijzigde rijen
+				return stmt.getUpdateCount();
+			}
+			//execute() met resultset: geteld via getResultSet()
+			return 0;
+		}
+
+		//logt de vorige uitvoering indien ze trager was dan de drempel, en geeft ze door aan JFR
+		private void afronden() {
+			if (uitvoering != null) {
+				long duur = System.nanoTime() - uitvoering.start;
+				StatementEvent event = uitvoering.event;
+				event.end();
+				if (event.shouldCommit()) {
+					event.setSql(sql);
+					event.setRijen(uitvoering.mislukt ? -1 : uitvoering.rijen);
+					event.setBatch(uitvoering.batchGrootte);
+					event.setMislukt(uitvoering.mislukt);
+					event.commit();
+				}
+				if (trageQueries != null && trageQueries.isTraag(duur)) {
+					trageQueries.registreer(new TrageQuery(sql, uitvoering.parameters, uitvoering.batchGrootte,
+							uitvoering.mislukt ? -1 : uitvoering.rijen, uitvoering.mislukt,
+							duur, uitvoering.uitvoerNanos, acquireNanos));
+				}
+				uitvoering = null;
+			}
+		}
+
+		private void herstel() {
+			try {
+				if (fetchSize != null) {
+					stmt.setFetchSize(fetchSize);
+				}
+				if (maxRows != null) {
+					stmt.setMaxRows(maxRows);
+				}
+				if (queryTimeout != null) {
+					stmt.setQueryTimeout(queryTimeout);
+				}
+			} catch (SQLException ex) {
+				sluitStil(stmt);
+			}
+		}
+	}
+
+	/**
+	 * Metingen van 1 uitvoering van een statement, voor het trage-querylog en JFR.
+	 */
+	private static class Uitvoering {
+		private final long start = System.nanoTime();
+		private final StatementEvent event = new StatementEvent();
+		private final Object[] parameters;
+		private final int batchGrootte;
+		private long uitvoerNanos;
+		private long rijen;
+		private boolean mislukt;
+		private ResultSet resultaat;
+		private ResultSet telProxy;
+
+		private Uitvoering(Object[] parameters, int batchGrootte) {
+			this.parameters = parameters;
+			this.batchGrootte = batchGrootte;
+			event.begin();
+		}
+
+		//geeft een resultset terug die de gelezen rijen telt
+		private ResultSet tel(ResultSet rs, Statement statement) {
+			if (rs != resultaat) {
+				resultaat = rs;
+				telProxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+						new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+							switch (method.getName()) {
+								case "getStatement":
+									return statement;
+								case "equals":
+									return proxy == args[0];
+								case "hashCode":
+									return System.identityHashCode(proxy);
+								default:
+									break;
+							}
+							try {
+								Object waarde = method.invoke(rs, args);
+								if ("next".equals(method.getName()) && Boolean.TRUE.equals(waarde)) {
+									rijen++;
+								}
+								return waarde;
+							} catch (InvocationTargetException ex) {
+								throw ex.getCause();
+							}
+						});
+			}
+			return telProxy;
+		}
+	}
+}
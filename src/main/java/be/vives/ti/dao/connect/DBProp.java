@@ -6,27 +6,60 @@ import java.util.Properties;
 
 public class DBProp {
 
+	private static final String POOL_PREFIX = "pool.";
+	private static final String INIT_SCRIPT = "initScript";
+	//systeemeigenschap waarmee een ander DB-profiel gekozen kan worden, bv. -Dvivesbike.dbprofiel=embedded
+	private static final String PROFIEL_EIGENSCHAP = "vivesbike.dbprofiel";
+
 	private static String dbUrl;
 	private static Properties prop;
+	private static Properties poolProp;
 	private static String driver;
+	private static String initScript;
 
 	/**
 	 * Haalt de URL, driver paswoord en login uit het bestand DB.properties en
-	 * vult deze in in de overeenkomstige velden
+	 * vult deze in in de overeenkomstige velden. Instellingen die beginnen met
+	 * "pool." worden apart gehouden voor de connection pool en niet aan de
+	 * driver doorgegeven, net als het optionele initScript.
+	 * Indien de systeemeigenschap vivesbike.dbprofiel ingesteld is, wordt
+	 * DB-&lt;profiel&gt;.properties gelezen in plaats van DB.properties.
 	 */
 	private DBProp() throws DBException {
-		prop = new Properties();
+		String bestandsnaam = getBestandsnaam();
+		Properties bestand = new Properties();
 		try {
-			prop.load(this.getClass().getResourceAsStream(
-					"/database/DB.properties"));
-			dbUrl = prop.getProperty("dbUrl");
-			driver = prop.getProperty("driver");
-			prop.setProperty("serverTimezone", java.util.TimeZone.getDefault().getID());
-
-		} catch (java.io.IOException ex) {
+			bestand.load(this.getClass().getResourceAsStream(
+					"/database/" + bestandsnaam));
+		} catch (java.io.IOException | NullPointerException ex) {
 			throw new DBException(
-					"Bestand (DB.properties) met gegevens over DB niet gevonden.");
+					"Bestand (" + bestandsnaam + ") met gegevens over DB niet gevonden.");
 		}
+
+		prop = new Properties();
+		poolProp = new Properties();
+		for (String sleutel : bestand.stringPropertyNames()) {
+			if (sleutel.startsWith(POOL_PREFIX)) {
+				poolProp.setProperty(sleutel.substring(POOL_PREFIX.length()), bestand.getProperty(sleutel));
+			} else {
+				prop.setProperty(sleutel, bestand.getProperty(sleutel));
+			}
+		}
+		dbUrl = prop.getProperty("dbUrl");
+		driver = prop.getProperty("driver");
+		initScript = (String) prop.remove(INIT_SCRIPT);
+		prop.setProperty("serverTimezone", java.util.TimeZone.getDefault().getID());
+	}
+
+	/**
+	 * @return naam van het properties-bestand van het gekozen DB-profiel
+	 */
+	private static String getBestandsnaam() {
+		String profiel = System.getProperty(PROFIEL_EIGENSCHAP);
+		if (profiel == null || profiel.trim().isEmpty()) {
+			return "DB.properties";
+		}
+		return "DB-" + profiel.trim() + ".properties";
 	}
 
 	/**
@@ -51,6 +84,17 @@ public class DBProp {
 		return prop;
 	}
 
+	/**
+	 * @return de instellingen van de connection pool (zonder het voorvoegsel "pool.")
+	 * @throws DBException wanneer DB.properties niet toegankelijk is
+	 */
+	public static Properties getPoolProp() throws DBException {
+		if (poolProp == null) {
+			DBProp db = new DBProp();
+		}
+		return poolProp;
+	}
+
 	/**
 	 * @return the login
 	 * @throws DBException wanneer DB.properties niet toegankelijk is
@@ -61,4 +105,16 @@ public class DBProp {
 		}
 		return driver;
 	}
+
+	/**
+	 * @return classpath-resource met het SQL-script dat een lege databank
+	 * opvult bij het aanmaken van de pool, null indien er geen is
+	 * @throws DBException wanneer DB.properties niet toegankelijk is
+	 */
+	public static String getInitScript() throws DBException {
+		if (dbUrl == null) {
+			DBProp db = new DBProp();
+		}
+		return initScript;
+	}
 }
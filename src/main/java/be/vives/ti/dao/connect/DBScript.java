@@ -0,0 +1,86 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Voert een SQL-script (zoals VIVESBike.sql) uit op een databank.
+ */
+public class DBScript {
+
+	private DBScript() {
+	}
+
+	/**
+	 * Voert het script uit, maar enkel wanneer de databank nog geen tabellen
+	 * bevat. Zo wordt de testdata niet opnieuw ingevoegd wanneer de pool
+	 * opnieuw aangemaakt wordt op een databank die blijft bestaan.
+	 *
+	 * @param conn     connectie naar de databank
+	 * @param resource classpath-resource met het script, bv. /database/VIVESBike.sql
+	 * @return true indien het script uitgevoerd werd
+	 * @throws DBException wanneer het script niet gevonden wordt
+	 * @throws SQLException wanneer een statement uit het script faalt
+	 */
+	public static boolean voerUitIndienLeeg(Connection conn, String resource) throws DBException, SQLException {
+		if (heeftTabellen(conn)) {
+			return false;
+		}
+		voerUit(conn, resource);
+		return true;
+	}
+
+	/**
+	 * Voert alle statements van het script uit, gescheiden door ';'.
+	 *
+	 * @param conn     connectie naar de databank
+	 * @param resource classpath-resource met het script
+	 * @throws DBException wanneer het script niet gevonden wordt
+	 * @throws SQLException wanneer een statement uit het script faalt
+	 */
+	public static void voerUit(Connection conn, String resource) throws DBException, SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			for (String sql : lees(resource).split(";")) {
+				if (!sql.trim().isEmpty()) {
+					stmt.execute(sql);
+				}
+			}
+		}
+	}
+
+	private static boolean heeftTabellen(Connection conn) throws SQLException {
+		try (ResultSet r = conn.getMetaData().getTables(
+				conn.getCatalog(), conn.getSchema(), "%", new String[]{"TABLE"})) {
+			return r.next();
+		}
+	}
+
+	private static String lees(String resource) throws DBException {
+		InputStream in = DBScript.class.getResourceAsStream(resource);
+		if (in == null) {
+			throw new DBException("Script (" + resource + ") niet gevonden.");
+		}
+		StringBuilder script = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String lijn;
+			while ((lijn = reader.readLine()) != null) {
+				//commentaar overslaan, die kan een ';' bevatten
+				if (!lijn.trim().startsWith("--")) {
+					script.append(lijn).append('\n');
+				}
+			}
+		} catch (IOException ex) {
+			throw new DBException("Script (" + resource + ") kon niet gelezen worden: " + ex);
+		}
+		return script.toString();
+	}
+}
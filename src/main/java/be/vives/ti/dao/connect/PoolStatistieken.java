@@ -0,0 +1,114 @@
+package be.vives.ti.dao.connect;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Momentopname van de toestand van de connection pool.
+ */
+public class PoolStatistieken {
+
+	private final int actief;
+	private final int idle;
+	private final int wachtend;
+	private final int totaal;
+	private final int maximum;
+	private final long aantalAcquires;
+	private final long gemiddeldeAcquireNanos;
+	private final long maxAcquireNanos;
+	private final long statementHits;
+	private final long statementMisses;
+
+	public PoolStatistieken(int actief, int idle, int wachtend, int totaal, int maximum,
+							long aantalAcquires, long gemiddeldeAcquireNanos, long maxAcquireNanos,
+							long statementHits, long statementMisses) {
+		this.actief = actief;
+		this.idle = idle;
+		this.wachtend = wachtend;
+		this.totaal = totaal;
+		this.maximum = maximum;
+		this.aantalAcquires = aantalAcquires;
+		this.gemiddeldeAcquireNanos = gemiddeldeAcquireNanos;
+		this.maxAcquireNanos = maxAcquireNanos;
+		this.statementHits = statementHits;
+		this.statementMisses = statementMisses;
+	}
+
+	/**
+	 * @return aantal connecties die momenteel uitgeleend zijn
+	 */
+	public int getActief() {
+		return actief;
+	}
+
+	/**
+	 * @return aantal open connecties die klaarliggen in de pool
+	 */
+	public int getIdle() {
+		return idle;
+	}
+
+	/**
+	 * @return aantal threads die op een connectie wachten
+	 */
+	public int getWachtend() {
+		return wachtend;
+	}
+
+	/**
+	 * @return totaal aantal fysieke connecties (actief + idle)
+	 */
+	public int getTotaal() {
+		return totaal;
+	}
+
+	/**
+	 * @return maximum aantal connecties dat de pool tegelijk uitleent (maxSize)
+	 */
+	public int getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * @return aantal keer dat een connectie werd opgehaald
+	 */
+	public long getAantalAcquires() {
+		return aantalAcquires;
+	}
+
+	/**
+	 * @return gemiddelde tijd om een connectie op te halen, in microseconden
+	 */
+	public long getGemiddeldeAcquireMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(gemiddeldeAcquireNanos);
+	}
+
+	/**
+	 * @return langste tijd om een connectie op te halen, in microseconden
+	 */
+	public long getMaxAcquireMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos);
+	}
+
+	/**
+	 * @return aantal keer dat prepareStatement een bewaard statement hergebruikte
+	 */
+	public long getStatementHits() {
+		return statementHits;
+	}
+
+	/**
+	 * @return aantal keer dat prepareStatement een nieuw statement moest maken
+	 */
+	public long getStatementMisses() {
+		return statementMisses;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStatistieken{actief=" + actief + ", idle=" + idle + ", wachtend=" + wachtend
+				+ ", totaal=" + totaal + ", maximum=" + maximum + ", acquires=" + aantalAcquires
+				+ ", gemiddeldeAcquire=" + getGemiddeldeAcquireMicros() + "us"
+				+ ", maxAcquire=" + getMaxAcquireMicros() + "us"
+				+ ", statementHits=" + statementHits + ", statementMisses=" + statementMisses + "}";
+	}
+}
@@ -0,0 +1,83 @@
+package be.vives.ti.dao.connect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Begrensde wachtrij zonder locks voor meerdere producenten en 1 consument
+ * (naar het algoritme van D. Vyukov). Elk vakje heeft een volgnummer dat zegt of
+ * het vrij is voor de volgende producent of klaar voor de consument. Een
+ * producent wacht nooit: is de buffer vol, dan geeft plaats() false terug.
+ */
+class RingBuffer<T> {
+
+	private final AtomicReferenceArray<T> elementen;
+	private final AtomicLongArray volgnummers;
+	private final int masker;
+	private final AtomicLong schrijfPositie = new AtomicLong();
+	//enkel de consument leest, dus geen atomaire teller nodig
+	private long leesPositie;
+
+	/**
+	 * @param capaciteit minimum aantal elementen, wordt afgerond naar een macht van 2
+	 */
+	RingBuffer(int capaciteit) {
+		int grootte = Integer.highestOneBit(Math.max(2, capaciteit - 1)) << 1;
+		elementen = new AtomicReferenceArray<>(grootte);
+		volgnummers = new AtomicLongArray(grootte);
+		for (int i = 0; i < grootte; i++) {
+			volgnummers.set(i, i);
+		}
+		masker = grootte - 1;
+	}
+
+	/**
+	 * Voegt een element toe, mag door meerdere threads tegelijk opgeroepen worden.
+	 * @return false indien de buffer vol is; het element is dan niet toegevoegd
+	 */
+	boolean plaats(T element) {
+		long positie = schrijfPositie.get();
+		while (true) {
+			int vakje = (int) (positie & masker);
+			long verschil = volgnummers.get(vakje) - positie;
+			if (verschil == 0) {
+				if (schrijfPositie.compareAndSet(positie, positie + 1)) {
+					elementen.set(vakje, element);
+					volgnummers.set(vakje, positie + 1);
+					return true;
+				}
+				positie = schrijfPositie.get();
+			} else if (verschil < 0) {
+				//de consument heeft dit vakje nog niet vrijgegeven
+				return false;
+			} else {
+				//een andere producent was sneller
+				positie = schrijfPositie.get();
+			}
+		}
+	}
+
+	/**
+	 * Haalt het oudste element op; mag maar door 1 thread opgeroepen worden.
+	 * @return het element, null indien de buffer leeg is
+	 */
+	T neem() {
+		int vakje = (int) (leesPositie & masker);
+		if (volgnummers.get(vakje) != leesPositie + 1) {
+			return null;
+		}
+		T element = elementen.get(vakje);
+		elementen.set(vakje, null);
+		volgnummers.set(vakje, leesPositie + masker + 1);
+		leesPositie++;
+		return element;
+	}
+
+	/**
+	 * @return aantal vakjes
+	 */
+	int getCapaciteit() {
+		return masker + 1;
+	}
+}
@@ -0,0 +1,104 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.datatype.Rijksregisternummer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.regex.Pattern;
+
+/**
+ * Een statement dat langer duurde dan de drempel van het trage-querylog.
+ * Wordt op de thread van de DAO aangemaakt; de tekst wordt pas op de
+ * schrijfthread van het log opgebouwd.
+ */
+class TrageQuery {
+
+	//11 cijfers: zo ziet een rijksregisternummer eruit in de queries
+	private static final Pattern RIJKSREGISTERNUMMER = Pattern.compile("\\d{11}");
+	private static final Pattern WITRUIMTE = Pattern.compile("\\s+");
+
+	private final long tijdstip;
+	private final String thread;
+	private final String sql;
+	private final Object[] parameters;
+	private final int batch;
+	private final long rijen;
+	private final boolean mislukt;
+	private final long duurNanos;
+	private final long uitvoerNanos;
+	private final long acquireNanos;
+
+	/**
+	 * @param sql de SQL van het prepared statement
+	 * @param parameters de ingevulde parameters, index 0 is parameter 1; bij een batch die van de laatste rij
+	 * @param batch aantal rijen in de batch, 0 indien geen batch
+	 * @param rijen gelezen of gewijzigde rijen, -1 indien onbekend
+	 * @param mislukt true indien het uitvoeren een exception gaf
+	 * @param duurNanos van het uitvoeren tot het sluiten van het statement (of de volgende uitvoering)
+	 * @param uitvoerNanos duur van de execute-oproep zelf
+	 * @param acquireNanos tijd om de connectie uit de pool te halen
+	 */
+	TrageQuery(String sql, Object[] parameters, int batch, long rijen, boolean mislukt, long duurNanos,
+			   long uitvoerNanos, long acquireNanos) {
+		this.tijdstip = System.currentTimeMillis();
+		this.thread = Thread.currentThread().getName();
+		this.sql = sql;
+		this.parameters = parameters;
+		this.batch = batch;
+		this.rijen = rijen;
+		this.mislukt = mislukt;
+		this.duurNanos = duurNanos;
+		this.uitvoerNanos = uitvoerNanos;
+		this.acquireNanos = acquireNanos;
+	}
+
+	/**
+	 * @return 1 lijn tekst, zonder regeleinde; rijksregisternummers zijn gemaskeerd
+	 */
+	String alsTekst() {
+		StringBuilder tekst = new StringBuilder(256)
+				.append(LocalDateTime.ofInstant(Instant.ofEpochMilli(tijdstip), ZoneId.systemDefault()))
+				.append(" [").append(thread).append("] ")
+				.append(String.format("%.3f ms (uitvoeren %.3f ms, connectie %.3f ms)",
+						duurNanos / 1e6, uitvoerNanos / 1e6, acquireNanos / 1e6))
+				.append(" rijen=").append(rijen < 0 ? "?" : String.valueOf(rijen));
+		if (mislukt) {
+			tekst.append(" mislukt");
+		}
+		if (batch > 0) {
+			tekst.append(" batch=").append(batch);
+		}
+		tekst.append(" sql=\"").append(WITRUIMTE.matcher(sql.trim()).replaceAll(" ")).append('"');
+		if (parameters.length > 0) {
+			tekst.append(" parameters=[");
+			for (int i = 0; i < parameters.length; i++) {
+				if (i > 0) {
+					tekst.append(", ");
+				}
+				tekst.append(parameter(parameters[i]));
+			}
+			tekst.append(']');
+		}
+		return tekst.toString();
+	}
+
+	static String parameter(Object waarde) {
+		if (waarde == null) {
+			return "null";
+		}
+		if (waarde instanceof String) {
+			String s = (String) waarde;
+			if (RIJKSREGISTERNUMMER.matcher(s).matches()) {
+				return "'" + Rijksregisternummer.maskeer(s) + "'";
+			}
+			return "'" + s + "'";
+		}
+		if (waarde instanceof Number || waarde instanceof Boolean || waarde instanceof java.util.Date
+				|| waarde instanceof java.time.temporal.Temporal) {
+			return waarde.toString();
+		}
+		//streams, blobs, ... worden niet gelezen
+		return "<" + waarde.getClass().getSimpleName() + ">";
+	}
+}
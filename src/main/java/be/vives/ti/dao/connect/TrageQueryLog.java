@@ -0,0 +1,197 @@
+package be.vives.ti.dao.connect;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Schrijft statements die langer duren dan een drempel naar een logbestand
+ * (pool.slowQueryThreshold in DB.properties). De DAO-thread zet een trage query
+ * enkel in een ringbuffer zonder locks; een aparte thread schrijft ze weg. Is de
+ * buffer vol, dan gaat de query verloren in plaats van de DAO op te houden; het
+ * aantal verloren queries komt mee in het log.
+ * <p>
+ * Wordt het bestand groter dan maxGrootte bytes, dan schuift het door naar
+ * bestand.1 (bestand.1 naar bestand.2, ...) en wordt een nieuw bestand begonnen;
+ * er blijven hoogstens aantalBestanden oude bestanden bewaard.
+ */
+public class TrageQueryLog {
+
+	//zo lang slaapt de schrijfthread als er niets te schrijven is
+	private static final long SLAAP_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+	private final long drempelNanos;
+	private final Path bestand;
+	private final long maxGrootte;
+	private final int aantalBestanden;
+	private final RingBuffer<TrageQuery> buffer;
+	private final AtomicLong verloren = new AtomicLong();
+	private final AtomicLong geschreven = new AtomicLong();
+	private final Thread schrijver;
+	private volatile boolean gestopt;
+
+	private OutputStream uit;
+	private long grootte;
+	private long gemeldVerloren;
+
+	/**
+	 * @param drempelMs statements die minstens zo lang duren worden gelogd, 0 om alles te loggen
+	 * @param bestand logbestand, wordt aangevuld indien het al bestaat
+	 * @param maxGrootte grootte in bytes waarboven een nieuw bestand begonnen wordt
+	 * @param aantalBestanden aantal oude bestanden dat bewaard wordt
+	 * @param capaciteit aantal trage queries dat in de buffer kan wachten
+	 * @throws IOException wanneer het bestand niet geopend kan worden
+	 */
+	public TrageQueryLog(long drempelMs, Path bestand, long maxGrootte, int aantalBestanden, int capaciteit)
+			throws IOException {
+		this.drempelNanos = TimeUnit.MILLISECONDS.toNanos(drempelMs);
+		this.bestand = bestand.toAbsolutePath();
+		this.maxGrootte = maxGrootte;
+		this.aantalBestanden = aantalBestanden;
+		this.buffer = new RingBuffer<>(capaciteit);
+		open();
+
+		schrijver = new Thread(this::schrijf, "vivesbike-trage-queries");
+		schrijver.setDaemon(true);
+		schrijver.start();
+	}
+
+	/**
+	 * @param nanos duur van een statement
+	 * @return true indien het statement gelogd moet worden
+	 */
+	boolean isTraag(long nanos) {
+		return nanos >= drempelNanos;
+	}
+
+	/**
+	 * Zet een trage query klaar voor de schrijfthread, zonder te wachten.
+	 */
+	void registreer(TrageQuery query) {
+		if (gestopt || !buffer.plaats(query)) {
+			verloren.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return aantal trage queries dat naar het bestand geschreven werd
+	 */
+	public long getGeschreven() {
+		return geschreven.get();
+	}
+
+	/**
+	 * @return aantal trage queries dat niet gelogd werd omdat de buffer vol zat
+	 */
+	public long getVerloren() {
+		return verloren.get();
+	}
+
+	/**
+	 * @return het huidige logbestand
+	 */
+	public Path getBestand() {
+		return bestand;
+	}
+
+	/**
+	 * Schrijft wat nog in de buffer zit weg en sluit het bestand.
+	 */
+	public void sluiten() {
+		gestopt = true;
+		LockSupport.unpark(schrijver);
+		try {
+			schrijver.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void schrijf() {
+		try {
+			while (true) {
+				//gestopt eerst lezen: wat daarna nog in de buffer zit, wordt zeker nog geschreven
+				boolean laatste = gestopt;
+				TrageQuery query;
+				boolean iets = false;
+				while ((query = buffer.neem()) != null) {
+					meldVerloren();
+					schrijf(query.alsTekst());
+					geschreven.incrementAndGet();
+					iets = true;
+				}
+				meldVerloren();
+				if (iets) {
+					uit.flush();
+				}
+				if (laatste) {
+					break;
+				}
+				LockSupport.parkNanos(this, SLAAP_NANOS);
+			}
+		} catch (IOException ex) {
+			System.err.println("Trage-querylog " + bestand + " kan niet geschreven worden: " + ex);
+		} finally {
+			gestopt = true;
+			try {
+				uit.close();
+			} catch (IOException ex) {
+				//niets meer aan te doen
+			}
+		}
+	}
+
+	private void meldVerloren() throws IOException {
+		long aantal = verloren.get();
+		if (aantal > gemeldVerloren) {
+			schrijf("-- " + (aantal - gemeldVerloren) + " trage queries niet gelogd, buffer was vol");
+			gemeldVerloren = aantal;
+		}
+	}
+
+	private void schrijf(String regel) throws IOException {
+		byte[] bytes = (regel + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+		if (grootte > 0 && grootte + bytes.length > maxGrootte) {
+			roteer();
+		}
+		uit.write(bytes);
+		grootte += bytes.length;
+	}
+
+	private void open() throws IOException {
+		if (bestand.getParent() != null) {
+			Files.createDirectories(bestand.getParent());
+		}
+		uit = new BufferedOutputStream(Files.newOutputStream(bestand,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+		grootte = Files.size(bestand);
+	}
+
+	private void roteer() throws IOException {
+		uit.close();
+		if (aantalBestanden > 0) {
+			Files.deleteIfExists(oud(aantalBestanden));
+			for (int i = aantalBestanden - 1; i >= 1; i--) {
+				if (Files.exists(oud(i))) {
+					Files.move(oud(i), oud(i + 1), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(bestand, oud(1), StandardCopyOption.REPLACE_EXISTING);
+		} else {
+			Files.delete(bestand);
+		}
+		open();
+	}
+
+	private Path oud(int nummer) {
+		return bestand.resolveSibling(bestand.getFileName() + "." + nummer);
+	}
+}
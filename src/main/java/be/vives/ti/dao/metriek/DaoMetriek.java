@@ -0,0 +1,147 @@
+package be.vives.ti.dao.metriek;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aantal oproepen, fouten en latenties van 1 DAO-methode. Een DAO maakt per
+ * methode 1 metriek aan via DaoMetrieken.voor en meet elke oproep zo:
+ * <pre>
+ * public Fiets zoekFiets(Integer regnr) throws DBException {
+ *     return METRIEK.meet(() -&gt; {
+ *         ...
+ *     });
+ * }
+ * </pre>
+ * Een ApplicationException (bv. een fiets die al in gebruik is) telt als
+ * afgewezen, niet als fout: de databank deed dan wat gevraagd werd.
+ */
+public class DaoMetriek implements DaoMetriekMBean {
+
+    private final String dao;
+    private final String methode;
+    private final LatentieHistogram histogram = new LatentieHistogram();
+    private final LongAdder fouten = new LongAdder();
+    private final LongAdder afgewezen = new LongAdder();
+
+    DaoMetriek(String dao, String methode) {
+        this.dao = dao;
+        this.methode = methode;
+    }
+
+    /**
+     * Voert een DAO-oproep uit en registreert de duur en, indien ze met een
+     * exception eindigt, de fout. De exception wordt ongewijzigd doorgegeven.
+     * @param oproep de inhoud van de DAO-methode
+     * @return het resultaat van de oproep
+     * @throws DBException wanneer de oproep een DBException gooit
+     * @throws E wanneer de oproep een andere checked exception gooit
+     */
+    public <T, E extends Exception> T meet(DaoOproep<T, E> oproep) throws DBException, E {
+        long start = System.nanoTime();
+        try {
+            return oproep.voerUit();
+        } catch (Exception ex) {
+            fout(ex);
+            throw ex;
+        } finally {
+            registreer(start);
+        }
+    }
+
+    /**
+     * Registreert de duur van 1 oproep, geslaagd of niet.
+     * @param startNanos System.nanoTime() bij het begin van de oproep
+     */
+    void registreer(long startNanos) {
+        histogram.registreer(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Telt een oproep die met een exception eindigde.
+     * @param ex de exception die de DAO-methode gooit
+     */
+    void fout(Exception ex) {
+        if (ex instanceof ApplicationException) {
+            afgewezen.increment();
+        } else {
+            fouten.increment();
+        }
+    }
+
+    /**
+     * @return kopie van het histogram, om meerdere percentielen consistent te berekenen
+     */
+    public LatentieHistogram.Momentopname momentopname() {
+        return histogram.momentopname();
+    }
+
+    @Override
+    public String getDao() {
+        return dao;
+    }
+
+    @Override
+    public String getMethode() {
+        return methode;
+    }
+
+    @Override
+    public long getAantal() {
+        return histogram.momentopname().getAantal();
+    }
+
+    @Override
+    public long getFouten() {
+        return fouten.sum();
+    }
+
+    @Override
+    public long getAfgewezen() {
+        return afgewezen.sum();
+    }
+
+    @Override
+    public long getGemiddeldeMicros() {
+        return micros(histogram.momentopname().getGemiddeldeNanos());
+    }
+
+    @Override
+    public long getP50Micros() {
+        return micros(histogram.momentopname().percentielNanos(50));
+    }
+
+    @Override
+    public long getP90Micros() {
+        return micros(histogram.momentopname().percentielNanos(90));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return micros(histogram.momentopname().percentielNanos(99));
+    }
+
+    @Override
+    public long getP999Micros() {
+        return micros(histogram.momentopname().percentielNanos(99.9));
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return micros(histogram.momentopname().getMaxNanos());
+    }
+
+    @Override
+    public void leegmaken() {
+        histogram.leegmaken();
+        fouten.reset();
+        afgewezen.reset();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
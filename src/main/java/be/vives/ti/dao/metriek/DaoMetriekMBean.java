@@ -0,0 +1,32 @@
+package be.vives.ti.dao.metriek;
+
+/**
+ * JMX-beeld van de metingen van 1 DAO-methode (zie DaoMetriek). Tijden zijn
+ * in microseconden.
+ */
+public interface DaoMetriekMBean {
+
+    String getDao();
+
+    String getMethode();
+
+    long getAantal();
+
+    long getFouten();
+
+    long getAfgewezen();
+
+    long getGemiddeldeMicros();
+
+    long getP50Micros();
+
+    long getP90Micros();
+
+    long getP99Micros();
+
+    long getP999Micros();
+
+    long getMaxMicros();
+
+    void leegmaken();
+}
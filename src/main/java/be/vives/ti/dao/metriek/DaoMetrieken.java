@@ -0,0 +1,118 @@
+package be.vives.ti.dao.metriek;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Register van de metrieken van alle DAO-methodes. Elke metriek is via JMX
+ * zichtbaar als be.vives.ti:type=DaoMetriek,dao=...,methode=... (bv. in
+ * JConsole of VisualVM); be.vives.ti:type=DaoMetrieken geeft alles samen als
+ * tekst (operatie dump) en kan alle tellers terug op 0 zetten.
+ */
+public final class DaoMetrieken {
+
+    private static final String DOMEIN = "be.vives.ti";
+
+    private static final Map<String, DaoMetriek> METRIEKEN = new ConcurrentSkipListMap<>();
+
+    static {
+        registreer(DOMEIN + ":type=DaoMetrieken", new Overzicht(), OverzichtMBean.class);
+    }
+
+    private DaoMetrieken() {
+    }
+
+    /**
+     * Geeft de metriek van een DAO-methode, en maakt ze aan bij de eerste oproep.
+     * @param dao klasse van de DAO
+     * @param methode naam van de methode, uniek binnen de DAO
+     * @return de metriek van die methode
+     */
+    public static synchronized DaoMetriek voor(Class<?> dao, String methode) {
+        return METRIEKEN.computeIfAbsent(dao.getSimpleName() + "." + methode, sleutel -> {
+            DaoMetriek metriek = new DaoMetriek(dao.getSimpleName(), methode);
+            registreer(DOMEIN + ":type=DaoMetriek,dao=" + dao.getSimpleName() + ",methode=" + methode,
+                    metriek, DaoMetriekMBean.class);
+            return metriek;
+        });
+    }
+
+    /**
+     * @return alle metrieken, gesorteerd op DAO en methode
+     */
+    public static List<DaoMetriek> alle() {
+        return new ArrayList<>(METRIEKEN.values());
+    }
+
+    /**
+     * @return de metrieken als tabel, 1 lijn per methode die al opgeroepen werd;
+     * tijden in milliseconden
+     */
+    public static String dump() {
+        StringBuilder tekst = new StringBuilder(String.format("%-34s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "methode", "aantal", "fouten", "afgew.", "gem", "p50", "p90", "p99", "p99.9", "max"));
+        for (DaoMetriek metriek : METRIEKEN.values()) {
+            LatentieHistogram.Momentopname m = metriek.momentopname();
+            if (m.getAantal() > 0) {
+                tekst.append(String.format("%-34s %9d %7d %7d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                        metriek.getDao() + "." + metriek.getMethode(), m.getAantal(),
+                        metriek.getFouten(), metriek.getAfgewezen(),
+                        ms(m.getGemiddeldeNanos()), ms(m.percentielNanos(50)), ms(m.percentielNanos(90)),
+                        ms(m.percentielNanos(99)), ms(m.percentielNanos(99.9)), ms(m.getMaxNanos())));
+            }
+        }
+        return tekst.toString();
+    }
+
+    /**
+     * Zet de tellers van alle metrieken terug op 0, bv. na het opwarmen.
+     */
+    public static void leegmaken() {
+        METRIEKEN.values().forEach(DaoMetriek::leegmaken);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static <T> void registreer(String naam, T mbean, Class<T> type) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(naam);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new StandardMBean(mbean, type), objectName);
+            }
+        } catch (JMException | SecurityException ex) {
+            //zonder JMX wordt er gewoon verder gemeten
+            System.err.println("Registreren van " + naam + " bij JMX mislukt: " + ex);
+        }
+    }
+
+    /**
+     * JMX-operaties op alle metrieken samen.
+     */
+    public interface OverzichtMBean {
+        String dump();
+
+        void leegmaken();
+    }
+
+    private static final class Overzicht implements OverzichtMBean {
+        @Override
+        public String dump() {
+            return DaoMetrieken.dump();
+        }
+
+        @Override
+        public void leegmaken() {
+            DaoMetrieken.leegmaken();
+        }
+    }
+}
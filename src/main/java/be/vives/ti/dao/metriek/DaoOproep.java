@@ -0,0 +1,16 @@
+package be.vives.ti.dao.metriek;
+
+import be.vives.ti.exception.DBException;
+
+/**
+ * De inhoud van een DAO-methode, die door DaoMetriek.meet gemeten wordt.
+ * E is de bijkomende checked exception van de methode (bv. ApplicationException);
+ * een methode die enkel DBException gooit, hoeft niets extra te declareren.
+ *
+ * @param <T> resultaat van de methode, Void voor een methode zonder resultaat
+ * @param <E> bijkomende exception die de methode kan gooien
+ */
+@FunctionalInterface
+public interface DaoOproep<T, E extends Exception> {
+    T voerUit() throws DBException, E;
+}
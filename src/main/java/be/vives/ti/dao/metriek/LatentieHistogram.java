@@ -0,0 +1,146 @@
+package be.vives.ti.dao.metriek;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram van latenties in nanoseconden, in de stijl van HdrHistogram: elke
+ * macht van 2 is opgedeeld in 32 gelijke vakjes, zodat een percentiel hoogstens
+ * 1/32 (ruim 3%) naast de echte waarde ligt, ongeacht of die 1 microseconde of
+ * 1 minuut is. Registreren is een paar bitbewerkingen en 1 atomaire optelling,
+ * zonder lock en zonder objecten aan te maken.
+ * <p>
+ * Waarden vanaf 2^36 ns (ongeveer 69 s) komen in het laatste vakje terecht; het
+ * maximum wordt wel exact bijgehouden.
+ */
+public class LatentieHistogram {
+
+    //de eerste 64 vakjes bevatten elk 1 waarde, daarna 32 vakjes per macht van 2
+    private static final int SUB_BITS = 5;
+    private static final int HELFT = 1 << SUB_BITS;
+    private static final int EXACT = HELFT << 1;
+    private static final int MAX_BIT = 36;
+    private static final long GRENS = (1L << MAX_BIT) - 1;
+    private static final int AANTAL_VAKJES = EXACT + (MAX_BIT - SUB_BITS - 1) * HELFT;
+
+    private final AtomicLongArray vakjes = new AtomicLongArray(AANTAL_VAKJES);
+    private final LongAdder som = new LongAdder();
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * Registreert 1 meting.
+     * @param nanos gemeten duur, negatieve waarden tellen als 0
+     */
+    public void registreer(long nanos) {
+        long waarde = Math.max(0, nanos);
+        vakjes.incrementAndGet(vakje(Math.min(waarde, GRENS)));
+        som.add(waarde);
+        long max = maximum.get();
+        while (waarde > max && !maximum.compareAndSet(max, waarde)) {
+            max = maximum.get();
+        }
+    }
+
+    /**
+     * Zet alle tellers terug op 0. Metingen die tegelijk geregistreerd worden,
+     * kunnen half meegeteld zijn.
+     */
+    public void leegmaken() {
+        for (int i = 0; i < AANTAL_VAKJES; i++) {
+            vakjes.set(i, 0);
+        }
+        som.reset();
+        maximum.set(0);
+    }
+
+    /**
+     * @return een kopie van de tellers, waarop percentielen berekend kunnen worden
+     */
+    public Momentopname momentopname() {
+        long[] kopie = new long[AANTAL_VAKJES];
+        long aantal = 0;
+        for (int i = 0; i < AANTAL_VAKJES; i++) {
+            kopie[i] = vakjes.get(i);
+            aantal += kopie[i];
+        }
+        return new Momentopname(kopie, aantal, som.sum(), maximum.get());
+    }
+
+    static int vakje(long waarde) {
+        if (waarde < EXACT) {
+            return (int) waarde;
+        }
+        int verschuiving = 63 - Long.numberOfLeadingZeros(waarde) - SUB_BITS;
+        int sub = (int) (waarde >>> verschuiving);
+        return EXACT + (verschuiving - 1) * HELFT + (sub - HELFT);
+    }
+
+    static long hoogsteWaarde(int vakje) {
+        if (vakje < EXACT) {
+            return vakje;
+        }
+        int verschuiving = (vakje - EXACT) / HELFT + 1;
+        long sub = HELFT + (vakje - EXACT) % HELFT;
+        return ((sub + 1) << verschuiving) - 1;
+    }
+
+    /**
+     * Tellers van een histogram op 1 moment.
+     */
+    public static final class Momentopname {
+        private final long[] vakjes;
+        private final long aantal;
+        private final long somNanos;
+        private final long maxNanos;
+
+        private Momentopname(long[] vakjes, long aantal, long somNanos, long maxNanos) {
+            this.vakjes = vakjes;
+            this.aantal = aantal;
+            this.somNanos = somNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * @return aantal metingen
+         */
+        public long getAantal() {
+            return aantal;
+        }
+
+        /**
+         * @return gemiddelde duur in nanoseconden, 0 zonder metingen
+         */
+        public long getGemiddeldeNanos() {
+            return aantal == 0 ? 0 : somNanos / aantal;
+        }
+
+        /**
+         * @return langste duur in nanoseconden
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * @param percentiel tussen 0 en 100, bv. 99.9
+         * @return duur in nanoseconden waaronder dat percentage van de metingen ligt
+         * (de hoogste waarde van het vakje), 0 zonder metingen
+         */
+        public long percentielNanos(double percentiel) {
+            if (aantal == 0) {
+                return 0;
+            }
+            long rang = Math.max(1, (long) Math.ceil(percentiel / 100 * aantal));
+            long gezien = 0;
+            for (int i = 0; i < vakjes.length; i++) {
+                gezien += vakjes[i];
+                if (gezien >= rang) {
+                    //het laatste vakje heeft geen bovengrens
+                    return i == vakjes.length - 1 ? maxNanos : Math.min(hoogsteWaarde(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
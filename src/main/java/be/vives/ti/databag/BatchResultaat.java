@@ -0,0 +1,63 @@
+package be.vives.ti.databag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Resultaat van het toevoegen van meerdere rijen tegelijk: per rij de sleutel
+ * van de toegevoegde rij, of de fout waardoor de rij niet toegevoegd werd.
+ * Rijen worden aangeduid met hun positie in de opgegeven lijst.
+ *
+ * @param <K> type van de sleutel (registratienummer, id, rijksregisternummer)
+ */
+public class BatchResultaat<K> {
+
+    private final List<K> sleutels;
+    private final SortedMap<Integer, String> fouten = new TreeMap<>();
+
+    public BatchResultaat(int aantalRijen) {
+        sleutels = new ArrayList<>(Collections.nCopies(aantalRijen, null));
+    }
+
+    public void setSleutel(int rij, K sleutel) {
+        sleutels.set(rij, sleutel);
+    }
+
+    public void setFout(int rij, String fout) {
+        sleutels.set(rij, null);
+        fouten.put(rij, fout);
+    }
+
+    /**
+     * @return sleutel per rij, in dezelfde volgorde als de opgegeven rijen;
+     * null voor rijen die niet toegevoegd werden
+     */
+    public List<K> getSleutels() {
+        return Collections.unmodifiableList(sleutels);
+    }
+
+    /**
+     * @return foutboodschap per positie van een rij die niet toegevoegd werd
+     */
+    public SortedMap<Integer, String> getFouten() {
+        return Collections.unmodifiableSortedMap(fouten);
+    }
+
+    public int getAantalToegevoegd() {
+        return sleutels.size() - fouten.size();
+    }
+
+    public boolean isAllesToegevoegd() {
+        return fouten.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResultaat{toegevoegd=" + getAantalToegevoegd() +
+                ", fouten=" + fouten +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package be.vives.ti.databag;
+
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+
+/**
+ * Toestand van 1 fiets voor de beschikbaarheidsindex: status, standplaats en de
+ * laatste rit met de fiets, opgehaald in 1 query.
+ */
+public class FietsToestand {
+
+    private int registratienummer;
+    private Status status;
+    private Standplaats standplaats;
+    private Integer laatsteRitId;
+    private boolean laatsteRitActief;
+
+    public int getRegistratienummer() {
+        return registratienummer;
+    }
+
+    public void setRegistratienummer(int registratienummer) {
+        this.registratienummer = registratienummer;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Standplaats getStandplaats() {
+        return standplaats;
+    }
+
+    public void setStandplaats(Standplaats standplaats) {
+        this.standplaats = standplaats;
+    }
+
+    /**
+     * @return id van de laatst gestarte rit met de fiets, null indien er nog geen rit was
+     */
+    public Integer getLaatsteRitId() {
+        return laatsteRitId;
+    }
+
+    public void setLaatsteRitId(Integer laatsteRitId) {
+        this.laatsteRitId = laatsteRitId;
+    }
+
+    /**
+     * @return true indien de laatste rit nog niet afgesloten is
+     */
+    public boolean isLaatsteRitActief() {
+        return laatsteRitActief;
+    }
+
+    public void setLaatsteRitActief(boolean laatsteRitActief) {
+        this.laatsteRitActief = laatsteRitActief;
+    }
+
+    @Override
+    public String toString() {
+        return "FietsToestand{registratienummer=" + registratienummer + ", status=" + status
+                + ", standplaats=" + standplaats + ", laatsteRitId=" + laatsteRitId
+                + ", laatsteRitActief=" + laatsteRitActief + '}';
+    }
+}
@@ -0,0 +1,68 @@
+package be.vives.ti.databag;
+
+import be.vives.ti.datatype.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Gegevens die nodig zijn om te beslissen of een rit mag starten:
+ * de toestand van het lid en van de fiets, opgehaald in 1 query.
+ */
+public class RitToelating {
+
+    private boolean lidBestaat;
+    private LocalDate lidEinde_lidmaatschap;
+    private boolean lidHeeftActieveRit;
+    private Status fietsStatus;
+    private boolean fietsHeeftActieveRit;
+
+    public boolean isLidBestaat() {
+        return lidBestaat;
+    }
+
+    public void setLidBestaat(boolean lidBestaat) {
+        this.lidBestaat = lidBestaat;
+    }
+
+    public LocalDate getLidEinde_lidmaatschap() {
+        return lidEinde_lidmaatschap;
+    }
+
+    public void setLidEinde_lidmaatschap(LocalDate lidEinde_lidmaatschap) {
+        this.lidEinde_lidmaatschap = lidEinde_lidmaatschap;
+    }
+
+    public boolean isLidHeeftActieveRit() {
+        return lidHeeftActieveRit;
+    }
+
+    public void setLidHeeftActieveRit(boolean lidHeeftActieveRit) {
+        this.lidHeeftActieveRit = lidHeeftActieveRit;
+    }
+
+    /**
+     * @return status van de fiets, null indien de fiets niet bestaat
+     */
+    public Status getFietsStatus() {
+        return fietsStatus;
+    }
+
+    public void setFietsStatus(Status fietsStatus) {
+        this.fietsStatus = fietsStatus;
+    }
+
+    public boolean isFietsHeeftActieveRit() {
+        return fietsHeeftActieveRit;
+    }
+
+    public void setFietsHeeftActieveRit(boolean fietsHeeftActieveRit) {
+        this.fietsHeeftActieveRit = fietsHeeftActieveRit;
+    }
+
+    @Override
+    public String toString() {
+        return "RitToelating{lidBestaat=" + lidBestaat + ", lidEinde_lidmaatschap=" + lidEinde_lidmaatschap
+                + ", lidHeeftActieveRit=" + lidHeeftActieveRit + ", fietsStatus=" + fietsStatus
+                + ", fietsHeeftActieveRit=" + fietsHeeftActieveRit + '}';
+    }
+}
@@ -4,10 +4,30 @@ package be.vives.ti.datatype;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 public class Rijksregisternummer {
+
+    //maximum aantal rijksregisternummers in de cache, verdeeld over 2 generaties
+    private static final int CACHE_GROOTTE = 10000;
+    private static final int GENERATIE_GROOTTE = CACHE_GROOTTE / 2;
+
+    //Benaderend LRU zonder globaal slot: opzoeken en toevoegen gebeuren in
+    //ConcurrentHashMaps. Nieuwe en opnieuw gebruikte nummers komen in de nieuwe
+    //generatie. Zit die vol, dan wordt ze de oude en valt de vorige oude generatie
+    //(de nummers die sindsdien niet meer gebruikt werden) in 1 keer weg.
+    private static volatile ConcurrentHashMap<String, Rijksregisternummer> nieuweGeneratie =
+            new ConcurrentHashMap<>();
+    private static volatile ConcurrentHashMap<String, Rijksregisternummer> oudeGeneratie =
+            new ConcurrentHashMap<>();
+    private static final Object ROTATIE = new Object();
+
     private String rijksregisternummer;
+    //false voor een waarde uit de databank, die bij het aanmaken niet gecontroleerd werd
+    private final boolean gecontroleerd;
 
     public Rijksregisternummer(String rr) throws ApplicationException {
+        gecontroleerd = true;
         try {
             int deel1 = Integer.parseInt(rr.substring(0, 9));
             int controlegetal = Integer.parseInt(rr.substring(9, 11));
@@ -21,7 +41,106 @@ public class Rijksregisternummer {
         }
     }
 
+    //zonder controle, enkel voor waarden uit de databank (zie uitDatabank)
+    private Rijksregisternummer() {
+        gecontroleerd = false;
+    }
+
+    /**
+     * Geeft een gecontroleerd rijksregisternummer terug. Een rijksregisternummer
+     * dat recent al gecontroleerd werd, komt uit de cache en wordt niet opnieuw
+     * gecontroleerd. Een nummer dat enkel via uitDatabank in de cache kwam, wordt
+     * wel gecontroleerd en in de cache vervangen.
+     * @param rr rijksregisternummer als string
+     * @return rijksregisternummer-object
+     * @throws ApplicationException wanneer het rijksregisternummer ongeldig is
+     */
+    public static Rijksregisternummer valueOf(String rr) throws ApplicationException {
+        Rijksregisternummer rijks = uitCache(rr);
+        if (rijks == null || !rijks.gecontroleerd) {
+            rijks = naarCache(new Rijksregisternummer(rr));
+        }
+        return rijks;
+    }
+
+    /**
+     * Geeft het rijksregisternummer terug voor een waarde uit de databank.
+     * Die werd bij het toevoegen al gecontroleerd en wordt dus niet opnieuw
+     * gecontroleerd. Hetzelfde nummer levert zolang het in de cache zit
+     * hetzelfde object op.
+     * @param rr rijksregisternummer zoals het in de databank staat
+     * @return rijksregisternummer-object, null indien rr null is
+     */
+    public static Rijksregisternummer uitDatabank(String rr) {
+        if (rr == null) {
+            return null;
+        }
+        Rijksregisternummer rijks = uitCache(rr);
+        if (rijks == null) {
+            Rijksregisternummer uitDatabank = new Rijksregisternummer();
+            uitDatabank.rijksregisternummer = rr;
+            rijks = naarCache(uitDatabank);
+        }
+        return rijks;
+    }
+
+    private static Rijksregisternummer uitCache(String rr) {
+        Rijksregisternummer rijks = nieuweGeneratie.get(rr);
+        if (rijks == null) {
+            rijks = oudeGeneratie.get(rr);
+            if (rijks != null) {
+                //opnieuw gebruikt: mee naar de nieuwe generatie, zodat het niet wegvalt
+                rijks = naarCache(rijks);
+            }
+        }
+        return rijks;
+    }
+
+    private static Rijksregisternummer naarCache(Rijksregisternummer rijks) {
+        ConcurrentHashMap<String, Rijksregisternummer> generatie = nieuweGeneratie;
+        //bij gelijktijdig toevoegen wint het eerste object
+        Rijksregisternummer bestaand = generatie.putIfAbsent(rijks.rijksregisternummer, rijks);
+        if (bestaand != null) {
+            if (bestaand.gecontroleerd || !rijks.gecontroleerd) {
+                return bestaand;
+            }
+            //een gecontroleerd object vervangt een object uit de databank, zodat
+            //valueOf nooit een ongecontroleerd object teruggeeft
+            generatie.replace(rijks.rijksregisternummer, bestaand, rijks);
+            return rijks;
+        }
+        if (generatie.size() >= GENERATIE_GROOTTE) {
+            roteer(generatie);
+        }
+        return rijks;
+    }
+
+    private static void roteer(ConcurrentHashMap<String, Rijksregisternummer> volleGeneratie) {
+        synchronized (ROTATIE) {
+            //een andere thread kan intussen al geroteerd hebben
+            if (nieuweGeneratie == volleGeneratie) {
+                //eerst de oude generatie zetten, zodat wie de nieuwe lege generatie
+                //ziet, de volle generatie als oude terugvindt
+                oudeGeneratie = volleGeneratie;
+                nieuweGeneratie = new ConcurrentHashMap<>();
+            }
+        }
+    }
+
     public String getRijksregisternummer() {
         return rijksregisternummer;
     }
+
+    /**
+     * Verbergt een rijksregisternummer voor logs en metingen: enkel het
+     * controlegetal blijft zichtbaar.
+     * @param rr rijksregisternummer als string (11 cijfers)
+     * @return bv. *********82, null indien rr null is
+     */
+    public static String maskeer(String rr) {
+        if (rr == null) {
+            return null;
+        }
+        return rr.length() <= 2 ? rr : "*********" + rr.substring(rr.length() - 2);
+    }
 }
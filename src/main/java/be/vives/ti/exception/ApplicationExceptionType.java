@@ -31,6 +31,7 @@ public enum ApplicationExceptionType {
     FIETS_BESTAAT_NIET("De fiets werd niet gevonden. "),
     FIETS_NIET_CORRECTE_STATUS("De fiets heeft niet de correcte status. "),
     FIETS_IN_GEBRUIK("De fiets is in gebruik. "),
+    FIETS_STANDPLAATS_LEEG("Er werd geen standplaats opgegeven. "),
 
     //ongeldige eigenschappen en operaties rit
     RIT_NULL("Er werd geen rit opgegeven. "),
@@ -38,7 +39,18 @@ public enum ApplicationExceptionType {
     RIT_BESTAAT_NIET("Deze rit bestaat niet. "),
     RIT_AL_AFGESLOTEN("De rit is al afgesoten. "),
     RIT_NIET_GESTART("Deze rit is nog niet gestart. "),
-    RIT_PRIJS_AL_BEPAALD("Deze rit heeft al een prijs. ");
+    RIT_PRIJS_AL_BEPAALD("Deze rit heeft al een prijs. "),
+
+    //ongeldige rijen bij het importeren van een bestand
+    IMPORT_KOPREGEL("De kopregel van het bestand bevat niet de verwachte kolommen. "),
+    IMPORT_AANTAL_KOLOMMEN("De rij heeft niet het verwachte aantal kolommen. "),
+    IMPORT_DUBBEL("Deze rij komt eerder in het bestand al voor. "),
+    IMPORT_ONGELDIGE_DATUM("De datum is ongeldig (verwacht: jjjj-mm-dd). "),
+    IMPORT_ONGELDIGE_STANDPLAATS("De standplaats is ongeldig. "),
+    IMPORT_ONGELDIGE_STATUS("De status is ongeldig. "),
+
+    //achtergrondverwerking
+    SERVICE_OVERBELAST("Er staan te veel opdrachten te wachten, probeer later opnieuw. ");
 
     private final String message;
 
@@ -0,0 +1,52 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.databag.Rit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Exporteert ritten naar een CSV-bestand (UTF-8, scheidingsteken ';'), 1 rit per regel.
+ * Een rit zonder eindtijd of prijs heeft lege velden.
+ */
+public class CsvRitExport extends RitExportBestand {
+
+    public static final String KOPREGEL =
+            "id;starttijd;eindtijd;prijs;lid_rijksregisternummer;fiets_registratienummer";
+
+    private static final DateTimeFormatter TIJD = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final char SCHEIDING = ';';
+
+    private final StringBuilder regel = new StringBuilder(128);
+
+    public CsvRitExport(Path bestand) throws IOException {
+        super(bestand);
+        schrijfRegel(KOPREGEL);
+    }
+
+    @Override
+    protected void schrijf(Rit rit) throws IOException {
+        regel.setLength(0);
+        regel.append(rit.getId()).append(SCHEIDING);
+        regel.append(TIJD.format(rit.getStarttijd())).append(SCHEIDING);
+        if (rit.getEindtijd() != null) {
+            regel.append(TIJD.format(rit.getEindtijd()));
+        }
+        regel.append(SCHEIDING);
+        if (rit.getPrijs() != null) {
+            regel.append(rit.getPrijs().toPlainString());
+        }
+        regel.append(SCHEIDING);
+        regel.append(rit.getLidRijksregisternummer()).append(SCHEIDING);
+        regel.append(rit.getFietsRegistratienummer());
+        schrijfRegel(regel);
+    }
+
+    private void schrijfRegel(CharSequence tekst) throws IOException {
+        byte[] bytes = (tekst + "\n").getBytes(StandardCharsets.UTF_8);
+        schrijfBytes(ByteBuffer.wrap(bytes));
+    }
+}
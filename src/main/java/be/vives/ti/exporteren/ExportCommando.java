@@ -0,0 +1,86 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Exporteert de ritten vanaf de commandolijn:
+ * <pre>
+ * ExportCommando csv|kolom bestand [--na id] [--fetch n]
+ * </pre>
+ * Enkel afgesloten ritten worden geexporteerd. Met --na worden enkel de ritten
+ * na dat id geexporteerd, tot aan de oudste rit die nog niet afgesloten is.
+ * Zonder --na worden alle afgesloten ritten geexporteerd. Het id waarmee de
+ * volgende export moet starten wordt getoond, samen met een waarschuwing als
+ * een openstaande rit de export tegenhoudt. Bij een fout wordt het bestand verwijderd.
+ */
+public class ExportCommando {
+
+    private static final String GEBRUIK = "Gebruik: ExportCommando csv|kolom bestand [--na id] [--fetch n]";
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        Path bestand = Paths.get(args[1]);
+        Integer naId = null;
+        int fetchSize = RitExport.STANDAARD_FETCH_SIZE;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--na":
+                        naId = Integer.parseInt(args[++i]);
+                        break;
+                    case "--fetch":
+                        fetchSize = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+            if (!"csv".equals(args[0]) && !"kolom".equals(args[0])) {
+                throw new IllegalArgumentException(args[0]);
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        RitDAO ritDAO = new RitDAO();
+        RitExport export = new RitExport(ritDAO, fetchSize);
+        try (RitExportBestand doel = "csv".equals(args[0])
+                ? new CsvRitExport(bestand) : new KolomRitExport(bestand)) {
+            //voor de export opvragen: de oudste openstaande rit kan intussen enkel nog afgesloten worden
+            Integer openRit = ritDAO.zoekOudsteOpenRit();
+            long aantal = export.exporteer(naId, doel);
+            doel.voltooi();
+            System.out.println(aantal + " ritten geexporteerd naar " + bestand.toAbsolutePath());
+
+            Integer volgende = doel.getLaatsteId() != null ? doel.getLaatsteId() : naId;
+            if (openRit != null && (volgende == null || openRit <= volgende)) {
+                //de volgende export moet de openstaande rit nog meenemen
+                volgende = openRit - 1;
+            }
+            if (openRit != null) {
+                System.out.println("Let op: rit " + openRit + " is nog niet afgesloten, een volgende"
+                        + " incrementele export komt niet verder dan die rit tot ze afgesloten is.");
+            }
+            if (volgende != null) {
+                System.out.println("Volgende export: --na " + volgende);
+            }
+        } catch (IOException | ApplicationException | DBException ex) {
+            System.err.println("Export mislukt: " + ex.getMessage());
+            System.exit(1);
+        } finally {
+            ConnectionManager.sluitPool();
+        }
+    }
+}
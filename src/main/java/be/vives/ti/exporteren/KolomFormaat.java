@@ -0,0 +1,79 @@
+package be.vives.ti.exporteren;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Het kolomformaat voor ritten, gedeeld door KolomRitExport en KolomRitLezer.
+ * <pre>
+ * bestand: magic (int) versie (byte) groep* 0 (int) totaal aantal ritten (long)
+ * groep:   aantal ritten (int) en per kolom: lengte in bytes (int) inhoud
+ * </pre>
+ * Elke groep heeft de kolommen id, starttijd, eindtijd, prijs, lid en fiets, in
+ * die volgorde, zodat een lezer kolommen die hij niet nodig heeft kan overslaan.
+ * Getallen zijn varints (7 bits per byte, zigzag voor getallen die negatief kunnen zijn):
+ * <ul>
+ * <li>id, starttijd en fiets: verschil met de vorige rit in de groep</li>
+ * <li>starttijd in microseconden sinds 1970 (zonder tijdzone)</li>
+ * <li>eindtijd: 0 zonder eindtijd, anders zigzag(duur van de rit in microseconden) + 1</li>
+ * <li>prijs: 0 zonder prijs, anders prijs in eurocent + 1</li>
+ * <li>lid: woordenboek van de rijksregisternummers in de groep, daarna per rit de index</li>
+ * </ul>
+ */
+final class KolomFormaat {
+
+    static final int MAGIC = 0x56425254;
+    static final byte VERSIE = 1;
+    static final int AANTAL_KOLOMMEN = 6;
+    static final int RITTEN_PER_GROEP = 8192;
+
+    private KolomFormaat() {
+    }
+
+    static long naarMicros(LocalDateTime tijd) {
+        return tijd.toEpochSecond(ZoneOffset.UTC) * 1000000L + tijd.getNano() / 1000;
+    }
+
+    static LocalDateTime vanMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1000000L),
+                (int) Math.floorMod(micros, 1000000L) * 1000, ZoneOffset.UTC);
+    }
+
+    static void schrijfVarint(ByteBuffer buffer, long waarde) {
+        while ((waarde & ~0x7FL) != 0) {
+            buffer.put((byte) ((waarde & 0x7F) | 0x80));
+            waarde >>>= 7;
+        }
+        buffer.put((byte) waarde);
+    }
+
+    static long zigzag(long waarde) {
+        return (waarde << 1) ^ (waarde >> 63);
+    }
+
+    static long vanZigzag(long waarde) {
+        return (waarde >>> 1) ^ -(waarde & 1);
+    }
+
+    static void schrijfZigzag(ByteBuffer buffer, long waarde) {
+        schrijfVarint(buffer, zigzag(waarde));
+    }
+
+    static long leesVarint(ByteBuffer buffer) throws IOException {
+        long waarde = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            waarde |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return waarde;
+            }
+        }
+        throw new IOException("Ongeldige varint in het kolombestand");
+    }
+
+    static long leesZigzag(ByteBuffer buffer) throws IOException {
+        return vanZigzag(leesVarint(buffer));
+    }
+}
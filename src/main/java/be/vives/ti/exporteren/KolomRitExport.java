@@ -0,0 +1,137 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.databag.Rit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static be.vives.ti.exporteren.KolomFormaat.*;
+
+/**
+ * Exporteert ritten naar het compacte kolomformaat (zie KolomFormaat).
+ * Per groep van RITTEN_PER_GROEP ritten worden de waarden per kolom bijgehouden
+ * en daarna kolom per kolom geschreven; meer dan 1 groep zit nooit in het geheugen.
+ */
+public class KolomRitExport extends RitExportBestand {
+
+    private static final long GEEN_EINDTIJD = Long.MIN_VALUE;
+
+    private final int[] id = new int[RITTEN_PER_GROEP];
+    private final long[] start = new long[RITTEN_PER_GROEP];
+    private final long[] eind = new long[RITTEN_PER_GROEP];
+    private final long[] prijs = new long[RITTEN_PER_GROEP];
+    private final int[] lid = new int[RITTEN_PER_GROEP];
+    private final int[] fiets = new int[RITTEN_PER_GROEP];
+    private int aantalInGroep;
+
+    //woordenboek van de rijksregisternummers in de huidige groep
+    private final Map<String, Integer> lidIndex = new HashMap<>();
+    private final List<byte[]> leden = new ArrayList<>();
+
+    //10 bytes is de langste varint
+    private ByteBuffer kolom = ByteBuffer.allocate(RITTEN_PER_GROEP * 10);
+
+    public KolomRitExport(Path bestand) throws IOException {
+        super(bestand);
+        ruimte(5).putInt(MAGIC).put(VERSIE);
+    }
+
+    @Override
+    protected void schrijf(Rit rit) throws IOException {
+        int i = aantalInGroep;
+        id[i] = rit.getId();
+        start[i] = naarMicros(rit.getStarttijd());
+        eind[i] = rit.getEindtijd() == null ? GEEN_EINDTIJD : naarMicros(rit.getEindtijd());
+        //eurocent + 1, 0 betekent geen prijs
+        prijs[i] = rit.getPrijs() == null ? 0 : rit.getPrijs().movePointRight(2).longValueExact() + 1;
+        lid[i] = lidIndex.computeIfAbsent(rit.getLidRijksregisternummer(), rr -> {
+            leden.add(rr.getBytes(StandardCharsets.UTF_8));
+            return leden.size() - 1;
+        });
+        fiets[i] = rit.getFietsRegistratienummer();
+
+        aantalInGroep++;
+        if (aantalInGroep == RITTEN_PER_GROEP) {
+            schrijfGroep();
+        }
+    }
+
+    @Override
+    protected void beeindig() throws IOException {
+        if (aantalInGroep > 0) {
+            schrijfGroep();
+        }
+        ruimte(12).putInt(0).putLong(getAantal());
+    }
+
+    private void schrijfGroep() throws IOException {
+        int n = aantalInGroep;
+        ruimte(4).putInt(n);
+
+        kolom.clear();
+        long vorige = 0;
+        for (int i = 0; i < n; i++) {
+            schrijfZigzag(kolom, id[i] - vorige);
+            vorige = id[i];
+        }
+        schrijfKolom();
+
+        vorige = 0;
+        for (int i = 0; i < n; i++) {
+            schrijfZigzag(kolom, start[i] - vorige);
+            vorige = start[i];
+        }
+        schrijfKolom();
+
+        for (int i = 0; i < n; i++) {
+            schrijfVarint(kolom, eind[i] == GEEN_EINDTIJD ? 0 : zigzag(eind[i] - start[i]) + 1);
+        }
+        schrijfKolom();
+
+        for (int i = 0; i < n; i++) {
+            schrijfVarint(kolom, prijs[i]);
+        }
+        schrijfKolom();
+
+        int woordenboek = 5;
+        for (byte[] rr : leden) {
+            woordenboek += 5 + rr.length;
+        }
+        if (kolom.capacity() < woordenboek + n * 5) {
+            kolom = ByteBuffer.allocate(woordenboek + n * 5);
+        }
+        schrijfVarint(kolom, leden.size());
+        for (byte[] rr : leden) {
+            schrijfVarint(kolom, rr.length);
+            kolom.put(rr);
+        }
+        for (int i = 0; i < n; i++) {
+            schrijfVarint(kolom, lid[i]);
+        }
+        schrijfKolom();
+
+        vorige = 0;
+        for (int i = 0; i < n; i++) {
+            schrijfZigzag(kolom, fiets[i] - vorige);
+            vorige = fiets[i];
+        }
+        schrijfKolom();
+
+        aantalInGroep = 0;
+        lidIndex.clear();
+        leden.clear();
+    }
+
+    private void schrijfKolom() throws IOException {
+        kolom.flip();
+        ruimte(4).putInt(kolom.remaining());
+        schrijfBytes(kolom);
+        kolom.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.dao.RitVerwerker;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static be.vives.ti.exporteren.KolomFormaat.*;
+
+/**
+ * Leest een bestand in het kolomformaat (zie KolomFormaat) terug in, groep per groep.
+ */
+public class KolomRitLezer {
+
+    private KolomRitLezer() {
+    }
+
+    /**
+     * Geeft elke rit uit het bestand, in volgorde, aan de verwerker.
+     * @param bestand bestand geschreven door KolomRitExport
+     * @param verwerker krijgt elke rit
+     * @return aantal gelezen ritten
+     * @throws IOException wanneer het bestand niet gelezen kan worden of geen geldig kolombestand is
+     * @throws ApplicationException wanneer een rijksregisternummer in het bestand ongeldig is
+     */
+    public static long lees(Path bestand, RitVerwerker verwerker)
+            throws IOException, ApplicationException, DBException {
+        try (FileChannel kanaal = FileChannel.open(bestand, StandardOpenOption.READ)) {
+            ByteBuffer kop = lees(kanaal, 5);
+            if (kop.getInt() != MAGIC || kop.get() != VERSIE) {
+                throw new IOException("Geen kolombestand met ritten: " + bestand);
+            }
+
+            long aantal = 0;
+            int n;
+            while ((n = lees(kanaal, 4).getInt()) > 0) {
+                ByteBuffer[] kolommen = new ByteBuffer[AANTAL_KOLOMMEN];
+                for (int k = 0; k < AANTAL_KOLOMMEN; k++) {
+                    kolommen[k] = lees(kanaal, lees(kanaal, 4).getInt());
+                }
+                ByteBuffer ids = kolommen[0];
+                ByteBuffer starttijden = kolommen[1];
+                ByteBuffer eindtijden = kolommen[2];
+                ByteBuffer prijzen = kolommen[3];
+                ByteBuffer leden = kolommen[4];
+                ByteBuffer fietsen = kolommen[5];
+
+                Rijksregisternummer[] woordenboek = new Rijksregisternummer[(int) leesVarint(leden)];
+                for (int i = 0; i < woordenboek.length; i++) {
+                    byte[] rr = new byte[(int) leesVarint(leden)];
+                    leden.get(rr);
+                    //het bestand komt niet rechtstreeks uit de databank: wel controleren
+                    woordenboek[i] = Rijksregisternummer.valueOf(new String(rr, StandardCharsets.UTF_8));
+                }
+
+                long id = 0;
+                long start = 0;
+                long fiets = 0;
+                for (int i = 0; i < n; i++) {
+                    id += leesZigzag(ids);
+                    start += leesZigzag(starttijden);
+                    fiets += leesZigzag(fietsen);
+                    long eind = leesVarint(eindtijden);
+                    long prijs = leesVarint(prijzen);
+
+                    Rit rit = new Rit();
+                    rit.setId((int) id);
+                    rit.setStarttijd(vanMicros(start));
+                    if (eind != 0) {
+                        rit.setEindtijd(vanMicros(start + vanZigzag(eind - 1)));
+                    }
+                    if (prijs != 0) {
+                        rit.setPrijs(BigDecimal.valueOf(prijs - 1, 2));
+                    }
+                    rit.setLidRijksregisternummer(woordenboek[(int) leesVarint(leden)]);
+                    rit.setFietsRegistratienummer((int) fiets);
+                    verwerker.verwerk(rit);
+                }
+                aantal += n;
+            }
+            if (lees(kanaal, 8).getLong() != aantal) {
+                throw new IOException("Onvolledig kolombestand: " + bestand);
+            }
+            return aantal;
+        }
+    }
+
+    private static ByteBuffer lees(FileChannel kanaal, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while (buffer.hasRemaining()) {
+            if (kanaal.read(buffer) < 0) {
+                throw new EOFException("Onverwacht einde van het kolombestand");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
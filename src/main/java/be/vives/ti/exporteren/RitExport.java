@@ -0,0 +1,55 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Exporteert ritten rechtstreeks vanuit de databank naar een exportbestand,
+ * zonder ze allemaal in het geheugen te laden.
+ */
+public class RitExport {
+
+    public static final int STANDAARD_FETCH_SIZE = 1000;
+
+    private final RitDAO ritDAO;
+    private final int fetchSize;
+
+    public RitExport(RitDAO ritDAO) {
+        this(ritDAO, STANDAARD_FETCH_SIZE);
+    }
+
+    /**
+     * @param ritDAO dao waarmee de ritten gelezen worden
+     * @param fetchSize aantal ritten dat per keer uit de databank gehaald wordt
+     */
+    public RitExport(RitDAO ritDAO, int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("De fetch size moet minstens 1 zijn.");
+        }
+        this.ritDAO = ritDAO;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Schrijft de afgesloten ritten, gesorteerd op id, naar het exportbestand.
+     * Het bestand wordt niet voltooid of gesloten, zie RitExportBestand.voltooi().
+     * @param naId enkel ritten met een groter id (incrementele export), null voor alle ritten
+     * @param doel bestand waarin de ritten komen
+     * @return aantal geexporteerde ritten
+     * @throws IOException wanneer het bestand niet geschreven kan worden
+     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
+     * @throws ApplicationException
+     */
+    public long exporteer(Integer naId, RitExportBestand doel)
+            throws IOException, DBException, ApplicationException {
+        try {
+            return ritDAO.overloopRitten(naId, fetchSize, doel);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.dao.RitVerwerker;
+import be.vives.ti.databag.Rit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bestand waarin ritten geexporteerd worden. De ritten worden een voor een
+ * aangeleverd (zie RitDAO.overloopRitten) en via een buffer van vaste grootte
+ * naar een FileChannel geschreven, zodat het geheugengebruik niet afhangt van
+ * het aantal ritten.
+ * <p>
+ * Na een geslaagde export moet voltooi() opgeroepen worden; een bestand dat
+ * gesloten wordt zonder voltooid te zijn, wordt verwijderd, zodat een halve
+ * export nooit als volledig gelezen kan worden.
+ */
+public abstract class RitExportBestand implements RitVerwerker, Closeable {
+
+    private static final int BUFFER_GROOTTE = 64 * 1024;
+
+    private final Path bestand;
+    private final FileChannel kanaal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_GROOTTE);
+    private long aantal;
+    private Integer laatsteId;
+    private boolean voltooid;
+
+    /**
+     * @param bestand bestand waarin geschreven wordt, een bestaand bestand wordt overschreven
+     * @throws IOException wanneer het bestand niet aangemaakt kan worden
+     */
+    protected RitExportBestand(Path bestand) throws IOException {
+        this.bestand = bestand;
+        kanaal = FileChannel.open(bestand, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Schrijft 1 rit.
+     */
+    protected abstract void schrijf(Rit rit) throws IOException;
+
+    /**
+     * Schrijft wat nog niet geschreven werd, bij het voltooien van de export.
+     */
+    protected void beeindig() throws IOException {
+    }
+
+    @Override
+    public void verwerk(Rit rit) {
+        try {
+            schrijf(rit);
+        } catch (IOException ex) {
+            //RitVerwerker laat geen IOException toe, RitExport pakt ze terug uit
+            throw new UncheckedIOException(ex);
+        }
+        aantal++;
+        laatsteId = rit.getId();
+    }
+
+    /**
+     * Geeft een buffer met minstens ruimte voor het gevraagde aantal bytes.
+     * De buffer mag enkel gebruikt worden tot de volgende oproep.
+     */
+    protected ByteBuffer ruimte(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            leeg();
+        }
+        return buffer;
+    }
+
+    /**
+     * Schrijft een reeks bytes, ook als die groter is dan de buffer.
+     */
+    protected void schrijfBytes(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() <= buffer.remaining()) {
+            buffer.put(bytes);
+        } else {
+            leeg();
+            while (bytes.hasRemaining()) {
+                kanaal.write(bytes);
+            }
+        }
+    }
+
+    private void leeg() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            kanaal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @return aantal geschreven ritten
+     */
+    public long getAantal() {
+        return aantal;
+    }
+
+    /**
+     * @return id van de laatst geschreven rit, om de volgende export vanaf te starten;
+     * null indien er geen ritten geschreven werden
+     */
+    public Integer getLaatsteId() {
+        return laatsteId;
+    }
+
+    /**
+     * Schrijft de rest van de buffer en de afsluiting van het bestand. Enkel
+     * oproepen wanneer alle ritten geschreven zijn.
+     * @throws IOException wanneer het bestand niet geschreven kan worden
+     */
+    public void voltooi() throws IOException {
+        if (!voltooid) {
+            beeindig();
+            leeg();
+            voltooid = true;
+        }
+    }
+
+    /**
+     * Sluit het bestand. Een export die niet voltooid werd, wordt verwijderd.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            kanaal.close();
+        } finally {
+            if (!voltooid) {
+                Files.deleteIfExists(bestand);
+            }
+        }
+    }
+}
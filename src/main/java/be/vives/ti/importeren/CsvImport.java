@@ -0,0 +1,331 @@
+package be.vives.ti.importeren;
+
+import be.vives.ti.databag.BatchResultaat;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importeert rijen uit een CSV-bestand (scheidingsteken ';', eerste regel met de
+ * kolomnamen) in de databank.
+ *
+ * Het bestand wordt in blokken gelezen. Het parsen en controleren van de blokken
+ * gebeurt parallel; het ontdubbelen en wegschrijven per blok, in de volgorde van
+ * het bestand. Er zijn nooit meer dan 2 blokken per thread tegelijk in het geheugen.
+ * Dubbels binnen een blok worden met de sleutels van dat blok gevonden; een dubbel
+ * van een rij uit een vorig blok zit dan al in de databank en wordt geweigerd omdat
+ * ze al bestaat. Een dry-run schrijft niets weg en onthoudt daarom de sleutels van de
+ * rijen die toegevoegd zouden worden, zodat ze dezelfde reden geeft. Dat zijn er
+ * hoogstens DRY_RUN_SLEUTELS, de oudste worden eerst vergeten: een dubbel die verder
+ * van het origineel staat, wordt bij een dry-run niet gevonden.
+ *
+ * Geweigerde rijen komen, met de reden erbij, in een apart CSV-bestand.
+ *
+ * @param <T> type van de rijen (Lid, Fiets)
+ * @param <K> type van de sleutel die de databank teruggeeft
+ */
+public abstract class CsvImport<T, K> {
+
+    public static final char SCHEIDING = ';';
+    //aantal sleutels dat een dry-run onthoudt van de vorige blokken
+    public static final int DRY_RUN_SLEUTELS = 100_000;
+
+    //volgnummer voor de namen van de import-threads
+    private static final AtomicInteger THREAD_NUMMER = new AtomicInteger();
+
+    private final int aantalThreads;
+    private final int blokGrootte;
+
+    /**
+     * @param aantalThreads aantal threads die rijen parsen en controleren
+     * @param blokGrootte aantal rijen per blok (en per batch naar de databank)
+     */
+    protected CsvImport(int aantalThreads, int blokGrootte) {
+        if (aantalThreads < 1 || blokGrootte < 1) {
+            throw new IllegalArgumentException("Aantal threads en blokgrootte moeten minstens 1 zijn.");
+        }
+        this.aantalThreads = aantalThreads;
+        this.blokGrootte = blokGrootte;
+    }
+
+    /**
+     * @return de verwachte kolommen, in volgorde
+     */
+    protected abstract String[] getKolommen();
+
+    /**
+     * Zet de velden van 1 rij om en controleert ze.
+     * @throws ApplicationException wanneer de rij ongeldig is
+     */
+    protected abstract T valideer(String[] velden) throws ApplicationException;
+
+    /**
+     * @return sleutel waarop ontdubbeld wordt, null indien rijen niet ontdubbeld worden
+     */
+    protected abstract String getSleutel(T rij);
+
+    /**
+     * @return de sleutels die al in de databank zitten
+     */
+    protected abstract Set<String> zoekBestaandeSleutels(Collection<String> sleutels) throws DBException;
+
+    /**
+     * @return boodschap voor een rij waarvan de sleutel al in de databank zit
+     */
+    protected abstract String getBestaatAlBoodschap();
+
+    /**
+     * Schrijft de geldige rijen van een blok naar de databank.
+     */
+    protected abstract BatchResultaat<K> schrijf(List<T> rijen) throws DBException;
+
+    /**
+     * Importeert het bestand.
+     * @param bestand CSV-bestand met een kopregel
+     * @param weigeringen bestand waarin de geweigerde rijen komen (wordt overschreven)
+     * @param dryRun true om alles te controleren zonder naar de databank te schrijven
+     * @param voortgang krijgt de tussenstand na elk blok, mag null zijn
+     * @return de tellers van de import
+     * @throws IOException wanneer een bestand niet gelezen of geschreven kan worden
+     * @throws ApplicationException wanneer de kopregel niet de verwachte kolommen bevat
+     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
+     */
+    public ImportRapport importeer(Path bestand, Path weigeringen, boolean dryRun, ImportVoortgang voortgang)
+            throws IOException, ApplicationException, DBException {
+        ImportRapport rapport = new ImportRapport(dryRun);
+        //enkel bij een dry-run: wat een import in de vorige blokken weggeschreven zou hebben
+        Set<String> vorigeBlokken = dryRun ? maakBegrensdeSet(DRY_RUN_SLEUTELS) : null;
+        ExecutorService threads = Executors.newFixedThreadPool(aantalThreads, r -> {
+            Thread t = new Thread(r, "vivesbike-import-" + THREAD_NUMMER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        try (BufferedReader in = Files.newBufferedReader(bestand, StandardCharsets.UTF_8);
+             BufferedWriter geweigerd = Files.newBufferedWriter(weigeringen, StandardCharsets.UTF_8)) {
+            String kopregel = controleerKopregel(in.readLine());
+            geweigerd.write(kopregel + SCHEIDING + "reden");
+            geweigerd.newLine();
+
+            //blokken die geparst worden, in de volgorde van het bestand
+            Deque<Future<List<Regel<T>>>> bezig = new ArrayDeque<>();
+            List<Regel<T>> blok = new ArrayList<>(blokGrootte);
+            long regelnummer = 1;
+            String tekst;
+            while ((tekst = in.readLine()) != null) {
+                regelnummer++;
+                if (tekst.trim().isEmpty()) {
+                    continue;
+                }
+                blok.add(new Regel<>(regelnummer, tekst));
+                if (blok.size() == blokGrootte) {
+                    bezig.add(threads.submit(parseer(blok)));
+                    blok = new ArrayList<>(blokGrootte);
+                }
+                //begrensd geheugen: wachten op het oudste blok als er genoeg blokken bezig zijn
+                if (bezig.size() >= 2 * aantalThreads) {
+                    verwerk(wacht(bezig.poll()), vorigeBlokken, geweigerd, rapport, voortgang);
+                }
+            }
+            if (!blok.isEmpty()) {
+                bezig.add(threads.submit(parseer(blok)));
+            }
+            while (!bezig.isEmpty()) {
+                verwerk(wacht(bezig.poll()), vorigeBlokken, geweigerd, rapport, voortgang);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        return rapport;
+    }
+
+    //set die de oudste sleutels vergeet wanneer er meer dan max in zitten
+    private static Set<String> maakBegrensdeSet(int max) {
+        return Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> oudste) {
+                return size() > max;
+            }
+        });
+    }
+
+    private String controleerKopregel(String kopregel) throws ApplicationException {
+        if (kopregel == null) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_KOPREGEL.getMessage());
+        }
+        //byte order mark van spreadsheetprogramma's verwijderen
+        if (!kopregel.isEmpty() && kopregel.charAt(0) == '\uFEFF') {
+            kopregel = kopregel.substring(1);
+        }
+        String[] kolommen = CsvRegel.splits(kopregel, SCHEIDING);
+        String[] verwacht = getKolommen();
+        if (kolommen.length != verwacht.length) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_KOPREGEL.getMessage());
+        }
+        for (int i = 0; i < verwacht.length; i++) {
+            if (!verwacht[i].equalsIgnoreCase(kolommen[i])) {
+                throw new ApplicationException(ApplicationExceptionType.IMPORT_KOPREGEL.getMessage());
+            }
+        }
+        return kopregel;
+    }
+
+    //parst en controleert een blok, op een van de import-threads
+    private Callable<List<Regel<T>>> parseer(List<Regel<T>> blok) {
+        return () -> {
+            for (Regel<T> regel : blok) {
+                String[] velden = CsvRegel.splits(regel.tekst, SCHEIDING);
+                try {
+                    if (velden.length != getKolommen().length) {
+                        throw new ApplicationException(ApplicationExceptionType.IMPORT_AANTAL_KOLOMMEN.getMessage());
+                    }
+                    regel.rij = valideer(velden);
+                } catch (ApplicationException ae) {
+                    regel.fout = ae.getMessage();
+                }
+            }
+            return blok;
+        };
+    }
+
+    private List<Regel<T>> wacht(Future<List<Regel<T>>> blok) throws IOException {
+        try {
+            return blok.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import onderbroken");
+        } catch (ExecutionException ee) {
+            //valideer() geeft fouten terug via ApplicationException, dit is een programmeerfout
+            throw new IllegalStateException("Fout bij het parsen van een blok", ee.getCause());
+        }
+    }
+
+    //ontdubbelt en schrijft een geparst blok weg, in de volgorde van het bestand
+    //vorigeBlokken: bij een dry-run de sleutels die al toegevoegd zouden zijn, anders null
+    private void verwerk(List<Regel<T>> blok, Set<String> vorigeBlokken, BufferedWriter geweigerd,
+                         ImportRapport rapport, ImportVoortgang voortgang) throws IOException, DBException {
+        Set<String> gezien = new HashSet<>(blok.size() * 2);
+        List<Regel<T>> geldig = new ArrayList<>(blok.size());
+        for (Regel<T> regel : blok) {
+            if (regel.fout == null) {
+                String sleutel = getSleutel(regel.rij);
+                if (sleutel != null && !gezien.add(sleutel)) {
+                    regel.fout = ApplicationExceptionType.IMPORT_DUBBEL.getMessage();
+                }
+            }
+            if (regel.fout == null) {
+                geldig.add(regel);
+            }
+        }
+
+        //rijen die al in de databank zitten, met 1 query per blok
+        List<String> sleutels = new ArrayList<>();
+        for (Regel<T> regel : geldig) {
+            String sleutel = getSleutel(regel.rij);
+            if (sleutel != null) {
+                sleutels.add(sleutel);
+            }
+        }
+        if (!sleutels.isEmpty()) {
+            Set<String> bestaand = zoekBestaandeSleutels(sleutels);
+            if (vorigeBlokken != null) {
+                //wat een import al weggeschreven zou hebben, geldt bij een dry-run ook als bestaand
+                bestaand = new HashSet<>(bestaand);
+                for (String sleutel : sleutels) {
+                    if (vorigeBlokken.contains(sleutel)) {
+                        bestaand.add(sleutel);
+                    }
+                }
+            }
+            if (!bestaand.isEmpty()) {
+                List<Regel<T>> nieuw = new ArrayList<>(geldig.size());
+                for (Regel<T> regel : geldig) {
+                    if (bestaand.contains(getSleutel(regel.rij))) {
+                        regel.fout = getBestaatAlBoodschap();
+                    } else {
+                        nieuw.add(regel);
+                    }
+                }
+                geldig = nieuw;
+            }
+        }
+
+        if (rapport.isDryRun()) {
+            for (Regel<T> regel : geldig) {
+                String sleutel = getSleutel(regel.rij);
+                if (sleutel != null) {
+                    vorigeBlokken.add(sleutel);
+                }
+            }
+            rapport.toegevoegd(geldig.size());
+        } else if (!geldig.isEmpty()) {
+            List<T> rijen = new ArrayList<>(geldig.size());
+            for (Regel<T> regel : geldig) {
+                rijen.add(regel.rij);
+            }
+            BatchResultaat<K> resultaat = schrijf(rijen);
+            for (Map.Entry<Integer, String> fout : resultaat.getFouten().entrySet()) {
+                geldig.get(fout.getKey()).fout = fout.getValue();
+            }
+            rapport.toegevoegd(resultaat.getAantalToegevoegd());
+        }
+
+        //geweigerde rijen in de volgorde van het bestand
+        for (Regel<T> regel : blok) {
+            if (regel.fout != null) {
+                weiger(regel, geweigerd, rapport);
+            }
+        }
+
+        rapport.gelezen(blok.size());
+        if (voortgang != null) {
+            voortgang.meld(rapport);
+        }
+    }
+
+    private void weiger(Regel<T> regel, BufferedWriter geweigerd, ImportRapport rapport) throws IOException {
+        geweigerd.write(regel.tekst + SCHEIDING + CsvRegel.citeer(
+                "regel " + regel.nummer + ": " + regel.fout.trim(), SCHEIDING));
+        geweigerd.newLine();
+        rapport.geweigerd();
+    }
+
+    /**
+     * Een regel uit het bestand, met het resultaat van de controle.
+     */
+    private static class Regel<T> {
+        private final long nummer;
+        private final String tekst;
+        private T rij;
+        private String fout;
+
+        private Regel(long nummer, String tekst) {
+            this.nummer = nummer;
+            this.tekst = tekst;
+        }
+    }
+}
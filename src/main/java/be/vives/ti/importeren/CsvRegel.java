@@ -0,0 +1,63 @@
+package be.vives.ti.importeren;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splitst een regel uit een CSV-bestand in velden. Velden kunnen tussen
+ * dubbele aanhalingstekens staan; daarbinnen telt het scheidingsteken niet
+ * en staat "" voor 1 aanhalingsteken. Velden over meerdere regels worden
+ * niet ondersteund.
+ */
+public class CsvRegel {
+
+    private CsvRegel() {
+    }
+
+    /**
+     * @param regel regel uit het bestand, zonder regeleinde
+     * @param scheiding scheidingsteken tussen de velden, bv. ';'
+     * @return de velden, zonder aanhalingstekens en zonder spaties rond de waarde
+     */
+    public static String[] splits(String regel, char scheiding) {
+        List<String> velden = new ArrayList<>();
+        StringBuilder veld = new StringBuilder();
+        boolean tussenAanhalingstekens = false;
+
+        for (int i = 0; i < regel.length(); i++) {
+            char c = regel.charAt(i);
+            if (tussenAanhalingstekens) {
+                if (c == '"' && i + 1 < regel.length() && regel.charAt(i + 1) == '"') {
+                    veld.append('"');
+                    i++;
+                } else if (c == '"') {
+                    tussenAanhalingstekens = false;
+                } else {
+                    veld.append(c);
+                }
+            } else if (c == '"') {
+                tussenAanhalingstekens = true;
+            } else if (c == scheiding) {
+                velden.add(veld.toString().trim());
+                veld.setLength(0);
+            } else {
+                veld.append(c);
+            }
+        }
+        velden.add(veld.toString().trim());
+        return velden.toArray(new String[0]);
+    }
+
+    /**
+     * Zet een waarde tussen aanhalingstekens indien nodig, zodat splits() ze terug leest.
+     */
+    public static String citeer(String waarde, char scheiding) {
+        if (waarde == null) {
+            return "";
+        }
+        if (waarde.indexOf(scheiding) < 0 && waarde.indexOf('"') < 0) {
+            return waarde;
+        }
+        return '"' + waarde.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,74 @@
+package be.vives.ti.importeren;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.databag.BatchResultaat;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importeert fietsen. Kolommen: standplaats;status;opmerkingen
+ * Een lege status wordt actief. Fietsen krijgen hun registratienummer van de
+ * databank en hebben geen andere sleutel, ze worden dus niet ontdubbeld.
+ */
+public class FietsenImport extends CsvImport<Fiets, Integer> {
+
+    private static final String[] KOLOMMEN = {"standplaats", "status", "opmerkingen"};
+
+    private final FietsDAO fietsDAO;
+
+    public FietsenImport(FietsDAO fietsDAO, int aantalThreads, int blokGrootte) {
+        super(aantalThreads, blokGrootte);
+        this.fietsDAO = fietsDAO;
+    }
+
+    @Override
+    protected String[] getKolommen() {
+        return KOLOMMEN;
+    }
+
+    @Override
+    protected Fiets valideer(String[] velden) throws ApplicationException {
+        Fiets fiets = new Fiets();
+        try {
+            fiets.setStandplaats(Standplaats.valueOf(velden[0]));
+        } catch (IllegalArgumentException ex) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_ONGELDIGE_STANDPLAATS.getMessage());
+        }
+        try {
+            fiets.setStatus(velden[1].isEmpty() ? Status.actief : Status.valueOf(velden[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_ONGELDIGE_STATUS.getMessage());
+        }
+        fiets.setOpmerking(velden[2].isEmpty() ? null : velden[2]);
+        return fiets;
+    }
+
+    @Override
+    protected String getSleutel(Fiets fiets) {
+        return null;
+    }
+
+    @Override
+    protected Set<String> zoekBestaandeSleutels(Collection<String> sleutels) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    protected String getBestaatAlBoodschap() {
+        return ApplicationExceptionType.FIETS_BESTAAT_AL.getMessage();
+    }
+
+    @Override
+    protected BatchResultaat<Integer> schrijf(List<Fiets> fietsen) throws DBException {
+        return fietsDAO.toevoegenFietsen(fietsen);
+    }
+}
@@ -0,0 +1,91 @@
+package be.vives.ti.importeren;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Importeert leden of fietsen uit een CSV-bestand vanaf de commandolijn:
+ * <pre>
+ * ImportCommando leden|fietsen bestand.csv [--dry-run] [--weigeringen pad] [--threads n] [--blok n]
+ * </pre>
+ * Zonder --weigeringen komen de geweigerde rijen in bestand.csv.geweigerd.csv.
+ */
+public class ImportCommando {
+
+    private static final String GEBRUIK = "Gebruik: ImportCommando leden|fietsen bestand.csv"
+            + " [--dry-run] [--weigeringen pad] [--threads n] [--blok n]";
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        Path bestand = Paths.get(args[1]);
+        Path weigeringen = Paths.get(args[1] + ".geweigerd.csv");
+        boolean dryRun = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int blok = 1000;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dry-run":
+                        dryRun = true;
+                        break;
+                    case "--weigeringen":
+                        weigeringen = Paths.get(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--blok":
+                        blok = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+        }
+
+        CsvImport<?, ?> csvImport;
+        if ("leden".equals(args[0])) {
+            csvImport = new LedenImport(new LidDAO(), threads, blok);
+        } else if ("fietsen".equals(args[0])) {
+            csvImport = new FietsenImport(new FietsDAO(), threads, blok);
+        } else {
+            System.err.println(GEBRUIK);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            //tussenstand hoogstens 1 keer per seconde tonen
+            long[] laatsteMelding = {System.nanoTime()};
+            ImportRapport rapport = csvImport.importeer(bestand, weigeringen, dryRun, r -> {
+                if (System.nanoTime() - laatsteMelding[0] > 1000000000L) {
+                    laatsteMelding[0] = System.nanoTime();
+                    System.out.println(r);
+                }
+            });
+            System.out.println(rapport);
+            if (rapport.getGeweigerd() > 0) {
+                System.out.println("Geweigerde rijen: " + weigeringen.toAbsolutePath());
+            }
+        } catch (IOException | ApplicationException | DBException ex) {
+            System.err.println("Import mislukt: " + ex.getMessage());
+            System.exit(1);
+        } finally {
+            ConnectionManager.sluitPool();
+        }
+    }
+}
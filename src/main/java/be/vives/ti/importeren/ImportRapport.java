@@ -0,0 +1,65 @@
+package be.vives.ti.importeren;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tellers van een import, bijgewerkt terwijl de import loopt.
+ */
+public class ImportRapport {
+
+    private final boolean dryRun;
+    private final AtomicLong gelezen = new AtomicLong();
+    private final AtomicLong geweigerd = new AtomicLong();
+    private final AtomicLong toegevoegd = new AtomicLong();
+
+    ImportRapport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    void gelezen(long aantal) {
+        gelezen.addAndGet(aantal);
+    }
+
+    void geweigerd() {
+        geweigerd.incrementAndGet();
+    }
+
+    void toegevoegd(long aantal) {
+        toegevoegd.addAndGet(aantal);
+    }
+
+    /**
+     * @return true indien er niets naar de databank geschreven werd
+     */
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * @return aantal gelezen rijen, zonder de kopregel
+     */
+    public long getGelezen() {
+        return gelezen.get();
+    }
+
+    /**
+     * @return aantal rijen die ongeldig of dubbel waren, of niet toegevoegd konden worden
+     */
+    public long getGeweigerd() {
+        return geweigerd.get();
+    }
+
+    /**
+     * @return aantal toegevoegde rijen; bij een dry-run het aantal rijen dat toegevoegd zou worden
+     */
+    public long getToegevoegd() {
+        return toegevoegd.get();
+    }
+
+    @Override
+    public String toString() {
+        return (dryRun ? "[dry-run] " : "") + "gelezen=" + getGelezen()
+                + ", toegevoegd=" + getToegevoegd()
+                + ", geweigerd=" + getGeweigerd();
+    }
+}
@@ -0,0 +1,9 @@
+package be.vives.ti.importeren;
+
+/**
+ * Krijgt de tussenstand van een import na elk verwerkt blok rijen.
+ */
+public interface ImportVoortgang {
+
+    void meld(ImportRapport rapport);
+}
@@ -0,0 +1,90 @@
+package be.vives.ti.importeren;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.databag.BatchResultaat;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importeert leden. Kolommen:
+ * rijksregisternummer;voornaam;naam;emailadres;start_lidmaatschap;opmerking
+ * Een lege start_lidmaatschap wordt vandaag, net als bij LidService.toevoegenLid.
+ * Leden worden ontdubbeld op rijksregisternummer, binnen het bestand en met de databank.
+ */
+public class LedenImport extends CsvImport<Lid, String> {
+
+    private static final String[] KOLOMMEN = {
+            "rijksregisternummer", "voornaam", "naam", "emailadres", "start_lidmaatschap", "opmerking"};
+
+    private final LidDAO lidDAO;
+
+    public LedenImport(LidDAO lidDAO, int aantalThreads, int blokGrootte) {
+        super(aantalThreads, blokGrootte);
+        this.lidDAO = lidDAO;
+    }
+
+    @Override
+    protected String[] getKolommen() {
+        return KOLOMMEN;
+    }
+
+    @Override
+    protected Lid valideer(String[] velden) throws ApplicationException {
+        //dezelfde controles als LidService.toevoegenLid
+        if (StringUtils.isBlank(velden[0])) {
+            throw new ApplicationException(ApplicationExceptionType.LID_RR_LEEG.getMessage());
+        }
+        if (StringUtils.isBlank(velden[1])) {
+            throw new ApplicationException(ApplicationExceptionType.LID_VOORNAAM_LEEG.getMessage());
+        }
+        if (StringUtils.isBlank(velden[2])) {
+            throw new ApplicationException(ApplicationExceptionType.LID_NAAM_LEEG.getMessage());
+        }
+        if (StringUtils.isBlank(velden[3])) {
+            throw new ApplicationException(ApplicationExceptionType.LID_EMAIL_LEEG.getMessage());
+        }
+
+        Lid lid = new Lid();
+        lid.setRijksregisternummer(new Rijksregisternummer(velden[0]));
+        lid.setVoornaam(velden[1]);
+        lid.setNaam(velden[2]);
+        lid.setEmailadres(velden[3]);
+        try {
+            lid.setStart_lidmaatschap(velden[4].isEmpty() ? LocalDate.now() : LocalDate.parse(velden[4]));
+        } catch (DateTimeParseException ex) {
+            throw new ApplicationException(ApplicationExceptionType.IMPORT_ONGELDIGE_DATUM.getMessage());
+        }
+        lid.setOpmerking(velden[5].isEmpty() ? null : velden[5]);
+        return lid;
+    }
+
+    @Override
+    protected String getSleutel(Lid lid) {
+        return lid.getRijksregisternummer();
+    }
+
+    @Override
+    protected Set<String> zoekBestaandeSleutels(Collection<String> sleutels) throws DBException {
+        return lidDAO.zoekBestaandeRijksregisternummers(sleutels);
+    }
+
+    @Override
+    protected String getBestaatAlBoodschap() {
+        return ApplicationExceptionType.LID_BESTAAT_AL.getMessage();
+    }
+
+    @Override
+    protected BatchResultaat<String> schrijf(List<Lid> leden) throws DBException {
+        return lidDAO.toevoegenLeden(leden);
+    }
+}
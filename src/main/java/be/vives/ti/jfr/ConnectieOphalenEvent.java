@@ -0,0 +1,66 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-event rond het ophalen van een connectie uit de pool. Lange events met
+ * veel wachtende threads wijzen op een pool die te klein is. Standaard worden
+ * enkel ophalingen vanaf 1 ms bijgehouden, een vrije connectie ophalen gaat sneller.
+ */
+@Name("be.vives.ti.ConnectieOphalen")
+@Label("Connectie ophalen")
+@Category({"VIVESbike", "Databank"})
+@Threshold("1 ms")
+@Description("Een connectie wordt uit de connection pool gehaald")
+public class ConnectieOphalenEvent extends jdk.jfr.Event {
+
+    @Label("Actief")
+    @Description("Uitgeleende connecties, na het ophalen")
+    private int actief;
+
+    @Label("Idle")
+    private int idle;
+
+    @Label("Wachtend")
+    @Description("Andere threads die op een connectie wachten")
+    private int wachtend;
+
+    @Label("Maximum")
+    private int maximum;
+
+    @Label("Nieuwe connectie")
+    @Description("Er moest een fysieke connectie aangemaakt worden")
+    private boolean nieuw;
+
+    @Label("Fout")
+    @Description("Boodschap indien er geen connectie opgehaald kon worden")
+    private String fout;
+
+    public void setActief(int actief) {
+        this.actief = actief;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public void setWachtend(int wachtend) {
+        this.wachtend = wachtend;
+    }
+
+    public void setMaximum(int maximum) {
+        this.maximum = maximum;
+    }
+
+    public void setNieuw(boolean nieuw) {
+        this.nieuw = nieuw;
+    }
+
+    public void setFout(String fout) {
+        this.fout = fout;
+    }
+}
@@ -0,0 +1,48 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-event rond RitService.afsluitenRit: rit opzoeken, prijs berekenen en
+ * afsluiten.
+ */
+@Name("be.vives.ti.RitAfsluiten")
+@Label("Rit afsluiten")
+@Category({"VIVESbike", "Ritten"})
+@Description("Een fiets wordt teruggebracht en de rit afgesloten")
+public class RitAfsluitenEvent extends jdk.jfr.Event {
+
+    @Label("Rit")
+    private int rit;
+
+    @Label("Fiets")
+    @Description("0 indien de rit niet gevonden werd")
+    private int fiets;
+
+    @Label("Prijs")
+    @Description("Prijs in euro, 0 indien de rit niet afgesloten werd")
+    private double prijs;
+
+    @Label("Fout")
+    @Description("Boodschap van de exception indien de rit niet afgesloten werd")
+    private String fout;
+
+    public void setRit(int rit) {
+        this.rit = rit;
+    }
+
+    public void setFiets(int fiets) {
+        this.fiets = fiets;
+    }
+
+    public void setPrijs(double prijs) {
+        this.prijs = prijs;
+    }
+
+    public void setFout(String fout) {
+        this.fout = fout;
+    }
+}
@@ -0,0 +1,48 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-event rond RitService.toevoegenRit: van de controles tot de rit in de
+ * databank staat.
+ */
+@Name("be.vives.ti.RitStarten")
+@Label("Rit starten")
+@Category({"VIVESbike", "Ritten"})
+@Description("Een lid start een rit op een fiets")
+public class RitStartenEvent extends jdk.jfr.Event {
+
+    @Label("Lid")
+    @Description("Rijksregisternummer van het lid, gemaskeerd")
+    private String lid;
+
+    @Label("Fiets")
+    private int fiets;
+
+    @Label("Rit")
+    @Description("Id van de nieuwe rit, 0 indien ze niet gestart werd")
+    private int rit;
+
+    @Label("Fout")
+    @Description("Boodschap van de exception indien de rit niet gestart werd")
+    private String fout;
+
+    public void setLid(String lid) {
+        this.lid = lid;
+    }
+
+    public void setFiets(int fiets) {
+        this.fiets = fiets;
+    }
+
+    public void setRit(int rit) {
+        this.rit = rit;
+    }
+
+    public void setFout(String fout) {
+        this.fout = fout;
+    }
+}
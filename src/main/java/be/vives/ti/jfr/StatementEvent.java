@@ -0,0 +1,63 @@
+package be.vives.ti.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-event per uitvoering van een prepared statement, van execute tot de
+ * volgende execute of het sluiten van het statement (dus met het lezen van de
+ * resultaten). De stacktrace van het event toont welke DAO-methode het uitvoerde.
+ * Standaard worden enkel statements vanaf 1 ms bijgehouden; met een eigen
+ * .jfc-bestand of Recording.enable(...).withoutThreshold() worden ze allemaal bijgehouden.
+ */
+@Name("be.vives.ti.Statement")
+@Label("SQL-statement")
+@Category({"VIVESbike", "Databank"})
+@Threshold("1 ms")
+@Description("Uitvoering van een prepared statement door een DAO")
+public class StatementEvent extends jdk.jfr.Event {
+
+    private static final EventType TYPE = EventType.getEventType(StatementEvent.class);
+
+    @Label("SQL")
+    private String sql;
+
+    @Label("Rijen")
+    @Description("Gelezen of gewijzigde rijen, -1 indien onbekend")
+    private long rijen;
+
+    @Label("Batch")
+    @Description("Aantal rijen in de batch, 0 indien geen batch")
+    private int batch;
+
+    @Label("Mislukt")
+    private boolean mislukt;
+
+    /**
+     * @return true indien een lopende opname dit event bijhoudt; anders hoeven
+     * statements niet gevolgd te worden
+     */
+    public static boolean isActief() {
+        return TYPE.isEnabled();
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public void setRijen(long rijen) {
+        this.rijen = rijen;
+    }
+
+    public void setBatch(int batch) {
+        this.batch = batch;
+    }
+
+    public void setMislukt(boolean mislukt) {
+        this.mislukt = mislukt;
+    }
+}
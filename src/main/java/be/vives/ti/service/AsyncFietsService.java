@@ -0,0 +1,91 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Voert de methodes van FietsService uit op de ServiceExecutor. De controles zijn
+ * dezelfde als die van FietsService; een ApplicationException of DBException laat
+ * de future mislukken.
+ */
+public class AsyncFietsService {
+
+    private final FietsService fietsService;
+    private final ServiceExecutor executor;
+
+    public AsyncFietsService(FietsService fietsService, ServiceExecutor executor) {
+        this.fietsService = fietsService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see FietsService#toevoegenFiets(Fiets)
+     */
+    public CompletableFuture<Integer> toevoegenFiets(Fiets fiets) {
+        return executor.voerUit(() -> fietsService.toevoegenFiets(fiets));
+    }
+
+    /**
+     * @see FietsService#wijzigenStatusNaarHerstel(int, String)
+     */
+    public CompletableFuture<Void> wijzigenStatusNaarHerstel(int regnr, String opmerking) {
+        return executor.voerUit(() -> {
+            fietsService.wijzigenStatusNaarHerstel(regnr, opmerking);
+            return null;
+        });
+    }
+
+    /**
+     * @see FietsService#wijzigenStatusNaarUitOmloop(int, String)
+     */
+    public CompletableFuture<Void> wijzigenStatusNaarUitOmloop(int regnr, String opmerking) {
+        return executor.voerUit(() -> {
+            fietsService.wijzigenStatusNaarUitOmloop(regnr, opmerking);
+            return null;
+        });
+    }
+
+    /**
+     * @see FietsService#wijzigenStatusNaarActief(int, String)
+     */
+    public CompletableFuture<Void> wijzigenStatusNaarActief(int regnr, String opmerking) {
+        return executor.voerUit(() -> {
+            fietsService.wijzigenStatusNaarActief(regnr, opmerking);
+            return null;
+        });
+    }
+
+    /**
+     * @see FietsService#wijzigenOpmerkingFiets(int, String)
+     */
+    public CompletableFuture<Void> wijzigenOpmerkingFiets(int regnr, String opmerking) {
+        return executor.voerUit(() -> {
+            fietsService.wijzigenOpmerkingFiets(regnr, opmerking);
+            return null;
+        });
+    }
+
+    /**
+     * @see FietsService#zoekFiets(Integer)
+     */
+    public CompletableFuture<Fiets> zoekFiets(Integer registratienummer) {
+        return executor.voerUit(() -> fietsService.zoekFiets(registratienummer));
+    }
+
+    /**
+     * @see FietsService#zoekAlleBeschikbareFietsen()
+     */
+    public CompletableFuture<List<Fiets>> zoekAlleBeschikbareFietsen() {
+        return executor.voerUit(fietsService::zoekAlleBeschikbareFietsen);
+    }
+
+    /**
+     * @see FietsService#zoekBeschikbareFietsen(Standplaats)
+     */
+    public CompletableFuture<List<Integer>> zoekBeschikbareFietsen(Standplaats standplaats) {
+        return executor.voerUit(() -> fietsService.zoekBeschikbareFietsen(standplaats));
+    }
+}
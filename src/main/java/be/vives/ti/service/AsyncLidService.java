@@ -0,0 +1,88 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Lid;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Voert de methodes van LidService uit op de ServiceExecutor. De controles zijn
+ * dezelfde als die van LidService; een ApplicationException of DBException laat
+ * de future mislukken.
+ */
+public class AsyncLidService {
+
+    private final LidService lidService;
+    private final ServiceExecutor executor;
+
+    public AsyncLidService(LidService lidService, ServiceExecutor executor) {
+        this.lidService = lidService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see LidService#toevoegenLid(Lid)
+     */
+    public CompletableFuture<String> toevoegenLid(Lid l) {
+        return executor.voerUit(() -> lidService.toevoegenLid(l));
+    }
+
+    /**
+     * @see LidService#wijzigenLid(Lid)
+     */
+    public CompletableFuture<Void> wijzigenLid(Lid teWijzigenLid) {
+        return executor.voerUit(() -> {
+            lidService.wijzigenLid(teWijzigenLid);
+            return null;
+        });
+    }
+
+    /**
+     * @see LidService#wijzigStartDatumVanLid(String, LocalDate)
+     */
+    public CompletableFuture<Void> wijzigStartDatumVanLid(String rr, LocalDate startDatum) {
+        return executor.voerUit(() -> {
+            lidService.wijzigStartDatumVanLid(rr, startDatum);
+            return null;
+        });
+    }
+
+    /**
+     * @see LidService#uitschrijvenLid(String)
+     */
+    public CompletableFuture<Void> uitschrijvenLid(String rr) {
+        return executor.voerUit(() -> {
+            lidService.uitschrijvenLid(rr);
+            return null;
+        });
+    }
+
+    /**
+     * @see LidService#zoekLid(String)
+     */
+    public CompletableFuture<Lid> zoekLid(String rijksregisternummer) {
+        return executor.voerUit(() -> lidService.zoekLid(rijksregisternummer));
+    }
+
+    /**
+     * @see LidService#zoekAlleLeden()
+     */
+    public CompletableFuture<ArrayList<Lid>> zoekAlleLeden() {
+        return executor.voerUit(lidService::zoekAlleLeden);
+    }
+
+    /**
+     * @see LidService#zoekLedenPagina(Lid)
+     */
+    public CompletableFuture<ArrayList<Lid>> zoekLedenPagina(Lid vorige) {
+        return executor.voerUit(() -> lidService.zoekLedenPagina(vorige));
+    }
+
+    /**
+     * @return aantal leden dat zoekLedenPagina per keer ophaalt
+     */
+    public int getPaginaGrootte() {
+        return lidService.getPaginaGrootte();
+    }
+}
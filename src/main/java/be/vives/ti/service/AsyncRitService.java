@@ -0,0 +1,66 @@
+package be.vives.ti.service;
+
+import be.vives.ti.databag.Rit;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Voert de methodes van RitService uit op de ServiceExecutor. De controles zijn
+ * dezelfde als die van RitService; een ApplicationException of DBException laat
+ * de future mislukken.
+ */
+public class AsyncRitService {
+
+    private final RitService ritService;
+    private final ServiceExecutor executor;
+
+    public AsyncRitService(RitService ritService, ServiceExecutor executor) {
+        this.ritService = ritService;
+        this.executor = executor;
+    }
+
+    /**
+     * @see RitService#toevoegenRit(Rit)
+     */
+    public CompletableFuture<Integer> toevoegenRit(Rit rit) {
+        return executor.voerUit(() -> ritService.toevoegenRit(rit));
+    }
+
+    /**
+     * @see RitService#afsluitenRit(Integer)
+     */
+    public CompletableFuture<Void> afsluitenRit(Integer ritId) {
+        return executor.voerUit(() -> {
+            ritService.afsluitenRit(ritId);
+            return null;
+        });
+    }
+
+    /**
+     * @see RitService#zoekRit(Integer)
+     */
+    public CompletableFuture<Rit> zoekRit(Integer ritID) {
+        return executor.voerUit(() -> ritService.zoekRit(ritID));
+    }
+
+    /**
+     * @see RitService#zoekEersteRitVanLid(String)
+     */
+    public CompletableFuture<Integer> zoekEersteRitVanLid(String rr) {
+        return executor.voerUit(() -> ritService.zoekEersteRitVanLid(rr));
+    }
+
+    /**
+     * @see RitService#zoekActieveRitVanLid(String)
+     */
+    public CompletableFuture<Integer> zoekActieveRitVanLid(String rr) {
+        return executor.voerUit(() -> ritService.zoekActieveRitVanLid(rr));
+    }
+
+    /**
+     * @see RitService#zoekActieveRitVanFiets(Integer)
+     */
+    public CompletableFuture<Integer> zoekActieveRitVanFiets(Integer regnr) {
+        return executor.voerUit(() -> ritService.zoekActieveRitVanFiets(regnr));
+    }
+}
@@ -0,0 +1,229 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.databag.FietsToestand;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.DBException;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Houdt in het geheugen bij welke fietsen per standplaats beschikbaar zijn
+ * (status ACTIEF en geen actieve rit), zodat dit zonder databank opgevraagd kan
+ * worden. Per standplaats is er een bitset met als index het registratienummer.
+ *
+ * De index wordt bij het opstarten uit de databank opgebouwd en daarna bijgewerkt
+ * door FietsService en RitService. Wijzigingen die niet via die services gebeuren
+ * (bv. een import), zijn pas zichtbaar na opnieuw opbouwen.
+ *
+ * De services werken de index bij nadat hun transactie afgelopen is, dus niet
+ * noodzakelijk in de volgorde van de databank: het afsluiten van rit A kan na het
+ * starten van rit B met dezelfde fiets binnenkomen. Daarom houdt de index per fiets
+ * een versie bij, afgeleid van het id van de rit (ids stijgen, en een rit kan pas
+ * starten nadat de vorige met de fiets afgesloten is). Een wijziging met een oudere
+ * versie dan de huidige wordt genegeerd.
+ */
+public class BeschikbaarheidsIndex {
+
+    //zorgt dat er maar 1 keer tegelijk opgebouwd wordt
+    private final Object opbouwSlot = new Object();
+
+    private Toestand toestand = new Toestand();
+    //fietsen die gewijzigd werden terwijl de index opgebouwd wordt, null indien niet aan het opbouwen
+    private BitSet gewijzigdTijdensOpbouwen;
+
+    /**
+     * (Her)bouwt de index op uit de databank. Status en laatste rit van elke fiets komen
+     * uit 1 query, die buiten het slot uitgevoerd wordt: opvragingen wachten dus niet op
+     * de databank. Fietsen die intussen via de services gewijzigd werden, behouden hun
+     * nieuwere toestand.
+     * @param fietsDAO dao waarmee de fietsen opgehaald worden
+     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
+     */
+    public void opbouwen(FietsDAO fietsDAO) throws DBException {
+        synchronized (opbouwSlot) {
+            synchronized (this) {
+                gewijzigdTijdensOpbouwen = new BitSet();
+            }
+            Toestand nieuw = new Toestand();
+            try {
+                for (FietsToestand fiets : fietsDAO.zoekFietsToestanden()) {
+                    int regnr = fiets.getRegistratienummer();
+                    nieuw.registreer(regnr, fiets.getStandplaats());
+                    nieuw.actief.set(regnr, fiets.getStatus() == Status.actief);
+                    if (fiets.getLaatsteRitId() != null) {
+                        nieuw.zetVersie(regnr, versie(fiets.getLaatsteRitId(), !fiets.isLaatsteRitActief()));
+                    }
+                    nieuw.werkBij(regnr);
+                }
+            } catch (DBException | RuntimeException ex) {
+                //de huidige toestand blijft behouden
+                synchronized (this) {
+                    gewijzigdTijdensOpbouwen = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                //wat intussen via de services binnenkwam, is minstens zo recent als de query
+                for (int regnr = gewijzigdTijdensOpbouwen.nextSetBit(0); regnr >= 0;
+                     regnr = gewijzigdTijdensOpbouwen.nextSetBit(regnr + 1)) {
+                    Standplaats standplaats = toestand.standplaats(regnr);
+                    if (standplaats != null) {
+                        nieuw.registreer(regnr, standplaats);
+                        nieuw.actief.set(regnr, toestand.actief.get(regnr));
+                    }
+                    nieuw.zetVersie(regnr, Math.max(nieuw.versie(regnr), toestand.versie(regnr)));
+                    nieuw.werkBij(regnr);
+                }
+                toestand = nieuw;
+                gewijzigdTijdensOpbouwen = null;
+            }
+        }
+    }
+
+    /**
+     * Een nieuwe fiets werd toegevoegd.
+     */
+    public synchronized void fietsToegevoegd(int regnr, Standplaats standplaats, Status status) {
+        toestand.registreer(regnr, standplaats);
+        toestand.actief.set(regnr, status == Status.actief);
+        toestand.werkBij(regnr);
+        gewijzigd(regnr);
+    }
+
+    /**
+     * De status van een fiets werd gewijzigd.
+     */
+    public synchronized void statusGewijzigd(int regnr, Status status) {
+        toestand.actief.set(regnr, status == Status.actief);
+        toestand.werkBij(regnr);
+        gewijzigd(regnr);
+    }
+
+    /**
+     * Er werd een rit met de fiets gestart. Genegeerd indien er al een nieuwere rit
+     * met de fiets verwerkt werd, of deze rit al afgesloten werd.
+     * @param regnr registratienummer van de fiets
+     * @param ritId id van de gestarte rit
+     */
+    public synchronized void ritGestart(int regnr, int ritId) {
+        werkVersieBij(regnr, versie(ritId, false));
+    }
+
+    /**
+     * De rit met de fiets werd afgesloten. Genegeerd indien er al een nieuwere rit
+     * met de fiets gestart werd.
+     * @param regnr registratienummer van de fiets
+     * @param ritId id van de afgesloten rit
+     */
+    public synchronized void ritAfgesloten(int regnr, int ritId) {
+        werkVersieBij(regnr, versie(ritId, true));
+    }
+
+    /**
+     * @param standplaats standplaats waarvan de fietsen gevraagd worden
+     * @return registratienummers van de beschikbare fietsen, oplopend gesorteerd
+     */
+    public synchronized int[] zoekBeschikbareFietsen(Standplaats standplaats) {
+        return toestand.vrij.get(standplaats).stream().toArray();
+    }
+
+    /**
+     * @param standplaats standplaats waarvan het aantal gevraagd wordt
+     * @return aantal beschikbare fietsen
+     */
+    public synchronized int aantalBeschikbaar(Standplaats standplaats) {
+        return toestand.vrij.get(standplaats).cardinality();
+    }
+
+    /**
+     * @param regnr registratienummer van de fiets
+     * @return true indien de fiets actief is en geen actieve rit heeft
+     */
+    public synchronized boolean isBeschikbaar(int regnr) {
+        Standplaats standplaats = toestand.standplaats(regnr);
+        return standplaats != null && toestand.vrij.get(standplaats).get(regnr);
+    }
+
+    //het starten van rit n krijgt versie 2n, het afsluiten 2n+1
+    private static long versie(int ritId, boolean afgesloten) {
+        return 2L * ritId + (afgesloten ? 1 : 0);
+    }
+
+    private void werkVersieBij(int regnr, long versie) {
+        if (versie > toestand.versie(regnr)) {
+            toestand.zetVersie(regnr, versie);
+            toestand.werkBij(regnr);
+        }
+        gewijzigd(regnr);
+    }
+
+    private void gewijzigd(int regnr) {
+        if (gewijzigdTijdensOpbouwen != null) {
+            gewijzigdTijdensOpbouwen.set(regnr);
+        }
+    }
+
+    /**
+     * Standplaats, status en ritversie per fiets en de beschikbare fietsen per standplaats.
+     */
+    private static class Toestand {
+        //standplaats per registratienummer, 0 wordt niet gebruikt
+        private Standplaats[] standplaatsen = new Standplaats[1024];
+        private final BitSet actief = new BitSet();
+        //versie van de laatste verwerkte rit per registratienummer, 0 indien nog geen rit
+        private long[] ritVersies = new long[1024];
+        private final Map<Standplaats, BitSet> vrij = new EnumMap<>(Standplaats.class);
+
+        private Toestand() {
+            for (Standplaats standplaats : Standplaats.values()) {
+                vrij.put(standplaats, new BitSet());
+            }
+        }
+
+        private Standplaats standplaats(int regnr) {
+            return regnr < standplaatsen.length ? standplaatsen[regnr] : null;
+        }
+
+        private long versie(int regnr) {
+            return regnr < ritVersies.length ? ritVersies[regnr] : 0;
+        }
+
+        private void zetVersie(int regnr, long versie) {
+            if (regnr >= ritVersies.length) {
+                ritVersies = Arrays.copyOf(ritVersies, Math.max(regnr + 1, ritVersies.length * 2));
+            }
+            ritVersies[regnr] = versie;
+        }
+
+        //een even versie is een gestarte rit die nog niet afgesloten is
+        private boolean inGebruik(int regnr) {
+            long versie = versie(regnr);
+            return versie != 0 && (versie & 1) == 0;
+        }
+
+        private void registreer(int regnr, Standplaats standplaats) {
+            if (regnr >= standplaatsen.length) {
+                standplaatsen = Arrays.copyOf(standplaatsen, Math.max(regnr + 1, standplaatsen.length * 2));
+            }
+            Standplaats vorige = standplaatsen[regnr];
+            if (vorige != null && vorige != standplaats) {
+                vrij.get(vorige).clear(regnr);
+            }
+            standplaatsen[regnr] = standplaats;
+        }
+
+        //fietsen die niet in de index zitten (bv. toegevoegd door een import) worden genegeerd
+        private void werkBij(int regnr) {
+            Standplaats standplaats = standplaats(regnr);
+            if (standplaats != null) {
+                vrij.get(standplaats).set(regnr, actief.get(regnr) && !inGebruik(regnr));
+            }
+        }
+    }
+}
@@ -1,21 +1,47 @@
 package be.vives.ti.service;
 
+import be.vives.ti.cache.Cache;
+import be.vives.ti.cache.CacheStatistieken;
+import be.vives.ti.cache.GeenCache;
 import be.vives.ti.dao.FietsDAO;
 import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class FietsService {
 
     private FietsDAO fietsDAO;
+    private BeschikbaarheidsIndex index;
+    private Cache<Integer, Fiets> fietsCache;
 
 
     public FietsService(FietsDAO fietsDAO) {
+        this(fietsDAO, null);
+    }
+
+    /**
+     * @param fietsDAO dao voor de fietsen
+     * @param index beschikbaarheidsindex die bijgewerkt wordt, null om zonder index te werken
+     */
+    public FietsService(FietsDAO fietsDAO, BeschikbaarheidsIndex index) {
+        this(fietsDAO, index, new GeenCache<>());
+    }
+
+    /**
+     * @param fietsDAO dao voor de fietsen
+     * @param index beschikbaarheidsindex die bijgewerkt wordt, null om zonder index te werken
+     * @param fietsCache cache voor zoekFiets, per registratienummer; GeenCache om zonder cache te werken
+     */
+    public FietsService(FietsDAO fietsDAO, BeschikbaarheidsIndex index, Cache<Integer, Fiets> fietsCache) {
         this.fietsDAO = fietsDAO;
+        this.index = index;
+        this.fietsCache = fietsCache;
     }
 
 
@@ -38,8 +64,12 @@ public class FietsService {
             throw new ApplicationException(ApplicationExceptionType.FIETS_ID_WORDT_GEGENEREERD.getMessage());
         }
 
-        //toevoegen fiets
-        return fietsDAO.toevoegenFiets(fiets);
+        //toevoegen fiets, de DAO geeft een nieuwe fiets altijd de status ACTIEF
+        Integer regnr = fietsDAO.toevoegenFiets(fiets);
+        if (index != null && regnr != null) {
+            index.fietsToegevoegd(regnr, fiets.getStandplaats(), Status.actief);
+        }
+        return regnr;
     }
 
 
@@ -71,7 +101,14 @@ public class FietsService {
         //}
 
         //fietsstatus wijzigen naar HERSTEL
-        fietsDAO.wijzigenToestandFiets(regnr, Status.herstel, opmerking);
+        try {
+            fietsDAO.wijzigenToestandFiets(regnr, Status.herstel, opmerking);
+        } finally {
+            fietsCache.verwijder(regnr);
+        }
+        if (index != null) {
+            index.statusGewijzigd(regnr, Status.herstel);
+        }
 
     }
 
@@ -103,7 +140,14 @@ public class FietsService {
         }
 
         //fietsstatus wijzigen naar UIT OMLOOP
-        fietsDAO.wijzigenToestandFiets(regnr, Status.uit_omloop, opmerking);
+        try {
+            fietsDAO.wijzigenToestandFiets(regnr, Status.uit_omloop, opmerking);
+        } finally {
+            fietsCache.verwijder(regnr);
+        }
+        if (index != null) {
+            index.statusGewijzigd(regnr, Status.uit_omloop);
+        }
 
     }
 
@@ -128,7 +172,14 @@ public class FietsService {
         }
 
         //fietsstatus wijzigen naar ACTIEF
-        fietsDAO.wijzigenToestandFiets(regnr, Status.actief, opmerking);
+        try {
+            fietsDAO.wijzigenToestandFiets(regnr, Status.actief, opmerking);
+        } finally {
+            fietsCache.verwijder(regnr);
+        }
+        if (index != null) {
+            index.statusGewijzigd(regnr, Status.actief);
+        }
     }
 
     /**
@@ -146,12 +197,18 @@ public class FietsService {
         }
 
         //opmerking fiets wijzigen
-        fietsDAO.wijzigenOpmerkingFiets(regnr, opmerking);
+        try {
+            fietsDAO.wijzigenOpmerkingFiets(regnr, opmerking);
+        } finally {
+            fietsCache.verwijder(regnr);
+        }
 
     }
 
     /**
      * Zoekt een fiets in de db adhv het registratienummer van de fiets.
+     * De fiets komt uit de cache indien ze daar in zit; er wordt altijd een kopie
+     * teruggegeven, zodat wijzigingen van de oproeper niet in de cache terechtkomen.
      * @param registratienummer
      * @return de gezochte fiets
      * @throws ApplicationException wordt gegooid indien het registratienummer niet is ingevuld
@@ -163,7 +220,26 @@ public class FietsService {
         if (registratienummer == null) {
             throw new ApplicationException(ApplicationExceptionType.FIETS_NULL.getMessage());
         }
-        return fietsDAO.zoekFiets(registratienummer);
+        return kopie(fietsCache.zoek(registratienummer, fietsDAO::zoekFiets));
+    }
+
+    /**
+     * @return hits, misses en verdrongen fietsen van de cache van zoekFiets
+     */
+    public CacheStatistieken getFietsCacheStatistieken() {
+        return fietsCache.getStatistieken();
+    }
+
+    private static Fiets kopie(Fiets fiets) {
+        if (fiets == null) {
+            return null;
+        }
+        Fiets kopie = new Fiets();
+        kopie.setRegistratienummer(fiets.getRegistratienummer());
+        kopie.setStandplaats(fiets.getStandplaats());
+        kopie.setStatus(fiets.getStatus());
+        kopie.setOpmerking(fiets.getOpmerking());
+        return kopie;
     }
 
     /**
@@ -176,4 +252,33 @@ public class FietsService {
         return fietsDAO.zoekAlleBeschikbareFietsen();
     }
 
+    /**
+     * Zoekt de beschikbare fietsen (met status ACTIEF + heeft geen actieve rit) van 1 standplaats.
+     * Met een beschikbaarheidsindex gebeurt dit zonder de databank.
+     * @param standplaats standplaats waarvan de fietsen gezocht worden
+     * @return registratienummers van de beschikbare fietsen, oplopend gesorteerd
+     * @throws ApplicationException wordt gegooid indien geen standplaats werd opgegeven.
+     * @throws DBException duidt op fouten vanuit de be.vives.DAO.
+     */
+    public List<Integer> zoekBeschikbareFietsen(Standplaats standplaats) throws ApplicationException, DBException {
+        //check dat parameter is ingevuld
+        if (standplaats == null) {
+            throw new ApplicationException(ApplicationExceptionType.FIETS_STANDPLAATS_LEEG.getMessage());
+        }
+
+        List<Integer> regnrs = new ArrayList<>();
+        if (index != null) {
+            for (int regnr : index.zoekBeschikbareFietsen(standplaats)) {
+                regnrs.add(regnr);
+            }
+        } else {
+            for (Fiets fiets : fietsDAO.zoekAlleBeschikbareFietsen()) {
+                if (fiets.getStandplaats() == standplaats) {
+                    regnrs.add(fiets.getRegistratienummer());
+                }
+            }
+        }
+        return regnrs;
+    }
+
 }
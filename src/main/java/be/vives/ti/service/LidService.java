@@ -1,5 +1,8 @@
 package be.vives.ti.service;
 
+import be.vives.ti.cache.Cache;
+import be.vives.ti.cache.CacheStatistieken;
+import be.vives.ti.cache.GeenCache;
 import be.vives.ti.dao.LidDAO;
 
 import be.vives.ti.databag.Lid;
@@ -20,12 +23,38 @@ import java.util.ArrayList;
  */
 public class LidService {
 
+    //aantal leden per pagina indien niets anders opgegeven wordt
+    public static final int STANDAARD_PAGINAGROOTTE = 100;
+
     private LidDAO lidDAO;
+    private int paginaGrootte;
+    private Cache<String, Lid> lidCache;
 
 
     public LidService(LidDAO lidDAO) {
-        this.lidDAO = lidDAO;
+        this(lidDAO, STANDAARD_PAGINAGROOTTE);
+    }
 
+    /**
+     * @param lidDAO DAO voor de leden
+     * @param paginaGrootte aantal leden dat zoekLedenPagina per keer ophaalt
+     */
+    public LidService(LidDAO lidDAO, int paginaGrootte) {
+        this(lidDAO, paginaGrootte, new GeenCache<>());
+    }
+
+    /**
+     * @param lidDAO DAO voor de leden
+     * @param paginaGrootte aantal leden dat zoekLedenPagina per keer ophaalt
+     * @param lidCache cache voor zoekLid, per rijksregisternummer; GeenCache om zonder cache te werken
+     */
+    public LidService(LidDAO lidDAO, int paginaGrootte, Cache<String, Lid> lidCache) {
+        if (paginaGrootte < 1) {
+            throw new IllegalArgumentException("Paginagrootte moet minstens 1 zijn: " + paginaGrootte);
+        }
+        this.lidDAO = lidDAO;
+        this.paginaGrootte = paginaGrootte;
+        this.lidCache = lidCache;
     }
 
     /**
@@ -87,8 +116,12 @@ public class LidService {
             throw new ApplicationException(ApplicationExceptionType.LID_UITGESCHREVEN.getMessage());
         }
 
-        //lid wijzigen
-        lidDAO.wijzigenLid(teWijzigenLid);
+        //lid wijzigen, ook als dat mislukt is de waarde in de cache niet meer te vertrouwen
+        try {
+            lidDAO.wijzigenLid(teWijzigenLid);
+        } finally {
+            lidCache.verwijder(teWijzigenLid.getRijksregisternummer());
+        }
 
     }
 
@@ -125,7 +158,11 @@ public class LidService {
 
         lid.setStart_lidmaatschap(startDatum);
         //lid wijzigen
-        lidDAO.wijzigenLid(lid);
+        try {
+            lidDAO.wijzigenLid(lid);
+        } finally {
+            lidCache.verwijder(rr);
+        }
 
     }
 
@@ -157,12 +194,18 @@ public class LidService {
 
         //rijksregisternr - string omzetten in Rijksregisternummer-object
         Rijksregisternummer rijks = new Rijksregisternummer(rr);
-        lidDAO.uitschrijvenLid(rijks);
+        try {
+            lidDAO.uitschrijvenLid(rijks);
+        } finally {
+            lidCache.verwijder(rr);
+        }
     }
 
     /**
      * Zoekt een lid adhv het rijksregisternummer. Indien geen lid werd gevonden,
-     * wordt null teruggegeven.
+     * wordt null teruggegeven. Het lid komt uit de cache indien het daar in zit;
+     * er wordt altijd een kopie teruggegeven, zodat wijzigingen van de oproeper
+     * niet in de cache terechtkomen.
      * @param rijksregisternummer rijksregisternummer van het lid (kan null zijn)
      * @return lid dat gezocht wordt, null indien geen lid werd gevonden
      * @throws ApplicationException wordt opgegooid indien geen rijksregisternummer werd opgegeven
@@ -175,8 +218,31 @@ public class LidService {
         }
 
         //rijksregisternr - string omzetten in Rijksregisternummer-object
-        Rijksregisternummer rijks = new Rijksregisternummer(rijksregisternummer);
-        return lidDAO.zoekLid(rijks);
+        //een ongeldig rijksregisternummer geeft een exception en komt dus niet in de cache
+        return kopie(lidCache.zoek(rijksregisternummer,
+                rr -> lidDAO.zoekLid(new Rijksregisternummer(rr))));
+    }
+
+    /**
+     * @return hits, misses en verdrongen leden van de cache van zoekLid
+     */
+    public CacheStatistieken getLidCacheStatistieken() {
+        return lidCache.getStatistieken();
+    }
+
+    private static Lid kopie(Lid lid) {
+        if (lid == null) {
+            return null;
+        }
+        Lid kopie = new Lid();
+        kopie.setRijksregisternummer(Rijksregisternummer.uitDatabank(lid.getRijksregisternummer()));
+        kopie.setNaam(lid.getNaam());
+        kopie.setVoornaam(lid.getVoornaam());
+        kopie.setEmailadres(lid.getEmailadres());
+        kopie.setStart_lidmaatschap(lid.getStart_lidmaatschap());
+        kopie.setEinde_lidmaatschap(lid.getEinde_lidmaatschap());
+        kopie.setOpmerking(lid.getOpmerking());
+        return kopie;
     }
 
     /**
@@ -190,6 +256,24 @@ public class LidService {
         return lidDAO.zoekAlleLeden();
     }
 
+    /**
+     * Zoekt de volgende pagina leden, gesorteerd op naam, voornaam en rijksregisternummer.
+     * @param vorige laatste lid van de vorige pagina, null voor de eerste pagina
+     * @return hoogstens paginaGrootte leden, een lege lijst indien er geen leden meer zijn
+     * @throws DBException duidt op een verkeerde installatie van de be.vives.DAO of een fout in de query
+     * @throws ApplicationException
+     */
+    public ArrayList<Lid> zoekLedenPagina(Lid vorige) throws ApplicationException, DBException {
+        return lidDAO.zoekLedenPagina(vorige, paginaGrootte);
+    }
+
+    /**
+     * @return aantal leden dat zoekLedenPagina per keer ophaalt
+     */
+    public int getPaginaGrootte() {
+        return paginaGrootte;
+    }
+
 
     /**
      * Controleert of alle velden ingevuld zijn (id niet)
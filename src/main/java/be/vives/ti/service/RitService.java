@@ -1,13 +1,15 @@
 package be.vives.ti.service;
 
-import be.vives.ti.dao.FietsDAO;
-import be.vives.ti.dao.LidDAO;
 import be.vives.ti.dao.RitDAO;
 import be.vives.ti.databag.Rit;
+import be.vives.ti.databag.RitToelating;
+import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.datatype.Status;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
+import be.vives.ti.jfr.RitAfsluitenEvent;
+import be.vives.ti.jfr.RitStartenEvent;
 
 import java.math.BigDecimal;
 import java.time.Duration;
@@ -16,18 +18,19 @@ import java.time.LocalDateTime;
 public class RitService {
 
     private RitDAO ritDAO;
-    private LidService lidService;
-    private FietsService fietsService;
+    private BeschikbaarheidsIndex index;
 
     public RitService(RitDAO ritDAO) {
-        this.ritDAO = ritDAO;
-        if (lidService == null) {
-            lidService = new LidService(new LidDAO());
-        }
+        this(ritDAO, null);
+    }
 
-        if (fietsService == null) {
-            fietsService = new FietsService(new FietsDAO());
-        }
+    /**
+     * @param ritDAO dao voor de ritten
+     * @param index beschikbaarheidsindex die bijgewerkt wordt, null om zonder index te werken
+     */
+    public RitService(RitDAO ritDAO, BeschikbaarheidsIndex index) {
+        this.ritDAO = ritDAO;
+        this.index = index;
     }
 
     /**
@@ -41,60 +44,98 @@ public class RitService {
      * @throws DBException duidt op fouten vanuit de be.vives.DAO.
      */
     public Integer toevoegenRit(Rit rit) throws ApplicationException, DBException {
-        //check dat parameter is ingevuld
-        if (rit == null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_NULL.getMessage());
-        }
-
-        //check dat het id van de rit nog niet bestaat
-        if (rit.getId() != null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_ID_WORDT_GEGENEREERD.getMessage());
+        RitStartenEvent event = new RitStartenEvent();
+        event.begin();
+        try {
+            //check dat parameter is ingevuld
+            if (rit == null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_NULL.getMessage());
+            }
+
+            //check dat het id van de rit nog niet bestaat
+            if (rit.getId() != null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_ID_WORDT_GEGENEREERD.getMessage());
+            }
+
+            //check dat er een lid opgegeven werd
+            if (rit.getLidRijksregisternummer() == null) {
+                throw new ApplicationException(ApplicationExceptionType.LID_ID.getMessage());
+            }
+
+            //check dat rit nog niet afgesloten is
+            if (rit.getEindtijd() != null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
+            }
+
+            //zet de starttijd van de rit op nu
+            rit.setStarttijd(LocalDateTime.now());
+
+            //voeg de rit toe, lid en fiets worden in 1 query gecontroleerd
+            Integer ritId = ritDAO.toevoegenRit(rit, this::controleerToelating);
+            if (index != null && ritId != null) {
+                index.ritGestart(rit.getFietsRegistratienummer(), ritId);
+            }
+            if (ritId != null) {
+                event.setRit(ritId);
+            }
+            return ritId;
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.setFout(ex.getMessage());
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                if (rit != null) {
+                    event.setLid(Rijksregisternummer.maskeer(rit.getLidRijksregisternummer()));
+                    event.setFiets(rit.getFietsRegistratienummer());
+                }
+                event.commit();
+            }
         }
+    }
 
+    /**
+     * Controleert of een rit mag starten adhv de toestand van het lid en de fiets.
+     * @param toelating toestand van lid en fiets uit de database
+     * @throws ApplicationException wordt gegooid wanneer het lid niet bestaat, niet ingeschreven is
+     * of al bezig is met een rit, of wanneer de fiets niet bestaat, niet actief is of in gebruik is.
+     */
+    private void controleerToelating(RitToelating toelating) throws ApplicationException {
         //check dat lid bestaat
-        if (lidService.zoekLid(rit.getLidRijksregisternummer()) == null) {
+        if (!toelating.isLidBestaat()) {
             throw new ApplicationException(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
         }
 
         //check dat lid niet uitgeschreven is
-        if (lidService.zoekLid(rit.getLidRijksregisternummer()).getEinde_lidmaatschap() != null) {
+        if (toelating.getLidEinde_lidmaatschap() != null) {
             throw new ApplicationException(ApplicationExceptionType.LID_UITGESCHREVEN.getMessage());
         }
 
         //check dat lid geen actieve ritten heeft
-        if (zoekActieveRitVanLid(rit.getLidRijksregisternummer()) != null) {
+        if (toelating.isLidHeeftActieveRit()) {
             throw new ApplicationException(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN.getMessage());
         }
 
         //check dat fiets bestaat
-        if (fietsService.zoekFiets(rit.getFietsRegistratienummer()) == null) {
+        if (toelating.getFietsStatus() == null) {
             throw new ApplicationException(ApplicationExceptionType.FIETS_BESTAAT_NIET.getMessage());
         }
 
         //check dat fiets actief is
-        if (fietsService.zoekFiets(rit.getFietsRegistratienummer()).getStatus() != Status.actief) {
+        if (toelating.getFietsStatus() != Status.actief) {
             throw new ApplicationException(ApplicationExceptionType.FIETS_NIET_CORRECTE_STATUS.getMessage());
         }
 
         //check dat fiets beschikbaar is
-        if (zoekActieveRitVanFiets(rit.getFietsRegistratienummer()) != null) {
+        if (toelating.isFietsHeeftActieveRit()) {
             throw new ApplicationException(ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage());
         }
-
-        //check dat rit nog niet afgesloten is
-        if (rit.getEindtijd() != null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
-        }
-
-        //zet de starttijd van de rit op nu
-        rit.setStarttijd(LocalDateTime.now());
-
-        //voeg de rit toe
-        return ritDAO.toevoegenRit(rit);
     }
 
     /**
      * Sluit een rit af en de prijs van de rit wordt bepaald.
+     * De rit wordt 1 keer opgehaald; controles, eindtijd en prijs gebeuren op dat ene object,
+     * dat daarna in 1 update weggeschreven wordt.
      * @param ritId id van de rit die wordt afgesloten
      * @throws ApplicationException wordt gegooid indien geen ritID opgegeven wordt,
      * de ritId niet gevonden wordt, rit nog niet gestart was, rit al beeindigd was,
@@ -102,39 +143,70 @@ public class RitService {
      * @throws DBException duidt op fouten vanuit de be.vives.DAO.
      */
     public void afsluitenRit(Integer ritId) throws ApplicationException, DBException {
-        //check dat parameter is ingevuld
-        if (ritId == null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_NULL.getMessage());
+        RitAfsluitenEvent event = new RitAfsluitenEvent();
+        event.begin();
+        try {
+            //check dat parameter is ingevuld
+            if (ritId == null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_NULL.getMessage());
+            }
+
+            //rit 1 keer ophalen
+            Rit rit = ritDAO.zoekRit(ritId);
+
+            //check dat rit bestaat
+            if (rit == null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_BESTAAT_NIET.getMessage());
+            }
+            event.setFiets(rit.getFietsRegistratienummer());
+
+            //check dat rit gestart is
+            if (rit.getStarttijd() == null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_NIET_GESTART.getMessage());
+            }
+
+            //check dat rit nog niet geeindigd is
+            if (rit.getEindtijd() != null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
+            }
+
+            //check dat prijs nog niet is ingevuld
+            if (rit.getPrijs() != null) {
+                throw new ApplicationException(ApplicationExceptionType.RIT_PRIJS_AL_BEPAALD.getMessage());
+            }
+
+            //eindtijd en prijs invullen
+            rit.setEindtijd(LocalDateTime.now());
+            rit.setPrijs(berekenPrijs(rit.getStarttijd(), rit.getEindtijd()));
+
+            //rit afsluiten, faalt indien de rit intussen door iemand anders afgesloten werd
+            ritDAO.afsluitenActieveRit(rit);
+            if (index != null) {
+                index.ritAfgesloten(rit.getFietsRegistratienummer(), ritId);
+            }
+            event.setPrijs(rit.getPrijs().doubleValue());
+        } catch (ApplicationException | DBException | RuntimeException ex) {
+            event.setFout(ex.getMessage());
+            throw ex;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                if (ritId != null) {
+                    event.setRit(ritId);
+                }
+                event.commit();
+            }
         }
+    }
 
-        //check dat rit bestaat
-        if (zoekRit(ritId) == null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_BESTAAT_NIET.getMessage());
-        }
-
-        //check dat rit gestart is
-        if (zoekRit(ritId).getStarttijd() == null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_NIET_GESTART.getMessage());
-        }
-
-        //check dat rit nog niet geeindigd is
-        if (zoekRit(ritId).getEindtijd() != null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
-        }
-
-        //check dat prijs nog niet is ingevuld
-        if (zoekRit(ritId).getPrijs() != null) {
-            throw new ApplicationException(ApplicationExceptionType.RIT_PRIJS_AL_BEPAALD.getMessage());
-        }
-
-        //eindtijd invullen
-        zoekRit(ritId).setEindtijd(LocalDateTime.now());
-
-        //prijs bepalen
+    /**
+     * Bepaalt de prijs van een rit: elke begonnen 24 uur kost 1 euro.
+     * @param startTijd starttijd van de rit
+     * @param eindTijd eindtijd van de rit
+     * @return prijs van de rit
+     */
+    private BigDecimal berekenPrijs(LocalDateTime startTijd, LocalDateTime eindTijd) {
         //trek start- en eind datum van elkaar, bepaal het aantal uur
-        LocalDateTime startTijd = zoekRit(ritId).getStarttijd();
-        LocalDateTime eindTijd = zoekRit(ritId).getEindtijd();
-
         Duration duration = Duration.between(startTijd, eindTijd);
         double uren = (double)duration.toHours();
 
@@ -152,13 +224,7 @@ public class RitService {
         //indien de prijs zou veranderen, vermenigvuldig dit met de nieuwe prijs
         int prijsAfgerond = (int)Math.ceil(uren/24);
 
-        BigDecimal prijs = BigDecimal.valueOf(prijsAfgerond);
-
-        //prijs invullen
-        zoekRit(ritId).setPrijs(prijs);
-
-        //rit afsluiten
-        ritDAO.afsluitenRit(zoekRit(ritId));
+        return BigDecimal.valueOf(prijsAfgerond);
     }
 
     /**
@@ -0,0 +1,247 @@
+package be.vives.ti.service;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Voert oproepen naar de services uit op andere threads, zodat de oproeper
+ * (bv. de JavaFX-thread) niet moet wachten op de databank.
+ * <p>
+ * Er zijn 2 modi:
+ * <ul>
+ * <li>platform: een vast aantal threads met een begrensde wachtrij;</li>
+ * <li>virtueel: elke oproep krijgt een eigen virtuele thread (vanaf Java 21).
+ * Een wachtende oproep houdt dan geen platform-thread bezet, zodat veel
+ * gelijktijdige sessies weinig kosten.</li>
+ * </ul>
+ * In beide modi voeren nooit meer dan maxGelijktijdig oproepen tegelijk uit.
+ * Meer oproepen dan connecties in de pool heeft geen zin: ze wachten dan enkel
+ * in de pool, tot de acquireTimeout hen laat mislukken. Een volle wachtrij
+ * geeft meteen een fout in plaats van steeds meer werk op te stapelen.
+ * <p>
+ * Een oproep die een ApplicationException of DBException gooit, geeft een
+ * future die met diezelfde exception mislukt.
+ */
+public class ServiceExecutor {
+
+    private static final AtomicInteger EXECUTOR_NUMMER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final boolean virtueel;
+    //enkel in de virtuele modus: begrenst de oproepen die tegelijk uitvoeren en wachten
+    private final Semaphore gelijktijdig;
+    private final int maxGelijktijdig;
+    private final int maxInBehandeling;
+    private final AtomicInteger inBehandeling = new AtomicInteger();
+
+    /**
+     * Platform-modus.
+     * @param aantalThreads aantal threads dat tegelijk oproepen uitvoert
+     * @param wachtrij aantal oproepen dat mag wachten op een vrije thread
+     */
+    public ServiceExecutor(int aantalThreads, int wachtrij) {
+        controleer(aantalThreads, wachtrij);
+        this.executor = new ThreadPoolExecutor(aantalThreads, aantalThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(wachtrij), platformThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.virtueel = false;
+        this.gelijktijdig = null;
+        this.maxGelijktijdig = aantalThreads;
+        this.maxInBehandeling = aantalThreads + wachtrij;
+    }
+
+    private ServiceExecutor(ExecutorService executor, boolean virtueel, int maxGelijktijdig, int wachtrij) {
+        this.executor = executor;
+        this.virtueel = virtueel;
+        this.gelijktijdig = new Semaphore(maxGelijktijdig, true);
+        this.maxGelijktijdig = maxGelijktijdig;
+        this.maxInBehandeling = maxGelijktijdig + wachtrij;
+    }
+
+    /**
+     * Virtuele modus: elke oproep loopt op een eigen virtuele thread. Op een Java-versie
+     * zonder virtuele threads worden gewone threads gebruikt, met dezelfde begrenzing.
+     * @param maxGelijktijdig aantal oproepen dat tegelijk uitvoert, best niet meer dan
+     *                        het maximum aantal connecties van de pool
+     * @param wachtrij aantal oproepen dat mag wachten tot een andere oproep klaar is
+     * @return executor in de virtuele modus
+     */
+    public static ServiceExecutor virtueel(int maxGelijktijdig, int wachtrij) {
+        controleer(maxGelijktijdig, wachtrij);
+        ExecutorService virtueleThreads = virtueleThreads();
+        if (virtueleThreads != null) {
+            return new ServiceExecutor(virtueleThreads, true, maxGelijktijdig, wachtrij);
+        }
+        return new ServiceExecutor(Executors.newCachedThreadPool(platformThreads()), false,
+                maxGelijktijdig, wachtrij);
+    }
+
+    private static void controleer(int aantalThreads, int wachtrij) {
+        if (aantalThreads < 1) {
+            throw new IllegalArgumentException("Aantal threads moet minstens 1 zijn: " + aantalThreads);
+        }
+        if (wachtrij < 1) {
+            throw new IllegalArgumentException("Wachtrij moet minstens 1 zijn: " + wachtrij);
+        }
+    }
+
+    private static ThreadFactory platformThreads() {
+        String naam = "vivesbike-service-" + EXECUTOR_NUMMER.incrementAndGet() + "-";
+        AtomicInteger threadNummer = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, naam + threadNummer.incrementAndGet());
+            //een lopende oproep mag het afsluiten van de applicatie niet tegenhouden
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Virtuele threads bestaan pas vanaf Java 21; de applicatie moet ook op oudere
+     * versies draaien, dus wordt de methode opgezocht in plaats van rechtstreeks opgeroepen.
+     * @return executor met een virtuele thread per oproep, null indien de JVM geen virtuele threads kent
+     */
+    private static ExecutorService virtueleThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            //methode bestaat niet, of Java 19/20 zonder --enable-preview
+            return null;
+        }
+    }
+
+    /**
+     * Plant de oproep in.
+     * @param oproep uit te voeren oproep
+     * @return future met het resultaat van de oproep, of die mislukt met de exception
+     * van de oproep; mislukt met ApplicationException wanneer de wachtrij vol is
+     * of de executor afgesloten werd
+     */
+    public <T> CompletableFuture<T> voerUit(ServiceOproep<T> oproep) {
+        CompletableFuture<T> resultaat = new CompletableFuture<>();
+        if (gelijktijdig != null && inBehandeling.incrementAndGet() > maxInBehandeling) {
+            inBehandeling.decrementAndGet();
+            return overbelast(resultaat);
+        }
+        try {
+            executor.execute(() -> {
+                if (gelijktijdig == null) {
+                    voerUit(oproep, resultaat);
+                    return;
+                }
+                try {
+                    //een virtuele thread die hier wacht, houdt geen platform-thread bezet
+                    gelijktijdig.acquireUninterruptibly();
+                    try {
+                        voerUit(oproep, resultaat);
+                    } finally {
+                        gelijktijdig.release();
+                    }
+                } finally {
+                    inBehandeling.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            if (gelijktijdig != null) {
+                inBehandeling.decrementAndGet();
+            }
+            return overbelast(resultaat);
+        }
+        return resultaat;
+    }
+
+    private static <T> void voerUit(ServiceOproep<T> oproep, CompletableFuture<T> resultaat) {
+        try {
+            resultaat.complete(oproep.voerUit());
+        } catch (Throwable t) {
+            resultaat.completeExceptionally(t);
+        }
+    }
+
+    private static <T> CompletableFuture<T> overbelast(CompletableFuture<T> resultaat) {
+        resultaat.completeExceptionally(
+                new ApplicationException(ApplicationExceptionType.SERVICE_OVERBELAST.getMessage()));
+        return resultaat;
+    }
+
+    /**
+     * @param ex exception waarmee de future mislukt
+     * @return een future die meteen mislukt is met de gegeven exception
+     */
+    public static <T> CompletableFuture<T> mislukt(Throwable ex) {
+        CompletableFuture<T> resultaat = new CompletableFuture<>();
+        resultaat.completeExceptionally(ex);
+        return resultaat;
+    }
+
+    /**
+     * Futures die van een andere future afhangen, verpakken de exception in een
+     * CompletionException. Deze methode haalt de oorspronkelijke exception terug.
+     * @param fout exception waarmee een future mislukt is
+     * @return de oorspronkelijke exception
+     */
+    public static Throwable oorzaak(Throwable fout) {
+        Throwable oorzaak = fout;
+        while ((oorzaak instanceof CompletionException || oorzaak instanceof ExecutionException)
+                && oorzaak.getCause() != null) {
+            oorzaak = oorzaak.getCause();
+        }
+        return oorzaak;
+    }
+
+    /**
+     * @return true indien de oproepen op virtuele threads lopen
+     */
+    public boolean isVirtueel() {
+        return virtueel;
+    }
+
+    /**
+     * @return maximum aantal oproepen dat tegelijk uitvoert
+     */
+    public int getMaxGelijktijdig() {
+        return maxGelijktijdig;
+    }
+
+    /**
+     * @return aantal oproepen dat wacht om uitgevoerd te worden
+     */
+    public int getWachtend() {
+        if (gelijktijdig == null) {
+            return ((ThreadPoolExecutor) executor).getQueue().size();
+        }
+        return Math.max(0, inBehandeling.get() - getActief());
+    }
+
+    /**
+     * @return aantal oproepen dat op dit moment uitgevoerd wordt
+     */
+    public int getActief() {
+        if (gelijktijdig == null) {
+            return ((ThreadPoolExecutor) executor).getActiveCount();
+        }
+        return maxGelijktijdig - gelijktijdig.availablePermits();
+    }
+
+    /**
+     * Aanvaardt geen nieuwe oproepen meer en wacht tot de lopende oproepen klaar zijn.
+     * @param wachttijdMillis hoe lang maximaal gewacht wordt
+     * @return true indien alle oproepen klaar zijn
+     */
+    public boolean sluiten(long wachttijdMillis) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(wachttijdMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,17 @@
+package be.vives.ti.service;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+
+/**
+ * Een oproep naar een service die op de ServiceExecutor uitgevoerd wordt.
+ *
+ * @param <T> type van het resultaat, Void voor methodes zonder resultaat
+ */
+public interface ServiceOproep<T> {
+
+    /**
+     * @return resultaat van de oproep
+     */
+    T voerUit() throws ApplicationException, DBException;
+}
@@ -1,12 +1,20 @@
 package be.vives.ti.ui;
 
+import be.vives.ti.cache.Caches;
 import be.vives.ti.dao.FietsDAO;
 import be.vives.ti.dao.LidDAO;
 import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.connect.ConnectionManager;
 import be.vives.ti.databag.Lid;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.AsyncFietsService;
+import be.vives.ti.service.AsyncLidService;
+import be.vives.ti.service.AsyncRitService;
+import be.vives.ti.service.BeschikbaarheidsIndex;
 import be.vives.ti.service.FietsService;
 import be.vives.ti.service.LidService;
 import be.vives.ti.service.RitService;
+import be.vives.ti.service.ServiceExecutor;
 import be.vives.ti.ui.controller.LedenBeheerController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -18,6 +26,15 @@ import java.io.IOException;
 
 public class VIVESbike extends Application {
 
+    private static final int LID_CACHE_GROOTTE = 1000;
+    private static final long LID_CACHE_TTL = 300;
+    private static final int FIETS_CACHE_GROOTTE = 10000;
+    private static final long FIETS_CACHE_TTL = 600;
+    private static final int SERVICE_THREADS = 4;
+    private static final int SERVICE_WACHTRIJ = 100;
+    //hoe lang bij het afsluiten gewacht wordt op lopende oproepen (ms)
+    private static final long SERVICE_AFSLUITEN = 5000;
+
     private final Stage stage = new Stage();
     private LidService lidService;
     private LidDAO lidDAO;
@@ -25,10 +42,17 @@ public class VIVESbike extends Application {
     private RitDAO ritDAO;
     private FietsService fietsService;
     private FietsDAO fietsDAO;
+    private BeschikbaarheidsIndex beschikbaarheidsIndex;
+    private boolean beschikbaarheidsIndexGeladen;
+    private ServiceExecutor serviceExecutor;
 
     private LidService createLidService() {
         if (lidService == null) {
-            this.lidService = new LidService(createLidDAO());
+            //aantal leden per pagina in het ledenscherm, instelbaar met -Dvivesbike.paginagrootte=...
+            int paginaGrootte = Integer.getInteger("vivesbike.paginagrootte", LidService.STANDAARD_PAGINAGROOTTE);
+            //cache van zoekLid, instelbaar met -Dvivesbike.cache.lid.grootte=... en -Dvivesbike.cache.lid.ttl=...
+            this.lidService = new LidService(createLidDAO(), paginaGrootte,
+                    Caches.maak("lid", LID_CACHE_GROOTTE, LID_CACHE_TTL));
         }
         return lidService;
     }
@@ -42,7 +66,7 @@ public class VIVESbike extends Application {
 
     private RitService createRitService() {
         if (ritService == null) {
-            this.ritService = new RitService(createRitDAO());
+            this.ritService = new RitService(createRitDAO(), createBeschikbaarheidsIndex());
         }
         return ritService;
     }
@@ -56,7 +80,9 @@ public class VIVESbike extends Application {
 
     private FietsService createFietsService() {
         if (fietsService == null) {
-            this.fietsService = new FietsService(createFietsDAO());
+            //cache van zoekFiets, instelbaar met -Dvivesbike.cache.fiets.grootte=... en -Dvivesbike.cache.fiets.ttl=...
+            this.fietsService = new FietsService(createFietsDAO(), createBeschikbaarheidsIndex(),
+                    Caches.maak("fiets", FIETS_CACHE_GROOTTE, FIETS_CACHE_TTL));
         }
         return fietsService;
     }
@@ -68,6 +94,50 @@ public class VIVESbike extends Application {
         return fietsDAO;
     }
 
+    private BeschikbaarheidsIndex createBeschikbaarheidsIndex() {
+        if (!beschikbaarheidsIndexGeladen) {
+            beschikbaarheidsIndexGeladen = true;
+            BeschikbaarheidsIndex index = new BeschikbaarheidsIndex();
+            try {
+                index.opbouwen(createFietsDAO());
+                this.beschikbaarheidsIndex = index;
+            } catch (DBException e) {
+                //zonder index zoeken de services de beschikbare fietsen in de databank
+                System.out.println("SYSTEEMFOUT bij opbouwen beschikbaarheidsindex: " + e.getMessage());
+            }
+        }
+        return beschikbaarheidsIndex;
+    }
+
+    private ServiceExecutor createServiceExecutor() {
+        if (serviceExecutor == null) {
+            int wachtrij = Integer.getInteger("vivesbike.service.wachtrij", SERVICE_WACHTRIJ);
+            //-Dvivesbike.service.modus=virtueel: elke oproep op een virtuele thread (Java 21+)
+            if ("virtueel".equals(System.getProperty("vivesbike.service.modus"))) {
+                //meer gelijktijdige oproepen dan connecties in de pool laat ze enkel op een connectie wachten
+                this.serviceExecutor = ServiceExecutor.virtueel(
+                        Integer.getInteger("vivesbike.service.threads", maxConnecties()), wachtrij);
+                if (!serviceExecutor.isVirtueel()) {
+                    System.out.println("Geen virtuele threads in deze Java-versie, de services gebruiken gewone threads.");
+                }
+            } else {
+                //threads voor de services, instelbaar met -Dvivesbike.service.threads=... en -Dvivesbike.service.wachtrij=...
+                this.serviceExecutor = new ServiceExecutor(
+                        Integer.getInteger("vivesbike.service.threads", SERVICE_THREADS), wachtrij);
+            }
+        }
+        return serviceExecutor;
+    }
+
+    private int maxConnecties() {
+        try {
+            return ConnectionManager.getPoolStatistieken().getMaximum();
+        } catch (DBException e) {
+            //de services geven zelf de fout wanneer de databank niet bereikbaar is
+            return SERVICE_THREADS;
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -78,6 +148,14 @@ public class VIVESbike extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() throws InterruptedException {
+        //lopende oproepen (bv. opslaan van een lid) nog laten afwerken
+        if (serviceExecutor != null) {
+            serviceExecutor.sluiten(SERVICE_AFSLUITEN);
+        }
+    }
+
 
     public void laadLedenbeheer(Lid lid) {
         try {
@@ -85,7 +163,11 @@ public class VIVESbike extends Application {
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
 
             // controller instellen
-            LedenBeheerController controller = new LedenBeheerController(createRitService(), createLidService(), createFietsService());
+            ServiceExecutor executor = createServiceExecutor();
+            LedenBeheerController controller = new LedenBeheerController(
+                    new AsyncRitService(createRitService(), executor),
+                    new AsyncLidService(createLidService(), executor),
+                    new AsyncFietsService(createFietsService(), executor));
             loader.setController(controller);
 
             Parent root = loader.load();
@@ -5,30 +5,55 @@ import be.vives.ti.databag.Rit;
 import be.vives.ti.exception.ApplicationException;
 import be.vives.ti.exception.ApplicationExceptionType;
 import be.vives.ti.exception.DBException;
-import be.vives.ti.service.FietsService;
-import be.vives.ti.service.LidService;
-import be.vives.ti.service.RitService;
+import be.vives.ti.service.AsyncFietsService;
+import be.vives.ti.service.AsyncLidService;
+import be.vives.ti.service.AsyncRitService;
+import be.vives.ti.service.ServiceExecutor;
 import be.vives.ti.ui.VIVESbike;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.fxml.FXML;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 public class LedenBeheerController {
 
+    //voert de afhandeling van een service-oproep uit op de JavaFX-thread
+    private static final Executor FX_THREAD = Platform::runLater;
+
     private VIVESbike parent;
-    private LidService lidService;
-    private RitService ritService;
-    private FietsService fietsService;
+    private AsyncLidService lidService;
+    private AsyncRitService ritService;
+    private AsyncFietsService fietsService;
 
     //lid dat geselecteerd is/moet zijn.
     private Lid geselecteerdLid;
 
-    public LedenBeheerController(RitService ritService, LidService lidService, FietsService fietsService) {
+    //leden in de tabel, per pagina aangevuld tijdens het scrollen
+    private ObservableList<Lid> leden = FXCollections.observableArrayList();
+    //true zodra een pagina minder leden bevatte dan de paginagrootte
+    private boolean alleLedenGeladen;
+    //true zolang een pagina opgehaald wordt, zodat scrollen ze niet meermaals opvraagt
+    private boolean paginaLaden;
+    //verhoogt bij elke nieuwe opvulling van de tabel; een pagina van een vorige opvulling wordt genegeerd
+    private int tabelVersie;
+    //verticale scrollbar van de tabel, null zolang de skin niet aangemaakt is
+    private ScrollBar scrollBar;
+
+    /**
+     * De services worden op een achtergrondthread uitgevoerd, zodat het scherm
+     * niet bevriest tijdens het wachten op de databank.
+     */
+    public LedenBeheerController(AsyncRitService ritService, AsyncLidService lidService,
+                                 AsyncFietsService fietsService) {
         this.ritService = ritService;
         this.lidService = lidService;
         this.fietsService = fietsService;
@@ -83,6 +108,25 @@ public class LedenBeheerController {
         tcRijksreg.setCellValueFactory(
                 new PropertyValueFactory<>("rijksregisternummer"));
 
+        tvLeden.setItems(leden);
+
+        //volgende pagina leden ophalen wanneer de gebruiker onderaan de tabel komt.
+        //De scrollbar bestaat pas wanneer de skin van de tabel aangemaakt is.
+        tvLeden.skinProperty().addListener((obs, oudeSkin, nieuweSkin) -> {
+            for (Node node : tvLeden.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((o, oud, nieuw) -> {
+                        if (nieuw.doubleValue() >= scrollBar.getMax()) {
+                            laadVolgendePagina();
+                        }
+                    });
+                }
+            }
+            //de eerste pagina kan al geladen zijn voor de skin bestond
+            laadVerderIndienNodig();
+        });
+
         //zorgt er voor dat selecteer() opgeroepen wordt elke keer een lid
         //geselecteerd wordt in de tabel
         tvLeden.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
@@ -123,21 +167,78 @@ public class LedenBeheerController {
     }
 
     /**
-     * Tabel opvullen met alle leden.
+     * Tabel opnieuw opvullen, te beginnen met de eerste pagina leden.
+     * De volgende pagina's worden opgehaald tijdens het scrollen.
      */
     private void initialiseerTabel() {
         resetErrorMessage();
-        try {
-            //alle leden ophalen
-            ArrayList<Lid> ledenlijst = lidService.zoekAlleLeden();
+        leden.clear();
+        alleLedenGeladen = false;
+        paginaLaden = false;
+        tabelVersie++;
+        laadVolgendePagina();
+    }
+
+    /**
+     * Voegt de volgende pagina leden toe aan de tabel, indien er nog zijn.
+     */
+    private void laadVolgendePagina() {
+        if (alleLedenGeladen || paginaLaden) {
+            return;
+        }
+        paginaLaden = true;
+        int versie = tabelVersie;
+
+        //pagina ophalen die begint na het laatste lid in de tabel
+        Lid laatste = leden.isEmpty() ? null : leden.get(leden.size() - 1);
+        lidService.zoekLedenPagina(laatste).whenCompleteAsync((pagina, fout) -> {
+            if (versie != tabelVersie) {
+                //de tabel werd intussen opnieuw opgevuld
+                return;
+            }
+            paginaLaden = false;
+            if (fout != null) {
+                laErrorLeden.setText("Onherstelbare fout: " + ServiceExecutor.oorzaak(fout).getMessage());
+            } else {
+                alleLedenGeladen = pagina.size() < lidService.getPaginaGrootte();
+                leden.addAll(pagina);
+                laadVerderIndienNodig();
+            }
+        }, FX_THREAD);
+    }
 
-            ObservableList<Lid> leden = FXCollections.observableArrayList(ledenlijst);
-            tvLeden.setItems(leden);
-        } catch (DBException | ApplicationException ae) {
-            laErrorLeden.setText("Onherstelbare fout: " + ae.getMessage());
+    /**
+     * Haalt de volgende pagina op wanneer de tabel niet kan scrollen (alle leden
+     * passen erin) of al onderaan staat. In die gevallen komt er geen scroll-event
+     * meer en zou de tabel onvolledig blijven.
+     */
+    private void laadVerderIndienNodig() {
+        if (alleLedenGeladen || scrollBar == null) {
+            return;
+        }
+        //de scrollbar past zich pas aan de nieuwe leden aan na een layout
+        tvLeden.layout();
+        if (!scrollBar.isVisible() || scrollBar.getValue() >= scrollBar.getMax()) {
+            laadVolgendePagina();
         }
     }
 
+    /**
+     * Voert na een geslaagde oproep de gegeven actie uit op de JavaFX-thread,
+     * of toont de fout van een mislukte oproep.
+     * @param oproep lopende oproep naar een service
+     * @param actie actie die het resultaat verwerkt
+     */
+    private <T> void naOproep(CompletableFuture<T> oproep, Consumer<T> actie) {
+        oproep.whenCompleteAsync((resultaat, fout) -> {
+            if (fout != null) {
+                laErrorLeden.setText(ServiceExecutor.oorzaak(fout).getMessage());
+            } else {
+                actie.accept(resultaat);
+            }
+        }, FX_THREAD);
+    }
+
     /**
      * Deze methode wordt aangeroepen als er een lid uit de tabel geselecteerd wordt.
      * Ze zorgt ervoor dat het juiste lid gebruikt wordt om de velden later in te vullen.
@@ -277,21 +378,23 @@ public class LedenBeheerController {
      * opgeslaan.
      */
     public void uitschrijvenLid() {
-        try {
-            //check dat lid niet nog actieve ritten heeft
-            if (ritService.zoekActieveRitVanLid(geselecteerdLid.getRijksregisternummer()) != null) {
-                throw new ApplicationException(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN.getMessage());
+        resetErrorMessage();
+        String rr = geselecteerdLid.getRijksregisternummer();
+
+        //check dat lid niet nog actieve ritten heeft
+        CompletableFuture<Void> uitschrijven = ritService.zoekActieveRitVanLid(rr).thenCompose(actieveRit -> {
+            if (actieveRit != null) {
+                return ServiceExecutor.mislukt(
+                        new ApplicationException(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN.getMessage()));
             }
+            return lidService.uitschrijvenLid(rr);
+        });
 
+        naOproep(uitschrijven, geen -> {
             cbUitgeschreven.setSelected(true);
-            lidService.uitschrijvenLid(geselecteerdLid.getRijksregisternummer());
             //tabel updaten
             initialiseerTabel();
-
-        } catch (ApplicationException | DBException e) {
-            laErrorLeden.setText(e.getMessage());
-        }
-
+        });
     }
 
     /**
@@ -313,38 +416,52 @@ public class LedenBeheerController {
      * De gebruiker kan hierna opnieuw een lid selecteren.
      */
     public void opslaan() {
+        resetErrorMessage();
 
-        try {
-            //wijzigingen uit de velden aanbrengen aan het lid
-            geselecteerdLid.setVoornaam(tfVoornaam.getText());
-            geselecteerdLid.setNaam(tfNaam.getText());
-            geselecteerdLid.setEmailadres(tfEmail.getText());
-            geselecteerdLid.setOpmerking(taOpmerking.getText());
-
-            lidService.wijzigenLid(geselecteerdLid);
-
-            //check dat de te wijzigen startdatum niet jonger is dan de eerste rit van het lid
-            Integer eersteRitID = ritService.zoekEersteRitVanLid(geselecteerdLid.getRijksregisternummer());
-            if (eersteRitID != null) {
-                Rit eersteRit = ritService.zoekRit(eersteRitID);
-                //omzetten datatypes + datums vergelijken
-                if (dpStartdatum.getValue().isAfter(LocalDate.parse(eersteRit.getStarttijd().toString()))) {
-                    throw new ApplicationException(ApplicationExceptionType.LID_STARTDATUM_TE_RECENT.getMessage());
-                }
-            }
+        //wijzigingen uit de velden aanbrengen aan het lid
+        Lid lid = geselecteerdLid;
+        lid.setVoornaam(tfVoornaam.getText());
+        lid.setNaam(tfNaam.getText());
+        lid.setEmailadres(tfEmail.getText());
+        lid.setOpmerking(taOpmerking.getText());
+        String rr = lid.getRijksregisternummer();
+        LocalDate startdatum = dpStartdatum.getValue();
 
-            lidService.wijzigStartDatumVanLid(geselecteerdLid.getRijksregisternummer(), dpStartdatum.getValue());
+        //niet nog eens opslaan zolang deze oproep loopt
+        btnOpslaan.setDisable(true);
 
-            //alle velden terug disabled maken
-            selecteer(geselecteerdLid);
+        CompletableFuture<Void> opslaan = lidService.wijzigenLid(lid)
+                //check dat de te wijzigen startdatum niet jonger is dan de eerste rit van het lid
+                .thenCompose(geen -> ritService.zoekEersteRitVanLid(rr))
+                .thenCompose(eersteRitID -> eersteRitID == null
+                        ? CompletableFuture.<Rit>completedFuture(null)
+                        : ritService.zoekRit(eersteRitID))
+                .thenCompose(eersteRit -> {
+                    if (eersteRit != null && startdatum.isAfter(eersteRit.getStarttijd().toLocalDate())) {
+                        return ServiceExecutor.mislukt(
+                                new ApplicationException(ApplicationExceptionType.LID_STARTDATUM_TE_RECENT.getMessage()));
+                    }
+                    return lidService.wijzigStartDatumVanLid(rr, startdatum);
+                });
+
+        opslaan.whenCompleteAsync((geen, fout) -> {
+            if (fout != null) {
+                //toon aan gebruiker welke fout er is gebeurd, de velden blijven wijzigbaar
+                laErrorLeden.setText(ServiceExecutor.oorzaak(fout).getMessage());
+                btnOpslaan.setDisable(false);
+                return;
+            }
+            try {
+                //alle velden terug disabled maken
+                selecteer(lid);
+            } catch (ApplicationException | DBException e) {
+                laErrorLeden.setText(e.getMessage());
+            }
 
             //tabel updaten en terug enabled maken
             initialiseerTabel();
             tvLeden.setDisable(false);
-        } catch (ApplicationException | DBException e) {
-            //toon aan gebruiker welke fout er is gebeurd
-            laErrorLeden.setText(e.getMessage());
-        }
+        }, FX_THREAD);
     }
 
     /**
@@ -0,0 +1,137 @@
+package be.vives.ti.api;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.RitToelatingControle;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.exception.DBException;
+import be.vives.ti.service.AsyncFietsService;
+import be.vives.ti.service.AsyncLidService;
+import be.vives.ti.service.AsyncRitService;
+import be.vives.ti.service.FietsService;
+import be.vives.ti.service.LidService;
+import be.vives.ti.service.RitService;
+import be.vives.ti.service.ServiceExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ApiServerTest {
+
+    private static final String RR = "94031820982";
+
+    private LidDAO lidDAO;
+    private RitDAO ritDAO;
+    private ServiceExecutor executor;
+    private ApiServer server;
+    private HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Before
+    public void startServer() throws Exception {
+        //simulatieobjecten maken voor de DAO's
+        lidDAO = mock(LidDAO.class);
+        ritDAO = mock(RitDAO.class);
+        executor = new ServiceExecutor(2, 10);
+        server = new ApiServer(0, 1,
+                new AsyncLidService(new LidService(lidDAO), executor),
+                new AsyncFietsService(new FietsService(mock(FietsDAO.class)), executor),
+                new AsyncRitService(new RitService(ritDAO), executor));
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws Exception {
+        server.stop(0);
+        executor.sluiten(1000);
+    }
+
+    private HttpResponse<String> verstuur(String methode, String pad, String body) throws Exception {
+        HttpRequest verzoek = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPoort() + pad))
+                .method(methode, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(verzoek, HttpResponse.BodyHandlers.ofString());
+    }
+
+    //checkt dat een gevonden lid als JSON teruggegeven wordt en een onbekend lid 404 geeft
+    @Test
+    public void testZoekLid() throws Exception {
+        Lid lid = new Lid();
+        lid.setVoornaam("Ward");
+        lid.setNaam("Vercruyssen \"de \\ tester\"");
+        lid.setStart_lidmaatschap(LocalDate.of(2021, 1, 1));
+        lid.setRijksregisternummer(new Rijksregisternummer(RR));
+        when(lidDAO.zoekLid(any(Rijksregisternummer.class))).thenReturn(lid).thenReturn(null);
+
+        HttpResponse<String> gevonden = verstuur("GET", "/leden/" + RR, null);
+        assertThat(gevonden.statusCode()).isEqualTo(200);
+        assertThat(gevonden.headers().firstValue("Content-Type")).hasValueSatisfying(
+                type -> assertThat(type).startsWith("application/json"));
+        assertThat(Json.leesObject(gevonden.body()))
+                .containsEntry("rijksregisternummer", RR)
+                .containsEntry("naam", "Vercruyssen \"de \\ tester\"")
+                .containsEntry("start_lidmaatschap", "2021-01-01")
+                .containsEntry("einde_lidmaatschap", null);
+
+        assertThat(verstuur("GET", "/leden/" + RR, null).statusCode()).isEqualTo(404);
+    }
+
+    //checkt dat een rit gestart wordt en het gegenereerde id teruggegeven wordt
+    @Test
+    public void testRitStarten() throws Exception {
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class))).thenReturn(42);
+
+        HttpResponse<String> antwoord = verstuur("POST", "/ritten", "{\"lid\": \"" + RR + "\", \"fiets\": 7}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(201);
+        assertThat(Json.leesObject(antwoord.body())).containsEntry("id", "42");
+        verify(ritDAO).toevoegenRit(argThat(rit -> rit.getFietsRegistratienummer() == 7
+                && RR.equals(rit.getLidRijksregisternummer())), any(RitToelatingControle.class));
+    }
+
+    //checkt de statuscodes voor een conflict, een ongeldig verzoek en een onbekend pad
+    @Test
+    public void testFouten() throws Exception {
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class)))
+                .thenThrow(new ApplicationException(ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage()));
+
+        HttpResponse<String> inGebruik = verstuur("POST", "/ritten", "{\"lid\": \"" + RR + "\", \"fiets\": 7}");
+        assertThat(inGebruik.statusCode()).isEqualTo(409);
+        assertThat(Json.leesObject(inGebruik.body()))
+                .containsEntry("fout", ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage());
+
+        assertThat(verstuur("POST", "/ritten", "{\"lid\": \"12345678901\", \"fiets\": 7}").statusCode())
+                .isEqualTo(400);
+        assertThat(verstuur("POST", "/ritten", "{\"lid\": ").statusCode()).isEqualTo(400);
+        assertThat(verstuur("GET", "/ritten/abc", null).statusCode()).isEqualTo(400);
+        assertThat(verstuur("DELETE", "/ritten/1", null).statusCode()).isEqualTo(404);
+    }
+
+    //checkt dat een databankfout 500 geeft zonder de boodschap van de databank door te geven
+    @Test
+    public void testDatabankfout() throws Exception {
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class)))
+                .thenThrow(new DBException("SQL-exception in toevoegenRit - statement lid " + RR));
+
+        HttpResponse<String> antwoord = verstuur("POST", "/ritten", "{\"lid\": \"" + RR + "\", \"fiets\": 7}");
+
+        assertThat(antwoord.statusCode()).isEqualTo(500);
+        assertThat(Json.leesObject(antwoord.body())).containsEntry("fout", ApiServer.INTERNE_FOUT);
+        assertThat(antwoord.body()).doesNotContain(RR).doesNotContain("SQL");
+    }
+}
@@ -0,0 +1,93 @@
+package be.vives.ti.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LruCacheTest {
+
+    //klok die de test zelf vooruitzet
+    private AtomicLong nu = new AtomicLong();
+    private AtomicInteger geladen = new AtomicInteger();
+    private Lader<String, String> lader = sleutel -> {
+        geladen.incrementAndGet();
+        return sleutel.startsWith("geen") ? null : sleutel.toUpperCase();
+    };
+
+    //checkt dat een waarde 1 keer geladen wordt en daarna uit de cache komt
+    @Test
+    public void testReadThrough() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, null, nu::get);
+
+        assertThat(cache.zoek("a", lader)).isEqualTo("A");
+        assertThat(cache.zoek("a", lader)).isEqualTo("A");
+
+        assertThat(geladen.get()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getHits()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getMisses()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getHitRatio()).isEqualTo(0.5);
+    }
+
+    //checkt dat null niet bijgehouden wordt
+    @Test
+    public void testNullWordtNietBijgehouden() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, null, nu::get);
+
+        assertThat(cache.zoek("geen", lader)).isNull();
+        assertThat(cache.zoek("geen", lader)).isNull();
+
+        assertThat(geladen.get()).isEqualTo(2);
+        assertThat(cache.getStatistieken().getGrootte()).isEqualTo(0);
+    }
+
+    //checkt dat de minst recent gebruikte waarde eruit valt als de cache vol zit
+    @Test
+    public void testLru() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(2, null, nu::get);
+        cache.zoek("a", lader);
+        cache.zoek("b", lader);
+        //a recent gebruikt, dus b valt eruit
+        cache.zoek("a", lader);
+        cache.zoek("c", lader);
+
+        geladen.set(0);
+        cache.zoek("a", lader);
+        cache.zoek("b", lader);
+        assertThat(geladen.get()).isEqualTo(1);
+        assertThat(cache.getStatistieken().getVerdrongen()).isEqualTo(2);
+    }
+
+    //checkt dat een waarde na de ttl opnieuw geladen wordt
+    @Test
+    public void testTtl() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, Duration.ofSeconds(60), nu::get);
+        cache.zoek("a", lader);
+
+        nu.addAndGet(Duration.ofSeconds(59).toNanos());
+        cache.zoek("a", lader);
+        assertThat(geladen.get()).isEqualTo(1);
+
+        nu.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.zoek("a", lader);
+        assertThat(geladen.get()).isEqualTo(2);
+        assertThat(cache.getStatistieken().getVerlopen()).isEqualTo(1);
+    }
+
+    //checkt dat een waarde die geladen werd tijdens een verwijdering niet bijgehouden wordt
+    @Test
+    public void testVerwijderenTijdensLaden() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, null, nu::get);
+
+        cache.zoek("a", sleutel -> {
+            //iemand anders wijzigt a terwijl de oude waarde geladen wordt
+            cache.verwijder("a");
+            return "OUD";
+        });
+
+        assertThat(cache.zoek("a", lader)).isEqualTo("A");
+    }
+}
@@ -4,6 +4,7 @@ package be.vives.ti.dao;
 import static org.assertj.core.api.Assertions.*;
 
 import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.databag.Rit;
 import be.vives.ti.datatype.Rijksregisternummer;
@@ -333,4 +334,75 @@ public class FietsDAOTest {
         }
     }
 
-}
\ No newline at end of file
+    //Checkt dat alle fietsen teruggegeven worden, ook die niet beschikbaar zijn
+    @Test
+    public void testZoekAlleFietsen() throws Exception {
+        //reeds bestaande fietsen tellen
+        int aantalFietsen = fietsDAO.zoekAlleFietsen().size();
+
+        //extra Fietsen toevoegen
+        ArrayList<Fiets> fietsen = extraFietsenToevoegen();
+
+        try {
+            ArrayList<Fiets> gevondenFietsen = fietsDAO.zoekAlleFietsen();
+
+            assertThat(gevondenFietsen.size()).isEqualTo(aantalFietsen + fietsen.size());
+            assertThat(gevondenFietsen).extracting(Fiets::getRegistratienummer).isSorted();
+        } finally {
+            VerwijderTestData.removeTestRit(ritDAO.zoekActieveRitVanFiets(fietsen.get(0).getRegistratienummer()));
+            VerwijderTestData.removeTestFietsen(fietsen);
+            Rijksregisternummer rijks = new Rijksregisternummer("94031820982");
+            VerwijderTestData.removeTestLid(rijks);
+        }
+    }
+
+    //checkt dat de gegenereerde registratienummers in dezelfde volgorde als de fietsen terugkomen
+    @Test
+    public void testToevoegenFietsen() throws Exception {
+        ArrayList<Fiets> fietsen = new ArrayList<>();
+        fietsen.add(maakFiets(Standplaats.Kortrijk, "Eerste"));
+        fietsen.add(maakFiets(Standplaats.Oostende, "Tweede"));
+        fietsen.add(maakFiets(Standplaats.Brugge, "Derde"));
+
+        BatchResultaat<Integer> resultaat = fietsDAO.toevoegenFietsen(fietsen);
+        for (int i = 0; i < fietsen.size(); i++) {
+            fietsen.get(i).setRegistratienummer(resultaat.getSleutels().get(i));
+        }
+
+        try {
+            assertThat(resultaat.isAllesToegevoegd()).isTrue();
+            assertThat(resultaat.getSleutels()).doesNotContainNull().isSorted();
+
+            for (Fiets fiets : fietsen) {
+                Fiets ophaalFiets = fietsDAO.zoekFiets(fiets.getRegistratienummer());
+                assertThat(ophaalFiets.getOpmerking()).isEqualTo(fiets.getOpmerking());
+                assertThat(ophaalFiets.getStandplaats()).isEqualTo(fiets.getStandplaats());
+            }
+        } finally {
+            VerwijderTestData.removeTestFietsen(fietsen);
+        }
+    }
+
+    //checkt dat een foute fiets gemeld wordt en de andere fietsen toch toegevoegd worden
+    @Test
+    public void testToevoegenFietsenMetFout() throws Exception {
+        ArrayList<Fiets> fietsen = new ArrayList<>();
+        fietsen.add(maakFiets(Standplaats.Kortrijk, "Eerste"));
+        //geen standplaats
+        fietsen.add(maakFiets(null, "Fout"));
+        fietsen.add(maakFiets(Standplaats.Brugge, "Derde"));
+
+        BatchResultaat<Integer> resultaat = fietsDAO.toevoegenFietsen(fietsen);
+
+        try {
+            assertThat(resultaat.getAantalToegevoegd()).isEqualTo(2);
+            assertThat(resultaat.getFouten()).containsOnlyKeys(1);
+            assertThat(resultaat.getSleutels().get(0)).isNotNull();
+            assertThat(resultaat.getSleutels().get(1)).isNull();
+            assertThat(resultaat.getSleutels().get(2)).isNotNull();
+        } finally {
+            VerwijderTestData.removeTestFiets(resultaat.getSleutels().get(0));
+            VerwijderTestData.removeTestFiets(resultaat.getSleutels().get(2));
+        }
+    }
+}
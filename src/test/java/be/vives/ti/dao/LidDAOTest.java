@@ -1,6 +1,7 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.exception.DBException;
 import be.vives.ti.extra.VerwijderTestData;
@@ -12,6 +13,7 @@ import org.junit.Test;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 
 public class LidDAOTest {
 
@@ -211,6 +213,36 @@ public class LidDAOTest {
         }
     }
 
+    //checkt dat alle leden pagina per pagina overlopen worden, zonder dubbels en in volgorde
+    @Test
+    public void testZoekLedenPagina() throws Exception {
+        //leden die al gemaakt zijn
+        int aantalLeden = lidDAO.zoekAlleLeden().size();
+
+        //extra leden toevoegen
+        ArrayList<Lid> leden = extraLedenToevoegen();
+
+        try {
+            ArrayList<Lid> gevondenLeden = new ArrayList<>();
+            ArrayList<Lid> pagina = lidDAO.zoekLedenPagina(null, 2);
+            while (!pagina.isEmpty()) {
+                assertThat(pagina.size()).isLessThanOrEqualTo(2);
+                gevondenLeden.addAll(pagina);
+                pagina = lidDAO.zoekLedenPagina(pagina.get(pagina.size() - 1), 2);
+            }
+
+            assertThat(gevondenLeden.size()).isEqualTo(aantalLeden + 5);
+            assertThat(gevondenLeden).extracting("rijksregisternummer").doesNotHaveDuplicates();
+            assertThat(gevondenLeden).isSortedAccordingTo(
+                    Comparator.comparing(Lid::getNaam)
+                            .thenComparing(Lid::getVoornaam)
+                            .thenComparing(Lid::getRijksregisternummer));
+        } finally {
+            //testdata verwijderen
+            VerwijderTestData.removeTestLeden(leden);
+        }
+    }
+
     //checkt of het lid dat opgezocht wordt de correcte data bevat
     @Test
     public void testZoekLid() throws Exception {
@@ -545,5 +577,27 @@ public class LidDAOTest {
 
     }
 
+    //checkt dat een lid dat al bestaat gemeld wordt en de andere leden toch toegevoegd worden
+    @Test
+    public void testToevoegenLeden() throws Exception {
+        ArrayList<Lid> leden = new ArrayList<>();
+        leden.add(maakLid("Ward", "Vercruyssen", "ward@hotmail.be",
+                new Rijksregisternummer("94031820982"), "Test opmerking"));
+        leden.add(maakLid("Michiel", "Demoor", "michiel@hotmail.be",
+                new Rijksregisternummer("94090200136"), "Test opmerking"));
+        //zelfde rijksregisternummer als het eerste lid
+        leden.add(maakLid("Kyra", "Matton", "kyra@hotmail.be",
+                new Rijksregisternummer("94031820982"), "Test opmerking"));
+
+        try {
+            BatchResultaat<String> resultaat = lidDAO.toevoegenLeden(leden);
 
-}
\ No newline at end of file
+            assertThat(resultaat.getSleutels()).containsExactly("94031820982", "94090200136", null);
+            assertThat(resultaat.getFouten()).containsOnlyKeys(2);
+            assertThat(lidDAO.zoekLid(new Rijksregisternummer("94031820982")).getVoornaam()).isEqualTo("Ward");
+        } finally {
+            //testdata verwijderen
+            VerwijderTestData.removeTestLeden(new ArrayList<>(leden.subList(0, 2)));
+        }
+    }
+}
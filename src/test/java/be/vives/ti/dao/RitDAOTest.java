@@ -1,6 +1,7 @@
 package be.vives.ti.dao;
 
 import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.BatchResultaat;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.databag.Rit;
 import be.vives.ti.datatype.Rijksregisternummer;
@@ -643,4 +644,85 @@ public class RitDAOTest {
         }
     }
 
-}
\ No newline at end of file
+    //checkt dat overloopRitten de afgesloten ritten na het opgegeven id een voor een en in volgorde geeft
+    @Test
+    public void testOverloopRitten() throws Exception {
+        //maak testdata aan
+        Rijksregisternummer rijks = new Rijksregisternummer("94031820982");
+        Lid ward = maakLid("Ward", "Vercruyssen", "ward@hotmail.be", rijks, "Test opmerking");
+        LidDAO lidDAO = new LidDAO();
+        lidDAO.toevoegenLid(ward);
+
+        Fiets fiets = maakFiets(Standplaats.Kortrijk, "Test fietsopmerking");
+        FietsDAO fietsDAO = new FietsDAO();
+        fiets.setRegistratienummer(fietsDAO.toevoegenFiets(fiets));
+
+        ArrayList<Rit> ritten = new ArrayList<>();
+        try {
+            for (int i = 0; i < 3; i++) {
+                Rit rit = maakRit(rijks, fiets.getRegistratienummer());
+                rit.setEindtijd(rit.getStarttijd().plusHours(1));
+                rit.setPrijs(new BigDecimal(2));
+                rit.setId(ritDAO.toevoegenRit(rit));
+                ritten.add(rit);
+            }
+
+            //fetchSize kleiner dan het aantal ritten, zodat er meerdere keren opgehaald wordt
+            ArrayList<Integer> gevonden = new ArrayList<>();
+            long aantal = ritDAO.overloopRitten(ritten.get(0).getId() - 1, 2,
+                    rit -> gevonden.add(rit.getId()));
+
+            assertThat(aantal).isEqualTo(3);
+            assertThat(gevonden).containsExactly(
+                    ritten.get(0).getId(), ritten.get(1).getId(), ritten.get(2).getId());
+
+            //enkel de ritten na het opgegeven id
+            gevonden.clear();
+            ritDAO.overloopRitten(ritten.get(1).getId(), 2, rit -> gevonden.add(rit.getId()));
+            assertThat(gevonden).containsExactly(ritten.get(2).getId());
+        } finally {
+            VerwijderTestData.removeTestRitten(ritten);
+            VerwijderTestData.removeTestLid(rijks);
+            VerwijderTestData.removeTestFiets(fiets.getRegistratienummer());
+        }
+    }
+
+    //checkt dat meerdere ritten toegevoegd worden met hun id in volgorde
+    @Test
+    public void testToevoegenRitten() throws Exception {
+        //maak testdata aan
+        Rijksregisternummer rijks = new Rijksregisternummer("94031820982");
+        Lid ward = maakLid("Ward", "Vercruyssen", "ward@hotmail.be", rijks, "Test opmerking");
+        LidDAO lidDAO = new LidDAO();
+        lidDAO.toevoegenLid(ward);
+
+        Fiets fiets = maakFiets(Standplaats.Kortrijk, "Test fietsopmerking");
+        FietsDAO fietsDAO = new FietsDAO();
+        fiets.setRegistratienummer(fietsDAO.toevoegenFiets(fiets));
+
+        ArrayList<Rit> ritten = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Rit rit = maakRit(rijks, fiets.getRegistratienummer());
+            rit.setEindtijd(rit.getStarttijd().plusHours(1));
+            rit.setPrijs(BigDecimal.ONE);
+            ritten.add(rit);
+        }
+
+        try {
+            BatchResultaat<Integer> resultaat = ritDAO.toevoegenRitten(ritten);
+            for (int i = 0; i < ritten.size(); i++) {
+                ritten.get(i).setId(resultaat.getSleutels().get(i));
+            }
+
+            assertThat(resultaat.isAllesToegevoegd()).isTrue();
+            assertThat(resultaat.getSleutels()).doesNotContainNull().isSorted();
+            Rit ophaalRit = ritDAO.zoekRit(ritten.get(2).getId());
+            assertThat(ophaalRit.getEindtijd()).isEqualTo(ritten.get(2).getEindtijd());
+            assertThat(ophaalRit.getPrijs()).isEqualByComparingTo(BigDecimal.ONE);
+        } finally {
+            VerwijderTestData.removeTestRitten(ritten);
+            VerwijderTestData.removeTestLid(rijks);
+            VerwijderTestData.removeTestFiets(fiets.getRegistratienummer());
+        }
+    }
+}
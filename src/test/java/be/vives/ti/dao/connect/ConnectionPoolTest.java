@@ -0,0 +1,129 @@
+package be.vives.ti.dao.connect;
+
+import be.vives.ti.exception.DBException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @Before
+    public void maakPool() throws Exception {
+        Class.forName(DBProp.getDriver());
+
+        //kleine pool zodat het maximum snel bereikt wordt
+        Properties poolProp = new Properties();
+        poolProp.setProperty("minSize", "0");
+        poolProp.setProperty("maxSize", "2");
+        poolProp.setProperty("acquireTimeout", "200");
+        pool = new ConnectionPool(DBProp.getDbUrl(), DBProp.getProp(), poolProp);
+    }
+
+    @After
+    public void sluitPool() {
+        pool.sluiten();
+    }
+
+    //checkt dat een gesloten connectie terug in de pool komt en hergebruikt wordt
+    @Test
+    public void testConnectieWordtHergebruikt() throws Exception {
+        Connection conn = pool.getConnection();
+        assertThat(pool.getStatistieken().getActief()).isEqualTo(1);
+        conn.close();
+
+        assertThat(conn.isClosed()).isTrue();
+        assertThat(pool.getStatistieken().getActief()).isEqualTo(0);
+        assertThat(pool.getStatistieken().getIdle()).isEqualTo(1);
+
+        try (Connection opnieuw = pool.getConnection()) {
+            assertThat(opnieuw.isValid(1)).isTrue();
+            assertThat(pool.getStatistieken().getTotaal()).isEqualTo(1);
+        }
+        assertThat(pool.getStatistieken().getAantalAcquires()).isEqualTo(2);
+    }
+
+    //checkt dat er nooit meer dan maxSize connecties uitgeleend worden
+    @Test
+    public void testMaximumWordtGerespecteerd() throws Exception {
+        try (Connection conn1 = pool.getConnection();
+             Connection conn2 = pool.getConnection()) {
+
+            assertThatThrownBy(() -> {
+                pool.getConnection();
+            }).isInstanceOf(DBException.class);
+
+            assertThat(pool.getStatistieken().getTotaal()).isEqualTo(2);
+        }
+    }
+
+    //checkt dat een teruggegeven connectie niet meer gebruikt kan worden
+    @Test
+    public void testGebruikNaCloseFaalt() throws Exception {
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertThatThrownBy(() -> {
+            conn.createStatement();
+        }).isInstanceOf(java.sql.SQLException.class);
+    }
+
+    //checkt dat een gesloten prepared statement op dezelfde connectie hergebruikt wordt
+    @Test
+    public void testStatementWordtHergebruikt() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("select ? from dual")) {
+                stmt.setInt(1, i);
+                try (ResultSet r = stmt.executeQuery()) {
+                    assertThat(r.next()).isTrue();
+                    assertThat(r.getInt(1)).isEqualTo(i);
+                }
+            }
+        }
+
+        assertThat(pool.getStatistieken().getStatementMisses()).isEqualTo(1);
+        assertThat(pool.getStatistieken().getStatementHits()).isEqualTo(2);
+    }
+
+    //checkt dat 2 gelijke statements die tegelijk open zijn elk een eigen statement krijgen
+    @Test
+    public void testGelijkeStatementsTegelijkOpen() throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt1 = conn.prepareStatement("select ? from dual");
+             PreparedStatement stmt2 = conn.prepareStatement("select ? from dual")) {
+            stmt1.setInt(1, 1);
+            stmt2.setInt(1, 2);
+            try (ResultSet r1 = stmt1.executeQuery(); ResultSet r2 = stmt2.executeQuery()) {
+                r1.next();
+                r2.next();
+                assertThat(r1.getInt(1)).isEqualTo(1);
+                assertThat(r2.getInt(1)).isEqualTo(2);
+            }
+            assertThat(stmt1.getConnection()).isSameAs(conn);
+        }
+        assertThat(pool.getStatistieken().getStatementMisses()).isEqualTo(2);
+    }
+
+    //checkt dat een gesloten statement niet meer gebruikt kan worden, ook al wordt het bewaard
+    @Test
+    public void testStatementGebruikNaCloseFaalt() throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement("select 1 from dual");
+            stmt.close();
+
+            assertThat(stmt.isClosed()).isTrue();
+            assertThatThrownBy(() -> {
+                stmt.executeQuery();
+            }).isInstanceOf(java.sql.SQLException.class);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package be.vives.ti.dao.connect;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class TrageQueryLogTest {
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    //checkt dat een trage query met SQL, gemaskeerd rijksregisternummer en aantal rijen gelogd wordt
+    @Test
+    public void testTrageQueryWordtGelogd() throws Exception {
+        Class.forName(DBProp.getDriver());
+        Path bestand = map.getRoot().toPath().resolve("trage-queries.log");
+        Properties poolProp = new Properties();
+        poolProp.setProperty("minSize", "0");
+        poolProp.setProperty("maxSize", "1");
+        //0 ms: elke query is traag
+        poolProp.setProperty("slowQueryThreshold", "0");
+        poolProp.setProperty("slowQueryLog", bestand.toString());
+        ConnectionPool pool = new ConnectionPool(DBProp.getDbUrl(), DBProp.getProp(), poolProp);
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "select count(*)\n   from information_schema.tables\n  where table_name <> ? and ? > 0")) {
+            stmt.setString(1, "94031820982");
+            stmt.setInt(2, 7);
+            try (ResultSet r = stmt.executeQuery()) {
+                assertThat(r.next()).isTrue();
+                assertThat(r.getStatement()).isSameAs(stmt);
+            }
+        }
+        pool.sluiten();
+
+        assertThat(pool.getTrageQueryLog().getGeschreven()).isEqualTo(1);
+        String log = new String(Files.readAllBytes(bestand));
+        assertThat(log)
+                .contains("sql=\"select count(*) from information_schema.tables where table_name <> ? and ? > 0\"")
+                .contains("parameters=['*********82', 7]")
+                .contains("rijen=1")
+                .contains("connectie ")
+                .doesNotContain("94031820982");
+    }
+
+    //checkt dat een volle buffer false geeft en dat alle elementen van meerdere producenten 1 keer aankomen
+    @Test
+    public void testRingBuffer() throws Exception {
+        RingBuffer<Integer> vol = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(vol.plaats(i)).isTrue();
+        }
+        assertThat(vol.plaats(4)).isFalse();
+        assertThat(vol.neem()).isEqualTo(0);
+        assertThat(vol.plaats(4)).isTrue();
+
+        RingBuffer<Integer> buffer = new RingBuffer<>(64);
+        List<Thread> producenten = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int eerste = p * 10000;
+            Thread t = new Thread(() -> {
+                for (int i = eerste; i < eerste + 10000; i++) {
+                    while (!buffer.plaats(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producenten.add(t);
+            t.start();
+        }
+        Set<Integer> ontvangen = new HashSet<>();
+        while (ontvangen.size() < 40000) {
+            Integer waarde = buffer.neem();
+            if (waarde == null) {
+                Thread.yield();
+            } else {
+                assertThat(ontvangen.add(waarde)).isTrue();
+            }
+        }
+        for (Thread t : producenten) {
+            t.join();
+        }
+        assertThat(buffer.neem()).isNull();
+    }
+
+    //checkt dat een vol bestand doorschuift en er niet meer dan het gevraagde aantal oude bestanden blijven
+    @Test
+    public void testRotatie() throws Exception {
+        Path bestand = map.getRoot().toPath().resolve("traag.log");
+        TrageQueryLog log = new TrageQueryLog(0, bestand, 1000, 2, 1000);
+        for (int i = 0; i < 100; i++) {
+            log.registreer(new TrageQuery("select " + i, new Object[0], 0, 1, false, 1000000, 1000000, 0));
+        }
+        log.sluiten();
+
+        assertThat(log.getGeschreven() + log.getVerloren()).isEqualTo(100);
+        assertThat(bestand).exists();
+        assertThat(bestand.resolveSibling("traag.log.1")).exists();
+        assertThat(bestand.resolveSibling("traag.log.2")).exists();
+        assertThat(bestand.resolveSibling("traag.log.3")).doesNotExist();
+        assertThat(Files.size(bestand)).isLessThanOrEqualTo(1000);
+        assertThat(new String(Files.readAllBytes(bestand))).contains("sql=\"select 99\"");
+    }
+}
@@ -0,0 +1,91 @@
+package be.vives.ti.dao.metriek;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.DBException;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class DaoMetriekTest {
+
+    //checkt dat percentielen hoogstens 1/32 naast de echte waarde liggen en het maximum exact is
+    @Test
+    public void testPercentielen() {
+        LatentieHistogram histogram = new LatentieHistogram();
+        //1..10000 microseconden, elk 1 keer
+        for (long i = 1; i <= 10000; i++) {
+            histogram.registreer(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        LatentieHistogram.Momentopname m = histogram.momentopname();
+
+        assertThat(m.getAantal()).isEqualTo(10000);
+        assertThat(m.getMaxNanos()).isEqualTo(10_000_000L);
+        assertThat(m.getGemiddeldeNanos()).isEqualTo(5_000_500L);
+        assertThat((double) m.percentielNanos(50)).isCloseTo(5_000_000, withinPercentage(100.0 / 32));
+        assertThat((double) m.percentielNanos(99)).isCloseTo(9_900_000, withinPercentage(100.0 / 32));
+        assertThat((double) m.percentielNanos(99.9)).isCloseTo(9_990_000, withinPercentage(100.0 / 32));
+        assertThat(m.percentielNanos(100)).isEqualTo(10_000_000L);
+    }
+
+    //checkt dat de vakjes aansluiten en zeer lange metingen in het laatste vakje terechtkomen
+    @Test
+    public void testVakjes() {
+        for (long waarde = 0; waarde < 100_000; waarde++) {
+            int vakje = LatentieHistogram.vakje(waarde);
+            assertThat(LatentieHistogram.hoogsteWaarde(vakje)).isGreaterThanOrEqualTo(waarde);
+            assertThat(vakje == 0 || LatentieHistogram.hoogsteWaarde(vakje - 1) < waarde).isTrue();
+        }
+
+        LatentieHistogram histogram = new LatentieHistogram();
+        histogram.registreer(TimeUnit.HOURS.toNanos(2));
+        histogram.registreer(-5);
+        LatentieHistogram.Momentopname m = histogram.momentopname();
+        assertThat(m.getAantal()).isEqualTo(2);
+        assertThat(m.percentielNanos(50)).isEqualTo(0);
+        assertThat(m.percentielNanos(100)).isEqualTo(TimeUnit.HOURS.toNanos(2));
+    }
+
+    //checkt dat meet elke oproep telt, een ApplicationException als afgewezen en andere exceptions als fout
+    @Test
+    public void testFouten() throws Exception {
+        DaoMetriek metriek = DaoMetrieken.voor(DaoMetriekTest.class, "testFouten");
+        metriek.leegmaken();
+
+        assertThat(metriek.meet(() -> 42)).isEqualTo(42);
+        assertThatThrownBy(() -> metriek.meet(() -> {
+            throw new ApplicationException("Fiets in gebruik");
+        })).isInstanceOf(ApplicationException.class);
+        assertThatThrownBy(() -> metriek.meet(() -> {
+            throw new DBException("SQL-exception");
+        })).isInstanceOf(DBException.class);
+        assertThatThrownBy(() -> metriek.meet(() -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(metriek.getAantal()).isEqualTo(4);
+        assertThat(metriek.getAfgewezen()).isEqualTo(1);
+        assertThat(metriek.getFouten()).isEqualTo(2);
+    }
+
+    //checkt dat een oproep van een DAO gemeten wordt en via JMX en de dump zichtbaar is
+    @Test
+    public void testDaoOproep() throws Exception {
+        FietsDAO fietsDAO = new FietsDAO();
+        DaoMetriek metriek = DaoMetrieken.voor(FietsDAO.class, "zoekFiets");
+        long voor = metriek.getAantal();
+
+        assertThat(fietsDAO.zoekFiets(-1)).isNull();
+
+        assertThat(metriek.getAantal()).isEqualTo(voor + 1);
+        assertThat(metriek.getFouten()).isZero();
+        Object aantal = ManagementFactory.getPlatformMBeanServer().getAttribute(
+                new ObjectName("be.vives.ti:type=DaoMetriek,dao=FietsDAO,methode=zoekFiets"), "Aantal");
+        assertThat(aantal).isEqualTo(voor + 1);
+        assertThat(DaoMetrieken.dump()).contains("FietsDAO.zoekFiets");
+    }
+}
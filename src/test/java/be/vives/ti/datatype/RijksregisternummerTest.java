@@ -0,0 +1,116 @@
+package be.vives.ti.datatype;
+
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RijksregisternummerTest {
+
+    //checkt dat hetzelfde nummer uit de databank hetzelfde object oplevert
+    @Test
+    public void uitDatabankGeeftZelfdeObject() {
+        Rijksregisternummer rijks1 = Rijksregisternummer.uitDatabank("94031820982");
+        Rijksregisternummer rijks2 = Rijksregisternummer.uitDatabank("94031820982");
+
+        assertThat(rijks1).isSameAs(rijks2);
+        assertThat(rijks1.getRijksregisternummer()).isEqualTo("94031820982");
+    }
+
+    @Test
+    public void uitDatabankNull() {
+        assertThat(Rijksregisternummer.uitDatabank(null)).isNull();
+    }
+
+    //checkt dat valueOf gecontroleerde nummers hergebruikt
+    @Test
+    public void valueOfGeeftZelfdeObject() throws Exception {
+        Rijksregisternummer rijks1 = Rijksregisternummer.valueOf("96030800249");
+        Rijksregisternummer rijks2 = Rijksregisternummer.valueOf("96030800249");
+
+        assertThat(rijks1).isSameAs(rijks2);
+    }
+
+    //checkt dat valueOf ongeldige nummers nog steeds weigert
+    @Test
+    public void valueOfOngeldig() {
+        assertThatThrownBy(() -> {
+            Rijksregisternummer.valueOf("96030800248");
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.ONGELDIG_RIJKSNR.getMessage());
+    }
+
+    //checkt dat valueOf een ongeldig nummer weigert, ook als het via uitDatabank in de cache zit
+    @Test
+    public void valueOfControleertNummerUitDatabank() throws Exception {
+        Rijksregisternummer.uitDatabank("96030800247");
+        assertThatThrownBy(() -> {
+            Rijksregisternummer.valueOf("96030800247");
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.ONGELDIG_RIJKSNR.getMessage());
+
+        //een geldig nummer uit de databank wordt na de controle wel hergebruikt
+        Rijksregisternummer.uitDatabank("94031820982");
+        Rijksregisternummer gecontroleerd = Rijksregisternummer.valueOf("94031820982");
+        assertThat(Rijksregisternummer.valueOf("94031820982")).isSameAs(gecontroleerd);
+        assertThat(Rijksregisternummer.uitDatabank("94031820982")).isSameAs(gecontroleerd);
+    }
+
+    //checkt dat de cache begrensd is: het eerste nummer valt eruit en wordt een nieuw object
+    @Test
+    public void cacheIsBegrensd() {
+        Rijksregisternummer eerste = Rijksregisternummer.uitDatabank("00000000197");
+        for (int i = 1; i <= 20000; i++) {
+            Rijksregisternummer.uitDatabank(String.format("%09d%02d", i, 97 - (i % 97)));
+        }
+
+        assertThat(Rijksregisternummer.uitDatabank("00000000197")).isNotSameAs(eerste);
+    }
+
+    //checkt dat een nummer dat geregeld gebruikt wordt in de cache blijft, ook als er veel andere bijkomen
+    @Test
+    public void recentGebruiktBlijftInCache() {
+        Rijksregisternummer vaak = Rijksregisternummer.uitDatabank("00000000295");
+        for (int i = 1; i <= 30000; i++) {
+            Rijksregisternummer.uitDatabank(String.format("%09d%02d", 100000 + i, 97 - ((100000 + i) % 97)));
+            if (i % 1000 == 0) {
+                assertThat(Rijksregisternummer.uitDatabank("00000000295")).isSameAs(vaak);
+            }
+        }
+    }
+
+    //checkt dat threads die tegelijk hetzelfde nummer opvragen hetzelfde object krijgen
+    @Test
+    public void gelijktijdigZelfdeObject() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Rijksregisternummer[]>> resultaten = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                resultaten.add(threads.submit(() -> {
+                    Rijksregisternummer[] gevonden = new Rijksregisternummer[100];
+                    for (int i = 0; i < gevonden.length; i++) {
+                        gevonden[i] = Rijksregisternummer.uitDatabank(
+                                String.format("%09d%02d", 200000 + i, 97 - ((200000 + i) % 97)));
+                    }
+                    return gevonden;
+                }));
+            }
+            Rijksregisternummer[] eerste = resultaten.get(0).get();
+            for (Future<Rijksregisternummer[]> resultaat : resultaten) {
+                Rijksregisternummer[] gevonden = resultaat.get();
+                for (int i = 0; i < gevonden.length; i++) {
+                    assertThat(gevonden[i]).isSameAs(eerste[i]);
+                }
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package be.vives.ti.exporteren;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.extra.VerwijderTestData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RitExportTest {
+
+    private RitDAO ritDAO = new RitDAO();
+    //fetchSize kleiner dan het aantal ritten, zodat er meerdere keren opgehaald wordt
+    private RitExport ritExport = new RitExport(ritDAO, 2);
+
+    private Rijksregisternummer rijks;
+    private Fiets fiets;
+    private ArrayList<Rit> ritten = new ArrayList<>();
+    private Path bestand;
+
+    @Before
+    public void maakTestdata() throws Exception {
+        rijks = new Rijksregisternummer("94031820982");
+        Lid lid = new Lid();
+        lid.setVoornaam("Ward");
+        lid.setNaam("Vercruyssen");
+        lid.setEmailadres("ward@hotmail.be");
+        lid.setStart_lidmaatschap(LocalDate.now());
+        lid.setRijksregisternummer(rijks);
+        new LidDAO().toevoegenLid(lid);
+
+        fiets = new Fiets();
+        fiets.setStatus(Status.actief);
+        fiets.setStandplaats(Standplaats.Kortrijk);
+        fiets.setRegistratienummer(new FietsDAO().toevoegenFiets(fiets));
+
+        //2 afgesloten ritten en 1 openstaande
+        LocalDateTime start = LocalDateTime.of(2021, 3, 1, 10, 15, 30);
+        for (int i = 0; i < 3; i++) {
+            Rit rit = new Rit();
+            rit.setStarttijd(start.plusHours(i * 5));
+            if (i < 2) {
+                rit.setEindtijd(start.plusHours(i * 5 + 2));
+                rit.setPrijs(new BigDecimal(i + 1));
+            }
+            rit.setLidRijksregisternummer(rijks);
+            rit.setFietsRegistratienummer(fiets.getRegistratienummer());
+            ritten.add(rit);
+        }
+        List<Integer> ids = ritDAO.toevoegenRitten(ritten).getSleutels();
+        for (int i = 0; i < ritten.size(); i++) {
+            ritten.get(i).setId(ids.get(i));
+        }
+
+        bestand = Files.createTempFile("ritten", ".export");
+    }
+
+    @After
+    public void verwijder() throws Exception {
+        VerwijderTestData.removeTestRitten(ritten);
+        VerwijderTestData.removeTestLid(rijks);
+        VerwijderTestData.removeTestFiets(fiets.getRegistratienummer());
+        Files.deleteIfExists(bestand);
+    }
+
+    //checkt dat de afgesloten ritten na het opgegeven id als CSV geschreven worden
+    @Test
+    public void testCsvExport() throws Exception {
+        try (CsvRitExport csv = new CsvRitExport(bestand)) {
+            assertThat(ritExport.exporteer(ritten.get(0).getId() - 1, csv)).isEqualTo(2);
+            assertThat(csv.getLaatsteId()).isEqualTo(ritten.get(1).getId());
+            csv.voltooi();
+        }
+
+        List<String> regels = Files.readAllLines(bestand, StandardCharsets.UTF_8);
+        assertThat(regels).containsExactly(CsvRitExport.KOPREGEL,
+                ritten.get(0).getId() + ";2021-03-01 10:15:30;2021-03-01 12:15:30;1;94031820982;"
+                        + fiets.getRegistratienummer(),
+                ritten.get(1).getId() + ";2021-03-01 15:15:30;2021-03-01 17:15:30;2;94031820982;"
+                        + fiets.getRegistratienummer());
+    }
+
+    //checkt dat het kolombestand dezelfde ritten teruggeeft
+    @Test
+    public void testKolomExport() throws Exception {
+        try (KolomRitExport kolom = new KolomRitExport(bestand)) {
+            ritExport.exporteer(ritten.get(0).getId() - 1, kolom);
+            kolom.voltooi();
+        }
+
+        List<Rit> gelezen = new ArrayList<>();
+        assertThat(KolomRitLezer.lees(bestand, gelezen::add)).isEqualTo(2);
+        for (int i = 0; i < gelezen.size(); i++) {
+            Rit verwacht = ritten.get(i);
+            Rit rit = gelezen.get(i);
+            assertThat(rit.getId()).isEqualTo(verwacht.getId());
+            assertThat(rit.getStarttijd()).isEqualTo(verwacht.getStarttijd());
+            assertThat(rit.getEindtijd()).isEqualTo(verwacht.getEindtijd());
+            assertThat(rit.getPrijs()).isEqualByComparingTo(verwacht.getPrijs());
+            assertThat(rit.getLidRijksregisternummer()).isEqualTo(verwacht.getLidRijksregisternummer());
+            assertThat(rit.getFietsRegistratienummer()).isEqualTo(verwacht.getFietsRegistratienummer());
+        }
+    }
+
+    //checkt dat een incrementele export enkel de nieuwere ritten bevat
+    @Test
+    public void testIncrementeleExport() throws Exception {
+        assertThat(exporteerIds(ritten.get(0).getId())).containsExactly(ritten.get(1).getId());
+    }
+
+    //checkt dat een rit die na de eerste export afgesloten wordt, in de volgende export zit
+    @Test
+    public void testAfgeslotenRitInVolgendeExport() throws Exception {
+        Integer naId;
+        try (KolomRitExport kolom = new KolomRitExport(bestand)) {
+            ritExport.exporteer(ritten.get(0).getId() - 1, kolom);
+            kolom.voltooi();
+            naId = kolom.getLaatsteId();
+        }
+
+        sluitAf(ritten.get(2));
+
+        assertThat(exporteerIds(naId)).containsExactly(ritten.get(2).getId());
+    }
+
+    //checkt dat de export stopt voor een openstaande rit, ook als er nadien nog afgesloten ritten zijn
+    @Test
+    public void testExportStoptVoorOpenRit() throws Exception {
+        Rit later = new Rit();
+        later.setStarttijd(LocalDateTime.of(2021, 3, 2, 9, 0));
+        later.setEindtijd(LocalDateTime.of(2021, 3, 2, 10, 0));
+        later.setPrijs(BigDecimal.ONE);
+        later.setLidRijksregisternummer(rijks);
+        later.setFietsRegistratienummer(fiets.getRegistratienummer());
+        later.setId(ritDAO.toevoegenRit(later));
+        ritten.add(later);
+
+        assertThat(exporteerIds(ritten.get(1).getId())).isEmpty();
+
+        sluitAf(ritten.get(2));
+
+        assertThat(exporteerIds(ritten.get(1).getId()))
+                .containsExactly(ritten.get(2).getId(), later.getId());
+    }
+
+    //checkt dat een volledige export ook de afgesloten ritten na een openstaande rit bevat
+    @Test
+    public void testVolledigeExportMetOpenRit() throws Exception {
+        Rit later = new Rit();
+        later.setStarttijd(LocalDateTime.of(2021, 3, 2, 9, 0));
+        later.setEindtijd(LocalDateTime.of(2021, 3, 2, 10, 0));
+        later.setPrijs(BigDecimal.ONE);
+        later.setLidRijksregisternummer(rijks);
+        later.setFietsRegistratienummer(fiets.getRegistratienummer());
+        later.setId(ritDAO.toevoegenRit(later));
+        ritten.add(later);
+
+        assertThat(exporteerIds(null))
+                .contains(ritten.get(0).getId(), ritten.get(1).getId(), later.getId())
+                .doesNotContain(ritten.get(2).getId());
+        //de openstaande rit houdt een incrementele export tegen
+        assertThat(ritDAO.zoekOudsteOpenRit()).isNotNull()
+                .isLessThanOrEqualTo(ritten.get(2).getId());
+        assertThat(exporteerIds(ritten.get(1).getId())).isEmpty();
+    }
+
+    //checkt dat een mislukte export geen (half) bestand achterlaat
+    @Test
+    public void testMisluktExportVerwijdertBestand() throws Exception {
+        try (RitExportBestand kapot = new RitExportBestand(bestand) {
+            @Override
+            protected void schrijf(Rit rit) throws IOException {
+                throw new IOException("schijf vol");
+            }
+        }) {
+            assertThatThrownBy(() -> ritExport.exporteer(ritten.get(0).getId() - 1, kapot))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("schijf vol");
+        }
+
+        assertThat(bestand).doesNotExist();
+    }
+
+    private List<Integer> exporteerIds(Integer naId) throws Exception {
+        try (KolomRitExport kolom = new KolomRitExport(bestand)) {
+            ritExport.exporteer(naId, kolom);
+            kolom.voltooi();
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        KolomRitLezer.lees(bestand, rit -> ids.add(rit.getId()));
+        return ids;
+    }
+
+    private void sluitAf(Rit rit) throws Exception {
+        rit.setEindtijd(rit.getStarttijd().plusHours(1));
+        rit.setPrijs(new BigDecimal(3));
+        ritDAO.afsluitenRit(rit);
+    }
+}
@@ -0,0 +1,131 @@
+package be.vives.ti.importeren;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.extra.VerwijderTestData;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class LedenImportTest {
+
+    private LidDAO lidDAO = new LidDAO();
+    //kleine blokken en meerdere threads, zodat de volgorde over de blokken heen getest wordt
+    private LedenImport ledenImport = new LedenImport(lidDAO, 3, 2);
+
+    private Path bestand;
+    private Path weigeringen;
+
+    /**
+     * Maakt een geldig rijksregisternummer: de eerste 9 cijfers gevolgd door het controlegetal.
+     */
+    private String maakRijksregisternummer(int volgnummer) {
+        int deel1 = 940325000 + volgnummer;
+        return String.format("%09d%02d", deel1, 97 - (deel1 % 97));
+    }
+
+    @Before
+    public void maakBestand() throws Exception {
+        bestand = Files.createTempFile("leden", ".csv");
+        weigeringen = Files.createTempFile("leden", ".geweigerd.csv");
+        Files.write(bestand, Arrays.asList(
+                "rijksregisternummer;voornaam;naam;emailadres;start_lidmaatschap;opmerking",
+                maakRijksregisternummer(1) + ";Jan;Import;jan@hotmail.be;2021-03-01;",
+                maakRijksregisternummer(2) + ";Piet;Import;piet@hotmail.be;;\"met ; scheidingsteken\"",
+                "12345678901;Fout;Import;fout@hotmail.be;;",
+                maakRijksregisternummer(1) + ";Jan;Dubbel;jan@hotmail.be;;",
+                "94010100110;Ward;Vercuyssen;ward@hotmail.be;;",
+                maakRijksregisternummer(3) + ";Joris;Import;joris@hotmail.be;01/03/2021;",
+                maakRijksregisternummer(4) + ";;Import;leeg@hotmail.be;;"), StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void verwijder() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            VerwijderTestData.removeTestLid(new Rijksregisternummer(maakRijksregisternummer(i)));
+        }
+        Files.deleteIfExists(bestand);
+        Files.deleteIfExists(weigeringen);
+    }
+
+    //checkt dat een dry-run alles controleert maar niets wegschrijft
+    @Test
+    public void testDryRun() throws Exception {
+        ImportRapport rapport = ledenImport.importeer(bestand, weigeringen, true, null);
+
+        assertThat(rapport.getGelezen()).isEqualTo(7);
+        assertThat(rapport.getToegevoegd()).isEqualTo(2);
+        assertThat(rapport.getGeweigerd()).isEqualTo(5);
+        assertThat(lidDAO.zoekLid(new Rijksregisternummer(maakRijksregisternummer(1)))).isNull();
+    }
+
+    //checkt dat geldige rijen toegevoegd worden en de andere met hun reden geweigerd
+    @Test
+    public void testImporteer() throws Exception {
+        ImportRapport rapport = ledenImport.importeer(bestand, weigeringen, false, null);
+
+        assertThat(rapport.getToegevoegd()).isEqualTo(2);
+        assertThat(rapport.getGeweigerd()).isEqualTo(5);
+        assertThat(lidDAO.zoekLid(new Rijksregisternummer(maakRijksregisternummer(1))).getNaam()).isEqualTo("Import");
+        assertThat(lidDAO.zoekLid(new Rijksregisternummer(maakRijksregisternummer(2))).getOpmerking()).isEqualTo("met ; scheidingsteken");
+
+        List<String> geweigerd = Files.readAllLines(weigeringen, StandardCharsets.UTF_8);
+        assertThat(geweigerd).hasSize(6);
+        assertThat(geweigerd.get(1)).startsWith("12345678901;")
+                .contains("regel 4: " + ApplicationExceptionType.ONGELDIG_RIJKSNR.getMessage().trim());
+        //regel 2 werd in een vorig blok al toegevoegd
+        assertThat(geweigerd.get(2)).contains("regel 5: " + ApplicationExceptionType.LID_BESTAAT_AL.getMessage().trim());
+        assertThat(geweigerd.get(3)).contains("regel 6: " + ApplicationExceptionType.LID_BESTAAT_AL.getMessage().trim());
+        assertThat(geweigerd.get(4)).contains("regel 7: " + ApplicationExceptionType.IMPORT_ONGELDIGE_DATUM.getMessage().trim());
+        assertThat(geweigerd.get(5)).contains("regel 8: " + ApplicationExceptionType.LID_VOORNAAM_LEEG.getMessage().trim());
+    }
+
+    //checkt dat een dubbel binnen hetzelfde blok als dubbel geweigerd wordt
+    @Test
+    public void testDubbelInBlok() throws Exception {
+        Files.write(bestand, Arrays.asList(
+                "rijksregisternummer;voornaam;naam;emailadres;start_lidmaatschap;opmerking",
+                maakRijksregisternummer(1) + ";Jan;Import;jan@hotmail.be;;",
+                maakRijksregisternummer(1) + ";Jan;Dubbel;jan@hotmail.be;;"), StandardCharsets.UTF_8);
+
+        ImportRapport rapport = ledenImport.importeer(bestand, weigeringen, false, null);
+
+        assertThat(rapport.getToegevoegd()).isEqualTo(1);
+        assertThat(rapport.getGeweigerd()).isEqualTo(1);
+        assertThat(Files.readAllLines(weigeringen, StandardCharsets.UTF_8).get(1))
+                .contains("regel 3: " + ApplicationExceptionType.IMPORT_DUBBEL.getMessage().trim());
+    }
+
+    //checkt dat een dry-run dezelfde rijen om dezelfde reden weigert als de import, ook over de blokken heen
+    @Test
+    public void testDryRunZelfdeWeigeringen() throws Exception {
+        ledenImport.importeer(bestand, weigeringen, true, null);
+        List<String> dryRun = Files.readAllLines(weigeringen, StandardCharsets.UTF_8);
+        assertThat(dryRun.get(2)).contains("regel 5: " + ApplicationExceptionType.LID_BESTAAT_AL.getMessage().trim());
+
+        ledenImport.importeer(bestand, weigeringen, false, null);
+
+        assertThat(Files.readAllLines(weigeringen, StandardCharsets.UTF_8)).isEqualTo(dryRun);
+    }
+
+    //checkt dat een bestand met andere kolommen geweigerd wordt
+    @Test
+    public void testVerkeerdeKopregel() throws Exception {
+        Files.write(bestand, Arrays.asList("naam;voornaam", "Import;Jan"), StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> {
+            ledenImport.importeer(bestand, weigeringen, false, null);
+        }).isInstanceOf(ApplicationException.class)
+                .hasMessage(ApplicationExceptionType.IMPORT_KOPREGEL.getMessage());
+    }
+}
@@ -0,0 +1,122 @@
+package be.vives.ti.jfr;
+
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.RitToelatingControle;
+import be.vives.ti.dao.connect.ConnectionManager;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.service.RitService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class JfrEventsTest {
+
+    @Rule
+    public TemporaryFolder map = new TemporaryFolder();
+
+    private Recording opname;
+
+    @Before
+    public void startOpname() {
+        opname = new Recording();
+        opname.enable(RitStartenEvent.class).withoutThreshold();
+        opname.enable(RitAfsluitenEvent.class).withoutThreshold();
+        opname.enable(ConnectieOphalenEvent.class).withoutThreshold();
+        opname.enable(StatementEvent.class).withoutThreshold();
+        opname.start();
+    }
+
+    @After
+    public void sluitOpname() {
+        opname.close();
+    }
+
+    private List<RecordedEvent> stopEnLees(String naam) throws Exception {
+        opname.stop();
+        Path bestand = map.getRoot().toPath().resolve("opname.jfr");
+        opname.dump(bestand);
+        return RecordingFile.readAllEvents(bestand).stream()
+                .filter(e -> e.getEventType().getName().equals(naam))
+                .collect(Collectors.toList());
+    }
+
+    //checkt dat het starten van een rit een event geeft met gemaskeerd lid, fiets en rit-id
+    @Test
+    public void testRitStarten() throws Exception {
+        RitDAO ritDAO = mock(RitDAO.class);
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class))).thenReturn(42);
+        Rit rit = new Rit();
+        rit.setLidRijksregisternummer(Rijksregisternummer.valueOf("94031820982"));
+        rit.setFietsRegistratienummer(7);
+
+        new RitService(ritDAO).toevoegenRit(rit);
+
+        List<RecordedEvent> events = stopEnLees("be.vives.ti.RitStarten");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getString("lid")).isEqualTo("*********82");
+        assertThat(events.get(0).getInt("fiets")).isEqualTo(7);
+        assertThat(events.get(0).getInt("rit")).isEqualTo(42);
+        assertThat(events.get(0).getString("fout")).isNull();
+    }
+
+    //checkt dat een mislukte afsluiting een event met de foutboodschap geeft
+    @Test
+    public void testRitAfsluitenMislukt() throws Exception {
+        RitService ritService = new RitService(mock(RitDAO.class));
+
+        assertThatThrownBy(() -> ritService.afsluitenRit(5)).isInstanceOf(ApplicationException.class);
+
+        List<RecordedEvent> events = stopEnLees("be.vives.ti.RitAfsluiten");
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getInt("rit")).isEqualTo(5);
+        assertThat(events.get(0).getString("fout"))
+                .isEqualTo(ApplicationExceptionType.RIT_BESTAAT_NIET.getMessage());
+    }
+
+    //checkt dat het ophalen van een connectie en het uitvoeren van een statement events geven
+    @Test
+    public void testConnectieEnStatement() throws Exception {
+        String sql = "select count(*) from information_schema.tables where table_name <> ?";
+        try (Connection conn = ConnectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, "fiets");
+            try (ResultSet r = stmt.executeQuery()) {
+                assertThat(r.next()).isTrue();
+            }
+        }
+        opname.stop();
+        Path bestand = map.getRoot().toPath().resolve("opname.jfr");
+        opname.dump(bestand);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(bestand);
+
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("be.vives.ti.ConnectieOphalen");
+            assertThat(e.getInt("actief")).isGreaterThanOrEqualTo(1);
+            assertThat(e.getString("fout")).isNull();
+        });
+        assertThat(events).anySatisfy(e -> {
+            assertThat(e.getEventType().getName()).isEqualTo("be.vives.ti.Statement");
+            assertThat(e.getString("sql")).isEqualTo(sql);
+            assertThat(e.getLong("rijen")).isEqualTo(1);
+            assertThat(e.getBoolean("mislukt")).isFalse();
+        });
+    }
+}
@@ -0,0 +1,97 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncLidServiceTest {
+
+    private static final String RR = "94031820982";
+
+    private LidDAO lidDAO;
+    private ServiceExecutor executor;
+    private AsyncLidService lidService;
+
+    public AsyncLidServiceTest() {
+        //simulatieobject maken voor LidDAO
+        this.lidDAO = mock(LidDAO.class);
+        this.executor = new ServiceExecutor(1, 1);
+        this.lidService = new AsyncLidService(new LidService(lidDAO), executor);
+    }
+
+    @After
+    public void sluitExecutor() throws Exception {
+        executor.sluiten(1000);
+    }
+
+    //checkt dat het resultaat van de service in de future terechtkomt, berekend op een andere thread
+    @Test
+    public void testZoekLid() throws Exception {
+        Thread oproeper = Thread.currentThread();
+        Thread[] uitvoerder = new Thread[1];
+        when(lidDAO.zoekLid(any(Rijksregisternummer.class))).thenAnswer(i -> {
+            uitvoerder[0] = Thread.currentThread();
+            Lid lid = new Lid();
+            lid.setNaam("Vercruyssen");
+            lid.setStart_lidmaatschap(LocalDate.of(2021, 1, 1));
+            lid.setRijksregisternummer(new Rijksregisternummer(RR));
+            return lid;
+        });
+
+        Lid lid = lidService.zoekLid(RR).get(1, TimeUnit.SECONDS);
+
+        assertThat(lid.getNaam()).isEqualTo("Vercruyssen");
+        assertThat(uitvoerder[0]).isNotSameAs(oproeper);
+    }
+
+    //checkt dat een controle van de service de future laat mislukken met dezelfde exception
+    @Test
+    public void testControleMislukt() throws Exception {
+        CompletableFuture<Lid> oproep = lidService.zoekLid(null);
+
+        assertThatThrownBy(() -> {
+            oproep.get(1, TimeUnit.SECONDS);
+        }).hasCauseInstanceOf(ApplicationException.class)
+                .hasMessageContaining(ApplicationExceptionType.LID_ID.getMessage());
+        verifyZeroInteractions(lidDAO);
+    }
+
+    //checkt dat een oproep meteen mislukt wanneer de thread bezig is en de wachtrij vol zit
+    @Test
+    public void testWachtrijVol() throws Exception {
+        CountDownLatch bezig = new CountDownLatch(1);
+        CountDownLatch vrijgeven = new CountDownLatch(1);
+        executor.voerUit(() -> {
+            bezig.countDown();
+            try {
+                vrijgeven.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        bezig.await();
+        //deze oproep past nog in de wachtrij
+        CompletableFuture<Lid> wachtend = lidService.zoekLid(RR);
+
+        CompletableFuture<Lid> teVeel = lidService.zoekLid(RR);
+
+        assertThat(teVeel.isCompletedExceptionally()).isTrue();
+        assertThatThrownBy(teVeel::join)
+                .hasMessageContaining(ApplicationExceptionType.SERVICE_OVERBELAST.getMessage());
+        vrijgeven.countDown();
+        wachtend.get(1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,144 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.RitToelatingControle;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.FietsToestand;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class BeschikbaarheidsIndexTest {
+
+    private FietsDAO fietsDAO;
+    private RitDAO ritDAO;
+    private BeschikbaarheidsIndex index;
+
+    public BeschikbaarheidsIndexTest() throws Exception {
+        //simulatieobjecten voor FietsDAO en RitDAO
+        this.fietsDAO = mock(FietsDAO.class);
+        this.ritDAO = mock(RitDAO.class);
+
+        //fiets 1 en 2 in Brugge, 3 in Kortrijk; 2 heeft een actieve rit, 4 is in herstel
+        when(fietsDAO.zoekFietsToestanden()).thenReturn(new ArrayList<>(Arrays.asList(
+                maakToestand(1, Standplaats.Brugge, Status.actief, 5, false),
+                maakToestand(2, Standplaats.Brugge, Status.actief, 6, true),
+                maakToestand(3, Standplaats.Kortrijk, Status.actief, null, false),
+                maakToestand(4, Standplaats.Brugge, Status.herstel, null, false))));
+
+        this.index = new BeschikbaarheidsIndex();
+        index.opbouwen(fietsDAO);
+    }
+
+    private FietsToestand maakToestand(int regnr, Standplaats standplaats, Status status,
+                                       Integer laatsteRitId, boolean laatsteRitActief) {
+        FietsToestand toestand = new FietsToestand();
+        toestand.setRegistratienummer(regnr);
+        toestand.setStandplaats(standplaats);
+        toestand.setStatus(status);
+        toestand.setLaatsteRitId(laatsteRitId);
+        toestand.setLaatsteRitActief(laatsteRitActief);
+        return toestand;
+    }
+
+    private Fiets maakFiets(int regnr, Standplaats standplaats, Status status) {
+        Fiets fiets = new Fiets();
+        fiets.setRegistratienummer(regnr);
+        fiets.setStandplaats(standplaats);
+        fiets.setStatus(status);
+        return fiets;
+    }
+
+    //checkt dat de index correct uit de databank opgebouwd wordt
+    @Test
+    public void testOpbouwen() {
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Brugge)).containsExactly(1);
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Kortrijk)).containsExactly(3);
+        assertThat(index.aantalBeschikbaar(Standplaats.Tielt)).isEqualTo(0);
+        assertThat(index.isBeschikbaar(2)).isFalse();
+        assertThat(index.isBeschikbaar(99)).isFalse();
+    }
+
+    //checkt dat starten en afsluiten van een rit via RitService de index bijwerkt
+    @Test
+    public void testRitStartenEnAfsluiten() throws Exception {
+        RitService ritService = new RitService(ritDAO, index);
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class))).thenReturn(10);
+
+        Rit rit = new Rit();
+        rit.setLidRijksregisternummer(new Rijksregisternummer("94031820982"));
+        rit.setFietsRegistratienummer(1);
+        ritService.toevoegenRit(rit);
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Brugge)).isEmpty();
+
+        Rit actief = new Rit();
+        actief.setId(10);
+        actief.setStarttijd(LocalDateTime.now().minusHours(1));
+        actief.setFietsRegistratienummer(1);
+        when(ritDAO.zoekRit(10)).thenReturn(actief);
+        ritService.afsluitenRit(10);
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Brugge)).containsExactly(1);
+    }
+
+    //checkt dat statuswijzigingen en nieuwe fietsen via FietsService de index bijwerken
+    @Test
+    public void testFietsService() throws Exception {
+        FietsService fietsService = new FietsService(fietsDAO, index);
+        when(fietsDAO.zoekFiets(1)).thenReturn(maakFiets(1, Standplaats.Brugge, Status.actief));
+        when(fietsDAO.zoekFiets(4)).thenReturn(maakFiets(4, Standplaats.Brugge, Status.herstel));
+        when(fietsDAO.toevoegenFiets(any(Fiets.class))).thenReturn(5);
+
+        fietsService.wijzigenStatusNaarHerstel(1, null);
+        fietsService.wijzigenStatusNaarActief(4, null);
+        Fiets nieuw = new Fiets();
+        nieuw.setStandplaats(Standplaats.Brugge);
+        fietsService.toevoegenFiets(nieuw);
+
+        assertThat(fietsService.zoekBeschikbareFietsen(Standplaats.Brugge)).containsExactly(4, 5);
+        //zonder databank
+        verify(fietsDAO, never()).zoekAlleBeschikbareFietsen();
+    }
+
+    //checkt dat het afsluiten van een oudere rit, dat na het starten van een nieuwere binnenkomt, genegeerd wordt
+    @Test
+    public void testRitwijzigingenInVerkeerdeVolgorde() {
+        //rit 11 met fiets 1 gestart voor het afsluiten van rit 10 verwerkt werd
+        index.ritGestart(1, 11);
+        index.ritAfgesloten(1, 10);
+        assertThat(index.isBeschikbaar(1)).isFalse();
+
+        //het starten van rit 12 komt pas binnen nadat ze al afgesloten werd
+        index.ritAfgesloten(3, 12);
+        index.ritGestart(3, 12);
+        assertThat(index.isBeschikbaar(3)).isTrue();
+    }
+
+    //checkt dat wijzigingen die binnenkomen terwijl de index opgebouwd wordt niet verloren gaan
+    @Test
+    public void testWijzigingTijdensOpbouwen() throws Exception {
+        //de query ziet rit 6 van fiets 2 nog als actief, maar tijdens het opbouwen wordt ze afgesloten
+        when(fietsDAO.zoekFietsToestanden()).thenAnswer(oproep -> {
+            index.ritAfgesloten(2, 6);
+            index.statusGewijzigd(3, Status.herstel);
+            return new ArrayList<>(Arrays.asList(
+                    maakToestand(1, Standplaats.Brugge, Status.actief, 5, false),
+                    maakToestand(2, Standplaats.Brugge, Status.actief, 6, true),
+                    maakToestand(3, Standplaats.Kortrijk, Status.actief, null, false)));
+        });
+
+        index.opbouwen(fietsDAO);
+
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Brugge)).containsExactly(1, 2);
+        assertThat(index.zoekBeschikbareFietsen(Standplaats.Kortrijk)).isEmpty();
+    }
+}
@@ -0,0 +1,68 @@
+package be.vives.ti.service;
+
+import be.vives.ti.cache.LruCache;
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FietsServiceCacheTest {
+
+    private FietsDAO fietsDAO;
+    private FietsService fietsService;
+    private Status status = Status.actief;
+
+    public FietsServiceCacheTest() throws Exception {
+        //simulatieobject maken voor FietsDAO, dat de laatst opgeslagen status teruggeeft
+        this.fietsDAO = mock(FietsDAO.class);
+        this.fietsService = new FietsService(fietsDAO, null, new LruCache<>(10, null));
+        when(fietsDAO.zoekFiets(1)).thenAnswer(i -> maakFiets());
+        doAnswer(i -> status = i.getArgument(1)).when(fietsDAO).wijzigenToestandFiets(eq(1), any(), any());
+    }
+
+    private Fiets maakFiets() {
+        Fiets fiets = new Fiets();
+        fiets.setRegistratienummer(1);
+        fiets.setStandplaats(Standplaats.Brugge);
+        fiets.setStatus(status);
+        return fiets;
+    }
+
+    //checkt dat een fiets maar 1 keer uit de databank gehaald wordt
+    @Test
+    public void testZoekFietsUitCache() throws Exception {
+        fietsService.zoekFiets(1);
+        fietsService.zoekFiets(1);
+        fietsService.zoekFiets(1).setStatus(Status.herstel);
+
+        verify(fietsDAO, times(1)).zoekFiets(1);
+        assertThat(fietsService.zoekFiets(1).getStatus()).isEqualTo(Status.actief);
+        assertThat(fietsService.getFietsCacheStatistieken().getHitRatio()).isEqualTo(0.75);
+    }
+
+    //checkt dat statuswijzigingen de fiets uit de cache halen, zodat de volgende controle de nieuwe status ziet
+    @Test
+    public void testStatuswijzigingInvalideert() throws Exception {
+        fietsService.wijzigenStatusNaarHerstel(1, null);
+        assertThat(fietsService.zoekFiets(1).getStatus()).isEqualTo(Status.herstel);
+
+        fietsService.wijzigenStatusNaarActief(1, null);
+        assertThat(fietsService.zoekFiets(1).getStatus()).isEqualTo(Status.actief);
+
+        fietsService.wijzigenStatusNaarUitOmloop(1, null);
+        assertThat(fietsService.zoekFiets(1).getStatus()).isEqualTo(Status.uit_omloop);
+    }
+
+    //checkt dat wijzigenOpmerkingFiets de fiets uit de cache haalt
+    @Test
+    public void testWijzigenOpmerkingInvalideert() throws Exception {
+        fietsService.wijzigenOpmerkingFiets(1, "Lekke band");
+        fietsService.zoekFiets(1);
+
+        verify(fietsDAO, times(2)).zoekFiets(1);
+    }
+}
@@ -0,0 +1,86 @@
+package be.vives.ti.service;
+
+import be.vives.ti.cache.LruCache;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.datatype.Rijksregisternummer;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class LidServiceCacheTest {
+
+    private static final String RR = "94031820982";
+
+    private LidDAO lidDAO;
+    private LidService lidService;
+
+    public LidServiceCacheTest() throws Exception {
+        //simulatieobject maken voor LidDAO
+        this.lidDAO = mock(LidDAO.class);
+        this.lidService = new LidService(lidDAO, LidService.STANDAARD_PAGINAGROOTTE,
+                new LruCache<>(10, null));
+        when(lidDAO.zoekLid(any(Rijksregisternummer.class))).thenAnswer(i -> maakLid());
+    }
+
+    private Lid maakLid() throws Exception {
+        Lid lid = new Lid();
+        lid.setVoornaam("Ward");
+        lid.setNaam("Vercruyssen");
+        lid.setEmailadres("ward@hotmail.be");
+        lid.setStart_lidmaatschap(LocalDate.of(2021, 1, 1));
+        lid.setRijksregisternummer(new Rijksregisternummer(RR));
+        return lid;
+    }
+
+    //checkt dat een lid maar 1 keer uit de databank gehaald wordt
+    @Test
+    public void testZoekLidUitCache() throws Exception {
+        lidService.zoekLid(RR);
+        lidService.zoekLid(RR);
+
+        verify(lidDAO, times(1)).zoekLid(any(Rijksregisternummer.class));
+        assertThat(lidService.getLidCacheStatistieken().getHits()).isEqualTo(1);
+    }
+
+    //checkt dat wijzigingen aan een gevonden lid niet in de cache terechtkomen
+    @Test
+    public void testZoekLidGeeftKopie() throws Exception {
+        lidService.zoekLid(RR).setNaam("Gewijzigd");
+
+        assertThat(lidService.zoekLid(RR).getNaam()).isEqualTo("Vercruyssen");
+    }
+
+    //checkt dat wijzigenLid het lid uit de cache haalt
+    @Test
+    public void testWijzigenLidInvalideert() throws Exception {
+        Lid lid = lidService.zoekLid(RR);
+        lid.setNaam("Gewijzigd");
+        lidService.wijzigenLid(lid);
+        lidService.zoekLid(RR);
+
+        //1 keer voor wijzigenLid gevuld, daarna opnieuw na de wijziging
+        verify(lidDAO, times(2)).zoekLid(any(Rijksregisternummer.class));
+    }
+
+    //checkt dat wijzigStartDatumVanLid het lid uit de cache haalt
+    @Test
+    public void testWijzigStartDatumInvalideert() throws Exception {
+        lidService.wijzigStartDatumVanLid(RR, LocalDate.of(2020, 1, 1));
+        lidService.zoekLid(RR);
+
+        verify(lidDAO, times(2)).zoekLid(any(Rijksregisternummer.class));
+    }
+
+    //checkt dat uitschrijvenLid het lid uit de cache haalt
+    @Test
+    public void testUitschrijvenInvalideert() throws Exception {
+        lidService.uitschrijvenLid(RR);
+        lidService.zoekLid(RR);
+
+        verify(lidDAO, times(2)).zoekLid(any(Rijksregisternummer.class));
+    }
+}
@@ -0,0 +1,220 @@
+package be.vives.ti.service;
+
+import be.vives.ti.dao.FietsDAO;
+import be.vives.ti.dao.LidDAO;
+import be.vives.ti.dao.RitDAO;
+import be.vives.ti.databag.Fiets;
+import be.vives.ti.databag.Lid;
+import be.vives.ti.databag.Rit;
+import be.vives.ti.datatype.Rijksregisternummer;
+import be.vives.ti.datatype.Standplaats;
+import be.vives.ti.datatype.Status;
+import be.vives.ti.exception.ApplicationException;
+import be.vives.ti.exception.ApplicationExceptionType;
+import be.vives.ti.extra.VerwijderTestData;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test het starten van ritten vanuit meerdere threads tegelijk, met de echte RitDAO.
+ */
+public class RitServiceConcurrentieTest {
+
+    private static final int AANTAL_THREADS = 16;
+
+    private RitService ritService = new RitService(new RitDAO());
+    private LidDAO lidDAO = new LidDAO();
+    private FietsDAO fietsDAO = new FietsDAO();
+
+    /**
+     * Maakt een geldig rijksregisternummer: de eerste 9 cijfers gevolgd door het controlegetal.
+     */
+    private Rijksregisternummer maakRijksregisternummer(int volgnummer) throws ApplicationException {
+        int deel1 = 940318000 + volgnummer;
+        int controlegetal = 97 - (deel1 % 97);
+        return new Rijksregisternummer(String.format("%09d%02d", deel1, controlegetal));
+    }
+
+    private ArrayList<Lid> maakLeden(int aantal) throws Exception {
+        ArrayList<Lid> leden = new ArrayList<>();
+        for (int i = 0; i < aantal; i++) {
+            Lid lid = new Lid();
+            lid.setVoornaam("Test" + i);
+            lid.setNaam("Concurrentie");
+            lid.setEmailadres("test" + i + "@hotmail.be");
+            lid.setStart_lidmaatschap(LocalDate.now());
+            lid.setRijksregisternummer(maakRijksregisternummer(i));
+            lidDAO.toevoegenLid(lid);
+            leden.add(lid);
+        }
+        return leden;
+    }
+
+    private ArrayList<Fiets> maakFietsen(int aantal) throws Exception {
+        ArrayList<Fiets> fietsen = new ArrayList<>();
+        for (int i = 0; i < aantal; i++) {
+            Fiets fiets = new Fiets();
+            fiets.setStatus(Status.actief);
+            fiets.setStandplaats(Standplaats.Brugge);
+            fiets.setRegistratienummer(fietsDAO.toevoegenFiets(fiets));
+            fietsen.add(fiets);
+        }
+        return fietsen;
+    }
+
+    /**
+     * Start voor elk lid tegelijk een rit en geeft per lid het id van de rit terug,
+     * of null indien de rit geweigerd werd omdat de fiets in gebruik is.
+     */
+    private List<Integer> startGelijktijdig(List<Lid> leden, List<Fiets> fietsen) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(leden.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> resultaten = new ArrayList<>();
+            for (int i = 0; i < leden.size(); i++) {
+                Rit rit = new Rit();
+                rit.setLidRijksregisternummer(new Rijksregisternummer(leden.get(i).getRijksregisternummer()));
+                rit.setFietsRegistratienummer(fietsen.get(i % fietsen.size()).getRegistratienummer());
+
+                Callable<Integer> poging = () -> {
+                    start.await();
+                    try {
+                        return ritService.toevoegenRit(rit);
+                    } catch (ApplicationException ae) {
+                        assertThat(ae).hasMessage(ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage());
+                        return null;
+                    }
+                };
+                resultaten.add(executor.submit(poging));
+            }
+
+            //alle threads tegelijk laten vertrekken
+            start.countDown();
+
+            List<Integer> ritIds = new ArrayList<>();
+            for (Future<Integer> resultaat : resultaten) {
+                ritIds.add(resultaat.get());
+            }
+            return ritIds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void verwijder(List<Integer> ritIds, ArrayList<Lid> leden, ArrayList<Fiets> fietsen) throws Exception {
+        for (Integer ritId : ritIds) {
+            if (ritId != null) {
+                VerwijderTestData.removeTestRit(ritId);
+            }
+        }
+        VerwijderTestData.removeTestLeden(leden);
+        VerwijderTestData.removeTestFietsen(fietsen);
+    }
+
+    //checkt dat maar 1 lid de fiets kan huren wanneer iedereen tegelijk dezelfde fiets probeert
+    @Test
+    public void testZelfdeFietsMaar1Winnaar() throws Exception {
+        ArrayList<Lid> leden = maakLeden(AANTAL_THREADS);
+        ArrayList<Fiets> fietsen = maakFietsen(1);
+        List<Integer> ritIds = new ArrayList<>();
+
+        try {
+            ritIds = startGelijktijdig(leden, fietsen);
+
+            assertThat(ritIds.stream().filter(id -> id != null).count()).isEqualTo(1);
+            assertThat(ritService.zoekActieveRitVanFiets(fietsen.get(0).getRegistratienummer()))
+                    .isIn(ritIds);
+        } finally {
+            verwijder(ritIds, leden, fietsen);
+        }
+    }
+
+    //checkt dat ritten voor verschillende fietsen elkaar niet tegenhouden
+    @Test
+    public void testVerschillendeFietsenSlagenAllemaal() throws Exception {
+        ArrayList<Lid> leden = maakLeden(AANTAL_THREADS);
+        ArrayList<Fiets> fietsen = maakFietsen(AANTAL_THREADS);
+        List<Integer> ritIds = new ArrayList<>();
+
+        try {
+            ritIds = startGelijktijdig(leden, fietsen);
+
+            assertThat(ritIds).doesNotContainNull().hasSize(AANTAL_THREADS);
+        } finally {
+            verwijder(ritIds, leden, fietsen);
+        }
+    }
+
+    //checkt dat de index juist blijft wanneer een fiets teruggebracht en meteen opnieuw uitgeleend wordt
+    @Test
+    public void testIndexBijTerugbrengenEnUitlenen() throws Exception {
+        ArrayList<Lid> leden = maakLeden(2);
+        ArrayList<Fiets> fietsen = maakFietsen(1);
+        int regnr = fietsen.get(0).getRegistratienummer();
+        List<Integer> ritIds = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            BeschikbaarheidsIndex index = new BeschikbaarheidsIndex();
+            index.opbouwen(fietsDAO);
+            RitService metIndex = new RitService(new RitDAO(), index);
+
+            Integer actieveRit = metIndex.toevoegenRit(maakRit(leden.get(0), regnr));
+            ritIds.add(actieveRit);
+            for (int ronde = 1; ronde <= 20; ronde++) {
+                //het andere lid leent de fiets zodra ze teruggebracht is
+                Lid volgende = leden.get(ronde % 2);
+                Integer terug = actieveRit;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> afsluiten = executor.submit(() -> {
+                    start.await();
+                    metIndex.afsluitenRit(terug);
+                    return null;
+                });
+                Future<Integer> uitlenen = executor.submit(() -> {
+                    start.await();
+                    long einde = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                    while (true) {
+                        try {
+                            return metIndex.toevoegenRit(maakRit(volgende, regnr));
+                        } catch (ApplicationException ae) {
+                            assertThat(ae).hasMessage(ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage());
+                            assertThat(System.nanoTime()).as("fiets blijft in gebruik").isLessThan(einde);
+                            Thread.yield();
+                        }
+                    }
+                });
+                start.countDown();
+                afsluiten.get(10, TimeUnit.SECONDS);
+                actieveRit = uitlenen.get(20, TimeUnit.SECONDS);
+                ritIds.add(actieveRit);
+
+                assertThat(index.isBeschikbaar(regnr)).isFalse();
+            }
+
+            metIndex.afsluitenRit(actieveRit);
+            assertThat(index.isBeschikbaar(regnr)).isTrue();
+        } finally {
+            executor.shutdownNow();
+            verwijder(ritIds, leden, fietsen);
+        }
+    }
+
+    private Rit maakRit(Lid lid, int regnr) throws ApplicationException {
+        Rit rit = new Rit();
+        rit.setLidRijksregisternummer(new Rijksregisternummer(lid.getRijksregisternummer()));
+        rit.setFietsRegistratienummer(regnr);
+        return rit;
+    }
+}
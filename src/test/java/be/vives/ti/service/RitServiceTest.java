@@ -1,9 +1,11 @@
 package be.vives.ti.service;
 
 import be.vives.ti.dao.RitDAO;
+import be.vives.ti.dao.RitToelatingControle;
 import be.vives.ti.databag.Fiets;
 import be.vives.ti.databag.Lid;
 import be.vives.ti.databag.Rit;
+import be.vives.ti.databag.RitToelating;
 import be.vives.ti.datatype.Rijksregisternummer;
 import be.vives.ti.datatype.Standplaats;
 import be.vives.ti.datatype.Status;
@@ -22,14 +24,12 @@ public class RitServiceTest {
 
     private RitService ritService;
     private RitDAO ritDAO;
-    private LidService lidService;
-    private FietsService fietsService;
+    //wordt true wanneer de gesimuleerde RitDAO de rit na de controle toevoegt
+    private boolean ingevoegd;
 
     public RitServiceTest() {
-        //simulatieobject maken voor RitDAO, LidService en FietsService.
+        //simulatieobject maken voor RitDAO
         this.ritDAO = mock(RitDAO.class);
-        this.lidService = mock(LidService.class);
-        this.fietsService = mock(FietsService.class);
 
         this.ritService = new RitService(ritDAO);
     }
@@ -95,6 +95,27 @@ public class RitServiceTest {
         return rit;
     }
 
+    /**
+     * Simuleert de toestand van lid en fiets die RitDAO in 1 query ophaalt
+     * en voert de controle van de service erop uit.
+     */
+    private void mockToelating(boolean lidBestaat, LocalDate einde, boolean lidActieveRit,
+                               Status fietsStatus, boolean fietsActieveRit) throws Exception {
+        RitToelating toelating = new RitToelating();
+        toelating.setLidBestaat(lidBestaat);
+        toelating.setLidEinde_lidmaatschap(einde);
+        toelating.setLidHeeftActieveRit(lidActieveRit);
+        toelating.setFietsStatus(fietsStatus);
+        toelating.setFietsHeeftActieveRit(fietsActieveRit);
+
+        when(ritDAO.toevoegenRit(any(Rit.class), any(RitToelatingControle.class))).thenAnswer(invocation -> {
+            RitToelatingControle controle = invocation.getArgument(1);
+            controle.controleer(toelating);
+            ingevoegd = true;
+            return 123;
+        });
+    }
+
     @Test
     public void toevoegenRitNull() throws Exception {
 
@@ -102,7 +123,7 @@ public class RitServiceTest {
             ritService.toevoegenRit(null);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_NULL.getMessage());
 
-        verify(ritDAO,never()).toevoegenRit(null);
+        verify(ritDAO, never()).toevoegenRit(any(Rit.class), any(RitToelatingControle.class));
     }
 
     @Test
@@ -124,7 +145,7 @@ public class RitServiceTest {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_ID_WORDT_GEGENEREERD.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        verify(ritDAO, never()).toevoegenRit(any(Rit.class), any(RitToelatingControle.class));
     }
 
     @Test
@@ -139,14 +160,16 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid niet gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(null);
+        //toelating uit de database simuleren: lid niet gevonden wordt
+        mockToelating(false, null, false, null, false);
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.LID_BESTAAT_NIET.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -165,14 +188,16 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
+        //toelating uit de database simuleren: lid uitgeschreven is
+        mockToelating(true, date, false, Status.actief, false);
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.LID_UITGESCHREVEN.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -187,17 +212,16 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
-        //mocken dat lid actieve ritten heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(123);
+        //toelating uit de database simuleren: lid een actieve rit heeft
+        mockToelating(true, null, true, Status.actief, false);
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.LID_HEEFT_ACTIEVE_RITTEN.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -212,20 +236,16 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
-        //mocken lid geen actieve rit heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(null);
-
-        //mocken dat fiets niet gevonden wordt
-        when(fietsService.zoekFiets(rit.getFietsRegistratienummer())).thenReturn(null);
+        //toelating uit de database simuleren: fiets niet gevonden wordt
+        mockToelating(true, null, false, null, false);
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.FIETS_BESTAAT_NIET.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -240,23 +260,19 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
-        //mocken lid geen actieve rit heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(null);
-
-        //mocken dat fiets gevonden
-        when(fietsService.zoekFiets(rit.getFietsRegistratienummer())).thenReturn(fiets);
-
         //mocken dat fiets verkeerde status heeft
         fiets.setStatus(Status.herstel);
 
+        //toelating uit de database simuleren: fiets verkeerde status heeft
+        mockToelating(true, null, false, Status.herstel, false);
+
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.FIETS_NIET_CORRECTE_STATUS.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -271,23 +287,16 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
-        //mocken lid geen actieve rit heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(null);
-
-        //mocken dat fiets gevonden
-        when(fietsService.zoekFiets(rit.getFietsRegistratienummer())).thenReturn(fiets);
-
-        //mocken dat fiets actieve rit heeft
-        when(ritService.zoekActieveRitVanFiets(rit.getFietsRegistratienummer())).thenReturn(123);
+        //toelating uit de database simuleren: fiets een actieve rit heeft
+        mockToelating(true, null, false, Status.actief, true);
 
         assertThatThrownBy(() -> {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.FIETS_IN_GEBRUIK.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        //de controle gooit de exception voor de rit toegevoegd wordt
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isFalse();
     }
 
     @Test
@@ -302,18 +311,6 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
-        //mocken lid geen actieve rit heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(null);
-
-        //mocken dat fiets gevonden
-        when(fietsService.zoekFiets(rit.getFietsRegistratienummer())).thenReturn(fiets);
-
-        //mocken dat fiets geen actieve rit heeft
-        when(ritService.zoekActieveRitVanFiets(rit.getFietsRegistratienummer())).thenReturn(null);
-
         //mocken dat rit al is afgesloten
         LocalDateTime date = LocalDateTime.of(2020, 12, 29, 18, 0);
         rit.setEindtijd(date);
@@ -322,7 +319,7 @@ public class RitServiceTest {
             ritService.toevoegenRit(rit);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
 
-        verify(ritDAO, never()).toevoegenRit(rit);
+        verify(ritDAO, never()).toevoegenRit(any(Rit.class), any(RitToelatingControle.class));
     }
 
     @Test
@@ -337,21 +334,13 @@ public class RitServiceTest {
 
         Rit rit = maakRit(rijks, fiets.getRegistratienummer());
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
+        //toelating uit de database simuleren: lid en fiets in orde
+        mockToelating(true, null, false, Status.actief, false);
 
-        //mocken lid geen actieve rit heeft
-        when(ritService.zoekActieveRitVanLid(rit.getLidRijksregisternummer())).thenReturn(null);
+        assertThat(ritService.toevoegenRit(rit)).isEqualTo(123);
 
-        //mocken dat fiets gevonden
-        when(fietsService.zoekFiets(rit.getFietsRegistratienummer())).thenReturn(fiets);
-
-        //mocken dat fiets geen actieve rit heeft
-        when(ritService.zoekActieveRitVanFiets(rit.getFietsRegistratienummer())).thenReturn(null);
-
-        assertThatCode(() -> {
-            ritService.toevoegenRit(rit);
-        }).doesNotThrowAnyException();
+        verify(ritDAO).toevoegenRit(eq(rit), any(RitToelatingControle.class));
+        assertThat(ingevoegd).isTrue();
     }
 
     @Test
@@ -360,7 +349,7 @@ public class RitServiceTest {
             ritService.afsluitenRit(null);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_NULL.getMessage());
 
-        verify(ritDAO,never()).afsluitenRit(null);
+        verify(ritDAO,never()).afsluitenActieveRit(null);
     }
 
     @Test
@@ -369,7 +358,7 @@ public class RitServiceTest {
             ritService.afsluitenRit(123);
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_BESTAAT_NIET.getMessage());
 
-        verify(ritDAO,never()).afsluitenRit(null);
+        verify(ritDAO,never()).afsluitenActieveRit(null);
     }
 
     @Test
@@ -396,7 +385,7 @@ public class RitServiceTest {
             ritService.afsluitenRit(rit.getId());
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_NIET_GESTART.getMessage());
 
-        verify(ritDAO,never()).afsluitenRit(rit);
+        verify(ritDAO,never()).afsluitenActieveRit(rit);
     }
 
     @Test
@@ -424,7 +413,7 @@ public class RitServiceTest {
             ritService.afsluitenRit(rit.getId());
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_AL_AFGESLOTEN.getMessage());
 
-        verify(ritDAO,never()).afsluitenRit(rit);
+        verify(ritDAO,never()).afsluitenActieveRit(rit);
     }
 
     @Test
@@ -451,7 +440,7 @@ public class RitServiceTest {
             ritService.afsluitenRit(rit.getId());
         }).isInstanceOf(ApplicationException.class).hasMessage(ApplicationExceptionType.RIT_PRIJS_AL_BEPAALD.getMessage());
 
-        verify(ritDAO,never()).afsluitenRit(rit);
+        verify(ritDAO,never()).afsluitenActieveRit(rit);
     }
 
     @Test
@@ -474,6 +463,12 @@ public class RitServiceTest {
         assertThatCode(() -> {
             ritService.afsluitenRit(rit.getId());
         }).doesNotThrowAnyException();
+
+        //rit wordt 1 keer opgehaald en hetzelfde object wordt afgesloten
+        verify(ritDAO, times(1)).zoekRit(ritId);
+        verify(ritDAO).afsluitenActieveRit(rit);
+        assertThat(rit.getEindtijd()).isNotNull();
+        assertThat(rit.getPrijs()).isNotNull();
     }
 
     @Test
@@ -567,9 +562,6 @@ public class RitServiceTest {
         rit.setId(ritId);
         String rr = lid.getRijksregisternummer();
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
         when(ritDAO.zoekEersteRitVanLid(rr)).thenReturn(ritId);
 
         assertThat(ritService.zoekEersteRitVanLid(rr)).isEqualTo(ritId);
@@ -610,9 +602,6 @@ public class RitServiceTest {
         rit.setId(ritId);
         String rr = lid.getRijksregisternummer();
 
-        //mocken dat lid gevonden wordt
-        when(lidService.zoekLid(lid.getRijksregisternummer())).thenReturn(lid);
-
         when(ritDAO.zoekActieveRitVanLid(rr)).thenReturn(ritId);
 
         assertThat(ritService.zoekActieveRitVanLid(rr)).isEqualTo(ritId);
@@ -651,9 +640,6 @@ public class RitServiceTest {
         rit.setId(ritId);
         Integer rr = fiets.getRegistratienummer();
 
-        //mocken dat lid gevonden wordt
-        when(fietsService.zoekFiets(fiets.getRegistratienummer())).thenReturn(fiets);
-
         when(ritDAO.zoekActieveRitVanFiets(rr)).thenReturn(ritId);
 
         assertThat(ritService.zoekActieveRitVanFiets(rr)).isEqualTo(ritId);
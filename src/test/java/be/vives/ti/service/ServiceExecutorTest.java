@@ -0,0 +1,76 @@
+package be.vives.ti.service;
+
+import be.vives.ti.exception.ApplicationExceptionType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ServiceExecutorTest {
+
+    private ServiceExecutor executor = ServiceExecutor.virtueel(2, 50);
+
+    @After
+    public void sluitExecutor() throws Exception {
+        executor.sluiten(1000);
+    }
+
+    //checkt dat in de virtuele modus nooit meer dan maxGelijktijdig oproepen tegelijk uitvoeren
+    @Test
+    public void testVirtueelBegrensd() throws Exception {
+        AtomicInteger bezig = new AtomicInteger();
+        AtomicInteger maximum = new AtomicInteger();
+        List<CompletableFuture<Integer>> oproepen = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            int nummer = i;
+            oproepen.add(executor.voerUit(() -> {
+                maximum.accumulateAndGet(bezig.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                bezig.decrementAndGet();
+                return nummer;
+            }));
+        }
+
+        for (int i = 0; i < oproepen.size(); i++) {
+            assertThat(oproepen.get(i).get(1, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        assertThat(maximum.get()).isBetween(1, 2);
+    }
+
+    //checkt dat de virtuele modus oproepen weigert zodra de wachtrij vol zit
+    @Test
+    public void testVirtueelWachtrijVol() throws Exception {
+        ServiceExecutor klein = ServiceExecutor.virtueel(1, 1);
+        CountDownLatch vrijgeven = new CountDownLatch(1);
+        CompletableFuture<Void> bezig = klein.voerUit(() -> {
+            try {
+                vrijgeven.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        CompletableFuture<Void> wachtend = klein.voerUit(() -> null);
+
+        CompletableFuture<Void> teVeel = klein.voerUit(() -> null);
+
+        assertThatThrownBy(teVeel::join)
+                .hasMessageContaining(ApplicationExceptionType.SERVICE_OVERBELAST.getMessage());
+        vrijgeven.countDown();
+        bezig.get(1, TimeUnit.SECONDS);
+        wachtend.get(1, TimeUnit.SECONDS);
+        klein.sluiten(1000);
+    }
+}